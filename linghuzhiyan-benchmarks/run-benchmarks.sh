@@ -0,0 +1,38 @@
+#!/usr/bin/env bash
+# 构建并运行 JMH 基准，结果以 JSON 保存到 results/<提交号>.json
+# 用法: ./run-benchmarks.sh [基线提交号] [-- JMH参数，例如 JwtBenchmark -f 1]
+set -euo pipefail
+
+MODULE_DIR="$(cd "$(dirname "$0")" && pwd)"
+ROOT_DIR="$(dirname "$MODULE_DIR")"
+
+BASELINE=""
+if [[ $# -gt 0 && "$1" != "--" ]]; then
+    BASELINE="$1"
+    shift
+fi
+if [[ $# -gt 0 && "$1" == "--" ]]; then
+    shift
+fi
+
+COMMIT="$(git -C "$ROOT_DIR" rev-parse --short HEAD)"
+if [[ -n "$(git -C "$ROOT_DIR" status --porcelain --untracked-files=no)" ]]; then
+    COMMIT="${COMMIT}-dirty"
+fi
+RESULT_FILE="$MODULE_DIR/results/${COMMIT}.json"
+
+mvn -B -q -f "$ROOT_DIR/pom.xml" -Pbenchmarks -pl linghuzhiyan-benchmarks -am -DskipTests package
+
+mkdir -p "$MODULE_DIR/results"
+java -jar "$MODULE_DIR/target/benchmarks.jar" -rf json -rff "$RESULT_FILE" "$@"
+echo "基准结果已保存到 $RESULT_FILE"
+
+if [[ -n "$BASELINE" ]]; then
+    BASELINE_FILE="$MODULE_DIR/results/${BASELINE}.json"
+    if [[ ! -f "$BASELINE_FILE" ]]; then
+        echo "找不到基线结果 $BASELINE_FILE" >&2
+        exit 2
+    fi
+    java -cp "$MODULE_DIR/target/benchmarks.jar" org.linghu.benchmarks.ResultComparison \
+        "$BASELINE_FILE" "$RESULT_FILE"
+fi
@@ -0,0 +1,90 @@
+package org.linghu.benchmarks;
+
+import org.linghu.experiment.evaluation.AnswerKey;
+import org.linghu.experiment.utils.AnswerUtils;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 学生答题判分基准：预编译答案（AnswerKey）的比较与 AnswerUtils 字符串标准化
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AnswerComparisonBenchmark {
+
+    private AnswerKey.QuestionKey englishKey;
+    private AnswerKey.QuestionKey chineseKey;
+    private AnswerKey.QuestionKey choiceKey;
+    private AnswerKey.QuestionKey objectKey;
+    private Map<String, Object> expectedAnswers;
+
+    private String englishActual;
+    private String chineseActual;
+    private List<String> choiceActual;
+    private Map<String, Object> objectActual;
+    private String longText;
+
+    @Setup
+    public void setUp() {
+        expectedAnswers = new LinkedHashMap<>();
+        expectedAnswers.put("english", "  Hash Table, O(1) lookup!  ");
+        expectedAnswers.put("chinese", "中华人民共和国，成立于１９４９年。");
+        expectedAnswers.put("choice", List.of("A", "C", "D"));
+        expectedAnswers.put("object", Map.of("blank1", "栈", "blank2", "队列", "blank3", "FIFO",
+                "blank4", List.of("A", "B")));
+        Map<String, AnswerKey.QuestionKey> keys = new LinkedHashMap<>();
+        AnswerKey.compile(expectedAnswers).getQuestions().forEach(key -> keys.put(key.questionId(), key));
+        englishKey = keys.get("english");
+        chineseKey = keys.get("chinese");
+        choiceKey = keys.get("choice");
+        objectKey = keys.get("object");
+
+        englishActual = "hash table o1   lookup";
+        chineseActual = "中华人民共和国成立于1949年";
+        choiceActual = List.of("d", "a", "c");
+        objectActual = Map.of("blank1", "栈。", "blank2", "队列", "blank3", "fifo", "blank4", List.of("b", "a"));
+        longText = "  在操作系统中，进程（Process）是资源分配的基本单位；线程（Thread）是 CPU 调度的基本单位。  "
+                .repeat(8);
+    }
+
+    @Benchmark
+    public boolean compareEnglishString() {
+        return englishKey.matches(englishActual);
+    }
+
+    @Benchmark
+    public boolean compareChineseString() {
+        return chineseKey.matches(chineseActual);
+    }
+
+    @Benchmark
+    public boolean compareMultipleChoice() {
+        return choiceKey.matches(choiceActual);
+    }
+
+    @Benchmark
+    public boolean compareObjectAnswer() {
+        return objectKey.matches(objectActual);
+    }
+
+    @Benchmark
+    public String normalizeLongText() {
+        return AnswerUtils.normalize(longText);
+    }
+
+    /**
+     * 构建预编译答案的开销，缓存未命中时发生
+     */
+    @Benchmark
+    public AnswerKey compileAnswerKey() {
+        return AnswerKey.compile(expectedAnswers);
+    }
+}
@@ -0,0 +1,69 @@
+package org.linghu.benchmarks;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+
+/**
+ * 基准测试辅助方法
+ * <p>
+ * 被测代码多为服务中的私有方法，这里在 {@code @Setup} 阶段通过反射一次性取得方法句柄，
+ * 避免反射查找的开销进入测量结果。
+ */
+final class BenchmarkSupport {
+
+    private BenchmarkSupport() {
+    }
+
+    /**
+     * 用全null参数调用类的构造方法，适用于被测方法不依赖注入字段的服务类
+     *
+     * @param type 服务类
+     * @return 服务实例
+     */
+    static <T> T newInstanceWithNullDependencies(Class<T> type) {
+        try {
+            @SuppressWarnings("unchecked")
+            Constructor<T> constructor = (Constructor<T>) type.getDeclaredConstructors()[0];
+            constructor.setAccessible(true);
+            return constructor.newInstance(new Object[constructor.getParameterCount()]);
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("无法创建 " + type.getName() + " 实例", e);
+        }
+    }
+
+    /**
+     * 获取私有方法的句柄，并绑定到给定实例
+     *
+     * @param target         实例
+     * @param name           方法名
+     * @param parameterTypes 参数类型
+     * @return 已绑定实例的方法句柄
+     */
+    static MethodHandle privateMethod(Object target, String name, Class<?>... parameterTypes) {
+        try {
+            MethodHandles.Lookup lookup = MethodHandles.privateLookupIn(target.getClass(), MethodHandles.lookup());
+            return lookup.unreflect(target.getClass().getDeclaredMethod(name, parameterTypes)).bindTo(target);
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("无法访问方法 " + target.getClass().getName() + "#" + name, e);
+        }
+    }
+
+    /**
+     * 设置私有字段，用于填充 {@code @Value} 注入的配置
+     *
+     * @param target 实例
+     * @param name   字段名
+     * @param value  字段值
+     */
+    static void setField(Object target, String name, Object value) {
+        try {
+            Field field = target.getClass().getDeclaredField(name);
+            field.setAccessible(true);
+            field.set(target, value);
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("无法设置字段 " + target.getClass().getName() + "#" + name, e);
+        }
+    }
+}
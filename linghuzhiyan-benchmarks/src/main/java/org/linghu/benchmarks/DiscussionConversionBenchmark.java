@@ -0,0 +1,87 @@
+package org.linghu.benchmarks;
+
+import org.linghu.discussion.domain.Discussion;
+import org.linghu.discussion.dto.DiscussionResponseDTO;
+import org.linghu.discussion.service.impl.DiscussionServiceImpl;
+import org.openjdk.jmh.annotations.*;
+
+import java.lang.invoke.MethodHandle;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 讨论列表基准：DiscussionServiceImpl.convertToResponseDTO 的开销
+ * <p>
+ * 点赞状态在转换前按页批量查询后传入，转换本身与点赞人数无关；likeCount 参数用于确认这一点。
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DiscussionConversionBenchmark {
+
+    // 讨论列表默认每页条数
+    private static final int PAGE_SIZE = 10;
+
+    @Param({"0", "100", "10000", "100000"})
+    private long likeCount;
+
+    private MethodHandle convertToResponseDTO;
+    private List<Discussion> page;
+    private String viewerUserId;
+
+    @Setup
+    public void setUp() {
+        DiscussionServiceImpl service = BenchmarkSupport.newInstanceWithNullDependencies(DiscussionServiceImpl.class);
+        convertToResponseDTO = BenchmarkSupport.privateMethod(service, "convertToResponseDTO",
+                Discussion.class, String.class, boolean.class);
+        viewerUserId = "user-viewer";
+
+        page = new ArrayList<>(PAGE_SIZE);
+        for (int i = 0; i < PAGE_SIZE; i++) {
+            page.add(Discussion.builder()
+                    .id("discussion-" + i)
+                    .title("关于实验" + i + "的讨论")
+                    .content("实验中遇到的问题与解决思路。".repeat(20))
+                    .userId("author-" + i)
+                    .username("作者" + i)
+                    .tags(List.of("实验", "求助"))
+                    .experimentId("exp-1")
+                    .status(Discussion.DiscussionStatus.APPROVED)
+                    .likeCount(likeCount)
+                    .lastActivityTime(LocalDateTime.now())
+                    .build());
+        }
+    }
+
+    @Benchmark
+    public DiscussionResponseDTO convertForViewerNotLiked() throws Throwable {
+        return (DiscussionResponseDTO) convertToResponseDTO.invokeExact(page.get(0), viewerUserId, false);
+    }
+
+    @Benchmark
+    public DiscussionResponseDTO convertForViewerLiked() throws Throwable {
+        return (DiscussionResponseDTO) convertToResponseDTO.invokeExact(page.get(0), viewerUserId, true);
+    }
+
+    @Benchmark
+    public DiscussionResponseDTO convertForAnonymous() throws Throwable {
+        return (DiscussionResponseDTO) convertToResponseDTO.invokeExact(page.get(0), (String) null, false);
+    }
+
+    /**
+     * 转换一整页讨论，对应列表接口的一次请求
+     */
+    @Benchmark
+    public List<DiscussionResponseDTO> convertPage() throws Throwable {
+        List<DiscussionResponseDTO> result = new ArrayList<>(PAGE_SIZE);
+        for (Discussion discussion : page) {
+            result.add((DiscussionResponseDTO) convertToResponseDTO.invokeExact(discussion, viewerUserId, false));
+        }
+        return result;
+    }
+}
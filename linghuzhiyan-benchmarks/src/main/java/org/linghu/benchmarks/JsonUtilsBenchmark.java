@@ -0,0 +1,88 @@
+package org.linghu.benchmarks;
+
+import org.linghu.experiment.judge.JudgeConfig;
+import org.linghu.experiment.judge.TestCaseResult;
+import org.linghu.experiment.utils.JsonUtils;
+import org.openjdk.jmh.annotations.*;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JSON解析基准：JsonUtils.parseObject 在答题、判分和代码评测中解析的典型载荷
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JsonUtilsBenchmark {
+
+    /**
+     * 每份载荷中的条目数：题目数、答案数或测试用例数
+     */
+    @Param({"10", "100"})
+    private int size;
+
+    private String questionIdsJson;
+    private String userAnswerJson;
+    private String judgeConfigJson;
+    private String caseResultsJson;
+
+    @Setup
+    public void setUp() {
+        List<String> questionIds = new ArrayList<>();
+        Map<String, Object> userAnswer = new LinkedHashMap<>();
+        List<JudgeConfig.TestCase> testCases = new ArrayList<>();
+        List<TestCaseResult> caseResults = new ArrayList<>();
+        for (int i = 0; i < size; i++) {
+            String questionId = UUID.nameUUIDFromBytes(("question-" + i).getBytes()).toString();
+            questionIds.add(questionId);
+            userAnswer.put(questionId, i % 3 == 0 ? List.of("A", "C") : "第" + i + "题的答案");
+            testCases.add(JudgeConfig.TestCase.builder()
+                    .name("case" + i)
+                    .input(i + " " + (i + 1) + "\n")
+                    .expectedOutput((2 * i + 1) + "\n")
+                    .timeLimit(1000L)
+                    .memoryLimit(256L * 1024 * 1024)
+                    .score(BigDecimal.valueOf(100).divide(BigDecimal.valueOf(size), 2, RoundingMode.HALF_UP))
+                    .build());
+            caseResults.add(TestCaseResult.builder()
+                    .name("case" + i)
+                    .status("Accepted")
+                    .passed(true)
+                    .score(BigDecimal.ONE)
+                    .maxScore(BigDecimal.ONE)
+                    .time(12_000_000L)
+                    .memory(8L * 1024 * 1024)
+                    .build());
+        }
+        questionIdsJson = JsonUtils.toJsonString(questionIds);
+        userAnswerJson = JsonUtils.toJsonString(userAnswer);
+        judgeConfigJson = JsonUtils.toJsonString(JudgeConfig.builder().testCases(testCases).build());
+        caseResultsJson = JsonUtils.toJsonString(caseResults);
+    }
+
+    @Benchmark
+    public List<?> parseQuestionIds() {
+        return JsonUtils.parseObject(questionIdsJson, List.class);
+    }
+
+    @Benchmark
+    public Map<?, ?> parseUserAnswer() {
+        return JsonUtils.parseObject(userAnswerJson, Map.class);
+    }
+
+    @Benchmark
+    public JudgeConfig parseJudgeConfig() {
+        return JsonUtils.parseObject(judgeConfigJson, JudgeConfig.class);
+    }
+
+    @Benchmark
+    public TestCaseResult[] parseCaseResults() {
+        return JsonUtils.parseObject(caseResultsJson, TestCaseResult[].class);
+    }
+}
@@ -0,0 +1,65 @@
+package org.linghu.benchmarks;
+
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import org.linghu.experiment.config.JwtTokenProvider;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.security.core.Authentication;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 请求鉴权基准：每个请求都会经过的 JwtTokenProvider.validateToken 与 getAuthentication
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JwtBenchmark {
+
+    // 与 JwtTokenProvider 中 jwt.secret 的默认值一致
+    private static final String SECRET = "linghuzhiyan-universal-jwt-secret-key-2025-shared-across-all-microservices";
+
+    private JwtTokenProvider jwtTokenProvider;
+    private String token;
+
+    @Setup
+    public void setUp() {
+        jwtTokenProvider = new JwtTokenProvider();
+        BenchmarkSupport.setField(jwtTokenProvider, "jwtSecret", SECRET);
+        BenchmarkSupport.setField(jwtTokenProvider, "tokenHeader", "Authorization");
+        BenchmarkSupport.setField(jwtTokenProvider, "tokenHead", "Bearer");
+
+        long now = System.currentTimeMillis();
+        token = Jwts.builder()
+                .setSubject("student001")
+                .claim("userId", "2f0c1a9e-6f3b-4f7e-9a55-3c7d2b1e8a40")
+                .claim("roles", "ROLE_STUDENT,ROLE_USER")
+                .setIssuedAt(new Date(now))
+                .setExpiration(new Date(now + TimeUnit.DAYS.toMillis(7)))
+                .signWith(Keys.hmacShaKeyFor(SECRET.getBytes(StandardCharsets.UTF_8)))
+                .compact();
+    }
+
+    @Benchmark
+    public Boolean validateToken() {
+        return jwtTokenProvider.validateToken(token);
+    }
+
+    @Benchmark
+    public Authentication getAuthentication() {
+        return jwtTokenProvider.getAuthentication(token);
+    }
+
+    /**
+     * 过滤器中的实际调用顺序：先校验再解析认证信息
+     */
+    @Benchmark
+    public Authentication validateAndAuthenticate() {
+        return jwtTokenProvider.validateToken(token) ? jwtTokenProvider.getAuthentication(token) : null;
+    }
+}
@@ -0,0 +1,105 @@
+package org.linghu.benchmarks;
+
+import org.linghu.experiment.config.RedisCacheConfig;
+import org.linghu.experiment.constants.TaskType;
+import org.linghu.experiment.domain.Experiment;
+import org.linghu.experiment.dto.ExperimentDTO;
+import org.linghu.experiment.dto.ExperimentTaskDTO;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.data.redis.serializer.Jackson2JsonRedisSerializer;
+
+import java.lang.invoke.MethodHandle;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Redis缓存序列化基准：RedisCacheConfig 中配置的 Jackson2JsonRedisSerializer（带类型信息的 JSON）
+ * <p>
+ * 该序列化器的 ObjectMapper 未注册 Java 时间模块，样例对象中的时间字段保持为空。
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RedisSerializerBenchmark {
+
+    private static final int TASK_COUNT = 10;
+
+    private MethodHandle createJsonSerializer;
+    private Jackson2JsonRedisSerializer<Object> serializer;
+    private ExperimentDTO experiment;
+    private List<ExperimentTaskDTO> tasks;
+    private byte[] experimentBytes;
+    private byte[] tasksBytes;
+
+    @Setup
+    @SuppressWarnings("unchecked")
+    public void setUp() throws Throwable {
+        RedisCacheConfig config = new RedisCacheConfig();
+        createJsonSerializer = BenchmarkSupport.privateMethod(config, "createJsonSerializer");
+        serializer = (Jackson2JsonRedisSerializer<Object>) createJsonSerializer.invoke();
+
+        experiment = ExperimentDTO.builder()
+                .id("exp-1")
+                .creator_Id("teacher-1")
+                .name("数据结构实验一：线性表")
+                .description("实现顺序表与链表的基本操作，并比较两者的时间复杂度。".repeat(5))
+                .status(Experiment.ExperimentStatus.PUBLISHED)
+                .build();
+
+        tasks = new ArrayList<>(TASK_COUNT);
+        for (int i = 0; i < TASK_COUNT; i++) {
+            // 带类型信息的序列化无法还原 List.of/Map.of 的不可变实现类，这里使用可变集合
+            Map<String, Object> question = new LinkedHashMap<>();
+            question.put("id", "q" + i);
+            question.put("content", "下列说法正确的是？");
+            question.put("options", new ArrayList<>(List.of("A. 顺序表", "B. 链表", "C. 栈", "D. 队列")));
+            tasks.add(ExperimentTaskDTO.builder()
+                    .id("task-" + i)
+                    .experimentId("exp-1")
+                    .title("任务" + i)
+                    .description("完成第" + i + "部分练习")
+                    .orderNum(i)
+                    .taskType(i % 2 == 0 ? TaskType.CODE : TaskType.OTHER)
+                    .question(new ArrayList<>(List.of(question)))
+                    .required(true)
+                    .build());
+        }
+
+        experimentBytes = serializer.serialize(experiment);
+        tasksBytes = serializer.serialize(tasks);
+    }
+
+    /**
+     * 构造序列化器本身的开销（每次创建都会新建 ObjectMapper）
+     */
+    @Benchmark
+    public Object createSerializer() throws Throwable {
+        return createJsonSerializer.invoke();
+    }
+
+    @Benchmark
+    public byte[] serializeExperiment() {
+        return serializer.serialize(experiment);
+    }
+
+    @Benchmark
+    public Object deserializeExperiment() {
+        return serializer.deserialize(experimentBytes);
+    }
+
+    @Benchmark
+    public byte[] serializeTaskList() {
+        return serializer.serialize(tasks);
+    }
+
+    @Benchmark
+    public Object deserializeTaskList() {
+        return serializer.deserialize(tasksBytes);
+    }
+}
@@ -0,0 +1,92 @@
+package org.linghu.benchmarks;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.*;
+
+/**
+ * 比较两次 JMH 运行的 JSON 结果（-rf json 输出），列出各基准的变化并标记性能回退
+ * <p>
+ * 用法：java -cp benchmarks.jar org.linghu.benchmarks.ResultComparison 基线.json 当前.json [回退阈值百分比，默认10]
+ * <p>
+ * 存在超过阈值的回退时以退出码 1 结束，便于在流水线中使用。
+ */
+public final class ResultComparison {
+
+    private static final double DEFAULT_THRESHOLD_PERCENT = 10.0;
+
+    private ResultComparison() {
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            System.err.println("用法: ResultComparison <基线结果.json> <当前结果.json> [回退阈值百分比]");
+            System.exit(2);
+        }
+        double threshold = args.length > 2 ? Double.parseDouble(args[2]) : DEFAULT_THRESHOLD_PERCENT;
+
+        Map<String, Score> baseline = read(Path.of(args[0]));
+        Map<String, Score> current = read(Path.of(args[1]));
+
+        int regressions = 0;
+        System.out.printf("%-90s %14s %14s %9s%n", "基准", "基线", "当前", "变化");
+        for (Map.Entry<String, Score> entry : current.entrySet()) {
+            Score now = entry.getValue();
+            Score before = baseline.get(entry.getKey());
+            if (before == null) {
+                System.out.printf("%-90s %14s %14.3f %9s  新增%n", entry.getKey(), "-", now.value(), "-");
+                continue;
+            }
+            double change = before.value() == 0 ? 0 : (now.value() - before.value()) / before.value() * 100;
+            // 吞吐量类指标越大越好，耗时类指标越小越好
+            double worse = now.higherIsBetter() ? -change : change;
+            String flag = "";
+            if (worse > threshold) {
+                flag = "  回退";
+                regressions++;
+            } else if (worse < -threshold) {
+                flag = "  提升";
+            }
+            System.out.printf("%-90s %14.3f %14.3f %+8.1f%%%s  %s%n", entry.getKey(), before.value(), now.value(),
+                    change, flag, now.unit());
+        }
+        for (String removed : baseline.keySet()) {
+            if (!current.containsKey(removed)) {
+                System.out.printf("%-90s  已移除%n", removed);
+            }
+        }
+
+        if (regressions > 0) {
+            System.out.printf("%d 项基准性能回退超过 %.1f%%%n", regressions, threshold);
+            System.exit(1);
+        }
+    }
+
+    private static Map<String, Score> read(Path path) throws IOException {
+        JsonNode results = new ObjectMapper().readTree(path.toFile());
+        Map<String, Score> scores = new TreeMap<>();
+        for (JsonNode result : results) {
+            StringBuilder key = new StringBuilder(result.path("benchmark").asText());
+            JsonNode params = result.path("params");
+            if (params.isObject()) {
+                List<String> names = new ArrayList<>();
+                params.fieldNames().forEachRemaining(names::add);
+                Collections.sort(names);
+                StringJoiner joiner = new StringJoiner(",", "(", ")");
+                names.forEach(name -> joiner.add(name + "=" + params.path(name).asText()));
+                key.append(joiner);
+            }
+            JsonNode metric = result.path("primaryMetric");
+            String unit = metric.path("scoreUnit").asText();
+            scores.put(key.toString(), new Score(metric.path("score").asDouble(), unit,
+                    "thrpt".equals(result.path("mode").asText())));
+        }
+        return scores;
+    }
+
+    private record Score(double value, String unit, boolean higherIsBetter) {
+    }
+}
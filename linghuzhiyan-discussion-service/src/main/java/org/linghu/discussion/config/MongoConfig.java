@@ -1,16 +1,32 @@
 package org.linghu.discussion.config;
 
+import org.linghu.discussion.mongo.SlowQueryRecorder;
+import org.springframework.boot.autoconfigure.mongo.MongoClientSettingsBuilderCustomizer;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.IndexInfo;
+import org.springframework.data.mongodb.core.index.IndexOperations;
 import org.springframework.data.mongodb.core.index.TextIndexDefinition;
 
+import java.util.List;
+
 @Configuration
 public class MongoConfig {
 
+    /**
+     * 注册慢查询记录的命令监听器
+     */
+    @Bean
+    public MongoClientSettingsBuilderCustomizer slowQueryListenerCustomizer(SlowQueryRecorder slowQueryRecorder) {
+        return builder -> builder.addCommandListener(slowQueryRecorder);
+    }
+
     /**
      * 创建MongoDB索引
-     * 为discussions和comments集合创建文本搜索索引
+     * 为discussions和comments集合的搜索词字段创建文本搜索索引
+     * <p>
+     * 一个集合只能有一个文本索引，早期直接建在 title/content 原文上的文本索引无法切分中文，先删除再建新索引。
      *
      * @param mongoTemplate MongoDB模板
      * @return 索引初始化结果标识
@@ -18,28 +34,35 @@ public class MongoConfig {
     @Bean
     public boolean mongoIndexes(MongoTemplate mongoTemplate) {
         // 创建Discussion 文本索引
-        if (!mongoTemplate.indexOps("discussions").getIndexInfo().stream()
-                .anyMatch(index -> index.getName().equals("title_content_text"))) {
-
-            TextIndexDefinition textIndex = new TextIndexDefinition.TextIndexDefinitionBuilder()
-                    .onField("title", 10.0f)
-                    .onField("content", 5.0f)
-                    .withDefaultLanguage("none")
-                    .build();
-            mongoTemplate.indexOps("discussions").ensureIndex(textIndex);
-        }
+        ensureTextIndex(mongoTemplate, "discussions", "title_content_text",
+                new TextIndexDefinition.TextIndexDefinitionBuilder()
+                        .named("search_text")
+                        .onField("search_title", 10.0f)
+                        .onField("search_content", 5.0f)
+                        .withDefaultLanguage("none")
+                        .build());
 
         // 创建Comment 文本索引
-        if (!mongoTemplate.indexOps("comments").getIndexInfo().stream()
-                .anyMatch(index -> index.getName().equals("content_text"))) {
-
-            TextIndexDefinition textIndex = new TextIndexDefinition.TextIndexDefinitionBuilder()
-                    .onField("content")
-                    .withDefaultLanguage("none")
-                    .build();
-            mongoTemplate.indexOps("comments").ensureIndex(textIndex);
-        }
+        ensureTextIndex(mongoTemplate, "comments", "content_text",
+                new TextIndexDefinition.TextIndexDefinitionBuilder()
+                        .named("search_text")
+                        .onField("search_content")
+                        .withDefaultLanguage("none")
+                        .build());
 
         return true; // 返回索引创建成功标志
     }
+
+    private static void ensureTextIndex(MongoTemplate mongoTemplate, String collection, String legacyIndexName,
+                                        TextIndexDefinition textIndex) {
+        IndexOperations indexOps = mongoTemplate.indexOps(collection);
+        List<String> indexNames = indexOps.getIndexInfo().stream().map(IndexInfo::getName).toList();
+        if (indexNames.contains("search_text")) {
+            return;
+        }
+        if (indexNames.contains(legacyIndexName)) {
+            indexOps.dropIndex(legacyIndexName);
+        }
+        indexOps.ensureIndex(textIndex);
+    }
 }
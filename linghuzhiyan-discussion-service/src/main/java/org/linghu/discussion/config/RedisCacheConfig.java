@@ -90,9 +90,6 @@ public class RedisCacheConfig {
         // 点赞统计缓存 - 5分钟
         configMap.put("likeStats", defaultCacheConfig.entryTtl(Duration.ofMinutes(5)));
         
-        // 热门讨论缓存 - 1小时
-        configMap.put("hotDiscussions", defaultCacheConfig.entryTtl(Duration.ofHours(1)));
-        
         // 用户讨论统计缓存 - 30分钟
         configMap.put("userDiscussionStats", defaultCacheConfig.entryTtl(Duration.ofMinutes(30)));
         
@@ -26,6 +26,8 @@ public class SecurityConfig {
         http.csrf(csrf -> csrf.disable())
                 .sessionManagement(session -> session.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
                 .authorizeHttpRequests(auth -> auth
+                        // 慢查询端点包含查询条件，仅管理员可访问
+                        .requestMatchers("/actuator/slowqueries", "/actuator/slowqueries/**").hasRole("ADMIN")
                         // 健康检查端点允许访问
                         .requestMatchers("/actuator/**").permitAll()
                         // API文档端点允许访问
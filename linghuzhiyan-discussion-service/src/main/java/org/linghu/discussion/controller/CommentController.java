@@ -4,6 +4,7 @@ import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.linghu.discussion.dto.CommentRequestDTO;
 import org.linghu.discussion.dto.CommentResponseDTO;
+import org.linghu.discussion.dto.CursorPageDTO;
 import org.linghu.discussion.dto.ReportRequestDTO;
 import org.linghu.discussion.service.CommentService;
 import org.springframework.data.domain.Page;
@@ -85,6 +86,32 @@ public class CommentController {
         return ResponseEntity.ok(comments);
     }
 
+    /**
+     * 游标分页获取讨论的评论列表
+     */
+    @GetMapping("/discussions/{discussionId}/comments/feed")
+    public ResponseEntity<CursorPageDTO<CommentResponseDTO>> getCommentFeed(
+            @PathVariable @NotNull String discussionId,
+            @RequestParam(required = false, defaultValue = "false") boolean rootOnly,
+            @RequestParam(required = false, defaultValue = "createTime") String sortBy,
+            @RequestParam(required = false, defaultValue = "asc") String order,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false, defaultValue = "10") int size,
+            @RequestParam(required = false, defaultValue = "false") boolean withTotal) {
+
+        String currentUserId = null;
+        try {
+            currentUserId = getCurrentUserId();
+        } catch (Exception e) {
+            // 未登录用户不影响浏览评论
+        }
+
+        CursorPageDTO<CommentResponseDTO> comments = commentService.getCommentFeed(
+                discussionId, rootOnly, sortBy, order, cursor, size, withTotal, currentUserId);
+
+        return ResponseEntity.ok(comments);
+    }
+
     /**
      * 获取评论的回复列表
      */
@@ -115,6 +142,41 @@ public class CommentController {
         }
     }
 
+    /**
+     * 按游标分页获取根评论下的回复（用于加载更多回复）
+     */
+    @GetMapping({"/comments/{commentId}/thread-replies", "/{commentId}/thread-replies"})
+    public ResponseEntity<Map<String, Object>> getThreadReplies(
+            @PathVariable @NotNull String commentId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false, defaultValue = "20") int size) {
+        try {
+            String currentUserId = null;
+            try {
+                currentUserId = getCurrentUserId();
+            } catch (Exception e) {
+                // 未登录用户不影响浏览
+            }
+
+            CursorPageDTO<CommentResponseDTO> replies =
+                    commentService.getThreadReplies(commentId, cursor, size, currentUserId);
+
+            Map<String, Object> response = new HashMap<>();
+            response.put("success", true);
+            response.put("data", replies.getItems());
+            response.put("nextCursor", replies.getNextCursor());
+            response.put("hasMore", replies.isHasMore());
+
+            return ResponseEntity.ok(response);
+        } catch (Exception e) {
+            log.error("获取评论回复失败: commentId={}", commentId, e);
+            Map<String, Object> response = new HashMap<>();
+            response.put("success", false);
+            response.put("message", "获取评论回复失败: " + e.getMessage());
+            return ResponseEntity.badRequest().body(response);
+        }
+    }
+
     /**
      * 获取用户的评论列表
      */
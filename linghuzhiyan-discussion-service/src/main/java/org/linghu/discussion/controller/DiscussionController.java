@@ -144,6 +144,37 @@ public class DiscussionController {
         return ResponseEntity.ok(discussions);
     }
 
+    /**
+     * 游标分页获取讨论列表
+     */
+    @GetMapping("/feed")
+    public ResponseEntity<CursorPageDTO<DiscussionResponseDTO>> getDiscussionFeed(
+            @RequestParam(required = false) String tags,
+            @RequestParam(required = false) String experimentId,
+            @RequestParam(required = false) String userId,
+            @RequestParam(required = false) String status,
+            @RequestParam(required = false) String keyword,
+            @RequestParam(required = false, defaultValue = "lastActivityTime") String sortBy,
+            @RequestParam(required = false, defaultValue = "desc") String order,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false, defaultValue = "10") int size,
+            @RequestParam(required = false, defaultValue = "false") boolean withTotal) {
+
+        String currentUserId = null;
+        try {
+            currentUserId = getCurrentUserId();
+        } catch (Exception e) {
+            // 未登录用户不影响浏览讨论
+        }
+
+        String[] tagArray = tags != null ? tags.split(",") : null;
+
+        CursorPageDTO<DiscussionResponseDTO> discussions = discussionService.getDiscussionFeed(
+                tagArray, experimentId, userId, status, keyword, sortBy, order, cursor, size, withTotal, currentUserId);
+
+        return ResponseEntity.ok(discussions);
+    }
+
     /**
      * 获取讨论详情
      */
@@ -278,6 +309,20 @@ public class DiscussionController {
         }
     }
 
+    /**
+     * 重建搜索词（管理员）
+     */
+    @PostMapping("/search/reindex")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<Map<String, Object>> reindexSearch() {
+        boolean started = discussionService.triggerSearchReindex();
+
+        Map<String, Object> response = new HashMap<>();
+        response.put("success", started);
+        response.put("message", started ? "搜索词重建已开始" : "搜索词重建正在进行中");
+        return ResponseEntity.ok(response);
+    }
+
     /**
      * 点赞/取消点赞讨论
      */
@@ -304,10 +349,11 @@ public class DiscussionController {
     }
 
     /**
-     * 获取热门讨论
+     * 获取热门讨论，传入实验ID时只看该实验下的讨论
      */
     @GetMapping("/popular")
     public ResponseEntity<Page<DiscussionResponseDTO>> getPopularDiscussions(
+            @RequestParam(required = false) String experimentId,
             @RequestParam(required = false, defaultValue = "0") int page,
             @RequestParam(required = false, defaultValue = "10") int size) {
         
@@ -318,7 +364,28 @@ public class DiscussionController {
             // 未登录用户不影响浏览
         }
 
-        Page<DiscussionResponseDTO> discussions = discussionService.getPopularDiscussions(page, size, currentUserId);
+        Page<DiscussionResponseDTO> discussions = discussionService.getPopularDiscussions(experimentId, page, size, currentUserId);
+        return ResponseEntity.ok(discussions);
+    }
+
+    /**
+     * 获取趋势讨论（最近一段时间内互动最多），传入实验ID时只看该实验下的讨论
+     */
+    @GetMapping("/trending")
+    public ResponseEntity<Page<DiscussionResponseDTO>> getTrendingDiscussions(
+            @RequestParam(required = false) String experimentId,
+            @RequestParam(required = false, defaultValue = "0") int page,
+            @RequestParam(required = false, defaultValue = "10") int size) {
+
+        String currentUserId = null;
+        try {
+            currentUserId = getCurrentUserId();
+        } catch (Exception e) {
+            // 未登录用户不影响浏览
+        }
+
+        Page<DiscussionResponseDTO> discussions = discussionService.getTrendingDiscussions(
+                experimentId, page, size, currentUserId);
         return ResponseEntity.ok(discussions);
     }
 
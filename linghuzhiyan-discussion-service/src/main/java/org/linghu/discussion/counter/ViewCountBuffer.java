@@ -0,0 +1,221 @@
+package org.linghu.discussion.counter;
+
+import com.mongodb.bulk.BulkWriteError;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.linghu.discussion.domain.Discussion;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 讨论浏览次数写缓冲
+ * <p>
+ * 浏览只在本实例内存中累加，由后台线程定期以批量 $inc 写回 MongoDB，避免每次浏览都读写整个讨论文档。
+ * 读取时合并本实例尚未写回的增量；其他实例的增量最多延迟一个写回周期。
+ * 开启去重窗口后，同一登录用户在窗口内重复浏览同一讨论只计一次，去重标记保存在Redis中，所有实例共享。
+ */
+@Slf4j
+@Component
+public class ViewCountBuffer {
+
+    static final String DEDUP_KEY_PREFIX = "discussion:view:";
+
+    // 单次批量写入的最大讨论数
+    static final int MAX_FLUSH_BATCH = 500;
+
+    private final MongoTemplate mongoTemplate;
+    private final StringRedisTemplate redisTemplate;
+    private final Duration flushInterval;
+    private final Duration dedupWindow;
+
+    // 讨论ID -> 尚未写回的浏览增量
+    private final Map<String, Long> pending = new ConcurrentHashMap<>();
+    // 讨论ID -> 正在写回的浏览增量，写回完成前仍计入读取结果
+    private final Map<String, Long> flushing = new ConcurrentHashMap<>();
+
+    private final Counter countedViews;
+    private final Counter duplicateViews;
+    private final Counter flushFailures;
+
+    private ScheduledExecutorService flusher;
+
+    public ViewCountBuffer(MongoTemplate mongoTemplate,
+                           StringRedisTemplate redisTemplate,
+                           MeterRegistry meterRegistry,
+                           @Value("${discussion.view-count.flush-interval:PT5S}") Duration flushInterval,
+                           @Value("${discussion.view-count.dedup-window:PT0S}") Duration dedupWindow) {
+        this.mongoTemplate = mongoTemplate;
+        this.redisTemplate = redisTemplate;
+        this.flushInterval = flushInterval;
+        this.dedupWindow = dedupWindow;
+        this.countedViews = Counter.builder("discussion.view.count")
+                .tag("result", "counted")
+                .register(meterRegistry);
+        this.duplicateViews = Counter.builder("discussion.view.count")
+                .tag("result", "duplicate")
+                .register(meterRegistry);
+        this.flushFailures = Counter.builder("discussion.view.flush.failures")
+                .register(meterRegistry);
+    }
+
+    @PostConstruct
+    public void start() {
+        long intervalMillis = Math.max(100, flushInterval.toMillis());
+        flusher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "discussion-view-flusher");
+            thread.setDaemon(true);
+            return thread;
+        });
+        flusher.scheduleWithFixedDelay(this::flushQuietly, intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (flusher != null) {
+            flusher.shutdownNow();
+        }
+        // 停机前写回剩余增量
+        flushQuietly();
+    }
+
+    /**
+     * 记录一次浏览
+     *
+     * @param discussionId 讨论ID
+     * @param userId       浏览用户ID，未登录时为null
+     * @return 本次浏览是否被计数
+     */
+    public boolean recordView(String discussionId, String userId) {
+        if (userId != null && isDuplicate(discussionId, userId)) {
+            duplicateViews.increment();
+            return false;
+        }
+        pending.merge(discussionId, 1L, Long::sum);
+        countedViews.increment();
+        return true;
+    }
+
+    /**
+     * 获取尚未写回数据库的浏览增量
+     *
+     * @param discussionId 讨论ID
+     * @return 浏览增量
+     */
+    public long getPendingViews(String discussionId) {
+        return pending.getOrDefault(discussionId, 0L) + flushing.getOrDefault(discussionId, 0L);
+    }
+
+    /**
+     * 将缓冲的浏览增量批量写回数据库
+     *
+     * @return 本次写回的讨论数
+     */
+    int flush() {
+        List<Map.Entry<String, Long>> batch = new ArrayList<>();
+        int flushed = 0;
+        for (String discussionId : List.copyOf(pending.keySet())) {
+            // 在同一个原子操作中把增量转入写回中再移出待写回，读取时任何时刻都能看到这部分增量
+            long[] moved = new long[1];
+            pending.computeIfPresent(discussionId, (id, delta) -> {
+                if (delta != 0) {
+                    flushing.merge(id, delta, Long::sum);
+                    moved[0] = delta;
+                }
+                return null;
+            });
+            if (moved[0] == 0) {
+                continue;
+            }
+            batch.add(Map.entry(discussionId, moved[0]));
+            if (batch.size() >= MAX_FLUSH_BATCH) {
+                flushed += writeBatch(batch);
+                batch = new ArrayList<>();
+            }
+        }
+        if (!batch.isEmpty()) {
+            flushed += writeBatch(batch);
+        }
+        return flushed;
+    }
+
+    private int writeBatch(List<Map.Entry<String, Long>> batch) {
+        BulkOperations operations = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Discussion.class);
+        for (Map.Entry<String, Long> entry : batch) {
+            operations.updateOne(Query.query(Criteria.where("_id").is(entry.getKey())),
+                    new Update().inc("viewCount", entry.getValue()));
+        }
+
+        List<Map.Entry<String, Long>> failed = List.of();
+        try {
+            operations.execute();
+        } catch (BulkOperationException e) {
+            // 无序批量写入中其余操作已生效，只退回失败的增量
+            failed = e.getErrors().stream()
+                    .map(BulkWriteError::getIndex)
+                    .map(batch::get)
+                    .toList();
+            log.warn("写回浏览次数部分失败: {} / {}", failed.size(), batch.size());
+        } catch (Exception e) {
+            failed = batch;
+            log.warn("写回浏览次数失败，{} 个讨论的增量将在下次重试: {}", batch.size(), e.getMessage());
+        }
+
+        // 先退回失败的增量再移出写回中的增量，期间读取只会短暂多计而不会少计
+        for (Map.Entry<String, Long> entry : failed) {
+            pending.merge(entry.getKey(), entry.getValue(), Long::sum);
+            flushFailures.increment();
+        }
+        for (Map.Entry<String, Long> entry : batch) {
+            flushing.computeIfPresent(entry.getKey(), (id, delta) -> {
+                long remaining = delta - entry.getValue();
+                return remaining == 0 ? null : remaining;
+            });
+        }
+        return batch.size() - failed.size();
+    }
+
+    private void flushQuietly() {
+        try {
+            int flushed = flush();
+            if (flushed > 0) {
+                log.debug("已写回 {} 个讨论的浏览次数", flushed);
+            }
+        } catch (Exception e) {
+            log.warn("写回浏览次数失败: {}", e.getMessage());
+        }
+    }
+
+    private boolean isDuplicate(String discussionId, String userId) {
+        if (dedupWindow.isZero() || dedupWindow.isNegative()) {
+            return false;
+        }
+        try {
+            Boolean first = redisTemplate.opsForValue()
+                    .setIfAbsent(DEDUP_KEY_PREFIX + discussionId + ":" + userId, "1", dedupWindow);
+            return Boolean.FALSE.equals(first);
+        } catch (Exception e) {
+            // Redis不可用时不去重，宁可多计也不丢失浏览
+            log.warn("浏览去重检查失败，按新浏览计数: {}", e.getMessage());
+            return false;
+        }
+    }
+}
@@ -9,8 +9,6 @@ import org.springframework.data.mongodb.core.mapping.Document;
 import org.springframework.data.mongodb.core.mapping.Field;
 
 import java.time.LocalDateTime;
-import java.util.ArrayList;
-import java.util.List;
 
 /**
  * 评论实体类
@@ -99,13 +97,6 @@ public class Comment {
     @Builder.Default
     private Long likeCount = 0L;
 
-    /**
-     * 点赞用户列表
-     */
-    @Field("liked_by")
-    @Builder.Default
-    private List<String> likedBy = new ArrayList<>();
-
     /**
      * 评论状态：NORMAL-正常，REPORTED-被举报，HIDDEN-已隐藏
      */
@@ -127,6 +118,18 @@ public class Comment {
     @Builder.Default
     private LocalDateTime updateTime = LocalDateTime.now();
 
+    /**
+     * 评论内容搜索词，由 {@link org.linghu.discussion.search.SearchTokenizer} 在写入时生成
+     */
+    @Field("search_content")
+    private String searchContent;
+
+    /**
+     * 生成搜索词时的分词规则版本
+     */
+    @Field("search_version")
+    private Integer searchVersion;
+
     /**
      * 是否删除
      */
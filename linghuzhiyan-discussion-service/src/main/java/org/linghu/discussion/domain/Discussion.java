@@ -109,13 +109,6 @@ public class Discussion {
     @Builder.Default
     private Long likeCount = 0L;
 
-    /**
-     * 点赞用户列表
-     */
-    @Field("liked_by")
-    @Builder.Default
-    private List<String> likedBy = new ArrayList<>();
-
     /**
      * 最后评论时间
      */
@@ -164,6 +157,24 @@ public class Discussion {
     @Field("last_approved_time")
     private LocalDateTime lastApprovedTime;
 
+    /**
+     * 标题搜索词，由 {@link org.linghu.discussion.search.SearchTokenizer} 在写入时生成
+     */
+    @Field("search_title")
+    private String searchTitle;
+
+    /**
+     * 正文搜索词
+     */
+    @Field("search_content")
+    private String searchContent;
+
+    /**
+     * 生成搜索词时的分词规则版本
+     */
+    @Field("search_version")
+    private Integer searchVersion;
+
     /**
      * 是否删除
      */
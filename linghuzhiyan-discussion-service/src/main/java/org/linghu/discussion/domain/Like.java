@@ -0,0 +1,89 @@
+package org.linghu.discussion.domain;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+import org.springframework.data.mongodb.core.mapping.Field;
+
+import java.time.LocalDateTime;
+
+/**
+ * 点赞记录实体类
+ * <p>
+ * 每个用户对每个讨论或评论最多一条记录，ID由目标类型、目标ID和用户ID拼接而成，
+ * 点赞和取消点赞直接按ID插入或删除，查询一页内容的点赞状态只需一次 _id 的 $in 查询。
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Document(collection = "likes")
+public class Like {
+
+    @Id
+    private String id;
+
+    /**
+     * 点赞目标类型
+     */
+    @Field("target_type")
+    private TargetType targetType;
+
+    /**
+     * 点赞目标ID（讨论ID或评论ID）
+     */
+    @Field("target_id")
+    private String targetId;
+
+    /**
+     * 点赞用户ID
+     */
+    @Field("user_id")
+    private String userId;
+
+    /**
+     * 点赞时间
+     */
+    @Field("create_time")
+    @Builder.Default
+    private LocalDateTime createTime = LocalDateTime.now();
+
+    /**
+     * 生成点赞记录ID
+     *
+     * @param targetType 目标类型
+     * @param targetId   目标ID
+     * @param userId     用户ID
+     * @return 点赞记录ID
+     */
+    public static String idOf(TargetType targetType, String targetId, String userId) {
+        return targetType.name() + ":" + targetId + ":" + userId;
+    }
+
+    /**
+     * 点赞目标类型枚举
+     */
+    public enum TargetType {
+        DISCUSSION("DISCUSSION", "讨论"),
+        COMMENT("COMMENT", "评论");
+
+        private final String code;
+        private final String description;
+
+        TargetType(String code, String description) {
+            this.code = code;
+            this.description = description;
+        }
+
+        public String getCode() {
+            return code;
+        }
+
+        public String getDescription() {
+            return description;
+        }
+    }
+}
@@ -38,4 +38,14 @@ public class CommentResponseDTO {
 
     @Builder.Default
     private List<CommentResponseDTO> replies = new ArrayList<>();
+
+    /**
+     * 回复总数（只在根评论列表中返回）
+     */
+    private Long replyCount;
+
+    /**
+     * 加载更多回复的游标，回复已全部内嵌时为null
+     */
+    private String repliesCursor;
 }
@@ -0,0 +1,34 @@
+package org.linghu.discussion.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 游标分页响应DTO
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class CursorPageDTO<T> {
+
+    @Builder.Default
+    private List<T> items = new ArrayList<>();
+
+    /**
+     * 下一页游标，没有更多数据时为null
+     */
+    private String nextCursor;
+
+    private boolean hasMore;
+
+    /**
+     * 近似总数，仅在请求时返回，结果有缓存且有计数上限
+     */
+    private Long total;
+}
@@ -0,0 +1,178 @@
+package org.linghu.discussion.mongo;
+
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.CompoundIndexDefinition;
+import org.springframework.data.mongodb.core.index.IndexField;
+import org.springframework.data.mongodb.core.index.IndexInfo;
+import org.springframework.data.mongodb.core.index.IndexOperations;
+import org.springframework.data.mongodb.core.index.PartialIndexFilter;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * 讨论服务的MongoDB索引清单
+ * <p>
+ * 所有列表查询都带 deleted=false 条件，因此索引均为 deleted=false 的部分索引，已删除的数据不占索引空间。
+ * 启动时逐个检查：缺失的索引直接创建，同名但定义不一致的索引只记录告警，不自动删除重建，
+ * 以免在大集合上意外触发长时间的索引重建。文本索引仍由 {@link org.linghu.discussion.config.MongoConfig} 创建。
+ */
+@Slf4j
+@Component
+public class MongoIndexCatalog {
+
+    private static final Document NOT_DELETED = new Document("deleted", false);
+
+    /**
+     * 索引清单，键使用数据库中的字段名
+     */
+    static final List<IndexSpec> INDEXES = List.of(
+            // 讨论列表：默认按最后活跃时间，游标分页以 _id 作为最后一个排序键
+            new IndexSpec("discussions", "feed_last_activity",
+                    keys("last_activity_time", -1, "_id", -1)),
+            new IndexSpec("discussions", "feed_create_time",
+                    keys("create_time", -1, "_id", -1)),
+            new IndexSpec("discussions", "feed_like_count",
+                    keys("like_count", -1, "_id", -1)),
+            new IndexSpec("discussions", "feed_priority",
+                    keys("priority", -1, "last_activity_time", -1, "_id", -1)),
+            // 热门、最近活跃、置顶都只查已通过的讨论
+            new IndexSpec("discussions", "status_last_activity",
+                    keys("status", 1, "last_activity_time", -1)),
+            // 热榜重建按创建时间窗口读取已通过的讨论
+            new IndexSpec("discussions", "status_create_time",
+                    keys("status", 1, "create_time", -1)),
+            new IndexSpec("discussions", "experiment_last_activity",
+                    keys("experiment_id", 1, "last_activity_time", -1, "_id", -1)),
+            new IndexSpec("discussions", "user_last_activity",
+                    keys("user_id", 1, "last_activity_time", -1, "_id", -1)),
+            new IndexSpec("discussions", "tags_last_activity",
+                    keys("tags", 1, "last_activity_time", -1)),
+
+            // 评论列表：全部评论和根评论（parent_id 为 null）
+            new IndexSpec("comments", "discussion_create_time",
+                    keys("discussion_id", 1, "create_time", 1, "_id", 1)),
+            new IndexSpec("comments", "discussion_parent_create_time",
+                    keys("discussion_id", 1, "parent_id", 1, "create_time", 1, "_id", 1)),
+            new IndexSpec("comments", "discussion_like_count",
+                    keys("discussion_id", 1, "like_count", -1, "_id", -1)),
+            // 回复预览聚合和回复游标分页
+            new IndexSpec("comments", "root_create_time",
+                    keys("root_id", 1, "create_time", 1, "_id", 1)),
+            new IndexSpec("comments", "parent_create_time",
+                    keys("parent_id", 1, "create_time", 1)),
+            new IndexSpec("comments", "user_create_time",
+                    keys("user_id", 1, "create_time", -1)),
+            // 被举报评论列表
+            new IndexSpec("comments", "status_create_time",
+                    keys("status", 1, "create_time", -1))
+    );
+
+    private final MongoTemplate mongoTemplate;
+    private final boolean createMissing;
+
+    public MongoIndexCatalog(MongoTemplate mongoTemplate,
+                             @Value("${discussion.mongo.indexes.create-missing:true}") boolean createMissing) {
+        this.mongoTemplate = mongoTemplate;
+        this.createMissing = createMissing;
+    }
+
+    /**
+     * 启动时创建或校验索引
+     */
+    @PostConstruct
+    public void ensureIndexes() {
+        int created = 0;
+        int mismatched = 0;
+        int missing = 0;
+        for (IndexSpec spec : INDEXES) {
+            try {
+                switch (ensureIndex(spec)) {
+                    case CREATED -> created++;
+                    case MISMATCHED -> mismatched++;
+                    case MISSING -> missing++;
+                    case VERIFIED -> {
+                    }
+                }
+            } catch (Exception e) {
+                missing++;
+                log.warn("索引校验失败: collection={}, index={}, error={}", spec.collection(), spec.name(), e.getMessage());
+            }
+        }
+        log.info("MongoDB索引校验完成: 共 {} 个, 新建 {} 个, 定义不一致 {} 个, 缺失 {} 个",
+                INDEXES.size(), created, mismatched, missing);
+    }
+
+    IndexState ensureIndex(IndexSpec spec) {
+        IndexOperations indexOps = mongoTemplate.indexOps(spec.collection());
+        Optional<IndexInfo> existing = indexOps.getIndexInfo().stream()
+                .filter(index -> index.getName().equals(spec.name()))
+                .findFirst();
+
+        if (existing.isPresent()) {
+            if (matches(spec, existing.get())) {
+                return IndexState.VERIFIED;
+            }
+            log.warn("索引定义与清单不一致，请人工处理: collection={}, index={}, expected={}, actual={}",
+                    spec.collection(), spec.name(), spec.keys().toJson(), existing.get().getIndexFields());
+            return IndexState.MISMATCHED;
+        }
+
+        if (!createMissing) {
+            log.warn("缺少索引: collection={}, index={}, keys={}", spec.collection(), spec.name(), spec.keys().toJson());
+            return IndexState.MISSING;
+        }
+        indexOps.ensureIndex(new CompoundIndexDefinition(spec.keys())
+                .named(spec.name())
+                .partial(PartialIndexFilter.of(NOT_DELETED)));
+        log.info("已创建索引: collection={}, index={}, keys={}", spec.collection(), spec.name(), spec.keys().toJson());
+        return IndexState.CREATED;
+    }
+
+    private static boolean matches(IndexSpec spec, IndexInfo index) {
+        List<IndexField> fields = index.getIndexFields();
+        if (fields.size() != spec.keys().size()) {
+            return false;
+        }
+        int i = 0;
+        for (Map.Entry<String, Object> key : spec.keys().entrySet()) {
+            IndexField field = fields.get(i++);
+            Sort.Direction direction = ((Number) key.getValue()).intValue() > 0 ? Sort.Direction.ASC : Sort.Direction.DESC;
+            if (!field.getKey().equals(key.getKey()) || field.getDirection() != direction) {
+                return false;
+            }
+        }
+        String partialFilter = index.getPartialFilterExpression();
+        return partialFilter != null && Document.parse(partialFilter).equals(NOT_DELETED);
+    }
+
+    private static Document keys(Object... fieldAndDirection) {
+        Map<String, Object> keys = new LinkedHashMap<>();
+        for (int i = 0; i < fieldAndDirection.length; i += 2) {
+            keys.put((String) fieldAndDirection[i], fieldAndDirection[i + 1]);
+        }
+        return new Document(keys);
+    }
+
+    /**
+     * 索引定义
+     *
+     * @param collection 集合名
+     * @param name       索引名
+     * @param keys       索引键及方向
+     */
+    record IndexSpec(String collection, String name, Document keys) {
+    }
+
+    enum IndexState {
+        VERIFIED, CREATED, MISMATCHED, MISSING
+    }
+}
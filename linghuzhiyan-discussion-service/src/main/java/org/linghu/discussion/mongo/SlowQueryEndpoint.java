@@ -0,0 +1,34 @@
+package org.linghu.discussion.mongo;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.actuate.endpoint.annotation.DeleteOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * 慢查询 actuator 端点：GET /actuator/slowqueries 查看，DELETE 清空
+ */
+@Component
+@Endpoint(id = "slowqueries")
+@RequiredArgsConstructor
+public class SlowQueryEndpoint {
+
+    private final SlowQueryRecorder slowQueryRecorder;
+
+    @ReadOperation
+    public Map<String, Object> slowQueries() {
+        Map<String, Object> response = new HashMap<>();
+        response.put("thresholdMillis", slowQueryRecorder.getThreshold().toMillis());
+        response.put("queries", slowQueryRecorder.getSlowQueries());
+        return response;
+    }
+
+    @DeleteOperation
+    public void clear() {
+        slowQueryRecorder.clear();
+    }
+}
@@ -0,0 +1,269 @@
+package org.linghu.discussion.mongo;
+
+import com.mongodb.event.CommandFailedEvent;
+import com.mongodb.event.CommandListener;
+import com.mongodb.event.CommandStartedEvent;
+import com.mongodb.event.CommandSucceededEvent;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.BsonDocument;
+import org.bson.BsonString;
+import org.bson.BsonValue;
+import org.bson.Document;
+import org.bson.RawBsonDocument;
+import org.bson.codecs.BsonDocumentCodec;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * MongoDB慢查询记录
+ * <p>
+ * 作为驱动的命令监听器注册到 MongoClient，耗时超过阈值的查询和写命令保留最近若干条，
+ * 通过 actuator 的 slowqueries 端点查看。读命令会在后台线程用 explain(queryPlanner) 取得执行计划，
+ * explain 不实际执行查询，排队已满时直接放弃，不影响业务请求。
+ */
+@Slf4j
+@Component
+public class SlowQueryRecorder implements CommandListener {
+
+    // 记录的命令，其余命令（getMore、心跳、索引管理等）不处理
+    private static final Set<String> TRACKED_COMMANDS =
+            Set.of("find", "aggregate", "count", "distinct", "update", "delete", "findAndModify");
+
+    // 可以 explain 的读命令
+    private static final Set<String> EXPLAINABLE_COMMANDS = Set.of("find", "aggregate", "count", "distinct");
+
+    // 驱动附加的会话和集群字段，展示和 explain 时去掉
+    private static final Set<String> DRIVER_FIELDS = Set.of("lsid", "$db", "$clusterTime", "txnNumber",
+            "$readPreference", "readConcern", "writeConcern", "autocommit", "startTransaction", "apiVersion");
+
+    private static final int MAX_PENDING_COMMANDS = 10_000;
+    private static final int MAX_COMMAND_LENGTH = 2_000;
+
+    private final ObjectProvider<MongoTemplate> mongoTemplateProvider;
+    private final MeterRegistry meterRegistry;
+    private final Duration threshold;
+    private final int capacity;
+    private final boolean explainEnabled;
+
+    private final Map<Integer, PendingCommand> pendingCommands = new ConcurrentHashMap<>();
+    private final Deque<SlowQuery> slowQueries = new ArrayDeque<>();
+    private final ThreadPoolExecutor explainExecutor;
+
+    public SlowQueryRecorder(ObjectProvider<MongoTemplate> mongoTemplateProvider,
+                             MeterRegistry meterRegistry,
+                             @Value("${discussion.mongo.slow-query.threshold:PT0.1S}") Duration threshold,
+                             @Value("${discussion.mongo.slow-query.capacity:50}") int capacity,
+                             @Value("${discussion.mongo.slow-query.explain:true}") boolean explainEnabled) {
+        this.mongoTemplateProvider = mongoTemplateProvider;
+        this.meterRegistry = meterRegistry;
+        this.threshold = threshold;
+        this.capacity = Math.max(capacity, 1);
+        this.explainEnabled = explainEnabled;
+        this.explainExecutor = new ThreadPoolExecutor(1, 1, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(16), runnable -> {
+                    Thread thread = new Thread(runnable, "mongo-slow-query-explain");
+                    thread.setDaemon(true);
+                    return thread;
+                }, new ThreadPoolExecutor.DiscardPolicy());
+    }
+
+    @PreDestroy
+    public void stop() {
+        explainExecutor.shutdownNow();
+    }
+
+    @Override
+    public void commandStarted(CommandStartedEvent event) {
+        if (!TRACKED_COMMANDS.contains(event.getCommandName()) || pendingCommands.size() >= MAX_PENDING_COMMANDS) {
+            return;
+        }
+        // 事件中的命令文档只在回调期间有效，需要复制
+        pendingCommands.put(event.getRequestId(), new PendingCommand(event.getDatabaseName(),
+                new RawBsonDocument(event.getCommand(), new BsonDocumentCodec())));
+    }
+
+    @Override
+    public void commandSucceeded(CommandSucceededEvent event) {
+        PendingCommand pending = pendingCommands.remove(event.getRequestId());
+        if (pending != null) {
+            complete(pending.database(), event.getCommandName(), pending.command(),
+                    event.getElapsedTime(TimeUnit.MILLISECONDS));
+        }
+    }
+
+    @Override
+    public void commandFailed(CommandFailedEvent event) {
+        PendingCommand pending = pendingCommands.remove(event.getRequestId());
+        if (pending != null) {
+            complete(pending.database(), event.getCommandName(), pending.command(),
+                    event.getElapsedTime(TimeUnit.MILLISECONDS));
+        }
+    }
+
+    /**
+     * 最近的慢查询，按发生时间倒序
+     */
+    public List<SlowQuery> getSlowQueries() {
+        synchronized (slowQueries) {
+            return new ArrayList<>(slowQueries);
+        }
+    }
+
+    public void clear() {
+        synchronized (slowQueries) {
+            slowQueries.clear();
+        }
+    }
+
+    public Duration getThreshold() {
+        return threshold;
+    }
+
+    void complete(String database, String commandName, BsonDocument command, long elapsedMillis) {
+        if (elapsedMillis < threshold.toMillis()) {
+            return;
+        }
+
+        BsonDocument stripped = stripDriverFields(command);
+        BsonValue target = stripped.get(commandName);
+        String collection = target != null && target.isString() ? target.asString().getValue() : null;
+        String json = stripped.toJson();
+
+        SlowQuery slowQuery = new SlowQuery(LocalDateTime.now(), database, collection, commandName, elapsedMillis,
+                json.length() > MAX_COMMAND_LENGTH ? json.substring(0, MAX_COMMAND_LENGTH) + "..." : json);
+        synchronized (slowQueries) {
+            slowQueries.addFirst(slowQuery);
+            while (slowQueries.size() > capacity) {
+                slowQueries.removeLast();
+            }
+        }
+        Counter.builder("discussion.mongo.slow.queries")
+                .description("超过阈值的MongoDB命令次数")
+                .tag("command", commandName)
+                .register(meterRegistry)
+                .increment();
+        log.warn("MongoDB慢查询: command={}, collection={}, elapsed={}ms", commandName, collection, elapsedMillis);
+
+        if (explainEnabled && EXPLAINABLE_COMMANDS.contains(commandName)) {
+            explainExecutor.execute(() -> explain(database, stripped, slowQuery));
+        }
+    }
+
+    private void explain(String database, BsonDocument command, SlowQuery slowQuery) {
+        try {
+            MongoTemplate mongoTemplate = mongoTemplateProvider.getObject();
+            Document result = mongoTemplate.getMongoDatabaseFactory().getMongoDatabase(database)
+                    .runCommand(new BsonDocument("explain", command).append("verbosity", new BsonString("queryPlanner")));
+            Document winningPlan = winningPlan(result);
+            slowQuery.plan = winningPlan;
+            slowQuery.planSummary = summarizePlan(winningPlan);
+        } catch (Exception e) {
+            slowQuery.planSummary = "explain失败: " + e.getMessage();
+        }
+    }
+
+    private static BsonDocument stripDriverFields(BsonDocument command) {
+        BsonDocument stripped = new BsonDocument();
+        command.forEach((key, value) -> {
+            if (!DRIVER_FIELDS.contains(key)) {
+                stripped.append(key, value);
+            }
+        });
+        return stripped;
+    }
+
+    /**
+     * 从 explain 结果中取出胜出的执行计划；聚合的计划位于第一个 $cursor 阶段中
+     */
+    static Document winningPlan(Document explain) {
+        Document queryPlanner = explain.get("queryPlanner", Document.class);
+        if (queryPlanner == null && explain.get("stages") instanceof List<?> stages && !stages.isEmpty()
+                && stages.get(0) instanceof Document firstStage
+                && firstStage.get("$cursor") instanceof Document cursor) {
+            queryPlanner = cursor.get("queryPlanner", Document.class);
+        }
+        if (queryPlanner == null) {
+            return null;
+        }
+        Document winningPlan = queryPlanner.get("winningPlan", Document.class);
+        // MongoDB 7 使用 SBE 时计划嵌套在 queryPlan 中
+        if (winningPlan != null && winningPlan.get("queryPlan") instanceof Document queryPlan) {
+            return queryPlan;
+        }
+        return winningPlan;
+    }
+
+    /**
+     * 执行计划摘要，如 LIMIT <- FETCH <- IXSCAN(feed_last_activity)，一眼可以看出是否全表扫描
+     */
+    static String summarizePlan(Document plan) {
+        if (plan == null) {
+            return null;
+        }
+        List<String> stages = new ArrayList<>();
+        Document stage = plan;
+        while (stage != null) {
+            String name = stage.getString("stage");
+            String indexName = stage.getString("indexName");
+            stages.add(indexName == null ? name : name + "(" + indexName + ")");
+            stage = stage.get("inputStage", Document.class);
+        }
+        return String.join(" <- ", stages);
+    }
+
+    private record PendingCommand(String database, BsonDocument command) {
+    }
+
+    /**
+     * 慢查询记录
+     */
+    @Getter
+    public static class SlowQuery {
+
+        private final LocalDateTime time;
+        private final String database;
+        private final String collection;
+        private final String commandName;
+        private final long elapsedMillis;
+        private final String command;
+
+        /**
+         * 执行计划摘要，explain 完成前为null
+         */
+        private volatile String planSummary;
+
+        /**
+         * 胜出的执行计划
+         */
+        private volatile Document plan;
+
+        SlowQuery(LocalDateTime time, String database, String collection, String commandName,
+                  long elapsedMillis, String command) {
+            this.time = time;
+            this.database = database;
+            this.collection = collection;
+            this.commandName = commandName;
+            this.elapsedMillis = elapsedMillis;
+            this.command = command;
+        }
+    }
+}
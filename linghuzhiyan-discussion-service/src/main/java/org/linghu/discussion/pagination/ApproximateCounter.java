@@ -0,0 +1,83 @@
+package org.linghu.discussion.pagination;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 游标分页的近似总数
+ * <p>
+ * 游标分页本身不需要总数，只有客户端显式请求时才计数。计数最多数到 {@link #COUNT_LIMIT}，
+ * 结果按过滤条件在本地缓存一段时间，同一筛选条件的翻页和刷新不会反复扫描集合。
+ */
+@Component
+public class ApproximateCounter {
+
+    /**
+     * 计数上限，超过时返回上限值
+     */
+    public static final int COUNT_LIMIT = 10_000;
+
+    private static final int MAX_ENTRIES = 1_000;
+
+    private final MongoTemplate mongoTemplate;
+    private final Duration ttl;
+    private final Map<String, CachedCount> counts = new ConcurrentHashMap<>();
+
+    private final Counter hitCounter;
+    private final Counter missCounter;
+
+    public ApproximateCounter(MongoTemplate mongoTemplate,
+                              MeterRegistry meterRegistry,
+                              @Value("${discussion.feed.count-ttl:PT1M}") Duration ttl) {
+        this.mongoTemplate = mongoTemplate;
+        this.ttl = ttl;
+        this.hitCounter = Counter.builder("discussion.feed.count.cache")
+                .description("游标分页近似总数缓存命中")
+                .tag("result", "hit")
+                .register(meterRegistry);
+        this.missCounter = Counter.builder("discussion.feed.count.cache")
+                .description("游标分页近似总数缓存命中")
+                .tag("result", "miss")
+                .register(meterRegistry);
+    }
+
+    /**
+     * 统计满足过滤条件的文档数
+     *
+     * @param filter      只包含过滤条件的查询（不含游标条件和排序）
+     * @param entityClass 实体类型
+     * @return 文档数，最多为 {@link #COUNT_LIMIT}
+     */
+    public long count(Query filter, Class<?> entityClass) {
+        String key = entityClass.getSimpleName() + ":" + filter.getQueryObject();
+        long now = System.nanoTime();
+
+        CachedCount cached = counts.get(key);
+        if (cached != null && cached.expiresAt() - now > 0) {
+            hitCounter.increment();
+            return cached.count();
+        }
+
+        missCounter.increment();
+        long count = mongoTemplate.count(Query.of(filter).limit(COUNT_LIMIT), entityClass);
+        if (counts.size() >= MAX_ENTRIES) {
+            counts.values().removeIf(entry -> entry.expiresAt() - now <= 0);
+            if (counts.size() >= MAX_ENTRIES) {
+                counts.clear();
+            }
+        }
+        counts.put(key, new CachedCount(count, now + ttl.toNanos()));
+        return count;
+    }
+
+    private record CachedCount(long count, long expiresAt) {
+    }
+}
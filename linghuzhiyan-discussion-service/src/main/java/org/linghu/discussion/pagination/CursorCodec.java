@@ -0,0 +1,49 @@
+package org.linghu.discussion.pagination;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.List;
+
+/**
+ * 游标分页的游标编解码
+ * <p>
+ * 游标记录上一页最后一条数据的排序键，编码为URL安全的Base64字符串，对客户端不透明。
+ */
+public final class CursorCodec {
+
+    private static final String SEPARATOR = "\n";
+
+    private CursorCodec() {
+    }
+
+    /**
+     * 编码游标
+     *
+     * @param values 排序键的值，按排序优先级排列
+     * @return 游标
+     */
+    public static String encode(String... values) {
+        String joined = String.join(SEPARATOR, values);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(joined.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * 解码游标
+     *
+     * @param cursor         游标
+     * @param expectedValues 排序键个数
+     * @return 排序键的值
+     */
+    public static List<String> decode(String cursor, int expectedValues) {
+        try {
+            String joined = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            List<String> values = List.of(joined.split(SEPARATOR, -1));
+            if (values.size() != expectedValues) {
+                throw new IllegalArgumentException("排序键个数不符");
+            }
+            return values;
+        } catch (IllegalArgumentException e) {
+            throw new RuntimeException("无效的分页游标: " + cursor, e);
+        }
+    }
+}
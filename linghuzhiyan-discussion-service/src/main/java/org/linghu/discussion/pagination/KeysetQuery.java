@@ -0,0 +1,181 @@
+package org.linghu.discussion.pagination;
+
+import org.bson.types.ObjectId;
+import org.linghu.discussion.dto.CursorPageDTO;
+import org.springframework.beans.BeanWrapper;
+import org.springframework.beans.PropertyAccessorFactory;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.util.StringUtils;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * 键集（游标）分页
+ * <p>
+ * 游标记录上一页最后一条数据的排序字段值和 _id，下一页直接从该位置之后查询，不使用 skip，
+ * 翻到多深都只读取一页数据。排序字段全部同向，_id 作为最后一个排序键保证顺序稳定。
+ */
+public final class KeysetQuery {
+
+    /**
+     * 每页最大条数
+     */
+    public static final int MAX_PAGE_SIZE = 100;
+
+    private static final String ID_FIELD = "_id";
+
+    private KeysetQuery() {
+    }
+
+    /**
+     * 为查询添加游标条件、排序和条数限制（多取一条用于判断是否还有下一页）
+     *
+     * @param query      已包含过滤条件的查询
+     * @param sortFields 排序字段（实体属性名），不含 _id
+     * @param direction  排序方向
+     * @param cursor     上一页返回的游标，第一页为null
+     * @param size       每页条数
+     * @return 查询
+     */
+    public static Query apply(Query query, List<String> sortFields, Sort.Direction direction, String cursor, int size) {
+        if (StringUtils.hasText(cursor)) {
+            List<Object> values = decode(cursor, sortFields.size() + 1);
+            query.addCriteria(after(sortFields, direction, values));
+        }
+        List<Sort.Order> orders = new ArrayList<>();
+        sortFields.forEach(field -> orders.add(new Sort.Order(direction, field)));
+        orders.add(new Sort.Order(direction, ID_FIELD));
+        return query.with(Sort.by(orders)).limit(normalizeSize(size) + 1);
+    }
+
+    /**
+     * 将多取一条的查询结果转换为游标分页结果
+     *
+     * @param rows       查询结果
+     * @param sortFields 排序字段，与 {@link #apply} 一致
+     * @param size       每页条数
+     * @param converter  实体到DTO的批量转换
+     * @return 游标分页结果
+     */
+    public static <E, T> CursorPageDTO<T> page(List<E> rows, List<String> sortFields, int size,
+                                               Function<List<E>, List<T>> converter) {
+        int pageSize = normalizeSize(size);
+        boolean hasMore = rows.size() > pageSize;
+        List<E> items = hasMore ? rows.subList(0, pageSize) : rows;
+        return CursorPageDTO.<T>builder()
+                .items(converter.apply(items))
+                .nextCursor(hasMore ? cursorOf(items.get(items.size() - 1), sortFields) : null)
+                .hasMore(hasMore)
+                .build();
+    }
+
+    /**
+     * 生成指向某条数据之后的游标
+     *
+     * @param entity     实体，需有 id 属性
+     * @param sortFields 排序字段
+     * @return 游标
+     */
+    public static String cursorOf(Object entity, List<String> sortFields) {
+        BeanWrapper wrapper = PropertyAccessorFactory.forBeanPropertyAccess(entity);
+        String[] values = new String[sortFields.size() + 1];
+        for (int i = 0; i < sortFields.size(); i++) {
+            values[i] = encodeValue(wrapper.getPropertyValue(sortFields.get(i)));
+        }
+        values[sortFields.size()] = encodeValue(wrapper.getPropertyValue("id"));
+        return CursorCodec.encode(values);
+    }
+
+    public static int normalizeSize(int size) {
+        return Math.min(Math.max(size, 1), MAX_PAGE_SIZE);
+    }
+
+    /**
+     * 排在游标之后：前 i-1 个排序键相等且第 i 个排序键越过游标，对每个 i 取或
+     */
+    private static Criteria after(List<String> sortFields, Sort.Direction direction, List<Object> values) {
+        List<String> fields = new ArrayList<>(sortFields);
+        fields.add(ID_FIELD);
+        Object lastId = values.get(values.size() - 1);
+        if (lastId instanceof String id && ObjectId.isValid(id)) {
+            values = new ArrayList<>(values);
+            values.set(values.size() - 1, new ObjectId(id));
+        }
+
+        List<Criteria> branches = new ArrayList<>();
+        for (int i = 0; i < fields.size(); i++) {
+            // _id 不会为空，直接比较
+            Criteria beyond = i == fields.size() - 1
+                    ? idBeyond(values.get(i), direction)
+                    : beyond(fields.get(i), values.get(i), direction);
+            if (beyond == null) {
+                continue;
+            }
+            List<Criteria> parts = new ArrayList<>();
+            for (int j = 0; j < i; j++) {
+                parts.add(Criteria.where(fields.get(j)).is(values.get(j)));
+            }
+            parts.add(beyond);
+            branches.add(parts.size() == 1 ? parts.get(0) : new Criteria().andOperator(parts));
+        }
+        return new Criteria().orOperator(branches);
+    }
+
+    private static Criteria idBeyond(Object id, Sort.Direction direction) {
+        return direction.isAscending() ? Criteria.where(ID_FIELD).gt(id) : Criteria.where(ID_FIELD).lt(id);
+    }
+
+    /**
+     * 单个排序键越过游标值；MongoDB 中 null 排在最前，降序时位于末尾
+     */
+    private static Criteria beyond(String field, Object value, Sort.Direction direction) {
+        if (direction.isAscending()) {
+            return value == null ? Criteria.where(field).ne(null) : Criteria.where(field).gt(value);
+        }
+        if (value == null) {
+            return null;
+        }
+        return new Criteria().orOperator(Criteria.where(field).lt(value), Criteria.where(field).is(null));
+    }
+
+    private static String encodeValue(Object value) {
+        if (value == null) {
+            return "n:";
+        }
+        if (value instanceof LocalDateTime time) {
+            return "t:" + time;
+        }
+        if (value instanceof Long number) {
+            return "l:" + number;
+        }
+        if (value instanceof Integer number) {
+            return "i:" + number;
+        }
+        return "s:" + value;
+    }
+
+    private static List<Object> decode(String cursor, int expectedValues) {
+        List<Object> values = new ArrayList<>();
+        for (String encoded : CursorCodec.decode(cursor, expectedValues)) {
+            try {
+                String raw = encoded.length() >= 2 ? encoded.substring(2) : "";
+                switch (encoded.length() >= 2 ? encoded.substring(0, 2) : encoded) {
+                    case "n:" -> values.add(null);
+                    case "t:" -> values.add(LocalDateTime.parse(raw));
+                    case "l:" -> values.add(Long.parseLong(raw));
+                    case "i:" -> values.add(Integer.parseInt(raw));
+                    case "s:" -> values.add(raw);
+                    default -> throw new IllegalArgumentException("未知的游标值类型");
+                }
+            } catch (RuntimeException e) {
+                throw new RuntimeException("无效的分页游标: " + cursor, e);
+            }
+        }
+        return values;
+    }
+}
@@ -0,0 +1,325 @@
+package org.linghu.discussion.ranking;
+
+import lombok.extern.slf4j.Slf4j;
+import org.linghu.discussion.counter.ViewCountBuffer;
+import org.linghu.discussion.domain.Discussion;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.connection.zset.Aggregate;
+import org.springframework.data.redis.connection.zset.Weights;
+import org.springframework.data.redis.core.RedisOperations;
+import org.springframework.data.redis.core.SessionCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Consumer;
+
+/**
+ * 讨论热榜和趋势榜
+ * <p>
+ * 热榜：热度 = log2(1 + 互动加权和) + 创建时间 / 半衰期，即讨论每老一个半衰期，需要双倍的互动才能保持同样的排名。
+ * 热度只取决于讨论当前的计数和创建时间，不随查询时间变化，因此点赞、评论、浏览时直接用 ZADD 写入最新热度即可，
+ * 重复写入或乱序写入都不会累计误差；全站和各实验各一个有序集合，由 {@link HotRankingRebuildJob} 定期按数据库校正。
+ * <p>
+ * 趋势榜：只看最近一段时间内的互动。每次互动按权重累加到当前小时的有序集合，查询时把窗口内各小时的集合按
+ * 距今时间衰减加权合并（ZUNIONSTORE），合并结果缓存一分钟。小时集合到期自动删除，浏览没有逐条时间记录，
+ * 因此趋势榜不从数据库重建。
+ * <p>
+ * 两个榜单都只收录已通过且未删除的讨论。
+ */
+@Slf4j
+@Component
+public class HotRanking {
+
+    static final String GLOBAL_KEY = "discussion:hot:global";
+    static final String EXPERIMENT_KEY_PREFIX = "discussion:hot:experiment:";
+    static final String TRENDING_KEY_PREFIX = "discussion:trending:";
+
+    // 趋势榜的计数粒度和合并结果的缓存时间
+    static final Duration TRENDING_BUCKET = Duration.ofHours(1);
+    static final Duration TRENDING_VIEW_TTL = Duration.ofMinutes(1);
+
+    // 各类互动的权重
+    static final double LIKE_WEIGHT = 2.0;
+    static final double COMMENT_WEIGHT = 3.0;
+    static final double VIEW_WEIGHT = 0.1;
+
+    /**
+     * 榜单
+     */
+    public enum Feed {
+        HOT, TRENDING
+    }
+
+    /**
+     * 触发更新的互动，用于累加趋势榜
+     */
+    public enum Interaction {
+        LIKE(LIKE_WEIGHT), UNLIKE(-LIKE_WEIGHT), COMMENT(COMMENT_WEIGHT), VIEW(VIEW_WEIGHT);
+
+        private final double weight;
+
+        Interaction(double weight) {
+            this.weight = weight;
+        }
+    }
+
+    private final StringRedisTemplate redisTemplate;
+    private final ViewCountBuffer viewCountBuffer;
+    private final Duration halfLife;
+    private final Duration experimentKeyTtl;
+    private final Duration trendingHalfLife;
+    private final Duration trendingWindow;
+
+    public HotRanking(StringRedisTemplate redisTemplate,
+                      ViewCountBuffer viewCountBuffer,
+                      @Value("${discussion.hot.half-life:PT24H}") Duration halfLife,
+                      @Value("${discussion.hot.rebuild-window:P30D}") Duration experimentKeyTtl,
+                      @Value("${discussion.hot.trending-half-life:PT6H}") Duration trendingHalfLife,
+                      @Value("${discussion.hot.trending-window:PT24H}") Duration trendingWindow) {
+        this.redisTemplate = redisTemplate;
+        this.viewCountBuffer = viewCountBuffer;
+        this.halfLife = halfLife;
+        this.experimentKeyTtl = experimentKeyTtl;
+        this.trendingHalfLife = trendingHalfLife;
+        this.trendingWindow = trendingWindow.compareTo(TRENDING_BUCKET) < 0 ? TRENDING_BUCKET : trendingWindow;
+    }
+
+    /**
+     * 按讨论当前状态写入或移出热榜，不累加趋势榜
+     *
+     * @param discussion 最新的讨论
+     */
+    public void update(Discussion discussion) {
+        update(discussion, null);
+    }
+
+    /**
+     * 按讨论当前状态写入或移出榜单，Redis 出错只记录日志，不影响业务操作
+     *
+     * @param discussion  最新的讨论
+     * @param interaction 本次互动，为null时只刷新热榜
+     */
+    public void update(Discussion discussion, Interaction interaction) {
+        if (!isRanked(discussion)) {
+            remove(discussion.getId(), discussion.getExperimentId());
+            return;
+        }
+        double score = score(discussion);
+        long bucket = currentBucket();
+        try {
+            pipelined(operations -> {
+                operations.opsForZSet().add(GLOBAL_KEY, discussion.getId(), score);
+                if (interaction != null) {
+                    incrementTrending(operations, trendingBucketKey(null, bucket), discussion.getId(), interaction);
+                }
+                if (StringUtils.hasText(discussion.getExperimentId())) {
+                    String experimentKey = key(discussion.getExperimentId());
+                    operations.opsForZSet().add(experimentKey, discussion.getId(), score);
+                    // 长期没有互动的实验热榜自然过期
+                    operations.expire(experimentKey, experimentKeyTtl);
+                    if (interaction != null) {
+                        incrementTrending(operations, trendingBucketKey(discussion.getExperimentId(), bucket),
+                                discussion.getId(), interaction);
+                    }
+                }
+            });
+        } catch (Exception e) {
+            log.warn("更新讨论热度失败: id={}, error={}", discussion.getId(), e.getMessage());
+        }
+    }
+
+    /**
+     * 从全站和实验的热榜、趋势榜中移除讨论
+     *
+     * @param discussionId 讨论ID
+     * @param experimentId 讨论所属的实验ID，可为null
+     */
+    public void remove(String discussionId, String experimentId) {
+        try {
+            pipelined(operations -> {
+                operations.opsForZSet().remove(GLOBAL_KEY, discussionId);
+                trendingKeys(null).forEach(key -> operations.opsForZSet().remove(key, discussionId));
+                if (StringUtils.hasText(experimentId)) {
+                    operations.opsForZSet().remove(key(experimentId), discussionId);
+                    trendingKeys(experimentId).forEach(key -> operations.opsForZSet().remove(key, discussionId));
+                }
+            });
+        } catch (Exception e) {
+            log.warn("移出榜单失败: id={}, error={}", discussionId, e.getMessage());
+        }
+    }
+
+    /**
+     * 按榜单顺序取一页讨论ID
+     *
+     * @param feed         榜单
+     * @param experimentId 实验ID，为空时取全站榜单
+     * @param page         页码，从0开始
+     * @param size         每页条数
+     * @return 讨论ID和榜单总数；Redis 不可用或榜单为空（尚未建立或数据丢失）时返回null，由调用方退回数据库查询
+     */
+    public RankedPage page(Feed feed, String experimentId, int page, int size) {
+        String key = feed == Feed.HOT ? key(experimentId) : trendingViewKey(experimentId);
+        try {
+            if (feed == Feed.TRENDING) {
+                refreshTrendingView(experimentId, key);
+            }
+            Long total = redisTemplate.opsForZSet().zCard(key);
+            if (total == null || total == 0) {
+                return null;
+            }
+            long start = (long) page * size;
+            if (start >= total) {
+                return new RankedPage(List.of(), total);
+            }
+            Set<String> ids = redisTemplate.opsForZSet().reverseRange(key, start, start + size - 1);
+            return new RankedPage(ids == null ? List.of() : List.copyOf(ids), total);
+        } catch (Exception e) {
+            log.warn("读取榜单失败，退回数据库查询: key={}, error={}", key, e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * 移除榜单中已删除或已不可见的讨论
+     *
+     * @param feed          榜单
+     * @param experimentId  实验ID，为空时为全站榜单
+     * @param discussionIds 讨论ID
+     */
+    public void evict(Feed feed, String experimentId, Collection<String> discussionIds) {
+        if (discussionIds.isEmpty()) {
+            return;
+        }
+        Object[] members = discussionIds.toArray();
+        try {
+            if (feed == Feed.HOT) {
+                redisTemplate.opsForZSet().remove(key(experimentId), members);
+                return;
+            }
+            pipelined(operations -> {
+                operations.opsForZSet().remove(trendingViewKey(experimentId), members);
+                trendingKeys(experimentId).forEach(key -> operations.opsForZSet().remove(key, members));
+            });
+        } catch (Exception e) {
+            log.warn("清理榜单失败: feed={}, experimentId={}, error={}", feed, experimentId, e.getMessage());
+        }
+    }
+
+    /**
+     * 计算热度，浏览数包含本实例尚未写回的增量
+     */
+    double score(Discussion discussion) {
+        double weight = valueOf(discussion.getLikeCount()) * LIKE_WEIGHT
+                + valueOf(discussion.getCommentCount()) * COMMENT_WEIGHT
+                + (valueOf(discussion.getViewCount()) + viewCountBuffer.getPendingViews(discussion.getId())) * VIEW_WEIGHT;
+        LocalDateTime createTime = discussion.getCreateTime() == null ? LocalDateTime.now() : discussion.getCreateTime();
+        long createdSeconds = createTime.atZone(ZoneId.systemDefault()).toEpochSecond();
+        return Math.log1p(Math.max(weight, 0)) / Math.log(2) + (double) createdSeconds / halfLife.toSeconds();
+    }
+
+    static boolean isRanked(Discussion discussion) {
+        return !Boolean.TRUE.equals(discussion.getDeleted())
+                && discussion.getStatus() == Discussion.DiscussionStatus.APPROVED;
+    }
+
+    static String key(String experimentId) {
+        return StringUtils.hasText(experimentId) ? EXPERIMENT_KEY_PREFIX + experimentId : GLOBAL_KEY;
+    }
+
+    static String trendingBucketKey(String experimentId, long bucket) {
+        return trendingPrefix(experimentId) + bucket;
+    }
+
+    static String trendingViewKey(String experimentId) {
+        return trendingPrefix(experimentId) + "view";
+    }
+
+    private static String trendingPrefix(String experimentId) {
+        return TRENDING_KEY_PREFIX + (StringUtils.hasText(experimentId) ? "experiment:" + experimentId : "global") + ":";
+    }
+
+    private void incrementTrending(RedisOperations<String, String> operations, String key, String discussionId,
+                                   Interaction interaction) {
+        operations.opsForZSet().incrementScore(key, discussionId, interaction.weight);
+        operations.expire(key, trendingWindow.plus(TRENDING_BUCKET));
+    }
+
+    /**
+     * 合并窗口内各小时的互动，越早的小时权重越低；合并结果仍在缓存期内时直接使用
+     */
+    private void refreshTrendingView(String experimentId, String viewKey) {
+        if (Boolean.TRUE.equals(redisTemplate.hasKey(viewKey))) {
+            return;
+        }
+        long current = currentBucket();
+        long nowMillis = System.currentTimeMillis();
+        List<String> keys = new ArrayList<>();
+        double[] weights = new double[bucketCount()];
+        for (int i = 0; i < weights.length; i++) {
+            long bucket = current - i;
+            keys.add(trendingBucketKey(experimentId, bucket));
+            // 按小时中点计算距今时间
+            double ageMillis = nowMillis - (bucket + 0.5) * TRENDING_BUCKET.toMillis();
+            weights[i] = Math.pow(2, -Math.max(ageMillis, 0) / trendingHalfLife.toMillis());
+        }
+        redisTemplate.opsForZSet().unionAndStore(keys.get(0), keys.subList(1, keys.size()), viewKey,
+                Aggregate.SUM, Weights.of(weights));
+        redisTemplate.expire(viewKey, TRENDING_VIEW_TTL);
+    }
+
+    /**
+     * 窗口内各小时的计数key
+     */
+    private List<String> trendingKeys(String experimentId) {
+        long current = currentBucket();
+        List<String> keys = new ArrayList<>();
+        for (int i = 0; i < bucketCount(); i++) {
+            keys.add(trendingBucketKey(experimentId, current - i));
+        }
+        return keys;
+    }
+
+    private int bucketCount() {
+        return (int) Math.ceil((double) trendingWindow.toMillis() / TRENDING_BUCKET.toMillis());
+    }
+
+    private static long currentBucket() {
+        return System.currentTimeMillis() / TRENDING_BUCKET.toMillis();
+    }
+
+    private static long valueOf(Long count) {
+        return count == null ? 0L : count;
+    }
+
+    /**
+     * 用管道发送多条命令，只需一次网络往返
+     */
+    private void pipelined(Consumer<RedisOperations<String, String>> commands) {
+        redisTemplate.executePipelined(new SessionCallback<Object>() {
+            @Override
+            @SuppressWarnings("unchecked")
+            public <K, V> Object execute(RedisOperations<K, V> operations) {
+                commands.accept((RedisOperations<String, String>) operations);
+                return null;
+            }
+        });
+    }
+
+    /**
+     * 榜单的一页
+     *
+     * @param ids   按排名从高到低排列的讨论ID
+     * @param total 榜单中的讨论总数
+     */
+    public record RankedPage(List<String> ids, long total) {
+    }
+}
@@ -0,0 +1,161 @@
+package org.linghu.discussion.ranking;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.linghu.discussion.domain.Discussion;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ZSetOperations;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * 热榜重建任务
+ * <p>
+ * 定期读取重建窗口内创建的已通过讨论，按当前计数重新计算热度，写入全站和各实验热榜，
+ * 并移除已删除、已下线、超出窗口或排名在保留条数之外的讨论。
+ * 用于修复 Redis 写入失败、数据丢失以及直接修改数据库造成的偏差。
+ */
+@Slf4j
+@Component
+public class HotRankingRebuildJob {
+
+    private final MongoTemplate mongoTemplate;
+    private final StringRedisTemplate redisTemplate;
+    private final HotRanking hotRanking;
+    private final Duration interval;
+    private final Duration window;
+    private final int maxSize;
+    private final AtomicBoolean running = new AtomicBoolean();
+
+    private ScheduledExecutorService executor;
+
+    public HotRankingRebuildJob(MongoTemplate mongoTemplate,
+                                StringRedisTemplate redisTemplate,
+                                HotRanking hotRanking,
+                                @Value("${discussion.hot.rebuild-interval:PT1H}") Duration interval,
+                                @Value("${discussion.hot.rebuild-window:P30D}") Duration window,
+                                @Value("${discussion.hot.max-size:1000}") int maxSize) {
+        this.mongoTemplate = mongoTemplate;
+        this.redisTemplate = redisTemplate;
+        this.hotRanking = hotRanking;
+        this.interval = interval;
+        this.window = window;
+        this.maxSize = Math.max(maxSize, 1);
+    }
+
+    @PostConstruct
+    public void start() {
+        executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "discussion-hot-rebuild");
+            thread.setDaemon(true);
+            return thread;
+        });
+        // 启动后尽快建立热榜，之后按固定间隔校正
+        long intervalMillis = Math.max(60_000, interval.toMillis());
+        executor.scheduleWithFixedDelay(this::rebuildQuietly, 10_000, intervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (executor != null) {
+            executor.shutdownNow();
+        }
+    }
+
+    private void rebuildQuietly() {
+        try {
+            rebuild();
+        } catch (Exception e) {
+            log.warn("热榜重建失败: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * 重建全站和各实验热榜
+     *
+     * @return 写入热榜的讨论数，已有重建在执行时返回-1
+     */
+    public long rebuild() {
+        if (!running.compareAndSet(false, true)) {
+            return -1;
+        }
+        try {
+            Query query = new Query(Criteria.where("deleted").is(false)
+                    .and("status").is("APPROVED")
+                    .and("createTime").gte(LocalDateTime.now().minus(window)));
+            query.fields().include("experimentId", "status", "deleted", "createTime",
+                    "likeCount", "commentCount", "viewCount");
+
+            // 热榜key -> (讨论ID -> 热度)
+            Map<String, Map<String, Double>> rankings = new HashMap<>();
+            rankings.put(HotRanking.GLOBAL_KEY, new HashMap<>());
+            try (Stream<Discussion> discussions = mongoTemplate.stream(query, Discussion.class)) {
+                discussions.forEach(discussion -> {
+                    double score = hotRanking.score(discussion);
+                    rankings.get(HotRanking.GLOBAL_KEY).put(discussion.getId(), score);
+                    if (StringUtils.hasText(discussion.getExperimentId())) {
+                        rankings.computeIfAbsent(HotRanking.key(discussion.getExperimentId()), key -> new HashMap<>())
+                                .put(discussion.getId(), score);
+                    }
+                });
+            }
+
+            long written = 0;
+            for (Map.Entry<String, Map<String, Double>> ranking : rankings.entrySet()) {
+                written += replace(ranking.getKey(), ranking.getValue());
+            }
+            log.info("热榜重建完成: 全站 {} 条, 实验热榜 {} 个",
+                    rankings.get(HotRanking.GLOBAL_KEY).size(), rankings.size() - 1);
+            return written;
+        } finally {
+            running.set(false);
+        }
+    }
+
+    /**
+     * 写入一个热榜的最新热度并移除不在结果中的讨论
+     * <p>
+     * 不删除整个key再重写，重建期间热榜始终可读；重建期间发生的互动可能被快照中较旧的热度覆盖，下次互动时即恢复。
+     */
+    private int replace(String key, Map<String, Double> scores) {
+        Set<ZSetOperations.TypedTuple<String>> tuples = scores.entrySet().stream()
+                .sorted(Map.Entry.<String, Double>comparingByValue().reversed())
+                .limit(maxSize)
+                .map(entry -> ZSetOperations.TypedTuple.of(entry.getKey(), entry.getValue()))
+                .collect(Collectors.toSet());
+        Set<String> members = tuples.stream().map(ZSetOperations.TypedTuple::getValue).collect(Collectors.toSet());
+
+        ZSetOperations<String, String> zSet = redisTemplate.opsForZSet();
+        Set<String> current = zSet.range(key, 0, -1);
+        if (!tuples.isEmpty()) {
+            zSet.add(key, tuples);
+        }
+        Set<String> stale = new HashSet<>(current == null ? Set.of() : current);
+        stale.removeAll(members);
+        if (!stale.isEmpty()) {
+            zSet.remove(key, stale.toArray());
+        }
+        if (!HotRanking.GLOBAL_KEY.equals(key)) {
+            redisTemplate.expire(key, window);
+        }
+        return tuples.size();
+    }
+}
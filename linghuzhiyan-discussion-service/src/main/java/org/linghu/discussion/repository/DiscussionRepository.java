@@ -53,12 +53,6 @@ public interface DiscussionRepository extends MongoRepository<Discussion, String
     @Query("{'deleted': false, 'tags': {'$in': ?0}}")
     Page<Discussion> findByTagsInAndNotDeleted(List<String> tags, Pageable pageable);
 
-    /**
-     * 全文搜索讨论
-     */
-    @Query("{'deleted': false, '$text': {'$search': ?0}}")
-    Page<Discussion> findByTextSearch(String keyword, Pageable pageable);
-
     /**
      * 按标题关键词搜索
      */
@@ -89,6 +83,12 @@ public interface DiscussionRepository extends MongoRepository<Discussion, String
     @Query("{'deleted': false, 'status': 'APPROVED'}")
     Page<Discussion> findPopularDiscussions(Pageable pageable);
 
+    /**
+     * 查找实验下的热门讨论（按点赞数）
+     */
+    @Query("{'deleted': false, 'status': 'APPROVED', 'experimentId': ?0}")
+    Page<Discussion> findPopularDiscussionsByExperimentId(String experimentId, Pageable pageable);
+
     /**
      * 查找最新活动讨论
      */
@@ -0,0 +1,12 @@
+package org.linghu.discussion.repository;
+
+import org.linghu.discussion.domain.Like;
+import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.stereotype.Repository;
+
+/**
+ * 点赞记录数据访问接口
+ */
+@Repository
+public interface LikeRepository extends MongoRepository<Like, String> {
+}
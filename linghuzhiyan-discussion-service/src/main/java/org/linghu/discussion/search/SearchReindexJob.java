@@ -0,0 +1,147 @@
+package org.linghu.discussion.search;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Function;
+
+/**
+ * 搜索词重建任务
+ * <p>
+ * 找出搜索词版本不是当前版本的讨论和评论（历史数据或分词规则升级后），分批重新分词并用 $set 写回，
+ * 不整文档覆盖，不影响并发的计数更新。写回时再次校验版本，期间被编辑过的文档已由保存回调生成新词，不会被旧内容覆盖。
+ */
+@Slf4j
+@Component
+public class SearchReindexJob {
+
+    static final int BATCH_SIZE = 500;
+
+    private final MongoTemplate mongoTemplate;
+    private final boolean runOnStartup;
+    private final AtomicBoolean running = new AtomicBoolean();
+
+    private ScheduledExecutorService executor;
+
+    public SearchReindexJob(MongoTemplate mongoTemplate,
+                            @Value("${discussion.search.reindex-on-startup:true}") boolean runOnStartup) {
+        this.mongoTemplate = mongoTemplate;
+        this.runOnStartup = runOnStartup;
+    }
+
+    @PostConstruct
+    public void start() {
+        executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "discussion-search-reindex");
+            thread.setDaemon(true);
+            return thread;
+        });
+        if (runOnStartup) {
+            // 延迟执行，避开启动阶段
+            executor.schedule(this::reindexQuietly, 30, TimeUnit.SECONDS);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (executor != null) {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * 在后台执行一次重建
+     *
+     * @return 已有重建在执行时返回false
+     */
+    public boolean trigger() {
+        if (running.get()) {
+            return false;
+        }
+        executor.execute(this::reindexQuietly);
+        return true;
+    }
+
+    private void reindexQuietly() {
+        try {
+            reindex();
+        } catch (Exception e) {
+            log.warn("搜索词重建失败: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * 重建所有需要更新的搜索词
+     *
+     * @return 处理的文档数，已有重建在执行时返回-1
+     */
+    public long reindex() {
+        if (!running.compareAndSet(false, true)) {
+            return -1;
+        }
+        try {
+            long discussions = reindex("discussions", document -> new Update()
+                    .set("search_title", SearchTokenizer.tokenize(document.getString("title")))
+                    .set("search_content", SearchTokenizer.tokenize(document.getString("content"))),
+                    "title", "content");
+            long comments = reindex("comments", document -> new Update()
+                    .set("search_content", SearchTokenizer.tokenize(document.getString("content"))),
+                    "content");
+            if (discussions > 0 || comments > 0) {
+                log.info("搜索词重建完成: 讨论 {} 条, 评论 {} 条", discussions, comments);
+            }
+            return discussions + comments;
+        } finally {
+            running.set(false);
+        }
+    }
+
+    /**
+     * 按 _id 升序从上一批的最后一个 _id 继续，每批只扫描未处理过的区间，不会反复扫描已更新的文档
+     */
+    private long reindex(String collection, Function<Document, Update> tokenUpdate, String... sourceFields) {
+        long processed = 0;
+        Object lastId = null;
+        while (!Thread.currentThread().isInterrupted()) {
+            Criteria criteria = Criteria.where("search_version").ne(SearchTokenizer.VERSION);
+            if (lastId != null) {
+                criteria.and("_id").gt(lastId);
+            }
+            Query query = new Query(criteria).with(Sort.by(Sort.Direction.ASC, "_id")).limit(BATCH_SIZE);
+            query.fields().include(sourceFields);
+            List<Document> batch = mongoTemplate.find(query, Document.class, collection);
+            if (batch.isEmpty()) {
+                break;
+            }
+
+            BulkOperations operations = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, collection);
+            for (Document document : batch) {
+                operations.updateOne(
+                        new Query(Criteria.where("_id").is(document.get("_id"))
+                                .and("search_version").ne(SearchTokenizer.VERSION)),
+                        tokenUpdate.apply(document).set("search_version", SearchTokenizer.VERSION));
+            }
+            processed += operations.execute().getMatchedCount();
+            if (batch.size() < BATCH_SIZE) {
+                break;
+            }
+            lastId = batch.get(batch.size() - 1).get("_id");
+        }
+        return processed;
+    }
+}
@@ -0,0 +1,29 @@
+package org.linghu.discussion.search;
+
+import org.linghu.discussion.domain.Comment;
+import org.linghu.discussion.domain.Discussion;
+import org.springframework.data.mongodb.core.mapping.event.BeforeConvertCallback;
+import org.springframework.stereotype.Component;
+
+/**
+ * 保存讨论和评论前生成搜索词
+ * <p>
+ * 整文档写入（创建讨论和评论）会经过此回调；编辑讨论只 $set 改动的字段，不经过此回调，
+ * 由编辑处自行写入新的搜索词。只更新计数、状态等字段的 $inc/$set 操作不涉及正文。
+ */
+@Component
+public class SearchTokenCallback implements BeforeConvertCallback<Object> {
+
+    @Override
+    public Object onBeforeConvert(Object entity, String collection) {
+        if (entity instanceof Discussion discussion) {
+            discussion.setSearchTitle(SearchTokenizer.tokenize(discussion.getTitle()));
+            discussion.setSearchContent(SearchTokenizer.tokenize(discussion.getContent()));
+            discussion.setSearchVersion(SearchTokenizer.VERSION);
+        } else if (entity instanceof Comment comment) {
+            comment.setSearchContent(SearchTokenizer.tokenize(comment.getContent()));
+            comment.setSearchVersion(SearchTokenizer.VERSION);
+        }
+        return entity;
+    }
+}
@@ -0,0 +1,154 @@
+package org.linghu.discussion.search;
+
+import org.springframework.data.mongodb.core.query.TextCriteria;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * 搜索分词
+ * <p>
+ * MongoDB 文本索引按空白和标点切分词语，无法切分连续的中文。写入时把中文（及日文、韩文）连续片段
+ * 切成单字和相邻二字组合，英文和数字保留整词，用空格连接后存入文本索引字段；
+ * 查询时用同样的规则把关键词切成二字组合并要求全部命中，效果接近原来的包含匹配，但可以走索引并按相关度排序。
+ */
+public final class SearchTokenizer {
+
+    /**
+     * 分词规则版本，规则变化时递增，重建任务据此找出需要重新分词的文档
+     */
+    public static final int VERSION = 1;
+
+    // 单个字段最多保留的词数，避免超长正文撑大索引
+    private static final int MAX_TOKENS = 5_000;
+
+    // 查询最多使用的词数
+    private static final int MAX_QUERY_TOKENS = 32;
+
+    private SearchTokenizer() {
+    }
+
+    /**
+     * 为写入生成搜索词
+     *
+     * @param text 原文
+     * @return 去重后以空格分隔的搜索词，原文为空时返回空字符串
+     */
+    public static String tokenize(String text) {
+        Set<String> tokens = new LinkedHashSet<>();
+        for (Segment segment : segments(text)) {
+            if (segment.cjk()) {
+                String run = segment.text();
+                int[] codePoints = run.codePoints().toArray();
+                for (int i = 0; i < codePoints.length && tokens.size() < MAX_TOKENS; i++) {
+                    tokens.add(new String(codePoints, i, 1));
+                    if (i + 1 < codePoints.length) {
+                        tokens.add(new String(codePoints, i, 2));
+                    }
+                }
+            } else {
+                tokens.add(segment.text());
+            }
+            if (tokens.size() >= MAX_TOKENS) {
+                break;
+            }
+        }
+        return String.join(" ", tokens);
+    }
+
+    /**
+     * 为查询生成搜索词
+     * <p>
+     * 中文片段切成相邻二字组合，单个汉字的片段按单字匹配。
+     *
+     * @param keyword 关键词
+     * @return 搜索词，关键词中没有可搜索内容时为空列表
+     */
+    public static List<String> queryTokens(String keyword) {
+        Set<String> tokens = new LinkedHashSet<>();
+        for (Segment segment : segments(keyword)) {
+            if (segment.cjk()) {
+                int[] codePoints = segment.text().codePoints().toArray();
+                if (codePoints.length == 1) {
+                    tokens.add(segment.text());
+                }
+                for (int i = 0; i + 1 < codePoints.length; i++) {
+                    tokens.add(new String(codePoints, i, 2));
+                }
+            } else {
+                tokens.add(segment.text());
+            }
+        }
+        return tokens.stream().limit(MAX_QUERY_TOKENS).toList();
+    }
+
+    /**
+     * 构建 $text 查询条件，每个搜索词作为短语，MongoDB 要求所有短语同时出现
+     *
+     * @param keyword 关键词
+     * @return 查询条件，关键词中没有可搜索内容时返回null
+     */
+    public static TextCriteria textCriteria(String keyword) {
+        List<String> tokens = queryTokens(keyword);
+        if (tokens.isEmpty()) {
+            return null;
+        }
+        TextCriteria criteria = TextCriteria.forDefaultLanguage();
+        tokens.forEach(criteria::matchingPhrase);
+        return criteria;
+    }
+
+    /**
+     * 按字符类别切分为中日韩片段和字母数字片段，其余字符作为分隔符
+     */
+    private static List<Segment> segments(String text) {
+        List<Segment> segments = new ArrayList<>();
+        if (text == null || text.isBlank()) {
+            return segments;
+        }
+        String normalized = Normalizer.normalize(text, Normalizer.Form.NFKC).toLowerCase(Locale.ROOT);
+
+        StringBuilder current = new StringBuilder();
+        Boolean currentCjk = null;
+        for (int i = 0; i < normalized.length(); ) {
+            int codePoint = normalized.codePointAt(i);
+            i += Character.charCount(codePoint);
+
+            boolean cjk = isCjk(codePoint);
+            if (!cjk && !Character.isLetterOrDigit(codePoint)) {
+                flush(segments, current, currentCjk);
+                currentCjk = null;
+                continue;
+            }
+            if (currentCjk != null && currentCjk != cjk) {
+                flush(segments, current, currentCjk);
+            }
+            currentCjk = cjk;
+            current.appendCodePoint(codePoint);
+        }
+        flush(segments, current, currentCjk);
+        return segments;
+    }
+
+    private static void flush(List<Segment> segments, StringBuilder current, Boolean cjk) {
+        if (!current.isEmpty()) {
+            segments.add(new Segment(current.toString(), Boolean.TRUE.equals(cjk)));
+            current.setLength(0);
+        }
+    }
+
+    private static boolean isCjk(int codePoint) {
+        Character.UnicodeScript script = Character.UnicodeScript.of(codePoint);
+        return script == Character.UnicodeScript.HAN
+                || script == Character.UnicodeScript.HIRAGANA
+                || script == Character.UnicodeScript.KATAKANA
+                || script == Character.UnicodeScript.HANGUL;
+    }
+
+    private record Segment(String text, boolean cjk) {
+    }
+}
@@ -2,6 +2,7 @@ package org.linghu.discussion.service;
 
 import org.linghu.discussion.dto.CommentRequestDTO;
 import org.linghu.discussion.dto.CommentResponseDTO;
+import org.linghu.discussion.dto.CursorPageDTO;
 import org.linghu.discussion.dto.ReportRequestDTO;
 import org.springframework.data.domain.Page;
 
@@ -34,6 +35,32 @@ public interface CommentService {
      */
     List<CommentResponseDTO> getRepliesByCommentId(String commentId, String currentUserId);
 
+    /**
+     * 按游标分页获取根评论下的回复，按回复时间升序
+     *
+     * @param rootId        根评论ID
+     * @param cursor        上一页返回的游标，第一页为null
+     * @param size          每页条数
+     * @param currentUserId 当前用户ID
+     * @return 回复分页
+     */
+    CursorPageDTO<CommentResponseDTO> getThreadReplies(String rootId, String cursor, int size, String currentUserId);
+
+    /**
+     * 按游标分页获取讨论的评论列表
+     * <p>
+     * 排序支持 createTime 和 likeCount；withTotal 为 true 时附带缓存的近似总数。
+     */
+    CursorPageDTO<CommentResponseDTO> getCommentFeed(
+            String discussionId,
+            boolean rootOnly,
+            String sortBy,
+            String order,
+            String cursor,
+            int size,
+            boolean withTotal,
+            String currentUserId);
+
     /**
      * 获取用户的评论列表
      */
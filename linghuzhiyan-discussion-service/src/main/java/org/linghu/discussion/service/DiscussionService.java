@@ -28,6 +28,25 @@ public interface DiscussionService {
             int size,
             String currentUserId);
 
+    /**
+     * 游标分页获取讨论列表
+     * <p>
+     * 过滤条件与 {@link #getDiscussions} 相同，排序支持 lastActivityTime、createTime、likeCount 和 priority；
+     * withTotal 为 true 时附带缓存的近似总数。
+     */
+    CursorPageDTO<DiscussionResponseDTO> getDiscussionFeed(
+            String[] tags,
+            String experimentId,
+            String userId,
+            String status,
+            String keyword,
+            String sortBy,
+            String order,
+            String cursor,
+            int size,
+            boolean withTotal,
+            String currentUserId);
+
     /**
      * 获取讨论详情
      */
@@ -59,7 +78,7 @@ public interface DiscussionService {
     DiscussionResponseDTO toggleLike(String id, String userId);
 
     /**
-     * 增加浏览次数
+     * 增加浏览次数（记入缓冲，由后台批量写回）
      */
     void incrementViewCount(String id);
 
@@ -74,9 +93,18 @@ public interface DiscussionService {
     long getExperimentDiscussionCount(String experimentId);
 
     /**
-     * 获取热门讨论
+     * 获取热门讨论，按随时间衰减的热度排序
+     *
+     * @param experimentId 实验ID，为空时为全站热门
      */
-    Page<DiscussionResponseDTO> getPopularDiscussions(int page, int size, String currentUserId);
+    Page<DiscussionResponseDTO> getPopularDiscussions(String experimentId, int page, int size, String currentUserId);
+
+    /**
+     * 获取趋势讨论，按最近一段时间内的互动排序
+     *
+     * @param experimentId 实验ID，为空时为全站趋势
+     */
+    Page<DiscussionResponseDTO> getTrendingDiscussions(String experimentId, int page, int size, String currentUserId);
 
     /**
      * 获取最新活动讨论
@@ -87,4 +115,11 @@ public interface DiscussionService {
      * 获取置顶讨论
      */
     Page<DiscussionResponseDTO> getPinnedDiscussions(String currentUserId);
+
+    /**
+     * 在后台重建讨论和评论的搜索词
+     *
+     * @return 已有重建在执行时返回false
+     */
+    boolean triggerSearchReindex();
 }
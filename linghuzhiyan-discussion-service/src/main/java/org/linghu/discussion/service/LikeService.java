@@ -0,0 +1,48 @@
+package org.linghu.discussion.service;
+
+import org.linghu.discussion.domain.Like;
+
+import java.util.Collection;
+import java.util.Set;
+
+/**
+ * 点赞服务接口
+ */
+public interface LikeService {
+
+    /**
+     * 切换点赞状态：已点赞则取消，未点赞则点赞
+     * <p>
+     * 只维护点赞记录，目标的点赞数由调用方按返回的增量以 $inc 更新。
+     *
+     * @param targetType 目标类型
+     * @param targetId   目标ID
+     * @param userId     用户ID
+     * @return 切换结果
+     */
+    LikeToggle toggleLike(Like.TargetType targetType, String targetId, String userId);
+
+    /**
+     * 判断用户是否点赞了目标
+     */
+    boolean isLiked(Like.TargetType targetType, String targetId, String userId);
+
+    /**
+     * 批量查询用户点赞过的目标
+     *
+     * @param targetType 目标类型
+     * @param targetIds  目标ID
+     * @param userId     用户ID，为null时返回空集合
+     * @return 用户点赞过的目标ID
+     */
+    Set<String> findLikedTargetIds(Like.TargetType targetType, Collection<String> targetIds, String userId);
+
+    /**
+     * 点赞切换结果
+     *
+     * @param liked 切换后是否为已点赞
+     * @param delta 目标点赞数的变化量；并发请求已完成同样的切换时为0
+     */
+    record LikeToggle(boolean liked, long delta) {
+    }
+}
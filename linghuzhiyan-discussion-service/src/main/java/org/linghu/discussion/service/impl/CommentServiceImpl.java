@@ -1,20 +1,39 @@
 package org.linghu.discussion.service.impl;
 
+import com.mongodb.client.result.UpdateResult;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
 import org.linghu.discussion.client.UserServiceClient;
 import org.linghu.discussion.domain.Comment;
+import org.linghu.discussion.domain.Discussion;
+import org.linghu.discussion.domain.Like;
 import org.linghu.discussion.dto.*;
+import org.linghu.discussion.pagination.ApproximateCounter;
+import org.linghu.discussion.pagination.KeysetQuery;
+import org.linghu.discussion.ranking.HotRanking;
 import org.linghu.discussion.repository.CommentRepository;
 import org.linghu.discussion.repository.DiscussionRepository;
+import org.linghu.discussion.search.SearchTokenizer;
 import org.linghu.discussion.service.CommentService;
+import org.linghu.discussion.service.LikeService;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.*;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.TypedAggregation;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.TextCriteria;
+import org.springframework.data.mongodb.core.query.TextQuery;
+import org.springframework.data.mongodb.core.query.Update;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.util.StringUtils;
 
 import java.time.LocalDateTime;
-import java.util.List;
+import java.util.*;
 import java.util.stream.Collectors;
 
 /**
@@ -26,9 +45,25 @@ import java.util.stream.Collectors;
 @Transactional(readOnly = true)
 public class CommentServiceImpl implements CommentService {
 
+    // 根评论下的回复按回复时间升序分页
+    private static final List<String> REPLY_SORT_FIELDS = List.of("createTime");
+
+    // 评论游标分页支持的排序方式及其排序字段，_id 由游标分页追加
+    private static final Map<String, List<String>> FEED_SORT_FIELDS = Map.of(
+            "createTime", List.of("createTime"),
+            "likeCount", List.of("likeCount"));
+
     private final CommentRepository commentRepository;
     private final DiscussionRepository discussionRepository;
     private final UserServiceClient userServiceClient;
+    private final MongoTemplate mongoTemplate;
+    private final LikeService likeService;
+    private final ApproximateCounter approximateCounter;
+    private final HotRanking hotRanking;
+
+    // 根评论列表中每条根评论内嵌的回复条数
+    @Value("${discussion.comment.reply-preview-size:3}")
+    private int replyPreviewSize;
 
     @Override
     @Transactional
@@ -85,12 +120,12 @@ public class CommentServiceImpl implements CommentService {
             Comment savedComment = commentRepository.save(comment);
             
             // 更新讨论的评论数量和最后评论时间
-            updateDiscussionCommentInfo(discussionId);
+            updateDiscussionCommentInfo(discussionId, 1, HotRanking.Interaction.COMMENT);
 
             log.info("创建评论成功: id={}, discussionId={}, userId={}", 
                     savedComment.getId(), discussionId, userId);
 
-            return convertToResponseDTO(savedComment, userId);
+            return convertToResponseDTO(savedComment, userId, false);
 
         } catch (Exception ex) {
             log.error("创建评论失败: discussionId={}, userId={}, error={}", 
@@ -116,29 +151,60 @@ public class CommentServiceImpl implements CommentService {
             // 只获取根评论
             comments = commentRepository.findRootCommentsByDiscussionId(discussionId, pageable);
             
-            // 转换为DTO并加载回复
-            return comments.map(comment -> {
-                CommentResponseDTO dto = convertToResponseDTO(comment, currentUserId);
-                List<Comment> replies = commentRepository.findByRootIdAndNotDeleted(comment.getId());
-                dto.setReplies(replies.stream()
-                        .filter(reply -> !reply.getId().equals(comment.getId())) // 排除自身
-                        .map(reply -> convertToResponseDTO(reply, currentUserId))
-                        .collect(Collectors.toList()));
-                return dto;
-            });
+            return new PageImpl<>(toRootResponseList(comments.getContent(), currentUserId),
+                    comments.getPageable(), comments.getTotalElements());
         } else {
             // 获取所有评论
             comments = commentRepository.findByDiscussionIdAndNotDeleted(discussionId, pageable);
-            return comments.map(comment -> convertToResponseDTO(comment, currentUserId));
+            return toResponsePage(comments, currentUserId);
         }
     }
 
+    @Override
+    public CursorPageDTO<CommentResponseDTO> getThreadReplies(String rootId, String cursor, int size,
+                                                              String currentUserId) {
+        commentRepository.findByIdAndNotDeleted(rootId)
+                .orElseThrow(() -> new RuntimeException("评论不存在: " + rootId));
+
+        Query query = Query.query(Criteria.where("rootId").is(rootId).and("deleted").is(false));
+        List<Comment> replies = mongoTemplate.find(
+                KeysetQuery.apply(query, REPLY_SORT_FIELDS, Sort.Direction.ASC, cursor, size), Comment.class);
+        return KeysetQuery.page(replies, REPLY_SORT_FIELDS, size, items -> toResponseList(items, currentUserId));
+    }
+
+    @Override
+    public CursorPageDTO<CommentResponseDTO> getCommentFeed(String discussionId, boolean rootOnly, String sortBy,
+                                                            String order, String cursor, int size, boolean withTotal,
+                                                            String currentUserId) {
+        discussionRepository.findByIdAndNotDeleted(discussionId)
+                .orElseThrow(() -> new RuntimeException("讨论不存在: " + discussionId));
+
+        List<String> sortFields = FEED_SORT_FIELDS.get(StringUtils.hasText(sortBy) ? sortBy : "createTime");
+        if (sortFields == null) {
+            throw new RuntimeException("不支持的排序字段: " + sortBy);
+        }
+        Sort.Direction direction = "asc".equalsIgnoreCase(order) ? Sort.Direction.ASC : Sort.Direction.DESC;
+
+        Criteria criteria = Criteria.where("discussionId").is(discussionId).and("deleted").is(false);
+        if (rootOnly) {
+            criteria = criteria.and("parentId").is(null);
+        }
+        Query filter = new Query(criteria);
+        Long total = withTotal ? approximateCounter.count(filter, Comment.class) : null;
+
+        List<Comment> rows = mongoTemplate.find(
+                KeysetQuery.apply(Query.of(filter), sortFields, direction, cursor, size), Comment.class);
+        CursorPageDTO<CommentResponseDTO> result = KeysetQuery.page(rows, sortFields, size, comments -> rootOnly
+                ? toRootResponseList(comments, currentUserId)
+                : toResponseList(comments, currentUserId));
+        result.setTotal(total);
+        return result;
+    }
+
     @Override
     public List<CommentResponseDTO> getRepliesByCommentId(String commentId, String currentUserId) {
         List<Comment> replies = commentRepository.findByParentIdAndNotDeleted(commentId);
-        return replies.stream()
-                .map(reply -> convertToResponseDTO(reply, currentUserId))
-                .collect(Collectors.toList());
+        return toResponseList(replies, currentUserId);
     }
 
     @Override
@@ -146,14 +212,15 @@ public class CommentServiceImpl implements CommentService {
         Sort sort = Sort.by(Sort.Direction.DESC, "createTime");
         Pageable pageable = PageRequest.of(page, size, sort);
         Page<Comment> comments = commentRepository.findByUserIdAndNotDeleted(userId, pageable);
-        return comments.map(comment -> convertToResponseDTO(comment, currentUserId));
+        return toResponsePage(comments, currentUserId);
     }
 
     @Override
     public CommentResponseDTO getCommentById(String commentId, String currentUserId) {
         Comment comment = commentRepository.findByIdAndNotDeleted(commentId)
                 .orElseThrow(() -> new RuntimeException("评论不存在: " + commentId));
-        return convertToResponseDTO(comment, currentUserId);
+        boolean isLiked = likeService.isLiked(Like.TargetType.COMMENT, commentId, currentUserId);
+        return convertToResponseDTO(comment, currentUserId, isLiked);
     }
 
     @Override
@@ -167,13 +234,16 @@ public class CommentServiceImpl implements CommentService {
             throw new RuntimeException("无权限删除此评论");
         }
 
-        // 逻辑删除
-        comment.setDeleted(true);
-        comment.setDeleteTime(LocalDateTime.now());
-        commentRepository.save(comment);
+        // 逻辑删除，只写删除标记，不回写整个评论文档
+        UpdateResult result = mongoTemplate.updateFirst(
+                Query.query(Criteria.where("_id").is(commentId).and("deleted").is(false)),
+                new Update().set("deleted", true).set("deleteTime", LocalDateTime.now()),
+                Comment.class);
 
-        // 更新讨论的评论数量
-        updateDiscussionCommentInfo(comment.getDiscussionId());
+        // 并发删除时只有真正改动了评论的一方扣减评论数
+        if (result.getModifiedCount() > 0) {
+            updateDiscussionCommentInfo(comment.getDiscussionId(), -1, null);
+        }
 
         log.info("删除评论成功: id={}, userId={}", commentId, userId);
         return true;
@@ -182,26 +252,21 @@ public class CommentServiceImpl implements CommentService {
     @Override
     @Transactional
     public CommentResponseDTO toggleLike(String commentId, String userId) {
-        Comment comment = commentRepository.findByIdAndNotDeleted(commentId)
+        commentRepository.findByIdAndNotDeleted(commentId)
                 .orElseThrow(() -> new RuntimeException("评论不存在: " + commentId));
 
-        List<String> likedBy = comment.getLikedBy();
+        LikeService.LikeToggle toggle = likeService.toggleLike(Like.TargetType.COMMENT, commentId, userId);
 
-        if (likedBy.contains(userId)) {
-            // 取消点赞
-            likedBy.remove(userId);
-            comment.setLikeCount(comment.getLikeCount() - 1);
-        } else {
-            // 添加点赞
-            likedBy.add(userId);
-            comment.setLikeCount(comment.getLikeCount() + 1);
+        // 点赞数用 $inc 原子更新，不回写整个评论文档
+        Update update = new Update()
+                .inc("likeCount", toggle.delta())
+                .set("updateTime", LocalDateTime.now());
+        Comment updatedComment = mongoTemplate.findAndModify(Query.query(Criteria.where("_id").is(commentId)),
+                update, FindAndModifyOptions.options().returnNew(true), Comment.class);
+        if (updatedComment == null) {
+            throw new RuntimeException("评论不存在: " + commentId);
         }
-
-        comment.setLikedBy(likedBy);
-        comment.setUpdateTime(LocalDateTime.now());
-
-        Comment updatedComment = commentRepository.save(comment);
-        return convertToResponseDTO(updatedComment, userId);
+        return convertToResponseDTO(updatedComment, userId, toggle.liked());
     }
 
     @Override
@@ -210,9 +275,9 @@ public class CommentServiceImpl implements CommentService {
         Comment comment = commentRepository.findByIdAndNotDeleted(commentId)
                 .orElseThrow(() -> new RuntimeException("评论不存在: " + commentId));
 
-        comment.setStatus(Comment.CommentStatus.REPORTED);
-        comment.setUpdateTime(LocalDateTime.now());
-        commentRepository.save(comment);
+        modifyComment(commentId, new Update()
+                .set("status", Comment.CommentStatus.REPORTED)
+                .set("updateTime", LocalDateTime.now()));
 
         log.info("举报评论成功: commentId={}, reporterId={}, reason={}", 
                 commentId, reporterId, requestDTO.getReason());
@@ -222,18 +287,15 @@ public class CommentServiceImpl implements CommentService {
     @Override
     @Transactional
     public CommentResponseDTO reviewComment(String commentId, String status, String reviewerId) {
-        Comment comment = commentRepository.findByIdAndNotDeleted(commentId)
-                .orElseThrow(() -> new RuntimeException("评论不存在: " + commentId));
-
         Comment.CommentStatus newStatus = Comment.CommentStatus.valueOf(status);
-        comment.setStatus(newStatus);
-        comment.setUpdateTime(LocalDateTime.now());
-
-        Comment updatedComment = commentRepository.save(comment);
+        Comment updatedComment = modifyComment(commentId, new Update()
+                .set("status", newStatus)
+                .set("updateTime", LocalDateTime.now()));
         log.info("审核评论完成: commentId={}, status={}, reviewerId={}", 
                 commentId, status, reviewerId);
 
-        return convertToResponseDTO(updatedComment, reviewerId);
+        boolean isLiked = likeService.isLiked(Like.TargetType.COMMENT, commentId, reviewerId);
+        return convertToResponseDTO(updatedComment, reviewerId, isLiked);
     }
 
     @Override
@@ -250,8 +312,17 @@ public class CommentServiceImpl implements CommentService {
     public Page<CommentResponseDTO> searchComments(String keyword, int page, int size, String currentUserId) {
         Sort sort = Sort.by(Sort.Direction.DESC, "createTime");
         Pageable pageable = PageRequest.of(page, size, sort);
-        Page<Comment> comments = commentRepository.findByContentContaining(keyword, pageable);
-        return comments.map(comment -> convertToResponseDTO(comment, currentUserId));
+        TextCriteria textCriteria = SearchTokenizer.textCriteria(keyword);
+        if (textCriteria == null) {
+            return Page.empty(pageable);
+        }
+
+        // 搜索词文本索引，按相关度排序，相关度相同时按时间倒序
+        Query query = TextQuery.queryText(textCriteria).sortByScore()
+                .addCriteria(Criteria.where("deleted").is(false));
+        long total = mongoTemplate.count(query, Comment.class);
+        List<Comment> comments = mongoTemplate.find(query.with(pageable), Comment.class);
+        return toResponsePage(new PageImpl<>(comments, pageable, total), currentUserId);
     }
 
     @Override
@@ -259,7 +330,7 @@ public class CommentServiceImpl implements CommentService {
         Sort sort = Sort.by(Sort.Direction.DESC, "updateTime");
         Pageable pageable = PageRequest.of(page, size, sort);
         Page<Comment> comments = commentRepository.findReportedComments(pageable);
-        return comments.map(comment -> convertToResponseDTO(comment, null));
+        return comments.map(comment -> convertToResponseDTO(comment, null, false));
     }
 
     @Override
@@ -267,34 +338,119 @@ public class CommentServiceImpl implements CommentService {
         Sort sort = Sort.by(Sort.Direction.DESC, "likeCount");
         Pageable pageable = PageRequest.of(0, limit, sort);
         List<Comment> comments = commentRepository.findPopularCommentsByDiscussionId(discussionId, pageable);
-        return comments.stream()
-                .map(comment -> convertToResponseDTO(comment, currentUserId))
-                .collect(Collectors.toList());
+        return toResponseList(comments, currentUserId);
     }
 
     /**
      * 更新讨论的评论信息
+     * <p>
+     * 评论数用 $inc 累加，只 $set 时间字段，不回写整个讨论文档，避免覆盖并发的点赞、浏览计数。
+     *
+     * @param delta       评论数变化量，新增为1，删除为-1
+     * @param interaction 新增评论时计入趋势榜，删除评论时为null
      */
-    private void updateDiscussionCommentInfo(String discussionId) {
+    private void updateDiscussionCommentInfo(String discussionId, long delta, HotRanking.Interaction interaction) {
         try {
-            long commentCount = commentRepository.countByDiscussionIdAndNotDeleted(discussionId);
-            discussionRepository.findByIdAndNotDeleted(discussionId).ifPresent(discussion -> {
-                discussion.setCommentCount(commentCount);
-                discussion.setLastCommentTime(LocalDateTime.now());
-                discussion.setLastActivityTime(LocalDateTime.now());
-                discussionRepository.save(discussion);
-            });
+            LocalDateTime now = LocalDateTime.now();
+            Update update = new Update()
+                    .inc("commentCount", delta)
+                    .set("lastCommentTime", now)
+                    .set("lastActivityTime", now);
+            Discussion discussion = mongoTemplate.findAndModify(
+                    Query.query(Criteria.where("_id").is(discussionId).and("deleted").is(false)),
+                    update, FindAndModifyOptions.options().returnNew(true), Discussion.class);
+            if (discussion != null) {
+                hotRanking.update(discussion, interaction);
+            }
         } catch (Exception e) {
             log.warn("更新讨论评论信息失败: discussionId={}, error={}", discussionId, e.getMessage());
         }
     }
 
     /**
-     * 转换为响应DTO
+     * 只更新评论的指定字段并返回更新后的评论，点赞数由 $inc 单独累加，不整文档回写
      */
-    private CommentResponseDTO convertToResponseDTO(Comment comment, String currentUserId) {
-        boolean isLiked = currentUserId != null && comment.getLikedBy().contains(currentUserId);
+    private Comment modifyComment(String commentId, Update update) {
+        Comment updatedComment = mongoTemplate.findAndModify(
+                Query.query(Criteria.where("_id").is(commentId).and("deleted").is(false)),
+                update, FindAndModifyOptions.options().returnNew(true), Comment.class);
+        if (updatedComment == null) {
+            throw new RuntimeException("评论不存在: " + commentId);
+        }
+        return updatedComment;
+    }
+
+    /**
+     * 聚合查询根评论的前几条回复（按回复时间升序）和回复总数
+     */
+    private Map<String, ReplyPreview> loadReplyPreviews(List<String> rootIds) {
+        if (rootIds.isEmpty()) {
+            return Map.of();
+        }
+
+        Document group = new Document("_id", "$root_id")
+                .append("replyCount", new Document("$sum", 1));
+        if (replyPreviewSize > 0) {
+            // $topN 在分组内只保留前N条，不会把整个评论树读入内存
+            group.append("replies", new Document("$topN", new Document("n", replyPreviewSize)
+                    .append("sortBy", new Document("create_time", 1).append("_id", 1))
+                    .append("output", "$$ROOT")));
+        }
+        TypedAggregation<Comment> aggregation = Aggregation.newAggregation(Comment.class,
+                Aggregation.match(Criteria.where("rootId").in(rootIds).and("deleted").is(false)),
+                context -> new Document("$group", group));
+
+        Map<String, ReplyPreview> previews = new HashMap<>();
+        for (Document result : mongoTemplate.aggregate(aggregation, Document.class)) {
+            List<Document> documents = result.containsKey("replies")
+                    ? result.getList("replies", Document.class) : List.of();
+            List<Comment> replies = documents.stream()
+                    .map(document -> mongoTemplate.getConverter().read(Comment.class, document))
+                    .toList();
+            previews.put(String.valueOf(result.get("_id")),
+                    new ReplyPreview(replies, ((Number) result.get("replyCount")).longValue()));
+        }
+        return previews;
+    }
+
+    /**
+     * 转换根评论列表，一次聚合取得所有根评论的前几条回复和回复总数
+     */
+    private List<CommentResponseDTO> toRootResponseList(List<Comment> roots, String currentUserId) {
+        List<String> rootIds = roots.stream().map(Comment::getId).toList();
+        Map<String, ReplyPreview> previews = loadReplyPreviews(rootIds);
+        List<String> commentIds = new ArrayList<>(rootIds);
+        previews.values().forEach(preview -> preview.replies().forEach(reply -> commentIds.add(reply.getId())));
+
+        // 根评论和回复的点赞状态一次查询
+        Set<String> likedIds = likeService.findLikedTargetIds(Like.TargetType.COMMENT, commentIds, currentUserId);
+        return roots.stream().map(comment -> {
+            CommentResponseDTO dto = convertToResponseDTO(comment, currentUserId, likedIds.contains(comment.getId()));
+            ReplyPreview preview = previews.getOrDefault(comment.getId(), ReplyPreview.NONE);
+            dto.setReplies(preview.replies().stream()
+                    .map(reply -> convertToResponseDTO(reply, currentUserId, likedIds.contains(reply.getId())))
+                    .collect(Collectors.toList()));
+            dto.setReplyCount(preview.replyCount());
+            if (preview.replyCount() > preview.replies().size() && !preview.replies().isEmpty()) {
+                Comment lastReply = preview.replies().get(preview.replies().size() - 1);
+                dto.setRepliesCursor(KeysetQuery.cursorOf(lastReply, REPLY_SORT_FIELDS));
+            }
+            return dto;
+        }).collect(Collectors.toList());
+    }
+
+    /**
+     * 根评论内嵌的回复预览
+     */
+    private record ReplyPreview(List<Comment> replies, long replyCount) {
+
+        static final ReplyPreview NONE = new ReplyPreview(List.of(), 0);
+    }
 
+    /**
+     * 转换为响应DTO
+     */
+    private CommentResponseDTO convertToResponseDTO(Comment comment, String currentUserId, boolean isLiked) {
         return CommentResponseDTO.builder()
                 .id(comment.getId())
                 .discussionId(comment.getDiscussionId())
@@ -316,6 +472,26 @@ public class CommentServiceImpl implements CommentService {
                 .build();
     }
 
+    /**
+     * 转换一页评论，当前用户的点赞状态用一次查询取得
+     */
+    private Page<CommentResponseDTO> toResponsePage(Page<Comment> comments, String currentUserId) {
+        Set<String> likedIds = likeService.findLikedTargetIds(Like.TargetType.COMMENT,
+                comments.map(Comment::getId).getContent(), currentUserId);
+        return comments.map(comment -> convertToResponseDTO(comment, currentUserId, likedIds.contains(comment.getId())));
+    }
+
+    /**
+     * 转换评论列表，当前用户的点赞状态用一次查询取得
+     */
+    private List<CommentResponseDTO> toResponseList(List<Comment> comments, String currentUserId) {
+        Set<String> likedIds = likeService.findLikedTargetIds(Like.TargetType.COMMENT,
+                comments.stream().map(Comment::getId).toList(), currentUserId);
+        return comments.stream()
+                .map(comment -> convertToResponseDTO(comment, currentUserId, likedIds.contains(comment.getId())))
+                .collect(Collectors.toList());
+    }
+
     /**
      * 创建排序对象
      */
@@ -3,21 +3,38 @@ package org.linghu.discussion.service.impl;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.linghu.discussion.client.UserServiceClient;
+import org.linghu.discussion.counter.ViewCountBuffer;
 import org.linghu.discussion.domain.Discussion;
+import org.linghu.discussion.domain.Like;
 import org.linghu.discussion.dto.*;
+import org.linghu.discussion.pagination.ApproximateCounter;
+import org.linghu.discussion.pagination.KeysetQuery;
+import org.linghu.discussion.ranking.HotRanking;
 import org.linghu.discussion.repository.DiscussionRepository;
+import org.linghu.discussion.search.SearchReindexJob;
+import org.linghu.discussion.search.SearchTokenizer;
 import org.linghu.discussion.service.DiscussionService;
+import org.linghu.discussion.service.LikeService;
 import org.springframework.data.domain.*;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
 import org.springframework.data.mongodb.core.MongoTemplate;
 import org.springframework.data.mongodb.core.query.Criteria;
 import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.TextCriteria;
+import org.springframework.data.mongodb.core.query.TextQuery;
+import org.springframework.data.mongodb.core.query.Update;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.util.StringUtils;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 /**
  * 讨论服务实现类
@@ -28,9 +45,25 @@ import java.util.List;
 @Transactional(readOnly = true)
 public class DiscussionServiceImpl implements DiscussionService {
 
+    private static final String RELEVANCE_SORT = "relevance";
+
+    /**
+     * 游标分页支持的排序方式及其排序字段，_id 由游标分页追加
+     */
+    private static final Map<String, List<String>> FEED_SORT_FIELDS = Map.of(
+            "lastActivityTime", List.of("lastActivityTime"),
+            "createTime", List.of("createTime"),
+            "likeCount", List.of("likeCount"),
+            "priority", List.of("priority", "lastActivityTime"));
+
     private final DiscussionRepository discussionRepository;
     private final UserServiceClient userServiceClient;
     private final MongoTemplate mongoTemplate;
+    private final ViewCountBuffer viewCountBuffer;
+    private final LikeService likeService;
+    private final ApproximateCounter approximateCounter;
+    private final SearchReindexJob searchReindexJob;
+    private final HotRanking hotRanking;
 
     @Override
     @Transactional
@@ -58,7 +91,7 @@ public class DiscussionServiceImpl implements DiscussionService {
             log.info("创建讨论成功: id={}, title={}, userId={}", 
                     savedDiscussion.getId(), savedDiscussion.getTitle(), userId);
 
-            return convertToResponseDTO(savedDiscussion, userId);
+            return convertToResponseDTO(savedDiscussion, userId, false);
 
         } catch (Exception ex) {
             log.error("创建讨论失败: userId={}, error={}", userId, ex.getMessage());
@@ -71,71 +104,13 @@ public class DiscussionServiceImpl implements DiscussionService {
             String[] tags, String experimentId, String userId, String status,
             String keyword, String sortBy, String order, int page, int size, String currentUserId) {
 
-        Sort sort = createSort(sortBy, order);
+        // relevance 按关键词相关度排序，相关度相同时按最后活跃时间
+        boolean byRelevance = RELEVANCE_SORT.equals(sortBy);
+        Sort sort = byRelevance ? Sort.by(Sort.Direction.DESC, "lastActivityTime") : createSort(sortBy, order);
         Pageable pageable = PageRequest.of(page, size, sort);
-
-        // 构建查询条件
-        Query query = new Query();
-        query.addCriteria(Criteria.where("deleted").is(false));
-
-        // 添加过滤条件
-    if (StringUtils.hasText(status)) {
-            // 显式指定状态则严格按状态过滤
-            query.addCriteria(Criteria.where("status").is(status));
-        } else {
-            // 未指定状态：
-        // - 未登录：显示(已通过 OR 有历史通过快照)
-        // - 已登录且未传 userId：显示(已通过 OR 有历史通过快照 OR 自己发布的任意状态)
-        // - 已登录且传入的 userId 等于自己：查看自己所有状态（不加 status 条件）
-        // - 其他情况：显示(已通过 OR 有历史通过快照)
-            if (StringUtils.hasText(userId)) {
-                // 请求中显式传了 userId
-                if (StringUtils.hasText(currentUserId) && currentUserId.equals(userId)) {
-                    // 查看“我”的讨论：不过滤状态
-                } else {
-            // 查看他人讨论：显示(已通过 OR 有历史通过快照)
-            query.addCriteria(new Criteria().orOperator(
-                Criteria.where("status").is("APPROVED"),
-                Criteria.where("lastApprovedTime").ne(null)
-            ));
-                }
-            } else {
-                // 未传 userId
-                if (StringUtils.hasText(currentUserId)) {
-            // 登录用户：显示(已通过 OR 有历史通过快照 OR 自己发布)
-                    query.addCriteria(new Criteria().orOperator(
-                            Criteria.where("status").is("APPROVED"),
-                Criteria.where("lastApprovedTime").ne(null),
-                            Criteria.where("userId").is(currentUserId)
-                    ));
-                } else {
-            // 未登录：显示(已通过 OR 有历史通过快照)
-            query.addCriteria(new Criteria().orOperator(
-                Criteria.where("status").is("APPROVED"),
-                Criteria.where("lastApprovedTime").ne(null)
-            ));
-                }
-            }
-        }
-
-        if (tags != null && tags.length > 0) {
-            query.addCriteria(Criteria.where("tags").in(Arrays.asList(tags)));
-        }
-
-        if (StringUtils.hasText(experimentId)) {
-            query.addCriteria(Criteria.where("experimentId").is(experimentId));
-        }
-
-        // 若传入 userId，则始终限定为指定用户的讨论
-        if (StringUtils.hasText(userId)) {
-            query.addCriteria(Criteria.where("userId").is(userId));
-        }
-
-        if (StringUtils.hasText(keyword)) {
-            // 使用正则表达式搜索标题和内容
-            Criteria titleCriteria = Criteria.where("title").regex(keyword, "i");
-            Criteria contentCriteria = Criteria.where("content").regex(keyword, "i");
-            query.addCriteria(new Criteria().orOperator(titleCriteria, contentCriteria));
+        Query query = buildListQuery(tags, experimentId, userId, status, keyword, currentUserId);
+        if (byRelevance && query instanceof TextQuery textQuery) {
+            textQuery.sortByScore();
         }
 
         // 执行查询
@@ -144,7 +119,30 @@ public class DiscussionServiceImpl implements DiscussionService {
         List<Discussion> content = mongoTemplate.find(query, Discussion.class);
 
         Page<Discussion> discussionsPage = new PageImpl<>(content, pageable, total);
-        return discussionsPage.map(discussion -> convertToResponseDTO(discussion, currentUserId));
+        return toResponsePage(discussionsPage, currentUserId);
+    }
+
+    @Override
+    public CursorPageDTO<DiscussionResponseDTO> getDiscussionFeed(
+            String[] tags, String experimentId, String userId, String status, String keyword,
+            String sortBy, String order, String cursor, int size, boolean withTotal, String currentUserId) {
+
+        List<String> sortFields = FEED_SORT_FIELDS.get(StringUtils.hasText(sortBy) ? sortBy : "lastActivityTime");
+        if (sortFields == null) {
+            throw new RuntimeException("不支持的排序字段: " + sortBy);
+        }
+        Sort.Direction direction = "asc".equalsIgnoreCase(order) ? Sort.Direction.ASC : Sort.Direction.DESC;
+
+        Query filter = buildListQuery(tags, experimentId, userId, status, keyword, currentUserId);
+        Long total = withTotal ? approximateCounter.count(filter, Discussion.class) : null;
+
+        Query query = KeysetQuery.apply(Query.of(filter), sortFields, direction, cursor, size);
+        List<Discussion> rows = mongoTemplate.find(query, Discussion.class);
+
+        CursorPageDTO<DiscussionResponseDTO> result = KeysetQuery.page(rows, sortFields, size,
+                discussions -> toResponseList(discussions, currentUserId));
+        result.setTotal(total);
+        return result;
     }
 
     @Override
@@ -152,10 +150,12 @@ public class DiscussionServiceImpl implements DiscussionService {
         Discussion discussion = discussionRepository.findByIdAndNotDeleted(id)
                 .orElseThrow(() -> new RuntimeException("讨论不存在: " + id));
 
-        // 增加浏览次数
-        incrementViewCount(id);
+        // 浏览次数先记入缓冲，由后台批量写回
+        if (viewCountBuffer.recordView(id, currentUserId)) {
+            hotRanking.update(discussion, HotRanking.Interaction.VIEW);
+        }
 
-        return convertToResponseDTO(discussion, currentUserId);
+        return toResponseDTO(discussion, currentUserId);
     }
 
     @Override
@@ -169,32 +169,36 @@ public class DiscussionServiceImpl implements DiscussionService {
             throw new RuntimeException("无权限更新此讨论");
         }
 
-        // 若当前状态为已通过，则在改为待审核前记录快照（保留更改前对外可见的版本）
-        if (discussion.getStatus() == Discussion.DiscussionStatus.APPROVED) {
-            discussion.setLastApprovedTitle(discussion.getTitle());
-            discussion.setLastApprovedContent(discussion.getContent());
-            discussion.setLastApprovedTags(discussion.getTags() == null ? null : List.copyOf(discussion.getTags()));
-            discussion.setLastApprovedTime(LocalDateTime.now());
-        }
-
-        // 更新内容（在快照之后应用新改动）
-        discussion.setTitle(requestDTO.getTitle());
-        discussion.setContent(requestDTO.getContent());
+        // 只写入改动的字段，整文档回写会覆盖并发的点赞、浏览计数
+        LocalDateTime now = LocalDateTime.now();
+        Update update = new Update()
+                .set("title", requestDTO.getTitle())
+                .set("content", requestDTO.getContent())
+                .set("searchTitle", SearchTokenizer.tokenize(requestDTO.getTitle()))
+                .set("searchContent", SearchTokenizer.tokenize(requestDTO.getContent()))
+                .set("searchVersion", SearchTokenizer.VERSION)
+                // 更新后重新设为待审核状态
+                .set("status", Discussion.DiscussionStatus.PENDING)
+                .set("updateTime", now)
+                .set("lastActivityTime", now);
         if (requestDTO.getTags() != null) {
-            discussion.setTags(requestDTO.getTags());
+            update.set("tags", requestDTO.getTags());
         }
         if (requestDTO.getExperimentId() != null) {
-            discussion.setExperimentId(requestDTO.getExperimentId());
+            update.set("experimentId", requestDTO.getExperimentId());
         }
-        // 更新后重新设为待审核状态
-        discussion.setStatus(Discussion.DiscussionStatus.PENDING);
-        discussion.setUpdateTime(LocalDateTime.now());
-        discussion.setLastActivityTime(LocalDateTime.now());
 
-        Discussion updatedDiscussion = discussionRepository.save(discussion);
+        // 若当前状态为已通过，则在改为待审核前记录快照（保留更改前对外可见的版本）
+        if (discussion.getStatus() == Discussion.DiscussionStatus.APPROVED) {
+            setApprovedSnapshot(update, discussion, now);
+        }
+
+        Discussion updatedDiscussion = modifyDiscussion(id, update);
+        // 重新审核前移出热榜
+        hotRanking.remove(id, discussion.getExperimentId());
         log.info("更新讨论成功: id={}, userId={}", id, userId);
 
-        return convertToResponseDTO(updatedDiscussion, userId);
+        return toResponseDTO(updatedDiscussion, userId);
     }
 
     @Override
@@ -209,9 +213,10 @@ public class DiscussionServiceImpl implements DiscussionService {
         }
 
         // 逻辑删除
-        discussion.setDeleted(true);
-        discussion.setDeleteTime(LocalDateTime.now());
-        discussionRepository.save(discussion);
+        modifyDiscussion(id, new Update()
+                .set("deleted", true)
+                .set("deleteTime", LocalDateTime.now()));
+        hotRanking.remove(id, discussion.getExperimentId());
 
         log.info("删除讨论成功: id={}, userId={}", id, userId);
         return true;
@@ -224,25 +229,25 @@ public class DiscussionServiceImpl implements DiscussionService {
                 .orElseThrow(() -> new RuntimeException("讨论不存在: " + id));
 
         Discussion.DiscussionStatus newStatus = Discussion.DiscussionStatus.valueOf(requestDTO.getStatus());
-        discussion.setStatus(newStatus);
+        LocalDateTime now = LocalDateTime.now();
+        Update update = new Update()
+                .set("status", newStatus)
+                .set("updateTime", now);
 
         if (newStatus == Discussion.DiscussionStatus.REJECTED) {
-            discussion.setRejectionReason(requestDTO.getRejectionReason());
+            update.set("rejectionReason", requestDTO.getRejectionReason());
         } else if (newStatus == Discussion.DiscussionStatus.APPROVED) {
-            discussion.setApprovedTime(LocalDateTime.now());
-            discussion.setRejectionReason(null);
+            update.set("approvedTime", now)
+                    .unset("rejectionReason");
             // 记录通过版本快照
-            discussion.setLastApprovedTitle(discussion.getTitle());
-            discussion.setLastApprovedContent(discussion.getContent());
-            discussion.setLastApprovedTags(discussion.getTags() == null ? null : List.copyOf(discussion.getTags()));
-            discussion.setLastApprovedTime(LocalDateTime.now());
+            setApprovedSnapshot(update, discussion, now);
         }
 
-        discussion.setUpdateTime(LocalDateTime.now());
-        Discussion updatedDiscussion = discussionRepository.save(discussion);
+        Discussion updatedDiscussion = modifyDiscussion(id, update);
+        hotRanking.update(updatedDiscussion);
 
         log.info("审核讨论完成: id={}, status={}, reviewerId={}", id, requestDTO.getStatus(), reviewerId);
-        return convertToResponseDTO(updatedDiscussion, reviewerId);
+        return toResponseDTO(updatedDiscussion, reviewerId);
     }
 
     @Override
@@ -251,52 +256,41 @@ public class DiscussionServiceImpl implements DiscussionService {
         Discussion discussion = discussionRepository.findByIdAndNotDeleted(id)
                 .orElseThrow(() -> new RuntimeException("讨论不存在: " + id));
 
-        discussion.setPriority(requestDTO.getPriority());
-        discussion.setUpdateTime(LocalDateTime.now());
-
-        Discussion updatedDiscussion = discussionRepository.save(discussion);
+        Discussion updatedDiscussion = modifyDiscussion(id, new Update()
+                .set("priority", requestDTO.getPriority())
+                .set("updateTime", LocalDateTime.now()));
         log.info("更新讨论优先级成功: id={}, priority={}, userId={}", id, requestDTO.getPriority(), userId);
 
-        return convertToResponseDTO(updatedDiscussion, userId);
+        return toResponseDTO(updatedDiscussion, userId);
     }
 
     @Override
     @Transactional
     public DiscussionResponseDTO toggleLike(String id, String userId) {
-        Discussion discussion = discussionRepository.findByIdAndNotDeleted(id)
+        discussionRepository.findByIdAndNotDeleted(id)
                 .orElseThrow(() -> new RuntimeException("讨论不存在: " + id));
 
-        List<String> likedBy = discussion.getLikedBy();
-
-        if (likedBy.contains(userId)) {
-            // 取消点赞
-            likedBy.remove(userId);
-            discussion.setLikeCount(discussion.getLikeCount() - 1);
-        } else {
-            // 添加点赞
-            likedBy.add(userId);
-            discussion.setLikeCount(discussion.getLikeCount() + 1);
+        LikeService.LikeToggle toggle = likeService.toggleLike(Like.TargetType.DISCUSSION, id, userId);
+
+        // 点赞数用 $inc 原子更新，不回写整个讨论文档
+        LocalDateTime now = LocalDateTime.now();
+        Update update = new Update()
+                .inc("likeCount", toggle.delta())
+                .set("updateTime", now)
+                .set("lastActivityTime", now);
+        Discussion updatedDiscussion = mongoTemplate.findAndModify(Query.query(Criteria.where("_id").is(id)),
+                update, FindAndModifyOptions.options().returnNew(true), Discussion.class);
+        if (updatedDiscussion == null) {
+            throw new RuntimeException("讨论不存在: " + id);
         }
-
-        discussion.setLikedBy(likedBy);
-        discussion.setUpdateTime(LocalDateTime.now());
-        discussion.setLastActivityTime(LocalDateTime.now());
-
-        Discussion updatedDiscussion = discussionRepository.save(discussion);
-        return convertToResponseDTO(updatedDiscussion, userId);
+        hotRanking.update(updatedDiscussion, toggle.delta() > 0 ? HotRanking.Interaction.LIKE
+                : toggle.delta() < 0 ? HotRanking.Interaction.UNLIKE : null);
+        return withPendingViews(convertToResponseDTO(updatedDiscussion, userId, toggle.liked()));
     }
 
     @Override
-    @Transactional
     public void incrementViewCount(String id) {
-        try {
-            discussionRepository.findByIdAndNotDeleted(id).ifPresent(discussion -> {
-                discussion.setViewCount(discussion.getViewCount() + 1);
-                discussionRepository.save(discussion);
-            });
-        } catch (Exception e) {
-            log.warn("增加浏览次数失败: id={}, error={}", id, e.getMessage());
-        }
+        viewCountBuffer.recordView(id, null);
     }
 
     @Override
@@ -310,11 +304,36 @@ public class DiscussionServiceImpl implements DiscussionService {
     }
 
     @Override
-    public Page<DiscussionResponseDTO> getPopularDiscussions(int page, int size, String currentUserId) {
-        Sort sort = Sort.by(Sort.Direction.DESC, "likeCount", "viewCount");
-        Pageable pageable = PageRequest.of(page, size, sort);
-        Page<Discussion> discussions = discussionRepository.findPopularDiscussions(pageable);
-        return discussions.map(discussion -> convertToResponseDTO(discussion, currentUserId));
+    public Page<DiscussionResponseDTO> getPopularDiscussions(String experimentId, int page, int size,
+                                                             String currentUserId) {
+        Page<Discussion> ranked = findRankedPage(HotRanking.Feed.HOT, experimentId, page, size);
+        if (ranked == null) {
+            // 热榜不可用时退回数据库，按点赞数和浏览数排序
+            Pageable pageable = PageRequest.of(page, size, Sort.by(Sort.Direction.DESC, "likeCount", "viewCount"));
+            ranked = StringUtils.hasText(experimentId)
+                    ? discussionRepository.findPopularDiscussionsByExperimentId(experimentId, pageable)
+                    : discussionRepository.findPopularDiscussions(pageable);
+        }
+        return toResponsePage(ranked, currentUserId);
+    }
+
+    @Override
+    public Page<DiscussionResponseDTO> getTrendingDiscussions(String experimentId, int page, int size,
+                                                              String currentUserId) {
+        Page<Discussion> ranked = findRankedPage(HotRanking.Feed.TRENDING, experimentId, page, size);
+        if (ranked == null) {
+            // 趋势榜不可用或近期没有互动时退回数据库，取最近一天活跃的讨论按点赞数和浏览数排序
+            Criteria criteria = Criteria.where("deleted").is(false).and("status").is("APPROVED")
+                    .and("lastActivityTime").gte(LocalDateTime.now().minusDays(1));
+            if (StringUtils.hasText(experimentId)) {
+                criteria.and("experimentId").is(experimentId);
+            }
+            Pageable pageable = PageRequest.of(page, size, Sort.by(Sort.Direction.DESC, "likeCount", "viewCount"));
+            Query query = new Query(criteria);
+            long total = mongoTemplate.count(query, Discussion.class);
+            ranked = new PageImpl<>(mongoTemplate.find(query.with(pageable), Discussion.class), pageable, total);
+        }
+        return toResponsePage(ranked, currentUserId);
     }
 
     @Override
@@ -323,7 +342,7 @@ public class DiscussionServiceImpl implements DiscussionService {
         Pageable pageable = PageRequest.of(page, size, sort);
         LocalDateTime since = LocalDateTime.now().minusDays(7); // 最近7天
         Page<Discussion> discussions = discussionRepository.findRecentActiveDiscussions(since, pageable);
-        return discussions.map(discussion -> convertToResponseDTO(discussion, currentUserId));
+        return toResponsePage(discussions, currentUserId);
     }
 
     @Override
@@ -331,16 +350,152 @@ public class DiscussionServiceImpl implements DiscussionService {
         Sort sort = Sort.by(Sort.Direction.DESC, "priority", "lastActivityTime");
         List<Discussion> discussions = discussionRepository.findPinnedDiscussions();
         Page<Discussion> discussionPage = new PageImpl<>(discussions);
-        return discussionPage.map(discussion -> convertToResponseDTO(discussion, currentUserId));
+        return toResponsePage(discussionPage, currentUserId);
+    }
+
+    @Override
+    public boolean triggerSearchReindex() {
+        return searchReindexJob.trigger();
     }
 
     /**
-     * 转换为响应DTO
+     * 只更新讨论的指定字段并返回更新后的讨论
+     * <p>
+     * 点赞数和浏览数由 $inc 单独累加，这里不能整文档回写，否则会覆盖期间发生的累加。
+     */
+    private Discussion modifyDiscussion(String id, Update update) {
+        Query query = Query.query(Criteria.where("_id").is(id).and("deleted").is(false));
+        Discussion updatedDiscussion = mongoTemplate.findAndModify(query, update,
+                FindAndModifyOptions.options().returnNew(true), Discussion.class);
+        if (updatedDiscussion == null) {
+            throw new RuntimeException("讨论不存在: " + id);
+        }
+        return updatedDiscussion;
+    }
+
+    /**
+     * 把讨论当前的标题、正文和标签记为最近一次通过的版本
+     */
+    private void setApprovedSnapshot(Update update, Discussion discussion, LocalDateTime now) {
+        update.set("lastApprovedTitle", discussion.getTitle())
+                .set("lastApprovedContent", discussion.getContent())
+                .set("lastApprovedTags", discussion.getTags() == null ? null : List.copyOf(discussion.getTags()))
+                .set("lastApprovedTime", now);
+    }
+
+    /**
+     * 按榜单顺序取出一页讨论，榜单中已删除或已不可见的讨论移出榜单并从总数中扣除
+     *
+     * @return 榜单不可用时返回null
      */
-    private DiscussionResponseDTO convertToResponseDTO(Discussion discussion, String currentUserId) {
-    boolean isLiked = currentUserId != null && discussion.getLikedBy().contains(currentUserId);
+    private Page<Discussion> findRankedPage(HotRanking.Feed feed, String experimentId, int page, int size) {
+        HotRanking.RankedPage ranked = hotRanking.page(feed, experimentId, page, size);
+        if (ranked == null) {
+            return null;
+        }
+        Pageable pageable = PageRequest.of(page, size);
+        if (ranked.ids().isEmpty()) {
+            return new PageImpl<>(List.of(), pageable, ranked.total());
+        }
+
+        Criteria criteria = Criteria.where("_id").in(ranked.ids()).and("deleted").is(false).and("status").is("APPROVED");
+        if (StringUtils.hasText(experimentId)) {
+            criteria.and("experimentId").is(experimentId);
+        }
+        Map<String, Discussion> found = mongoTemplate.find(new Query(criteria), Discussion.class).stream()
+                .collect(Collectors.toMap(Discussion::getId, Function.identity()));
+
+        List<Discussion> discussions = new ArrayList<>(ranked.ids().size());
+        List<String> stale = new ArrayList<>();
+        for (String id : ranked.ids()) {
+            Discussion discussion = found.get(id);
+            if (discussion != null) {
+                discussions.add(discussion);
+            } else {
+                stale.add(id);
+            }
+        }
+        hotRanking.evict(feed, experimentId, stale);
+        return new PageImpl<>(discussions, pageable, ranked.total() - stale.size());
+    }
+
+    /**
+     * 构建讨论列表的过滤条件
+     * <p>
+     * 各条件合并到一个 $and 中，可见性和关键字的两个 $or 不会互相覆盖，游标条件也可以继续追加。
+     */
+    private Query buildListQuery(String[] tags, String experimentId, String userId, String status,
+                                 String keyword, String currentUserId) {
+        List<Criteria> criteria = new ArrayList<>();
+        criteria.add(Criteria.where("deleted").is(false));
+
+        // 添加过滤条件
+    if (StringUtils.hasText(status)) {
+            // 显式指定状态则严格按状态过滤
+            criteria.add(Criteria.where("status").is(status));
+        } else {
+            // 未指定状态：
+        // - 未登录：显示(已通过 OR 有历史通过快照)
+        // - 已登录且未传 userId：显示(已通过 OR 有历史通过快照 OR 自己发布的任意状态)
+        // - 已登录且传入的 userId 等于自己：查看自己所有状态（不加 status 条件）
+        // - 其他情况：显示(已通过 OR 有历史通过快照)
+            if (StringUtils.hasText(userId)) {
+                // 请求中显式传了 userId
+                if (StringUtils.hasText(currentUserId) && currentUserId.equals(userId)) {
+                    // 查看“我”的讨论：不过滤状态
+                } else {
+            // 查看他人讨论：显示(已通过 OR 有历史通过快照)
+            criteria.add(new Criteria().orOperator(
+                Criteria.where("status").is("APPROVED"),
+                Criteria.where("lastApprovedTime").ne(null)
+            ));
+                }
+            } else {
+                // 未传 userId
+                if (StringUtils.hasText(currentUserId)) {
+            // 登录用户：显示(已通过 OR 有历史通过快照 OR 自己发布)
+                    criteria.add(new Criteria().orOperator(
+                            Criteria.where("status").is("APPROVED"),
+                Criteria.where("lastApprovedTime").ne(null),
+                            Criteria.where("userId").is(currentUserId)
+                    ));
+                } else {
+            // 未登录：显示(已通过 OR 有历史通过快照)
+            criteria.add(new Criteria().orOperator(
+                Criteria.where("status").is("APPROVED"),
+                Criteria.where("lastApprovedTime").ne(null)
+            ));
+                }
+            }
+        }
+
+        if (tags != null && tags.length > 0) {
+            criteria.add(Criteria.where("tags").in(Arrays.asList(tags)));
+        }
+
+        if (StringUtils.hasText(experimentId)) {
+            criteria.add(Criteria.where("experimentId").is(experimentId));
+        }
+
+        // 若传入 userId，则始终限定为指定用户的讨论
+        if (StringUtils.hasText(userId)) {
+            criteria.add(Criteria.where("userId").is(userId));
+        }
+
+        // 关键词走搜索词文本索引，不再对标题和内容做全表正则扫描
+        TextCriteria textCriteria = SearchTokenizer.textCriteria(keyword);
+        if (textCriteria != null) {
+            return TextQuery.queryText(textCriteria).addCriteria(new Criteria().andOperator(criteria));
+        }
 
-    // 对非作者且当前未通过但有历史通过快照的情况，返回快照内容
+        return new Query(new Criteria().andOperator(criteria));
+    }
+
+    /**
+     * 转换为响应DTO
+     */
+    private DiscussionResponseDTO convertToResponseDTO(Discussion discussion, String currentUserId, boolean isLiked) {
+        // 对非作者且当前未通过但有历史通过快照的情况，返回快照内容
         boolean isAuthor = currentUserId != null && currentUserId.equals(discussion.getUserId());
         boolean isApproved = discussion.getStatus() == Discussion.DiscussionStatus.APPROVED;
 
@@ -389,6 +544,47 @@ public class DiscussionServiceImpl implements DiscussionService {
         .build();
     }
 
+    /**
+     * 转换单个讨论，查询当前用户的点赞状态并合并未写回的浏览次数
+     */
+    private DiscussionResponseDTO toResponseDTO(Discussion discussion, String currentUserId) {
+        boolean isLiked = likeService.isLiked(Like.TargetType.DISCUSSION, discussion.getId(), currentUserId);
+        return withPendingViews(convertToResponseDTO(discussion, currentUserId, isLiked));
+    }
+
+    /**
+     * 转换一页讨论，当前用户的点赞状态用一次查询取得
+     */
+    private Page<DiscussionResponseDTO> toResponsePage(Page<Discussion> discussions, String currentUserId) {
+        Set<String> likedIds = likeService.findLikedTargetIds(Like.TargetType.DISCUSSION,
+                discussions.map(Discussion::getId).getContent(), currentUserId);
+        return discussions.map(discussion -> withPendingViews(
+                convertToResponseDTO(discussion, currentUserId, likedIds.contains(discussion.getId()))));
+    }
+
+    /**
+     * 转换一批讨论，当前用户的点赞状态用一次查询取得
+     */
+    private List<DiscussionResponseDTO> toResponseList(List<Discussion> discussions, String currentUserId) {
+        Set<String> likedIds = likeService.findLikedTargetIds(Like.TargetType.DISCUSSION,
+                discussions.stream().map(Discussion::getId).toList(), currentUserId);
+        return discussions.stream()
+                .map(discussion -> withPendingViews(
+                        convertToResponseDTO(discussion, currentUserId, likedIds.contains(discussion.getId()))))
+                .toList();
+    }
+
+    /**
+     * 合并尚未写回数据库的浏览增量
+     */
+    private DiscussionResponseDTO withPendingViews(DiscussionResponseDTO dto) {
+        long pendingViews = viewCountBuffer.getPendingViews(dto.getId());
+        if (pendingViews > 0) {
+            dto.setViewCount((dto.getViewCount() == null ? 0L : dto.getViewCount()) + pendingViews);
+        }
+        return dto;
+    }
+
     /**
      * 创建排序对象
      */
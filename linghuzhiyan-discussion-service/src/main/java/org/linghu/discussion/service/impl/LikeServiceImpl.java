@@ -0,0 +1,129 @@
+package org.linghu.discussion.service.impl;
+
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.linghu.discussion.domain.Like;
+import org.linghu.discussion.repository.LikeRepository;
+import org.linghu.discussion.service.LikeService;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * 点赞服务实现类
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class LikeServiceImpl implements LikeService {
+
+    private final LikeRepository likeRepository;
+    private final MongoTemplate mongoTemplate;
+
+    @Override
+    public LikeToggle toggleLike(Like.TargetType targetType, String targetId, String userId) {
+        String likeId = Like.idOf(targetType, targetId, userId);
+        Query query = Query.query(Criteria.where("_id").is(likeId));
+
+        // 删除成功说明原来已点赞；删除和插入各自是原子操作，只有真正改变状态的请求才返回非0增量
+        if (mongoTemplate.remove(query, Like.class).getDeletedCount() > 0) {
+            return new LikeToggle(false, -1);
+        }
+
+        Update update = new Update()
+                .setOnInsert("targetType", targetType)
+                .setOnInsert("targetId", targetId)
+                .setOnInsert("userId", userId)
+                .setOnInsert("createTime", LocalDateTime.now());
+        try {
+            boolean inserted = mongoTemplate.upsert(query, update, Like.class).getUpsertedId() != null;
+            return new LikeToggle(true, inserted ? 1 : 0);
+        } catch (DuplicateKeyException e) {
+            // 同一用户的并发请求已插入点赞记录
+            return new LikeToggle(true, 0);
+        }
+    }
+
+    @Override
+    public boolean isLiked(Like.TargetType targetType, String targetId, String userId) {
+        return userId != null && likeRepository.existsById(Like.idOf(targetType, targetId, userId));
+    }
+
+    @Override
+    public Set<String> findLikedTargetIds(Like.TargetType targetType, Collection<String> targetIds, String userId) {
+        if (userId == null || targetIds.isEmpty()) {
+            return Set.of();
+        }
+        List<String> likeIds = targetIds.stream()
+                .distinct()
+                .map(targetId -> Like.idOf(targetType, targetId, userId))
+                .toList();
+        Set<String> liked = new HashSet<>();
+        likeRepository.findAllById(likeIds).forEach(like -> liked.add(like.getTargetId()));
+        return liked;
+    }
+
+    /**
+     * 将讨论和评论文档中内嵌的 liked_by 列表迁移到点赞记录集合
+     * <p>
+     * 迁移幂等，已迁移的文档不再包含 liked_by，重复启动时不会再次处理。
+     */
+    @PostConstruct
+    public void migrateEmbeddedLikes() {
+        try {
+            long discussions = migrateEmbeddedLikes("discussions", Like.TargetType.DISCUSSION);
+            long comments = migrateEmbeddedLikes("comments", Like.TargetType.COMMENT);
+            if (discussions > 0 || comments > 0) {
+                log.info("内嵌点赞列表迁移完成: 讨论 {} 条, 评论 {} 条", discussions, comments);
+            }
+        } catch (Exception e) {
+            log.warn("内嵌点赞列表迁移失败，将在下次启动时重试: {}", e.getMessage());
+        }
+    }
+
+    private long migrateEmbeddedLikes(String collection, Like.TargetType targetType) {
+        Query query = new Query(Criteria.where("liked_by.0").exists(true));
+        query.fields().include("_id").include("liked_by");
+
+        long migrated = 0;
+        try (Stream<Document> documents = mongoTemplate.stream(query, Document.class, collection)) {
+            for (Document document : (Iterable<Document>) documents::iterator) {
+                Object rawId = document.get("_id");
+                String targetId = String.valueOf(rawId);
+                Set<String> userIds = document.getList("liked_by", String.class).stream()
+                        .filter(Objects::nonNull)
+                        .collect(Collectors.toCollection(LinkedHashSet::new));
+
+                if (!userIds.isEmpty()) {
+                    BulkOperations operations = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Like.class);
+                    LocalDateTime now = LocalDateTime.now();
+                    for (String userId : userIds) {
+                        operations.upsert(Query.query(Criteria.where("_id").is(Like.idOf(targetType, targetId, userId))),
+                                new Update()
+                                        .setOnInsert("targetType", targetType)
+                                        .setOnInsert("targetId", targetId)
+                                        .setOnInsert("userId", userId)
+                                        .setOnInsert("createTime", now));
+                    }
+                    operations.execute();
+                }
+                // 点赞记录写入成功后才移除内嵌列表，like_count 保持不变
+                mongoTemplate.updateFirst(Query.query(Criteria.where("_id").is(rawId)),
+                        new Update().unset("liked_by"), collection);
+                migrated++;
+            }
+        }
+        return migrated;
+    }
+}
@@ -6,6 +6,7 @@ import org.linghu.discussion.config.JwtTokenProvider;
 import org.linghu.discussion.config.TestSecurityConfig;
 import org.linghu.discussion.dto.CommentRequestDTO;
 import org.linghu.discussion.dto.CommentResponseDTO;
+import org.linghu.discussion.dto.CursorPageDTO;
 import org.linghu.discussion.service.CommentService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureWebMvc;
@@ -70,6 +71,31 @@ class CommentControllerTest {
                 .andExpect(status().isOk());
     }
 
+    @Test
+    void testGetThreadReplies() throws Exception {
+        when(commentService.getThreadReplies(eq("1"), eq("cursor-1"), eq(20), any()))
+                .thenReturn(CursorPageDTO.<CommentResponseDTO>builder()
+                        .items(List.of(new CommentResponseDTO()))
+                        .nextCursor("cursor-2")
+                        .hasMore(true)
+                        .build());
+
+        mockMvc.perform(get("/api/comments/comments/1/thread-replies").param("cursor", "cursor-1"))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    void testGetCommentFeed() throws Exception {
+        when(commentService.getCommentFeed(eq("d1"), eq(false), eq("createTime"), eq("asc"), isNull(), eq(10),
+                eq(false), any()))
+                .thenReturn(CursorPageDTO.<CommentResponseDTO>builder()
+                        .items(List.of(new CommentResponseDTO()))
+                        .build());
+
+        mockMvc.perform(get("/api/comments/discussions/d1/comments/feed"))
+                .andExpect(status().isOk());
+    }
+
     @Test
     void testGetCommentsByUserId() throws Exception {
         when(commentService.getCommentsByUserId(anyString(), anyInt(), anyInt(), any()))
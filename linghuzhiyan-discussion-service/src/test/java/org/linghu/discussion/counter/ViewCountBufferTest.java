@@ -0,0 +1,171 @@
+package org.linghu.discussion.counter;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.bson.Document;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.linghu.discussion.domain.Discussion;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.data.redis.RedisConnectionFailureException;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ValueOperations;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * ViewCountBuffer 单元测试
+ */
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+@DisplayName("浏览次数写缓冲测试")
+class ViewCountBufferTest {
+
+    @Mock
+    private MongoTemplate mongoTemplate;
+
+    @Mock
+    private BulkOperations bulkOperations;
+
+    @Mock
+    private StringRedisTemplate redisTemplate;
+
+    @Mock
+    private ValueOperations<String, String> valueOperations;
+
+    @BeforeEach
+    void setUp() {
+        when(mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Discussion.class)).thenReturn(bulkOperations);
+        when(redisTemplate.opsForValue()).thenReturn(valueOperations);
+    }
+
+    @Test
+    @DisplayName("正测：多次浏览合并为一次 $inc 写回")
+    void flush_ShouldWriteAccumulatedViewsInOneBulk() {
+        // Given
+        ViewCountBuffer buffer = buffer(Duration.ZERO);
+        buffer.recordView("discussion-1", null);
+        buffer.recordView("discussion-1", "user-1");
+        buffer.recordView("discussion-1", "user-1");
+        buffer.recordView("discussion-2", null);
+
+        // When
+        long pendingBeforeFlush = buffer.getPendingViews("discussion-1");
+        int flushed = buffer.flush();
+
+        // Then
+        assertThat(pendingBeforeFlush).isEqualTo(3L);
+        assertThat(flushed).isEqualTo(2);
+        assertThat(buffer.getPendingViews("discussion-1")).isZero();
+
+        ArgumentCaptor<Query> queries = ArgumentCaptor.forClass(Query.class);
+        ArgumentCaptor<Update> updates = ArgumentCaptor.forClass(Update.class);
+        verify(bulkOperations, times(2)).updateOne(queries.capture(), updates.capture());
+        verify(bulkOperations, times(1)).execute();
+        int index = queries.getAllValues().get(0).getQueryObject().get("_id").equals("discussion-1") ? 0 : 1;
+        Document inc = (Document) updates.getAllValues().get(index).getUpdateObject().get("$inc");
+        assertThat(inc.get("viewCount")).isEqualTo(3L);
+        verifyNoInteractions(valueOperations);
+    }
+
+    @Test
+    @DisplayName("反测：写回失败时保留增量，下次重试")
+    void flush_WhenBulkWriteFails_ShouldKeepViewsForRetry() {
+        // Given
+        ViewCountBuffer buffer = buffer(Duration.ZERO);
+        buffer.recordView("discussion-1", null);
+        buffer.recordView("discussion-1", null);
+        when(bulkOperations.execute())
+                .thenThrow(new RuntimeException("连接超时"))
+                .thenReturn(null);
+
+        // When
+        int firstFlushed = buffer.flush();
+        long pendingAfterFailure = buffer.getPendingViews("discussion-1");
+        int secondFlushed = buffer.flush();
+
+        // Then
+        assertThat(firstFlushed).isZero();
+        assertThat(pendingAfterFailure).isEqualTo(2L);
+        assertThat(secondFlushed).isEqualTo(1);
+        assertThat(buffer.getPendingViews("discussion-1")).isZero();
+    }
+
+    @Test
+    @DisplayName("正测：写回期间读取仍包含正在写回和新增的浏览")
+    void getPendingViews_DuringFlush_ShouldIncludeFlushingViews() {
+        // Given
+        ViewCountBuffer buffer = buffer(Duration.ZERO);
+        buffer.recordView("discussion-1", null);
+        buffer.recordView("discussion-1", null);
+        long[] pendingDuringFlush = new long[1];
+        when(bulkOperations.execute()).thenAnswer(invocation -> {
+            buffer.recordView("discussion-1", null);
+            pendingDuringFlush[0] = buffer.getPendingViews("discussion-1");
+            return null;
+        });
+
+        // When
+        buffer.flush();
+
+        // Then
+        assertThat(pendingDuringFlush[0]).isEqualTo(3L);
+        assertThat(buffer.getPendingViews("discussion-1")).isEqualTo(1L);
+    }
+
+    @Test
+    @DisplayName("正测：去重窗口内同一用户重复浏览只计一次")
+    void recordView_WithDedupWindow_ShouldCountUserOnce() {
+        // Given
+        ViewCountBuffer buffer = buffer(Duration.ofMinutes(30));
+        String key = ViewCountBuffer.DEDUP_KEY_PREFIX + "discussion-1:user-1";
+        when(valueOperations.setIfAbsent(key, "1", Duration.ofMinutes(30)))
+                .thenReturn(true)
+                .thenReturn(false);
+
+        // When
+        boolean first = buffer.recordView("discussion-1", "user-1");
+        boolean second = buffer.recordView("discussion-1", "user-1");
+        boolean anonymous = buffer.recordView("discussion-1", null);
+
+        // Then：未登录用户不去重
+        assertThat(first).isTrue();
+        assertThat(second).isFalse();
+        assertThat(anonymous).isTrue();
+        assertThat(buffer.getPendingViews("discussion-1")).isEqualTo(2L);
+    }
+
+    @Test
+    @DisplayName("反测：Redis不可用时不去重")
+    void recordView_WhenRedisUnavailable_ShouldStillCount() {
+        // Given
+        ViewCountBuffer buffer = buffer(Duration.ofMinutes(30));
+        when(valueOperations.setIfAbsent(anyString(), anyString(), any(Duration.class)))
+                .thenThrow(new RedisConnectionFailureException("连接失败"));
+
+        // When
+        boolean counted = buffer.recordView("discussion-1", "user-1");
+
+        // Then
+        assertThat(counted).isTrue();
+        assertThat(buffer.getPendingViews("discussion-1")).isEqualTo(1L);
+    }
+
+    private ViewCountBuffer buffer(Duration dedupWindow) {
+        return new ViewCountBuffer(mongoTemplate, redisTemplate, new SimpleMeterRegistry(),
+                Duration.ofSeconds(5), dedupWindow);
+    }
+}
@@ -0,0 +1,109 @@
+package org.linghu.discussion.mongo;
+
+import org.bson.Document;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.IndexDefinition;
+import org.springframework.data.mongodb.core.index.IndexInfo;
+import org.springframework.data.mongodb.core.index.IndexOperations;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * MongoIndexCatalog 单元测试
+ */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("MongoDB索引清单测试")
+class MongoIndexCatalogTest {
+
+    private static final MongoIndexCatalog.IndexSpec SPEC = MongoIndexCatalog.INDEXES.get(0);
+
+    @Mock
+    private MongoTemplate mongoTemplate;
+
+    @Mock
+    private IndexOperations indexOperations;
+
+    private static IndexInfo indexInfo(Document keys, Document partialFilter) {
+        Document source = new Document("name", SPEC.name()).append("key", keys);
+        if (partialFilter != null) {
+            source.append("partialFilterExpression", partialFilter);
+        }
+        return IndexInfo.indexInfoOf(source);
+    }
+
+    @Test
+    @DisplayName("正测：缺失的索引按清单创建为 deleted=false 的部分索引")
+    void ensureIndex_ShouldCreateMissingPartialIndex() {
+        // Given
+        when(mongoTemplate.indexOps(SPEC.collection())).thenReturn(indexOperations);
+        when(indexOperations.getIndexInfo()).thenReturn(List.of());
+
+        // When
+        MongoIndexCatalog.IndexState state = new MongoIndexCatalog(mongoTemplate, true).ensureIndex(SPEC);
+
+        // Then
+        assertThat(state).isEqualTo(MongoIndexCatalog.IndexState.CREATED);
+        ArgumentCaptor<IndexDefinition> definition = ArgumentCaptor.forClass(IndexDefinition.class);
+        verify(indexOperations).ensureIndex(definition.capture());
+        assertThat(definition.getValue().getIndexKeys()).isEqualTo(SPEC.keys());
+        assertThat(definition.getValue().getIndexOptions())
+                .containsEntry("name", SPEC.name())
+                .containsEntry("partialFilterExpression", new Document("deleted", false));
+    }
+
+    @Test
+    @DisplayName("正测：已存在且定义一致的索引只校验不重建")
+    void ensureIndex_ShouldVerifyMatchingIndex() {
+        // Given
+        when(mongoTemplate.indexOps(SPEC.collection())).thenReturn(indexOperations);
+        when(indexOperations.getIndexInfo()).thenReturn(List.of(indexInfo(SPEC.keys(), new Document("deleted", false))));
+
+        // When
+        MongoIndexCatalog.IndexState state = new MongoIndexCatalog(mongoTemplate, true).ensureIndex(SPEC);
+
+        // Then
+        assertThat(state).isEqualTo(MongoIndexCatalog.IndexState.VERIFIED);
+        verify(indexOperations, never()).ensureIndex(any());
+    }
+
+    @Test
+    @DisplayName("反测：同名索引定义不一致时只告警，不删除重建")
+    void ensureIndex_ShouldReportMismatchedIndex() {
+        // Given：同名索引缺少部分索引条件
+        when(mongoTemplate.indexOps(SPEC.collection())).thenReturn(indexOperations);
+        when(indexOperations.getIndexInfo()).thenReturn(List.of(indexInfo(SPEC.keys(), null)));
+
+        // When
+        MongoIndexCatalog.IndexState state = new MongoIndexCatalog(mongoTemplate, true).ensureIndex(SPEC);
+
+        // Then
+        assertThat(state).isEqualTo(MongoIndexCatalog.IndexState.MISMATCHED);
+        verify(indexOperations, never()).ensureIndex(any());
+        verify(indexOperations, never()).dropIndex(anyString());
+    }
+
+    @Test
+    @DisplayName("反测：关闭自动创建时只报告缺失")
+    void ensureIndex_ShouldOnlyReportWhenCreationDisabled() {
+        // Given
+        when(mongoTemplate.indexOps(SPEC.collection())).thenReturn(indexOperations);
+        when(indexOperations.getIndexInfo()).thenReturn(List.of());
+
+        // When
+        MongoIndexCatalog.IndexState state = new MongoIndexCatalog(mongoTemplate, false).ensureIndex(SPEC);
+
+        // Then
+        assertThat(state).isEqualTo(MongoIndexCatalog.IndexState.MISSING);
+        verify(indexOperations, never()).ensureIndex(any());
+    }
+}
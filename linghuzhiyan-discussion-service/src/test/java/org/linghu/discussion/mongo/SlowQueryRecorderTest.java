@@ -0,0 +1,102 @@
+package org.linghu.discussion.mongo;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.bson.BsonDocument;
+import org.bson.Document;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.data.mongodb.core.MongoTemplate;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * SlowQueryRecorder 单元测试
+ */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("慢查询记录测试")
+class SlowQueryRecorderTest {
+
+    @Mock
+    private ObjectProvider<MongoTemplate> mongoTemplateProvider;
+
+    private SlowQueryRecorder recorder(int capacity) {
+        return new SlowQueryRecorder(mongoTemplateProvider, new SimpleMeterRegistry(),
+                Duration.ofMillis(100), capacity, false);
+    }
+
+    private static BsonDocument findCommand(String userId) {
+        return BsonDocument.parse("{find: 'discussions', filter: {deleted: false, user_id: '" + userId + "'},"
+                + " lsid: {id: 1}, $db: 'linghu'}");
+    }
+
+    @Test
+    @DisplayName("正测：超过阈值的命令被记录，并去掉驱动附加字段")
+    void complete_ShouldRecordSlowCommand() {
+        // Given
+        SlowQueryRecorder recorder = recorder(10);
+
+        // When
+        recorder.complete("linghu", "find", findCommand("user-1"), 250);
+
+        // Then
+        List<SlowQueryRecorder.SlowQuery> queries = recorder.getSlowQueries();
+        assertThat(queries).hasSize(1);
+        assertThat(queries.get(0).getCollection()).isEqualTo("discussions");
+        assertThat(queries.get(0).getElapsedMillis()).isEqualTo(250);
+        assertThat(queries.get(0).getCommand()).contains("user_id").doesNotContain("lsid", "$db");
+    }
+
+    @Test
+    @DisplayName("反测：未超过阈值的命令不记录")
+    void complete_ShouldIgnoreFastCommand() {
+        // Given
+        SlowQueryRecorder recorder = recorder(10);
+
+        // When
+        recorder.complete("linghu", "find", findCommand("user-1"), 20);
+
+        // Then
+        assertThat(recorder.getSlowQueries()).isEmpty();
+    }
+
+    @Test
+    @DisplayName("正测：只保留最近的若干条，最新的在前")
+    void complete_ShouldKeepMostRecentQueries() {
+        // Given
+        SlowQueryRecorder recorder = recorder(2);
+
+        // When
+        recorder.complete("linghu", "find", findCommand("user-1"), 200);
+        recorder.complete("linghu", "find", findCommand("user-2"), 200);
+        recorder.complete("linghu", "find", findCommand("user-3"), 200);
+
+        // Then
+        assertThat(recorder.getSlowQueries())
+                .extracting(SlowQueryRecorder.SlowQuery::getCommand)
+                .satisfiesExactly(
+                        command -> assertThat(command).contains("user-3"),
+                        command -> assertThat(command).contains("user-2"));
+    }
+
+    @Test
+    @DisplayName("正测：从聚合的 explain 结果中取出执行计划摘要")
+    void summarizePlan_ShouldDescribeAggregationPlan() {
+        // Given
+        Document explain = Document.parse("{stages: [{$cursor: {queryPlanner: {winningPlan:"
+                + " {stage: 'FETCH', inputStage: {stage: 'IXSCAN', indexName: 'root_create_time'}}}}},"
+                + " {$group: {}}]}");
+
+        // When
+        String summary = SlowQueryRecorder.summarizePlan(SlowQueryRecorder.winningPlan(explain));
+
+        // Then
+        assertThat(summary).isEqualTo("FETCH <- IXSCAN(root_create_time)");
+    }
+}
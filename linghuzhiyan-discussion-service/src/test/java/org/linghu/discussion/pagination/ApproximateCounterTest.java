@@ -0,0 +1,66 @@
+package org.linghu.discussion.pagination;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.linghu.discussion.domain.Discussion;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * ApproximateCounter 单元测试
+ */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("近似总数测试")
+class ApproximateCounterTest {
+
+    @Mock
+    private MongoTemplate mongoTemplate;
+
+    @Test
+    @DisplayName("正测：相同过滤条件在缓存期内只计数一次，且计数有上限")
+    void count_ShouldCacheByFilter() {
+        // Given
+        ApproximateCounter counter = new ApproximateCounter(mongoTemplate, new SimpleMeterRegistry(), Duration.ofMinutes(1));
+        when(mongoTemplate.count(any(Query.class), eq(Discussion.class))).thenReturn(7L);
+
+        // When
+        long first = counter.count(new Query(Criteria.where("experimentId").is("experiment-1")), Discussion.class);
+        long second = counter.count(new Query(Criteria.where("experimentId").is("experiment-1")), Discussion.class);
+
+        // Then
+        assertThat(first).isEqualTo(7L);
+        assertThat(second).isEqualTo(7L);
+        ArgumentCaptor<Query> query = ArgumentCaptor.forClass(Query.class);
+        verify(mongoTemplate, times(1)).count(query.capture(), eq(Discussion.class));
+        assertThat(query.getValue().getLimit()).isEqualTo(ApproximateCounter.COUNT_LIMIT);
+    }
+
+    @Test
+    @DisplayName("反测：不同过滤条件分别计数")
+    void count_ShouldNotShareCacheAcrossFilters() {
+        // Given
+        ApproximateCounter counter = new ApproximateCounter(mongoTemplate, new SimpleMeterRegistry(), Duration.ofMinutes(1));
+        when(mongoTemplate.count(any(Query.class), eq(Discussion.class))).thenReturn(7L, 3L);
+
+        // When
+        long first = counter.count(new Query(Criteria.where("experimentId").is("experiment-1")), Discussion.class);
+        long second = counter.count(new Query(Criteria.where("experimentId").is("experiment-2")), Discussion.class);
+
+        // Then
+        assertThat(first).isEqualTo(7L);
+        assertThat(second).isEqualTo(3L);
+        verify(mongoTemplate, times(2)).count(any(Query.class), eq(Discussion.class));
+    }
+}
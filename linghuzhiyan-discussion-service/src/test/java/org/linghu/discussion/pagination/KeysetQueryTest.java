@@ -0,0 +1,108 @@
+package org.linghu.discussion.pagination;
+
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.linghu.discussion.domain.Discussion;
+import org.linghu.discussion.dto.CursorPageDTO;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * KeysetQuery 单元测试
+ */
+@DisplayName("键集分页测试")
+class KeysetQueryTest {
+
+    private static final String DISCUSSION_ID = "65a1b2c3d4e5f6a7b8c9d0e1";
+
+    private static Discussion discussion(String id, int priority, LocalDateTime lastActivityTime) {
+        return Discussion.builder()
+                .id(id)
+                .priority(priority)
+                .lastActivityTime(lastActivityTime)
+                .build();
+    }
+
+    @Test
+    @DisplayName("正测：第一页只设置排序和多取一条的限制")
+    void apply_ShouldSortByFieldsAndIdWithoutCursor() {
+        // When
+        Query query = KeysetQuery.apply(new Query(Criteria.where("deleted").is(false)),
+                List.of("priority", "lastActivityTime"), Sort.Direction.DESC, null, 10);
+
+        // Then
+        assertThat(query.getQueryObject()).doesNotContainKey("$or");
+        assertThat(query.getSortObject())
+                .containsEntry("priority", -1)
+                .containsEntry("lastActivityTime", -1)
+                .containsEntry("_id", -1);
+        assertThat(query.getLimit()).isEqualTo(11);
+    }
+
+    @Test
+    @DisplayName("正测：游标条件按排序键逐级比较，最后比较 _id")
+    void apply_ShouldContinueAfterCursor() {
+        // Given
+        LocalDateTime time = LocalDateTime.of(2025, 1, 1, 10, 0);
+        String cursor = KeysetQuery.cursorOf(discussion(DISCUSSION_ID, 2, time), List.of("priority", "lastActivityTime"));
+
+        // When
+        Query query = KeysetQuery.apply(new Query(Criteria.where("deleted").is(false)),
+                List.of("priority", "lastActivityTime"), Sort.Direction.DESC, cursor, 10);
+
+        // Then
+        List<Document> branches = query.getQueryObject().getList("$or", Document.class);
+        assertThat(branches).hasSize(3);
+        // 降序时排序键为 null 的数据排在最后，第一个分支同时匹配 null
+        assertThat(branches.get(0).getList("$or", Document.class)).containsExactly(
+                new Document("priority", new Document("$lt", 2)),
+                new Document("priority", null));
+        List<Document> idBranch = branches.get(2).getList("$and", Document.class);
+        assertThat(idBranch).containsExactly(
+                new Document("priority", 2),
+                new Document("lastActivityTime", time),
+                new Document("_id", new Document("$lt", new ObjectId(DISCUSSION_ID))));
+    }
+
+    @Test
+    @DisplayName("正测：多取的一条不返回，并用本页最后一条生成游标")
+    void page_ShouldTrimExtraRowAndBuildCursor() {
+        // Given
+        LocalDateTime time = LocalDateTime.of(2025, 1, 1, 10, 0);
+        List<Discussion> rows = List.of(
+                discussion("discussion-1", 0, time),
+                discussion("discussion-2", 0, time.minusHours(1)),
+                discussion("discussion-3", 0, time.minusHours(2)));
+
+        // When
+        CursorPageDTO<String> page = KeysetQuery.page(rows, List.of("lastActivityTime"), 2,
+                items -> items.stream().map(Discussion::getId).toList());
+
+        // Then
+        assertThat(page.getItems()).containsExactly("discussion-1", "discussion-2");
+        assertThat(page.isHasMore()).isTrue();
+        assertThat(CursorCodec.decode(page.getNextCursor(), 2))
+                .containsExactly("t:" + time.minusHours(1), "s:discussion-2");
+    }
+
+    @Test
+    @DisplayName("反测：排序键个数不符的游标")
+    void apply_ShouldRejectCursorForOtherSort() {
+        // Given
+        String cursor = KeysetQuery.cursorOf(discussion(DISCUSSION_ID, 2, LocalDateTime.now()), List.of("priority"));
+
+        // When & Then
+        assertThatThrownBy(() -> KeysetQuery.apply(new Query(), List.of("priority", "lastActivityTime"),
+                Sort.Direction.DESC, cursor, 10))
+                .isInstanceOf(RuntimeException.class)
+                .hasMessageContaining("无效的分页游标");
+    }
+}
@@ -0,0 +1,262 @@
+package org.linghu.discussion.ranking;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.linghu.discussion.counter.ViewCountBuffer;
+import org.linghu.discussion.domain.Discussion;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.springframework.data.redis.RedisConnectionFailureException;
+import org.springframework.data.redis.connection.zset.Aggregate;
+import org.springframework.data.redis.connection.zset.Weights;
+import org.springframework.data.redis.core.SessionCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ZSetOperations;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.LinkedHashSet;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * HotRanking 单元测试
+ */
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+@DisplayName("讨论热榜测试")
+class HotRankingTest {
+
+    private static final String EXPERIMENT_KEY = HotRanking.EXPERIMENT_KEY_PREFIX + "experiment-1";
+
+    @Mock
+    private StringRedisTemplate redisTemplate;
+
+    @Mock
+    private ZSetOperations<String, String> zSetOperations;
+
+    @Mock
+    private ViewCountBuffer viewCountBuffer;
+
+    private HotRanking hotRanking;
+
+    @BeforeEach
+    void setUp() {
+        hotRanking = new HotRanking(redisTemplate, viewCountBuffer, Duration.ofHours(24), Duration.ofDays(30),
+                Duration.ofHours(6), Duration.ofHours(3));
+        when(redisTemplate.opsForZSet()).thenReturn(zSetOperations);
+        // 管道中的命令直接在同一个模板上执行
+        when(redisTemplate.executePipelined(any(SessionCallback.class))).thenAnswer(invocation -> {
+            SessionCallback<?> callback = invocation.getArgument(0);
+            callback.execute(redisTemplate);
+            return List.of();
+        });
+    }
+
+    private static Discussion discussion(String id, Discussion.DiscussionStatus status, LocalDateTime createTime) {
+        return Discussion.builder()
+                .id(id)
+                .experimentId("experiment-1")
+                .status(status)
+                .createTime(createTime)
+                .build();
+    }
+
+    @Test
+    @DisplayName("正测：早一个半衰期创建的讨论需要双倍互动才能与新讨论同分")
+    void score_ShouldDecayByHalfLife() {
+        // Given
+        LocalDateTime now = LocalDateTime.of(2025, 6, 1, 12, 0);
+        Discussion fresh = discussion("fresh", Discussion.DiscussionStatus.APPROVED, now);
+        fresh.setViewCount(10L);
+        Discussion older = discussion("older", Discussion.DiscussionStatus.APPROVED, now.minusHours(24));
+        older.setCommentCount(1L);
+
+        // When & Then
+        assertThat(hotRanking.score(older)).isCloseTo(hotRanking.score(fresh), within(1e-9));
+        older.setLikeCount(1L);
+        assertThat(hotRanking.score(older)).isGreaterThan(hotRanking.score(fresh));
+    }
+
+    @Test
+    @DisplayName("正测：浏览数计入尚未写回的增量")
+    void score_ShouldIncludePendingViews() {
+        // Given
+        Discussion discussion = discussion("discussion-1", Discussion.DiscussionStatus.APPROVED, LocalDateTime.now());
+        double before = hotRanking.score(discussion);
+        when(viewCountBuffer.getPendingViews("discussion-1")).thenReturn(10L);
+
+        // When & Then
+        assertThat(hotRanking.score(discussion)).isCloseTo(before + 1, within(1e-9));
+    }
+
+    @Test
+    @DisplayName("正测：已通过的讨论写入全站和实验热榜")
+    void update_ShouldAddApprovedDiscussionToBothRankings() {
+        // Given
+        Discussion discussion = discussion("discussion-1", Discussion.DiscussionStatus.APPROVED, LocalDateTime.now());
+        double score = hotRanking.score(discussion);
+
+        // When
+        hotRanking.update(discussion);
+
+        // Then
+        verify(zSetOperations).add(HotRanking.GLOBAL_KEY, "discussion-1", score);
+        verify(zSetOperations).add(EXPERIMENT_KEY, "discussion-1", score);
+        verify(redisTemplate).expire(EXPERIMENT_KEY, Duration.ofDays(30));
+    }
+
+    @Test
+    @DisplayName("正测：未通过的讨论移出热榜")
+    void update_ShouldRemoveDiscussionNotApproved() {
+        // Given
+        Discussion discussion = discussion("discussion-1", Discussion.DiscussionStatus.PENDING, LocalDateTime.now());
+
+        // When
+        hotRanking.update(discussion);
+
+        // Then
+        verify(zSetOperations).remove(HotRanking.GLOBAL_KEY, "discussion-1");
+        verify(zSetOperations).remove(EXPERIMENT_KEY, "discussion-1");
+        verify(zSetOperations, never()).add(anyString(), anyString(), anyDouble());
+    }
+
+    @Test
+    @DisplayName("反测：Redis不可用时更新热度不抛出异常")
+    void update_ShouldIgnoreRedisFailure() {
+        // Given
+        doThrow(new RedisConnectionFailureException("connection refused"))
+                .when(redisTemplate).executePipelined(any(SessionCallback.class));
+        Discussion discussion = discussion("discussion-1", Discussion.DiscussionStatus.APPROVED, LocalDateTime.now());
+
+        // When & Then
+        assertThatCode(() -> hotRanking.update(discussion)).doesNotThrowAnyException();
+    }
+
+    @Test
+    @DisplayName("正测：按页从高到低读取热榜")
+    void page_ShouldReadRankRange() {
+        // Given
+        when(zSetOperations.zCard(EXPERIMENT_KEY)).thenReturn(25L);
+        when(zSetOperations.reverseRange(EXPERIMENT_KEY, 10, 19))
+                .thenReturn(new LinkedHashSet<>(List.of("discussion-3", "discussion-1")));
+
+        // When
+        HotRanking.RankedPage page = hotRanking.page(HotRanking.Feed.HOT, "experiment-1", 1, 10);
+
+        // Then
+        assertThat(page.ids()).containsExactly("discussion-3", "discussion-1");
+        assertThat(page.total()).isEqualTo(25L);
+    }
+
+    @Test
+    @DisplayName("反测：热榜为空或Redis不可用时返回null，由调用方查询数据库")
+    void page_ShouldReturnNullWhenRankingUnavailable() {
+        // Given
+        when(zSetOperations.zCard(HotRanking.GLOBAL_KEY)).thenReturn(0L);
+        when(zSetOperations.zCard(EXPERIMENT_KEY)).thenThrow(new RedisConnectionFailureException("connection refused"));
+
+        // When & Then
+        assertThat(hotRanking.page(HotRanking.Feed.HOT, null, 0, 10)).isNull();
+        assertThat(hotRanking.page(HotRanking.Feed.HOT, "experiment-1", 0, 10)).isNull();
+    }
+
+    @Test
+    @DisplayName("正测：互动按权重累加到当前小时的全站和实验趋势计数")
+    void update_ShouldIncrementTrendingBucketsWithInteraction() {
+        // Given
+        Discussion discussion = discussion("discussion-1", Discussion.DiscussionStatus.APPROVED, LocalDateTime.now());
+
+        // When
+        hotRanking.update(discussion, HotRanking.Interaction.COMMENT);
+
+        // Then
+        ArgumentCaptor<String> keys = ArgumentCaptor.forClass(String.class);
+        verify(zSetOperations, times(2)).incrementScore(keys.capture(), eq("discussion-1"), eq(HotRanking.COMMENT_WEIGHT));
+        assertThat(keys.getAllValues()).satisfiesExactly(
+                key -> assertThat(key).startsWith(HotRanking.TRENDING_KEY_PREFIX + "global:"),
+                key -> assertThat(key).startsWith(HotRanking.TRENDING_KEY_PREFIX + "experiment:experiment-1:"));
+        verify(redisTemplate).expire(keys.getAllValues().get(0), Duration.ofHours(4));
+    }
+
+    @Test
+    @DisplayName("正测：不带互动的更新只刷新热榜，不累加趋势计数")
+    void update_ShouldNotTouchTrendingWithoutInteraction() {
+        // Given
+        Discussion discussion = discussion("discussion-1", Discussion.DiscussionStatus.APPROVED, LocalDateTime.now());
+
+        // When
+        hotRanking.update(discussion);
+
+        // Then
+        verify(zSetOperations, never()).incrementScore(anyString(), anyString(), anyDouble());
+    }
+
+    @Test
+    @DisplayName("正测：趋势榜合并窗口内各小时计数，越早的小时权重越低")
+    @SuppressWarnings("unchecked")
+    void page_ShouldUnionTrendingBucketsWithDecayingWeights() {
+        // Given
+        String viewKey = HotRanking.trendingViewKey("experiment-1");
+        when(redisTemplate.hasKey(viewKey)).thenReturn(false);
+        when(zSetOperations.zCard(viewKey)).thenReturn(2L);
+        when(zSetOperations.reverseRange(viewKey, 0, 9))
+                .thenReturn(new LinkedHashSet<>(List.of("discussion-2", "discussion-1")));
+
+        // When
+        HotRanking.RankedPage page = hotRanking.page(HotRanking.Feed.TRENDING, "experiment-1", 0, 10);
+
+        // Then
+        assertThat(page.ids()).containsExactly("discussion-2", "discussion-1");
+        ArgumentCaptor<String> firstKey = ArgumentCaptor.forClass(String.class);
+        ArgumentCaptor<List<String>> otherKeys = ArgumentCaptor.forClass(List.class);
+        ArgumentCaptor<Weights> weights = ArgumentCaptor.forClass(Weights.class);
+        verify(zSetOperations).unionAndStore(firstKey.capture(), otherKeys.capture(), eq(viewKey),
+                eq(Aggregate.SUM), weights.capture());
+        long bucket = Long.parseLong(firstKey.getValue().substring(firstKey.getValue().lastIndexOf(':') + 1));
+        assertThat(otherKeys.getValue()).containsExactly(
+                HotRanking.trendingBucketKey("experiment-1", bucket - 1),
+                HotRanking.trendingBucketKey("experiment-1", bucket - 2));
+        List<Double> values = weights.getValue().toList();
+        assertThat(values).hasSize(3);
+        assertThat(values.get(0)).isGreaterThan(values.get(1));
+        assertThat(values.get(1)).isGreaterThan(values.get(2));
+        // 相邻小时相差一小时，半衰期六小时
+        assertThat(values.get(1) / values.get(0)).isCloseTo(Math.pow(2, -1.0 / 6), within(1e-9));
+        verify(redisTemplate).expire(viewKey, HotRanking.TRENDING_VIEW_TTL);
+    }
+
+    @Test
+    @DisplayName("正测：合并结果仍在缓存期内时不重新合并")
+    void page_ShouldReuseCachedTrendingView() {
+        // Given
+        String viewKey = HotRanking.trendingViewKey(null);
+        when(redisTemplate.hasKey(viewKey)).thenReturn(true);
+        when(zSetOperations.zCard(viewKey)).thenReturn(0L);
+
+        // When & Then
+        assertThat(hotRanking.page(HotRanking.Feed.TRENDING, null, 0, 10)).isNull();
+        verify(zSetOperations, never()).unionAndStore(anyString(), anyCollection(), anyString(),
+                any(Aggregate.class), any(Weights.class));
+    }
+
+    @Test
+    @DisplayName("正测：趋势榜清理时同时移出合并结果和各小时计数")
+    void evict_ShouldRemoveFromTrendingViewAndBuckets() {
+        // When
+        hotRanking.evict(HotRanking.Feed.TRENDING, null, List.of("discussion-1"));
+
+        // Then
+        verify(zSetOperations).remove(HotRanking.trendingViewKey(null), "discussion-1");
+        // 窗口三小时，对应三个小时计数
+        verify(zSetOperations, times(4)).remove(anyString(), eq("discussion-1"));
+    }
+}
@@ -0,0 +1,68 @@
+package org.linghu.discussion.search;
+
+import com.mongodb.bulk.BulkWriteResult;
+import org.bson.Document;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * SearchReindexJob 单元测试
+ */
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+@DisplayName("搜索词重建任务测试")
+class SearchReindexJobTest {
+
+    @Mock
+    private MongoTemplate mongoTemplate;
+
+    @Mock
+    private BulkOperations bulkOperations;
+
+    @Test
+    @DisplayName("正测：按 _id 升序分批，下一批从上一批最后一个 _id 之后继续")
+    void reindex_ShouldPageByIdAfterLastBatch() {
+        // Given
+        List<Document> fullBatch = IntStream.range(0, SearchReindexJob.BATCH_SIZE)
+                .mapToObj(i -> new Document("_id", String.format("d%04d", i)).append("title", "标题").append("content", "内容"))
+                .toList();
+        List<Document> lastBatch = List.of(new Document("_id", "d9999").append("title", "标题").append("content", "内容"));
+        when(mongoTemplate.find(any(Query.class), eq(Document.class), eq("discussions")))
+                .thenReturn(fullBatch, lastBatch);
+        when(mongoTemplate.find(any(Query.class), eq(Document.class), eq("comments"))).thenReturn(List.of());
+        when(mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, "discussions")).thenReturn(bulkOperations);
+        when(bulkOperations.execute()).thenReturn(
+                BulkWriteResult.acknowledged(0, SearchReindexJob.BATCH_SIZE, 0, SearchReindexJob.BATCH_SIZE, List.of(), List.of()),
+                BulkWriteResult.acknowledged(0, 1, 0, 1, List.of(), List.of()));
+
+        // When
+        long processed = new SearchReindexJob(mongoTemplate, false).reindex();
+
+        // Then
+        assertThat(processed).isEqualTo(SearchReindexJob.BATCH_SIZE + 1L);
+        ArgumentCaptor<Query> queries = ArgumentCaptor.forClass(Query.class);
+        verify(mongoTemplate, times(2)).find(queries.capture(), eq(Document.class), eq("discussions"));
+        Query first = queries.getAllValues().get(0);
+        Query second = queries.getAllValues().get(1);
+        assertThat(first.getQueryObject()).doesNotContainKey("_id");
+        assertThat(first.getSortObject()).containsEntry("_id", 1);
+        assertThat(second.getQueryObject().get("_id", Document.class)).containsEntry("$gt", "d0499");
+        verify(bulkOperations, times(SearchReindexJob.BATCH_SIZE + 1)).updateOne(any(Query.class), any());
+    }
+}
@@ -0,0 +1,65 @@
+package org.linghu.discussion.search;
+
+import org.bson.Document;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.mongodb.core.query.TextCriteria;
+
+import java.util.Arrays;
+
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * SearchTokenizer 单元测试
+ */
+@DisplayName("搜索分词测试")
+class SearchTokenizerTest {
+
+    @Test
+    @DisplayName("正测：中文切成单字和二字组合，英文转小写保留整词")
+    void tokenize_ShouldSplitCjkIntoUnigramsAndBigrams() {
+        // When
+        String tokens = SearchTokenizer.tokenize("数据库Java，SQL");
+
+        // Then
+        assertThat(Arrays.asList(tokens.split(" ")))
+                .containsExactly("数", "数据", "据", "据库", "库", "java", "sql");
+    }
+
+    @Test
+    @DisplayName("正测：全角字符归一化后去重")
+    void tokenize_ShouldNormalizeAndDeduplicate() {
+        // When
+        String tokens = SearchTokenizer.tokenize("ＡＢＣ abc 数据 数据");
+
+        // Then
+        assertThat(tokens).isEqualTo("abc 数 数据 据");
+    }
+
+    @Test
+    @DisplayName("正测：查询词只使用二字组合，单个汉字按单字匹配")
+    void queryTokens_ShouldUseBigrams() {
+        // When & Then
+        assertThat(SearchTokenizer.queryTokens("数据库")).containsExactly("数据", "据库");
+        assertThat(SearchTokenizer.queryTokens("库 MongoDB")).containsExactly("库", "mongodb");
+    }
+
+    @Test
+    @DisplayName("正测：每个查询词作为短语，要求同时命中")
+    void textCriteria_ShouldQuoteEveryToken() {
+        // When
+        TextCriteria criteria = SearchTokenizer.textCriteria("数据库");
+
+        // Then
+        assertThat(criteria.getCriteriaObject().get("$text", Document.class).getString("$search")).isEqualTo("\"数据\" \"据库\"");
+    }
+
+    @Test
+    @DisplayName("反测：只有标点的关键词不生成查询条件")
+    void textCriteria_ShouldReturnNullForPunctuation() {
+        // When & Then
+        assertThat(SearchTokenizer.queryTokens("？！...")).isEmpty();
+        assertThat(SearchTokenizer.textCriteria("？！...")).isNull();
+        assertThat(SearchTokenizer.tokenize(null)).isEmpty();
+    }
+}
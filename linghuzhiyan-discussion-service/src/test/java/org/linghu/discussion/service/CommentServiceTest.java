@@ -1,5 +1,7 @@
 package org.linghu.discussion.service;
 
+import com.mongodb.client.result.UpdateResult;
+import org.bson.Document;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Nested;
@@ -7,13 +9,19 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.linghu.discussion.domain.Comment;
 import org.linghu.discussion.domain.Discussion;
+import org.linghu.discussion.domain.Like;
 import org.linghu.discussion.dto.CommentRequestDTO;
 import org.linghu.discussion.dto.CommentResponseDTO;
+import org.linghu.discussion.dto.CursorPageDTO;
 import org.linghu.discussion.dto.ReportRequestDTO;
 import org.linghu.discussion.repository.CommentRepository;
 import org.linghu.discussion.repository.DiscussionRepository;
 import org.linghu.discussion.client.UserServiceClient;
+import org.linghu.discussion.pagination.ApproximateCounter;
+import org.linghu.discussion.ranking.HotRanking;
+import org.linghu.discussion.pagination.CursorCodec;
 import org.linghu.discussion.service.impl.CommentServiceImpl;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
@@ -23,12 +31,21 @@ import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.AggregationResults;
+import org.springframework.data.mongodb.core.aggregation.TypedAggregation;
+import org.springframework.data.mongodb.core.convert.MongoConverter;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.test.util.ReflectionTestUtils;
 
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 
 import static org.assertj.core.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.*;
@@ -50,6 +67,21 @@ class CommentServiceTest {
     @Mock
     private UserServiceClient userServiceClient;
 
+    @Mock
+    private MongoTemplate mongoTemplate;
+
+    @Mock
+    private LikeService likeService;
+
+    @Mock
+    private MongoConverter mongoConverter;
+
+    @Mock
+    private ApproximateCounter approximateCounter;
+
+    @Mock
+    private HotRanking hotRanking;
+
     @InjectMocks
     private CommentServiceImpl commentService;
 
@@ -67,11 +99,11 @@ class CommentServiceTest {
                 .username("testuser")
                 .userAvatar("avatar.jpg")
                 .likeCount(5L)
-                .likedBy(new ArrayList<>())
                 .status(Comment.CommentStatus.NORMAL)
                 .createTime(LocalDateTime.now())
                 .updateTime(LocalDateTime.now())
                 .build();
+        ReflectionTestUtils.setField(commentService, "replyPreviewSize", 2);
 
         commentRequest = CommentRequestDTO.builder()
                 .content("新的评论内容")
@@ -85,6 +117,19 @@ class CommentServiceTest {
                 .build();
     }
 
+    private static Comment reply(String id, LocalDateTime createTime) {
+        return Comment.builder()
+                .id(id)
+                .discussionId("discussion-1")
+                .content("回复内容")
+                .userId("user-2")
+                .parentId("comment-1")
+                .rootId("comment-1")
+                .depth(1)
+                .createTime(createTime)
+                .build();
+    }
+
     @Nested
     @DisplayName("创建评论测试")
     class CreateCommentTests {
@@ -113,9 +158,19 @@ class CommentServiceTest {
             assertThat(result.getUserId()).isEqualTo("user-1");
             assertThat(result.getDiscussionId()).isEqualTo("discussion-1");
 
-            verify(discussionRepository, times(2)).findByIdAndNotDeleted("discussion-1");
+            verify(discussionRepository, times(1)).findByIdAndNotDeleted("discussion-1");
             verify(userServiceClient, times(1)).getUserById("user-1");
             verify(commentRepository, times(1)).save(any(Comment.class));
+
+            // 评论数用 $inc 累加，不回写整个讨论文档
+            ArgumentCaptor<Update> update = ArgumentCaptor.forClass(Update.class);
+            verify(mongoTemplate).findAndModify(any(Query.class), update.capture(),
+                    any(FindAndModifyOptions.class), eq(Discussion.class));
+            assertThat(update.getValue().getUpdateObject().get("$inc", Document.class).get("commentCount"))
+                    .isEqualTo(1L);
+            assertThat(update.getValue().getUpdateObject().get("$set", Document.class))
+                    .doesNotContainKeys("likeCount", "viewCount");
+            verify(discussionRepository, never()).save(any(Discussion.class));
         }
 
         @Test
@@ -177,7 +232,7 @@ class CommentServiceTest {
             assertThat(result.getReplyToUserId()).isEqualTo("user-2");
             assertThat(result.getDepth()).isEqualTo(1);
 
-            verify(discussionRepository, times(2)).findByIdAndNotDeleted("discussion-1");
+            verify(discussionRepository, times(1)).findByIdAndNotDeleted("discussion-1");
             verify(userServiceClient, times(1)).getUserById("user-1");
             verify(userServiceClient, times(1)).getUserById("user-2");
             verify(commentRepository, times(1)).findByIdAndNotDeleted("parent-1");
@@ -285,8 +340,8 @@ class CommentServiceTest {
                     .thenReturn(Optional.of(new Discussion()));
             when(commentRepository.findRootCommentsByDiscussionId(eq("discussion-1"), any(Pageable.class)))
                     .thenReturn(commentPage);
-            when(commentRepository.findByRootIdAndNotDeleted("comment-1"))
-                    .thenReturn(new ArrayList<>());
+            when(mongoTemplate.aggregate(any(TypedAggregation.class), eq(Document.class)))
+                    .thenReturn(new AggregationResults<>(new ArrayList<>(), new Document()));
 
             // When
             Page<CommentResponseDTO> result = commentService.getCommentsByDiscussionId(
@@ -302,6 +357,78 @@ class CommentServiceTest {
                     eq("discussion-1"), any(Pageable.class));
         }
 
+        @Test
+        @DisplayName("正测：一次聚合加载本页所有根评论的回复预览")
+        void shouldLoadReplyPreviewsWithOneAggregation() {
+            // Given：根评论共有5条回复，预览只内嵌前2条
+            Comment firstReply = reply("reply-1", LocalDateTime.of(2025, 1, 1, 10, 0));
+            Comment secondReply = reply("reply-2", LocalDateTime.of(2025, 1, 1, 11, 0));
+            Document firstDocument = new Document("_id", "reply-1");
+            Document secondDocument = new Document("_id", "reply-2");
+            Document group = new Document("_id", "comment-1")
+                    .append("replyCount", 5)
+                    .append("replies", List.of(firstDocument, secondDocument));
+
+            when(discussionRepository.findByIdAndNotDeleted("discussion-1"))
+                    .thenReturn(Optional.of(new Discussion()));
+            when(commentRepository.findRootCommentsByDiscussionId(eq("discussion-1"), any(Pageable.class)))
+                    .thenReturn(new PageImpl<>(List.of(sampleComment)));
+            when(mongoTemplate.aggregate(any(TypedAggregation.class), eq(Document.class)))
+                    .thenReturn(new AggregationResults<>(List.of(group), new Document()));
+            when(mongoTemplate.getConverter()).thenReturn(mongoConverter);
+            when(mongoConverter.read(Comment.class, firstDocument)).thenReturn(firstReply);
+            when(mongoConverter.read(Comment.class, secondDocument)).thenReturn(secondReply);
+            when(likeService.findLikedTargetIds(Like.TargetType.COMMENT,
+                    List.of("comment-1", "reply-1", "reply-2"), "user-1"))
+                    .thenReturn(Set.of("reply-1"));
+
+            // When
+            Page<CommentResponseDTO> result = commentService.getCommentsByDiscussionId(
+                    "discussion-1", true, "createTime", "asc", 0, 10, "user-1");
+
+            // Then
+            CommentResponseDTO root = result.getContent().get(0);
+            assertThat(root.getReplyCount()).isEqualTo(5L);
+            assertThat(root.getReplies()).extracting(CommentResponseDTO::getId).containsExactly("reply-1", "reply-2");
+            assertThat(root.getIsLiked()).isFalse();
+            assertThat(root.getReplies().get(0).getIsLiked()).isTrue();
+            assertThat(CursorCodec.decode(root.getRepliesCursor(), 2))
+                    .containsExactly("t:2025-01-01T11:00", "s:reply-2");
+
+            verify(mongoTemplate, times(1)).aggregate(any(TypedAggregation.class), eq(Document.class));
+            verify(commentRepository, never()).findByRootIdAndNotDeleted(anyString());
+            verify(likeService, times(1)).findLikedTargetIds(any(), anyCollection(), any());
+            verify(likeService, never()).isLiked(any(), any(), any());
+        }
+
+        @Test
+        @DisplayName("正测：回复已全部内嵌时不返回游标")
+        void shouldOmitCursorWhenAllRepliesEmbedded() {
+            // Given
+            Document replyDocument = new Document("_id", "reply-1");
+            Document group = new Document("_id", "comment-1")
+                    .append("replyCount", 1)
+                    .append("replies", List.of(replyDocument));
+            when(discussionRepository.findByIdAndNotDeleted("discussion-1"))
+                    .thenReturn(Optional.of(new Discussion()));
+            when(commentRepository.findRootCommentsByDiscussionId(eq("discussion-1"), any(Pageable.class)))
+                    .thenReturn(new PageImpl<>(List.of(sampleComment)));
+            when(mongoTemplate.aggregate(any(TypedAggregation.class), eq(Document.class)))
+                    .thenReturn(new AggregationResults<>(List.of(group), new Document()));
+            when(mongoTemplate.getConverter()).thenReturn(mongoConverter);
+            when(mongoConverter.read(Comment.class, replyDocument))
+                    .thenReturn(reply("reply-1", LocalDateTime.of(2025, 1, 1, 10, 0)));
+
+            // When
+            Page<CommentResponseDTO> result = commentService.getCommentsByDiscussionId(
+                    "discussion-1", true, "createTime", "asc", 0, 10, null);
+
+            // Then
+            CommentResponseDTO root = result.getContent().get(0);
+            assertThat(root.getReplyCount()).isEqualTo(1L);
+            assertThat(root.getRepliesCursor()).isNull();
+        }
+
         @Test
         @MockitoSettings(strictness = Strictness.LENIENT)
         @DisplayName("正测：成功获取用户的评论列表")
@@ -334,7 +461,8 @@ class CommentServiceTest {
         void shouldDeleteOwnCommentSuccessfully() {
             // Given
             when(commentRepository.findByIdAndNotDeleted("comment-1")).thenReturn(Optional.of(sampleComment));
-            when(commentRepository.save(any(Comment.class))).thenReturn(sampleComment);
+            when(mongoTemplate.updateFirst(any(Query.class), any(Update.class), eq(Comment.class)))
+                    .thenReturn(UpdateResult.acknowledged(1L, 1L, null));
 
             // When
             boolean result = commentService.deleteComment("comment-1", "user-1");
@@ -343,7 +471,30 @@ class CommentServiceTest {
             assertThat(result).isTrue();
 
             verify(commentRepository, times(1)).findByIdAndNotDeleted("comment-1");
-            verify(commentRepository, times(1)).save(any(Comment.class));
+            verify(commentRepository, never()).save(any(Comment.class));
+            ArgumentCaptor<Update> update = ArgumentCaptor.forClass(Update.class);
+            verify(mongoTemplate).findAndModify(any(Query.class), update.capture(),
+                    any(FindAndModifyOptions.class), eq(Discussion.class));
+            assertThat(update.getValue().getUpdateObject().get("$inc", Document.class).get("commentCount"))
+                    .isEqualTo(-1L);
+            verify(discussionRepository, never()).save(any(Discussion.class));
+        }
+
+        @Test
+        @DisplayName("正测：评论已被并发删除时不重复扣减评论数")
+        void shouldNotDecrementCommentCountTwice() {
+            // Given
+            when(commentRepository.findByIdAndNotDeleted("comment-1")).thenReturn(Optional.of(sampleComment));
+            when(mongoTemplate.updateFirst(any(Query.class), any(Update.class), eq(Comment.class)))
+                    .thenReturn(UpdateResult.acknowledged(0L, 0L, null));
+
+            // When
+            boolean result = commentService.deleteComment("comment-1", "user-1");
+
+            // Then
+            assertThat(result).isTrue();
+            verify(mongoTemplate, never()).findAndModify(any(Query.class), any(Update.class),
+                    any(FindAndModifyOptions.class), eq(Discussion.class));
         }
 
         @Test
@@ -377,6 +528,92 @@ class CommentServiceTest {
         }
     }
 
+    @Nested
+    @DisplayName("游标加载回复测试")
+    class ThreadRepliesTests {
+
+        @Test
+        @DisplayName("正测：多取一条判断是否还有更多回复")
+        void shouldReturnNextCursorWhenMoreRepliesExist() {
+            // Given
+            when(commentRepository.findByIdAndNotDeleted("comment-1")).thenReturn(Optional.of(sampleComment));
+            when(mongoTemplate.find(any(Query.class), eq(Comment.class))).thenReturn(new ArrayList<>(List.of(
+                    reply("reply-1", LocalDateTime.of(2025, 1, 1, 10, 0)),
+                    reply("reply-2", LocalDateTime.of(2025, 1, 1, 11, 0)),
+                    reply("reply-3", LocalDateTime.of(2025, 1, 1, 12, 0)))));
+
+            // When
+            CursorPageDTO<CommentResponseDTO> page = commentService.getThreadReplies("comment-1", null, 2, "user-1");
+
+            // Then
+            assertThat(page.getItems()).extracting(CommentResponseDTO::getId).containsExactly("reply-1", "reply-2");
+            assertThat(page.isHasMore()).isTrue();
+            assertThat(CursorCodec.decode(page.getNextCursor(), 2)).containsExactly("t:2025-01-01T11:00", "s:reply-2");
+
+            ArgumentCaptor<Query> query = ArgumentCaptor.forClass(Query.class);
+            verify(mongoTemplate).find(query.capture(), eq(Comment.class));
+            assertThat(query.getValue().getLimit()).isEqualTo(3);
+        }
+
+        @Test
+        @DisplayName("正测：带游标时从上一页最后一条之后继续")
+        void shouldContinueAfterCursor() {
+            // Given
+            String cursor = CursorCodec.encode("t:2025-01-01T11:00", "s:reply-2");
+            when(commentRepository.findByIdAndNotDeleted("comment-1")).thenReturn(Optional.of(sampleComment));
+            when(mongoTemplate.find(any(Query.class), eq(Comment.class)))
+                    .thenReturn(List.of(reply("reply-3", LocalDateTime.of(2025, 1, 1, 12, 0))));
+
+            // When
+            CursorPageDTO<CommentResponseDTO> page = commentService.getThreadReplies("comment-1", cursor, 2, null);
+
+            // Then
+            assertThat(page.getItems()).extracting(CommentResponseDTO::getId).containsExactly("reply-3");
+            assertThat(page.isHasMore()).isFalse();
+            assertThat(page.getNextCursor()).isNull();
+
+            ArgumentCaptor<Query> query = ArgumentCaptor.forClass(Query.class);
+            verify(mongoTemplate).find(query.capture(), eq(Comment.class));
+            assertThat(query.getValue().getQueryObject()).containsKey("$or");
+        }
+
+        @Test
+        @DisplayName("正测：按点赞数游标分页获取讨论的评论并附带近似总数")
+        void shouldGetCommentFeedSortedByLikeCount() {
+            // Given
+            when(discussionRepository.findByIdAndNotDeleted("discussion-1")).thenReturn(Optional.of(new Discussion()));
+            when(approximateCounter.count(any(Query.class), eq(Comment.class))).thenReturn(3L);
+            when(mongoTemplate.find(any(Query.class), eq(Comment.class))).thenReturn(List.of(sampleComment));
+
+            // When
+            CursorPageDTO<CommentResponseDTO> page = commentService.getCommentFeed(
+                    "discussion-1", false, "likeCount", "desc", null, 10, true, "user-1");
+
+            // Then
+            assertThat(page.getItems()).extracting(CommentResponseDTO::getId).containsExactly("comment-1");
+            assertThat(page.isHasMore()).isFalse();
+            assertThat(page.getTotal()).isEqualTo(3L);
+
+            ArgumentCaptor<Query> query = ArgumentCaptor.forClass(Query.class);
+            verify(mongoTemplate).find(query.capture(), eq(Comment.class));
+            assertThat(query.getValue().getSortObject().keySet()).containsExactly("likeCount", "_id");
+            verify(mongoTemplate, never()).aggregate(any(TypedAggregation.class), eq(Document.class));
+        }
+
+        @Test
+        @DisplayName("反测：无效游标")
+        void shouldFailWithInvalidCursor() {
+            // Given
+            when(commentRepository.findByIdAndNotDeleted("comment-1")).thenReturn(Optional.of(sampleComment));
+
+            // When & Then
+            assertThatThrownBy(() -> commentService.getThreadReplies("comment-1", "!!!", 2, null))
+                    .isInstanceOf(RuntimeException.class)
+                    .hasMessageContaining("无效的分页游标");
+            verify(mongoTemplate, never()).find(any(Query.class), eq(Comment.class));
+        }
+    }
+
     @Nested
     @DisplayName("点赞功能测试")
     class ToggleLikeTests {
@@ -399,7 +636,10 @@ class CommentServiceTest {
                     .build();
 
             when(commentRepository.findByIdAndNotDeleted("comment-1")).thenReturn(Optional.of(sampleComment));
-            when(commentRepository.save(any(Comment.class))).thenReturn(commentWithLike);
+            when(likeService.toggleLike(Like.TargetType.COMMENT, "comment-1", "user-2"))
+                    .thenReturn(new LikeService.LikeToggle(true, 1));
+            when(mongoTemplate.findAndModify(any(Query.class), any(Update.class),
+                    any(FindAndModifyOptions.class), eq(Comment.class))).thenReturn(commentWithLike);
 
             // When
             CommentResponseDTO result = commentService.toggleLike("comment-1", "user-2");
@@ -407,9 +647,10 @@ class CommentServiceTest {
             // Then
             assertThat(result).isNotNull();
             assertThat(result.getLikeCount()).isEqualTo(6L);
+            assertThat(result.getIsLiked()).isTrue();
 
             verify(commentRepository, times(1)).findByIdAndNotDeleted("comment-1");
-            verify(commentRepository, times(1)).save(any(Comment.class));
+            verify(commentRepository, never()).save(any(Comment.class));
         }
 
         @Test
@@ -424,7 +665,7 @@ class CommentServiceTest {
                     .hasMessageContaining("评论不存在");
 
             verify(commentRepository, times(1)).findByIdAndNotDeleted("non-existent");
-            verify(commentRepository, never()).save(any(Comment.class));
+            verifyNoInteractions(likeService);
         }
     }
 
@@ -437,7 +678,8 @@ class CommentServiceTest {
         void shouldReportCommentSuccessfully() {
             // Given
             when(commentRepository.findByIdAndNotDeleted("comment-1")).thenReturn(Optional.of(sampleComment));
-            when(commentRepository.save(any(Comment.class))).thenReturn(sampleComment);
+            when(mongoTemplate.findAndModify(any(Query.class), any(Update.class),
+                    any(FindAndModifyOptions.class), eq(Comment.class))).thenReturn(sampleComment);
 
             // When
             boolean result = commentService.reportComment("comment-1", reportRequest, "reporter-1");
@@ -446,7 +688,7 @@ class CommentServiceTest {
             assertThat(result).isTrue();
 
             verify(commentRepository, times(1)).findByIdAndNotDeleted("comment-1");
-            verify(commentRepository, times(1)).save(any(Comment.class));
+            verify(commentRepository, never()).save(any(Comment.class));
         }
 
         @Test
@@ -486,8 +728,8 @@ class CommentServiceTest {
                     .updateTime(LocalDateTime.now())
                     .build();
 
-            when(commentRepository.findByIdAndNotDeleted("comment-1")).thenReturn(Optional.of(sampleComment));
-            when(commentRepository.save(any(Comment.class))).thenReturn(reviewedComment);
+            when(mongoTemplate.findAndModify(any(Query.class), any(Update.class),
+                    any(FindAndModifyOptions.class), eq(Comment.class))).thenReturn(reviewedComment);
 
             // When
             CommentResponseDTO result = commentService.reviewComment("comment-1", "NORMAL", "admin-1");
@@ -495,23 +737,23 @@ class CommentServiceTest {
             // Then
             assertThat(result).isNotNull();
             assertThat(result.getStatus()).isEqualTo("NORMAL");
+            assertThat(result.getLikeCount()).isEqualTo(5L);
 
-            verify(commentRepository, times(1)).findByIdAndNotDeleted("comment-1");
-            verify(commentRepository, times(1)).save(any(Comment.class));
+            verify(commentRepository, never()).save(any(Comment.class));
         }
 
         @Test
         @DisplayName("反测：审核不存在的评论")
         void shouldFailWhenReviewNonExistentComment() {
             // Given
-            when(commentRepository.findByIdAndNotDeleted("non-existent")).thenReturn(Optional.empty());
+            when(mongoTemplate.findAndModify(any(Query.class), any(Update.class),
+                    any(FindAndModifyOptions.class), eq(Comment.class))).thenReturn(null);
 
             // When & Then
             assertThatThrownBy(() -> commentService.reviewComment("non-existent", "NORMAL", "admin-1"))
                     .isInstanceOf(RuntimeException.class)
                     .hasMessageContaining("评论不存在");
 
-            verify(commentRepository, times(1)).findByIdAndNotDeleted("non-existent");
             verify(commentRepository, never()).save(any(Comment.class));
         }
     }
@@ -559,11 +801,8 @@ class CommentServiceTest {
         @DisplayName("正测：成功搜索评论")
         void shouldSearchCommentsSuccessfully() {
             // Given
-            List<Comment> comments = Arrays.asList(sampleComment);
-            Page<Comment> commentPage = new PageImpl<>(comments);
-
-            when(commentRepository.findByContentContaining(eq("测试"), any(Pageable.class)))
-                    .thenReturn(commentPage);
+            when(mongoTemplate.count(any(Query.class), eq(Comment.class))).thenReturn(1L);
+            when(mongoTemplate.find(any(Query.class), eq(Comment.class))).thenReturn(List.of(sampleComment));
 
             // When
             Page<CommentResponseDTO> result = commentService.searchComments("测试", 0, 10, "user-1");
@@ -573,8 +812,23 @@ class CommentServiceTest {
             assertThat(result.getContent()).hasSize(1);
             assertThat(result.getContent().get(0).getContent()).contains("测试");
 
-            verify(commentRepository, times(1)).findByContentContaining(
-                    eq("测试"), any(Pageable.class));
+            ArgumentCaptor<Query> query = ArgumentCaptor.forClass(Query.class);
+            verify(mongoTemplate).find(query.capture(), eq(Comment.class));
+            assertThat(query.getValue().getQueryObject().get("$text", Document.class).getString("$search"))
+                    .isEqualTo("\"测试\"");
+            assertThat(query.getValue().getSortObject().keySet()).containsExactly("score", "createTime");
+            verify(commentRepository, never()).findByContentContaining(anyString(), any(Pageable.class));
+        }
+
+        @Test
+        @DisplayName("反测：关键词只有标点时不查询")
+        void shouldReturnEmptyPageForPunctuationKeyword() {
+            // When
+            Page<CommentResponseDTO> result = commentService.searchComments("？！", 0, 10, "user-1");
+
+            // Then
+            assertThat(result.getContent()).isEmpty();
+            verifyNoInteractions(mongoTemplate);
         }
     }
 }
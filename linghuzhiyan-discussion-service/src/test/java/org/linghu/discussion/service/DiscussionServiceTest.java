@@ -1,23 +1,33 @@
 package org.linghu.discussion.service;
 
+import org.bson.Document;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Nested;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.linghu.discussion.client.UserServiceClient;
+import org.linghu.discussion.counter.ViewCountBuffer;
 import org.linghu.discussion.domain.Discussion;
+import org.linghu.discussion.domain.Like;
 import org.linghu.discussion.dto.*;
+import org.linghu.discussion.pagination.ApproximateCounter;
+import org.linghu.discussion.pagination.CursorCodec;
+import org.linghu.discussion.ranking.HotRanking;
 import org.linghu.discussion.repository.DiscussionRepository;
+import org.linghu.discussion.search.SearchReindexJob;
 import org.linghu.discussion.service.impl.DiscussionServiceImpl;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.mockito.junit.jupiter.MockitoSettings;
 import org.mockito.quality.Strictness;
 import org.springframework.data.domain.*;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
 import org.springframework.data.mongodb.core.MongoTemplate;
 import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
 
 import java.time.LocalDateTime;
 import java.util.ArrayList;
@@ -45,6 +55,21 @@ class DiscussionServiceTest {
     @Mock
     private MongoTemplate mongoTemplate;
 
+    @Mock
+    private ViewCountBuffer viewCountBuffer;
+
+    @Mock
+    private LikeService likeService;
+
+    @Mock
+    private ApproximateCounter approximateCounter;
+
+    @Mock
+    private SearchReindexJob searchReindexJob;
+
+    @Mock
+    private HotRanking hotRanking;
+
     @InjectMocks
     private DiscussionServiceImpl discussionService;
 
@@ -70,7 +95,6 @@ class DiscussionServiceTest {
                 .viewCount(10L)
                 .commentCount(5L)
                 .likeCount(3L)
-                .likedBy(new ArrayList<>())
                 .lastActivityTime(LocalDateTime.now())
                 .createTime(LocalDateTime.now())
                 .updateTime(LocalDateTime.now())
@@ -194,9 +218,7 @@ class DiscussionServiceTest {
             // Given
             when(discussionRepository.findByIdAndNotDeleted("discussion-1"))
                     .thenReturn(Optional.of(sampleDiscussion));
-            // Mock incrementViewCount调用
-            when(discussionRepository.findByIdAndNotDeleted("discussion-1"))
-                    .thenReturn(Optional.of(sampleDiscussion));
+            when(viewCountBuffer.getPendingViews("discussion-1")).thenReturn(2L);
 
             // When
             DiscussionResponseDTO result = discussionService.getDiscussionById("discussion-1", "user-1");
@@ -205,11 +227,13 @@ class DiscussionServiceTest {
             assertThat(result).isNotNull();
             assertThat(result.getId()).isEqualTo("discussion-1");
             assertThat(result.getTitle()).isEqualTo("测试讨论标题");
-            // 验证基本信息而不是具体的浏览次数，因为incrementViewCount会修改它
-            assertThat(result.getViewCount()).isNotNull();
+            // 浏览次数 = 数据库中的10次 + 尚未写回的2次
+            assertThat(result.getViewCount()).isEqualTo(12L);
 
-            // 验证方法被调用了两次：一次获取讨论，一次用于增加浏览次数
-            verify(discussionRepository, times(2)).findByIdAndNotDeleted("discussion-1");
+            // 浏览只记入缓冲，不再读写整个讨论文档
+            verify(viewCountBuffer).recordView("discussion-1", "user-1");
+            verify(discussionRepository, times(1)).findByIdAndNotDeleted("discussion-1");
+            verify(discussionRepository, never()).save(any(Discussion.class));
         }
 
         @Test
@@ -300,6 +324,94 @@ class DiscussionServiceTest {
         }
     }
 
+    @Nested
+    @DisplayName("游标分页测试")
+    class DiscussionFeedTests {
+
+        @Test
+        @DisplayName("正测：未登录用户按关键词搜索时可见性条件和文本索引条件同时生效")
+        void shouldCombineVisibilityAndKeywordConditions() {
+            // Given
+            when(mongoTemplate.count(any(Query.class), eq(Discussion.class))).thenReturn(1L);
+            when(mongoTemplate.find(any(Query.class), eq(Discussion.class))).thenReturn(List.of(sampleDiscussion));
+
+            // When
+            Page<DiscussionResponseDTO> result = discussionService.getDiscussions(
+                    null, null, null, null, "数据库", "relevance", "desc", 0, 10, null);
+
+            // Then
+            assertThat(result.getContent()).hasSize(1);
+            ArgumentCaptor<Query> query = ArgumentCaptor.forClass(Query.class);
+            verify(mongoTemplate).find(query.capture(), eq(Discussion.class));
+            Document queryObject = query.getValue().getQueryObject();
+            assertThat(queryObject.get("$text", Document.class).getString("$search")).isEqualTo("\"数据\" \"据库\"");
+            List<?> conditions = (List<?>) queryObject.get("$and");
+            assertThat(conditions).filteredOn(condition -> ((Document) condition).containsKey("$or")).hasSize(1);
+            assertThat(query.getValue().getSortObject().keySet()).containsExactly("score", "lastActivityTime");
+        }
+
+        @Test
+        @DisplayName("正测：按置顶优先级分页，多取一条生成下一页游标")
+        void shouldReturnNextCursorForPrioritySort() {
+            // Given
+            Discussion second = Discussion.builder()
+                    .id("discussion-2")
+                    .userId("user-2")
+                    .status(Discussion.DiscussionStatus.APPROVED)
+                    .priority(0)
+                    .lastActivityTime(LocalDateTime.of(2025, 1, 1, 10, 0))
+                    .build();
+            when(mongoTemplate.find(any(Query.class), eq(Discussion.class)))
+                    .thenReturn(List.of(sampleDiscussion, second));
+
+            // When
+            CursorPageDTO<DiscussionResponseDTO> result = discussionService.getDiscussionFeed(
+                    null, null, null, "APPROVED", null, "priority", "desc", null, 1, false, "user-1");
+
+            // Then
+            assertThat(result.getItems()).extracting(DiscussionResponseDTO::getId).containsExactly("discussion-1");
+            assertThat(result.isHasMore()).isTrue();
+            assertThat(result.getTotal()).isNull();
+            assertThat(CursorCodec.decode(result.getNextCursor(), 3))
+                    .containsExactly("i:0", "t:" + sampleDiscussion.getLastActivityTime(), "s:discussion-1");
+
+            ArgumentCaptor<Query> query = ArgumentCaptor.forClass(Query.class);
+            verify(mongoTemplate).find(query.capture(), eq(Discussion.class));
+            assertThat(query.getValue().getSortObject().keySet()).containsExactly("priority", "lastActivityTime", "_id");
+            assertThat(query.getValue().getLimit()).isEqualTo(2);
+            verify(mongoTemplate, never()).count(any(Query.class), eq(Discussion.class));
+            verifyNoInteractions(approximateCounter);
+        }
+
+        @Test
+        @DisplayName("正测：请求总数时返回缓存的近似总数")
+        void shouldIncludeApproximateTotalWhenRequested() {
+            // Given
+            when(approximateCounter.count(any(Query.class), eq(Discussion.class))).thenReturn(42L);
+            when(mongoTemplate.find(any(Query.class), eq(Discussion.class))).thenReturn(List.of(sampleDiscussion));
+
+            // When
+            CursorPageDTO<DiscussionResponseDTO> result = discussionService.getDiscussionFeed(
+                    null, null, null, null, null, "createTime", "desc", null, 10, true, null);
+
+            // Then
+            assertThat(result.getTotal()).isEqualTo(42L);
+            assertThat(result.isHasMore()).isFalse();
+            assertThat(result.getNextCursor()).isNull();
+        }
+
+        @Test
+        @DisplayName("反测：不支持的排序字段")
+        void shouldFailWithUnsupportedSort() {
+            // When & Then
+            assertThatThrownBy(() -> discussionService.getDiscussionFeed(
+                    null, null, null, null, null, "viewCount", "desc", null, 10, false, null))
+                    .isInstanceOf(RuntimeException.class)
+                    .hasMessageContaining("不支持的排序字段");
+            verifyNoInteractions(mongoTemplate);
+        }
+    }
+
     @Nested
     @DisplayName("更新讨论测试")
     class UpdateDiscussionTests {
@@ -330,7 +442,8 @@ class DiscussionServiceTest {
 
             when(discussionRepository.findByIdAndNotDeleted("discussion-1"))
                     .thenReturn(Optional.of(sampleDiscussion));
-            when(discussionRepository.save(any(Discussion.class))).thenReturn(updatedDiscussion);
+            when(mongoTemplate.findAndModify(any(Query.class), any(Update.class),
+                    any(FindAndModifyOptions.class), eq(Discussion.class))).thenReturn(updatedDiscussion);
 
             // When
             DiscussionResponseDTO result = discussionService.updateDiscussion(
@@ -343,7 +456,14 @@ class DiscussionServiceTest {
             assertThat(result.getStatus()).isEqualTo("PENDING");
 
             verify(discussionRepository, times(1)).findByIdAndNotDeleted("discussion-1");
-            verify(discussionRepository, times(1)).save(any(Discussion.class));
+            ArgumentCaptor<Update> update = ArgumentCaptor.forClass(Update.class);
+            verify(mongoTemplate).findAndModify(any(Query.class), update.capture(),
+                    any(FindAndModifyOptions.class), eq(Discussion.class));
+            Document set = update.getValue().getUpdateObject().get("$set", Document.class);
+            assertThat(set).containsEntry("title", "更新后标题")
+                    .containsKey("searchTitle")
+                    .doesNotContainKeys("likeCount", "viewCount", "commentCount");
+            verify(discussionRepository, never()).save(any(Discussion.class));
         }
 
         @Test
@@ -391,7 +511,8 @@ class DiscussionServiceTest {
             // Given
             when(discussionRepository.findByIdAndNotDeleted("discussion-1"))
                     .thenReturn(Optional.of(sampleDiscussion));
-            when(discussionRepository.save(any(Discussion.class))).thenReturn(sampleDiscussion);
+            when(mongoTemplate.findAndModify(any(Query.class), any(Update.class),
+                    any(FindAndModifyOptions.class), eq(Discussion.class))).thenReturn(sampleDiscussion);
 
             // When
             boolean result = discussionService.deleteDiscussion("discussion-1", "user-1");
@@ -400,7 +521,9 @@ class DiscussionServiceTest {
             assertThat(result).isTrue();
 
             verify(discussionRepository, times(1)).findByIdAndNotDeleted("discussion-1");
-            verify(discussionRepository, times(1)).save(any(Discussion.class));
+            verify(mongoTemplate).findAndModify(any(Query.class), any(Update.class),
+                    any(FindAndModifyOptions.class), eq(Discussion.class));
+            verify(discussionRepository, never()).save(any(Discussion.class));
         }
 
         @Test
@@ -458,7 +581,8 @@ class DiscussionServiceTest {
 
             when(discussionRepository.findByIdAndNotDeleted("discussion-1"))
                     .thenReturn(Optional.of(sampleDiscussion));
-            when(discussionRepository.save(any(Discussion.class))).thenReturn(approvedDiscussion);
+            when(mongoTemplate.findAndModify(any(Query.class), any(Update.class),
+                    any(FindAndModifyOptions.class), eq(Discussion.class))).thenReturn(approvedDiscussion);
 
             // When
             DiscussionResponseDTO result = discussionService.reviewDiscussion(
@@ -470,7 +594,9 @@ class DiscussionServiceTest {
             assertThat(result.getRejectionReason()).isNull();
 
             verify(discussionRepository, times(1)).findByIdAndNotDeleted("discussion-1");
-            verify(discussionRepository, times(1)).save(any(Discussion.class));
+            verify(mongoTemplate).findAndModify(any(Query.class), any(Update.class),
+                    any(FindAndModifyOptions.class), eq(Discussion.class));
+            verify(discussionRepository, never()).save(any(Discussion.class));
         }
 
         @Test
@@ -495,7 +621,8 @@ class DiscussionServiceTest {
 
             when(discussionRepository.findByIdAndNotDeleted("discussion-1"))
                     .thenReturn(Optional.of(sampleDiscussion));
-            when(discussionRepository.save(any(Discussion.class))).thenReturn(rejectedDiscussion);
+            when(mongoTemplate.findAndModify(any(Query.class), any(Update.class),
+                    any(FindAndModifyOptions.class), eq(Discussion.class))).thenReturn(rejectedDiscussion);
 
             // When
             DiscussionResponseDTO result = discussionService.reviewDiscussion(
@@ -507,7 +634,9 @@ class DiscussionServiceTest {
             assertThat(result.getRejectionReason()).isEqualTo("内容不符合规范");
 
             verify(discussionRepository, times(1)).findByIdAndNotDeleted("discussion-1");
-            verify(discussionRepository, times(1)).save(any(Discussion.class));
+            verify(mongoTemplate).findAndModify(any(Query.class), any(Update.class),
+                    any(FindAndModifyOptions.class), eq(Discussion.class));
+            verify(discussionRepository, never()).save(any(Discussion.class));
         }
 
         @Test
@@ -548,7 +677,8 @@ class DiscussionServiceTest {
 
             when(discussionRepository.findByIdAndNotDeleted("discussion-1"))
                     .thenReturn(Optional.of(sampleDiscussion));
-            when(discussionRepository.save(any(Discussion.class))).thenReturn(prioritizedDiscussion);
+            when(mongoTemplate.findAndModify(any(Query.class), any(Update.class),
+                    any(FindAndModifyOptions.class), eq(Discussion.class))).thenReturn(prioritizedDiscussion);
 
             // When
             DiscussionResponseDTO result = discussionService.updatePriority(
@@ -559,7 +689,9 @@ class DiscussionServiceTest {
             assertThat(result.getPriority()).isEqualTo(5);
 
             verify(discussionRepository, times(1)).findByIdAndNotDeleted("discussion-1");
-            verify(discussionRepository, times(1)).save(any(Discussion.class));
+            verify(mongoTemplate).findAndModify(any(Query.class), any(Update.class),
+                    any(FindAndModifyOptions.class), eq(Discussion.class));
+            verify(discussionRepository, never()).save(any(Discussion.class));
         }
 
         @Test
@@ -595,14 +727,16 @@ class DiscussionServiceTest {
                     .userId("user-1")
                     .username("testuser")
                     .likeCount(4L)
-                    .likedBy(Arrays.asList("user-2"))
                     .updateTime(LocalDateTime.now())
                     .lastActivityTime(LocalDateTime.now())
                     .build();
 
             when(discussionRepository.findByIdAndNotDeleted("discussion-1"))
                     .thenReturn(Optional.of(sampleDiscussion));
-            when(discussionRepository.save(any(Discussion.class))).thenReturn(likedDiscussion);
+            when(likeService.toggleLike(Like.TargetType.DISCUSSION, "discussion-1", "user-2"))
+                    .thenReturn(new LikeService.LikeToggle(true, 1));
+            when(mongoTemplate.findAndModify(any(Query.class), any(Update.class),
+                    any(FindAndModifyOptions.class), eq(Discussion.class))).thenReturn(likedDiscussion);
 
             // When
             DiscussionResponseDTO result = discussionService.toggleLike("discussion-1", "user-2");
@@ -612,26 +746,19 @@ class DiscussionServiceTest {
             assertThat(result.getLikeCount()).isEqualTo(4L);
             assertThat(result.getIsLiked()).isTrue();
 
-            verify(discussionRepository, times(1)).findByIdAndNotDeleted("discussion-1");
-            verify(discussionRepository, times(1)).save(any(Discussion.class));
+            ArgumentCaptor<Update> update = ArgumentCaptor.forClass(Update.class);
+            verify(mongoTemplate).findAndModify(any(Query.class), update.capture(),
+                    any(FindAndModifyOptions.class), eq(Discussion.class));
+            assertThat(update.getValue().getUpdateObject().get("$inc", Document.class).get("likeCount"))
+                    .isEqualTo(1L);
+            verify(discussionRepository, never()).save(any(Discussion.class));
+            verify(hotRanking).update(likedDiscussion, HotRanking.Interaction.LIKE);
         }
 
         @Test
         @DisplayName("正测：成功取消点赞讨论")
         void shouldToggleUnlikeSuccessfully() {
             // Given
-            Discussion discussionWithUserLike = Discussion.builder()
-                    .id("discussion-1")
-                    .title("测试讨论标题")
-                    .content("测试讨论内容")
-                    .userId("user-1")
-                    .username("testuser")
-                    .likeCount(3L)
-                    .likedBy(new ArrayList<>(Arrays.asList("user-2")))
-                    .updateTime(LocalDateTime.now())
-                    .lastActivityTime(LocalDateTime.now())
-                    .build();
-
             Discussion unlikedDiscussion = Discussion.builder()
                     .id("discussion-1")
                     .title("测试讨论标题")
@@ -639,14 +766,16 @@ class DiscussionServiceTest {
                     .userId("user-1")
                     .username("testuser")
                     .likeCount(2L)
-                    .likedBy(new ArrayList<>())
                     .updateTime(LocalDateTime.now())
                     .lastActivityTime(LocalDateTime.now())
                     .build();
 
             when(discussionRepository.findByIdAndNotDeleted("discussion-1"))
-                    .thenReturn(Optional.of(discussionWithUserLike));
-            when(discussionRepository.save(any(Discussion.class))).thenReturn(unlikedDiscussion);
+                    .thenReturn(Optional.of(sampleDiscussion));
+            when(likeService.toggleLike(Like.TargetType.DISCUSSION, "discussion-1", "user-2"))
+                    .thenReturn(new LikeService.LikeToggle(false, -1));
+            when(mongoTemplate.findAndModify(any(Query.class), any(Update.class),
+                    any(FindAndModifyOptions.class), eq(Discussion.class))).thenReturn(unlikedDiscussion);
 
             // When
             DiscussionResponseDTO result = discussionService.toggleLike("discussion-1", "user-2");
@@ -657,7 +786,7 @@ class DiscussionServiceTest {
             assertThat(result.getIsLiked()).isFalse();
 
             verify(discussionRepository, times(1)).findByIdAndNotDeleted("discussion-1");
-            verify(discussionRepository, times(1)).save(any(Discussion.class));
+            verify(discussionRepository, never()).save(any(Discussion.class));
         }
 
         @Test
@@ -673,7 +802,7 @@ class DiscussionServiceTest {
                     .hasMessageContaining("讨论不存在");
 
             verify(discussionRepository, times(1)).findByIdAndNotDeleted("non-existent");
-            verify(discussionRepository, never()).save(any(Discussion.class));
+            verifyNoInteractions(likeService);
         }
     }
 
@@ -682,34 +811,29 @@ class DiscussionServiceTest {
     class IncrementViewCountTests {
 
         @Test
-        @DisplayName("正测：成功增加浏览次数")
+        @DisplayName("正测：浏览次数记入缓冲")
         void shouldIncrementViewCountSuccessfully() {
-            // Given
-            when(discussionRepository.findByIdAndNotDeleted("discussion-1"))
-                    .thenReturn(Optional.of(sampleDiscussion));
-            when(discussionRepository.save(any(Discussion.class))).thenReturn(sampleDiscussion);
-
             // When
             discussionService.incrementViewCount("discussion-1");
 
             // Then
-            verify(discussionRepository, times(1)).findByIdAndNotDeleted("discussion-1");
-            verify(discussionRepository, times(1)).save(any(Discussion.class));
+            verify(viewCountBuffer).recordView("discussion-1", null);
+            verifyNoInteractions(discussionRepository);
         }
 
         @Test
-        @DisplayName("反测：增加不存在讨论的浏览次数（应该不抛异常）")
-        void shouldNotFailWhenIncrementViewCountOfNonExistentDiscussion() {
+        @DisplayName("正测：列表结果合并尚未写回的浏览次数")
+        void shouldMergePendingViewsIntoPopularDiscussions() {
             // Given
-            when(discussionRepository.findByIdAndNotDeleted("non-existent"))
-                    .thenReturn(Optional.empty());
+            when(discussionRepository.findPopularDiscussions(any(Pageable.class)))
+                    .thenReturn(new PageImpl<>(List.of(sampleDiscussion)));
+            when(viewCountBuffer.getPendingViews("discussion-1")).thenReturn(5L);
 
-            // When & Then - 不应该抛异常
-            assertThatCode(() -> discussionService.incrementViewCount("non-existent"))
-                    .doesNotThrowAnyException();
+            // When
+            Page<DiscussionResponseDTO> result = discussionService.getPopularDiscussions(null, 0, 10, "user-1");
 
-            verify(discussionRepository, times(1)).findByIdAndNotDeleted("non-existent");
-            verify(discussionRepository, never()).save(any(Discussion.class));
+            // Then
+            assertThat(result.getContent().get(0).getViewCount()).isEqualTo(15L);
         }
     }
 
@@ -778,7 +902,7 @@ class DiscussionServiceTest {
                     .thenReturn(discussionPage);
 
             // When
-            Page<DiscussionResponseDTO> result = discussionService.getPopularDiscussions(0, 10, "user-1");
+            Page<DiscussionResponseDTO> result = discussionService.getPopularDiscussions(null, 0, 10, "user-1");
 
             // Then
             assertThat(result).isNotNull();
@@ -840,6 +964,110 @@ class DiscussionServiceTest {
             verify(discussionRepository, times(1)).findPinnedDiscussions();
         }
 
+        @Test
+        @DisplayName("正测：按热榜顺序返回实验热门讨论，并清理热榜中已不可见的讨论")
+        void shouldGetExperimentPopularDiscussionsFromHotRanking() {
+            // Given
+            Discussion second = Discussion.builder()
+                    .id("discussion-2")
+                    .title("第二个讨论")
+                    .userId("user-2")
+                    .experimentId("experiment-1")
+                    .status(Discussion.DiscussionStatus.APPROVED)
+                    .build();
+            when(hotRanking.page(HotRanking.Feed.HOT, "experiment-1", 0, 10)).thenReturn(
+                    new HotRanking.RankedPage(List.of("discussion-2", "discussion-deleted", "discussion-1"), 3));
+            when(mongoTemplate.find(any(Query.class), eq(Discussion.class)))
+                    .thenReturn(List.of(sampleDiscussion, second));
+
+            // When
+            Page<DiscussionResponseDTO> result = discussionService.getPopularDiscussions("experiment-1", 0, 10, "user-1");
+
+            // Then
+            assertThat(result.getContent()).extracting(DiscussionResponseDTO::getId)
+                    .containsExactly("discussion-2", "discussion-1");
+            // 已不可见的讨论从总数中扣除
+            assertThat(result.getTotalElements()).isEqualTo(2);
+            verify(hotRanking).evict(HotRanking.Feed.HOT, "experiment-1", List.of("discussion-deleted"));
+            verify(discussionRepository, never()).findPopularDiscussionsByExperimentId(anyString(), any(Pageable.class));
+        }
+
+        @Test
+        @DisplayName("正测：热榜不可用时按实验从数据库查询")
+        void shouldFallBackToDatabaseWhenHotRankingUnavailable() {
+            // Given
+            when(hotRanking.page(HotRanking.Feed.HOT, "experiment-1", 0, 10)).thenReturn(null);
+            when(discussionRepository.findPopularDiscussionsByExperimentId(eq("experiment-1"), any(Pageable.class)))
+                    .thenReturn(new PageImpl<>(List.of(sampleDiscussion)));
+
+            // When
+            Page<DiscussionResponseDTO> result = discussionService.getPopularDiscussions("experiment-1", 0, 10, "user-1");
+
+            // Then
+            assertThat(result.getContent()).hasSize(1);
+            verify(discussionRepository, never()).findPopularDiscussions(any(Pageable.class));
+        }
+
+        @Test
+        @DisplayName("正测：非末页的总数取榜单总数并扣除已不可见的讨论")
+        void shouldKeepRankingTotalOnFullPage() {
+            // Given
+            when(hotRanking.page(HotRanking.Feed.HOT, null, 0, 2)).thenReturn(
+                    new HotRanking.RankedPage(List.of("discussion-1", "discussion-deleted"), 25));
+            when(mongoTemplate.find(any(Query.class), eq(Discussion.class))).thenReturn(List.of(sampleDiscussion));
+
+            // When
+            Page<DiscussionResponseDTO> result = discussionService.getPopularDiscussions(null, 0, 2, "user-1");
+
+            // Then
+            assertThat(result.getContent()).extracting(DiscussionResponseDTO::getId).containsExactly("discussion-1");
+            assertThat(result.getTotalElements()).isEqualTo(24);
+            verify(hotRanking).evict(HotRanking.Feed.HOT, null, List.of("discussion-deleted"));
+        }
+
+        @Test
+        @DisplayName("正测：按趋势榜顺序返回趋势讨论")
+        void shouldGetTrendingDiscussionsFromTrendingFeed() {
+            // Given
+            Discussion second = Discussion.builder()
+                    .id("discussion-2")
+                    .title("第二个讨论")
+                    .userId("user-2")
+                    .status(Discussion.DiscussionStatus.APPROVED)
+                    .build();
+            when(hotRanking.page(HotRanking.Feed.TRENDING, null, 0, 10)).thenReturn(
+                    new HotRanking.RankedPage(List.of("discussion-1", "discussion-2"), 2));
+            when(mongoTemplate.find(any(Query.class), eq(Discussion.class))).thenReturn(List.of(second, sampleDiscussion));
+
+            // When
+            Page<DiscussionResponseDTO> result = discussionService.getTrendingDiscussions(null, 0, 10, "user-1");
+
+            // Then
+            assertThat(result.getContent()).extracting(DiscussionResponseDTO::getId)
+                    .containsExactly("discussion-1", "discussion-2");
+            assertThat(result.getTotalElements()).isEqualTo(2);
+            verify(hotRanking).evict(HotRanking.Feed.TRENDING, null, List.of());
+        }
+
+        @Test
+        @DisplayName("正测：趋势榜不可用时查询最近活跃的讨论")
+        void shouldFallBackToRecentlyActiveWhenTrendingUnavailable() {
+            // Given
+            when(hotRanking.page(HotRanking.Feed.TRENDING, "experiment-1", 0, 10)).thenReturn(null);
+            when(mongoTemplate.count(any(Query.class), eq(Discussion.class))).thenReturn(1L);
+            when(mongoTemplate.find(any(Query.class), eq(Discussion.class))).thenReturn(List.of(sampleDiscussion));
+
+            // When
+            Page<DiscussionResponseDTO> result = discussionService.getTrendingDiscussions("experiment-1", 0, 10, "user-1");
+
+            // Then
+            assertThat(result.getContent()).extracting(DiscussionResponseDTO::getId).containsExactly("discussion-1");
+            ArgumentCaptor<Query> query = ArgumentCaptor.forClass(Query.class);
+            verify(mongoTemplate).find(query.capture(), eq(Discussion.class));
+            assertThat(query.getValue().getQueryObject().get("experimentId")).isEqualTo("experiment-1");
+            assertThat(query.getValue().getQueryObject()).containsKey("lastActivityTime");
+        }
+
         @Test
         @DisplayName("正测：无热门讨论时返回空页面")
         void shouldReturnEmptyPageWhenNoPopularDiscussions() {
@@ -850,7 +1078,7 @@ class DiscussionServiceTest {
                     .thenReturn(emptyPage);
 
             // When
-            Page<DiscussionResponseDTO> result = discussionService.getPopularDiscussions(0, 10, "user-1");
+            Page<DiscussionResponseDTO> result = discussionService.getPopularDiscussions(null, 0, 10, "user-1");
 
             // Then
             assertThat(result).isNotNull();
@@ -929,7 +1157,8 @@ class DiscussionServiceTest {
 
             when(discussionRepository.findByIdAndNotDeleted("discussion-1"))
                     .thenReturn(Optional.of(sampleDiscussion));
-            when(discussionRepository.save(any(Discussion.class))).thenReturn(negPriorityDiscussion);
+            when(mongoTemplate.findAndModify(any(Query.class), any(Update.class),
+                    any(FindAndModifyOptions.class), eq(Discussion.class))).thenReturn(negPriorityDiscussion);
 
             // When
             DiscussionResponseDTO result = discussionService.updatePriority(
@@ -940,7 +1169,9 @@ class DiscussionServiceTest {
             assertThat(result.getPriority()).isEqualTo(-5);
 
             verify(discussionRepository, times(1)).findByIdAndNotDeleted("discussion-1");
-            verify(discussionRepository, times(1)).save(any(Discussion.class));
+            verify(mongoTemplate).findAndModify(any(Query.class), any(Update.class),
+                    any(FindAndModifyOptions.class), eq(Discussion.class));
+            verify(discussionRepository, never()).save(any(Discussion.class));
         }
     }
 }
\ No newline at end of file
@@ -0,0 +1,118 @@
+package org.linghu.discussion.service;
+
+import com.mongodb.client.result.DeleteResult;
+import com.mongodb.client.result.UpdateResult;
+import org.bson.BsonString;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.linghu.discussion.domain.Like;
+import org.linghu.discussion.repository.LikeRepository;
+import org.linghu.discussion.service.impl.LikeServiceImpl;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * LikeService 单元测试
+ */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("点赞服务测试")
+class LikeServiceTest {
+
+    @Mock
+    private LikeRepository likeRepository;
+
+    @Mock
+    private MongoTemplate mongoTemplate;
+
+    @InjectMocks
+    private LikeServiceImpl likeService;
+
+    @Test
+    @DisplayName("正测：已点赞时取消点赞")
+    void shouldUnlikeWhenLikeExists() {
+        // Given
+        when(mongoTemplate.remove(any(Query.class), eq(Like.class))).thenReturn(DeleteResult.acknowledged(1));
+
+        // When
+        LikeService.LikeToggle toggle = likeService.toggleLike(Like.TargetType.DISCUSSION, "discussion-1", "user-1");
+
+        // Then
+        assertThat(toggle).isEqualTo(new LikeService.LikeToggle(false, -1));
+        verify(mongoTemplate, never()).upsert(any(Query.class), any(Update.class), eq(Like.class));
+    }
+
+    @Test
+    @DisplayName("正测：未点赞时插入点赞记录")
+    void shouldLikeWhenLikeMissing() {
+        // Given
+        when(mongoTemplate.remove(any(Query.class), eq(Like.class))).thenReturn(DeleteResult.acknowledged(0));
+        when(mongoTemplate.upsert(any(Query.class), any(Update.class), eq(Like.class)))
+                .thenReturn(UpdateResult.acknowledged(0, 0L, new BsonString("DISCUSSION:discussion-1:user-1")));
+
+        // When
+        LikeService.LikeToggle toggle = likeService.toggleLike(Like.TargetType.DISCUSSION, "discussion-1", "user-1");
+
+        // Then
+        assertThat(toggle).isEqualTo(new LikeService.LikeToggle(true, 1));
+    }
+
+    @Test
+    @DisplayName("反测：并发请求已插入点赞记录时点赞数不变")
+    void shouldNotCountTwiceWhenConcurrentLikeWins() {
+        // Given
+        when(mongoTemplate.remove(any(Query.class), eq(Like.class))).thenReturn(DeleteResult.acknowledged(0));
+        when(mongoTemplate.upsert(any(Query.class), any(Update.class), eq(Like.class)))
+                .thenThrow(new DuplicateKeyException("E11000"));
+
+        // When
+        LikeService.LikeToggle toggle = likeService.toggleLike(Like.TargetType.COMMENT, "comment-1", "user-1");
+
+        // Then
+        assertThat(toggle).isEqualTo(new LikeService.LikeToggle(true, 0));
+    }
+
+    @Test
+    @DisplayName("正测：一次查询取得整页的点赞状态")
+    void shouldFindLikedTargetsWithOneQuery() {
+        // Given
+        Like like = Like.builder()
+                .id(Like.idOf(Like.TargetType.DISCUSSION, "discussion-2", "user-1"))
+                .targetType(Like.TargetType.DISCUSSION)
+                .targetId("discussion-2")
+                .userId("user-1")
+                .build();
+        when(likeRepository.findAllById(List.of("DISCUSSION:discussion-1:user-1", "DISCUSSION:discussion-2:user-1")))
+                .thenReturn(List.of(like));
+
+        // When
+        Set<String> liked = likeService.findLikedTargetIds(Like.TargetType.DISCUSSION,
+                List.of("discussion-1", "discussion-2"), "user-1");
+
+        // Then
+        assertThat(liked).containsExactly("discussion-2");
+    }
+
+    @Test
+    @DisplayName("反测：未登录用户不查询点赞状态")
+    void shouldSkipQueryForAnonymousUser() {
+        // When
+        Set<String> liked = likeService.findLikedTargetIds(Like.TargetType.DISCUSSION, List.of("discussion-1"), null);
+
+        // Then
+        assertThat(liked).isEmpty();
+        verifyNoInteractions(likeRepository);
+    }
+}
@@ -0,0 +1,60 @@
+package org.linghu.experiment.catalog;
+
+import org.linghu.experiment.dto.ExperimentDTO;
+import org.linghu.experiment.dto.PageResult;
+
+import java.util.List;
+
+/**
+ * 已发布实验目录快照
+ * <p>
+ * 目录内容不可变，按开始时间倒序排列；快照在请求间共享，读取实验时返回副本。
+ * 版本号是目录内容的哈希，内容不变时版本号不变，可直接作为 ETag。
+ *
+ * @param version     目录内容版本
+ * @param experiments 已发布的实验
+ */
+public record ExperimentCatalog(String version, List<ExperimentDTO> experiments) {
+
+    public ExperimentCatalog {
+        experiments = List.copyOf(experiments);
+    }
+
+    /**
+     * 获取全部已发布实验
+     *
+     * @return 实验副本
+     */
+    @Override
+    public List<ExperimentDTO> experiments() {
+        return copies(experiments);
+    }
+
+    /**
+     * 获取目录的一页
+     *
+     * @param pageNum  页码，从1开始
+     * @param pageSize 每页大小
+     * @return 分页结果
+     */
+    public PageResult<ExperimentDTO> page(int pageNum, int pageSize) {
+        int from = (int) Math.min((long) (pageNum - 1) * pageSize, experiments.size());
+        int to = (int) Math.min((long) from + pageSize, experiments.size());
+        return PageResult.of(copies(experiments.subList(from, to)), experiments.size(), pageNum, pageSize);
+    }
+
+    private static List<ExperimentDTO> copies(List<ExperimentDTO> experiments) {
+        return experiments.stream().map(ExperimentDTO::copy).toList();
+    }
+
+    /**
+     * 生成某一页的 ETag
+     *
+     * @param pageNum  页码
+     * @param pageSize 每页大小
+     * @return 带引号的强 ETag
+     */
+    public String etag(int pageNum, int pageSize) {
+        return "\"" + version + "-" + pageNum + "-" + pageSize + "\"";
+    }
+}
@@ -0,0 +1,199 @@
+package org.linghu.experiment.catalog;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.linghu.experiment.domain.Experiment;
+import org.linghu.experiment.dto.ExperimentDTO;
+import org.linghu.experiment.repository.ExperimentRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.security.MessageDigest;
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * 已发布实验目录缓存
+ * <p>
+ * 两级缓存：本地保存当前目录快照，Redis 中保存目录版本计数器和按版本存储的目录内容。
+ * 本地快照在 local-ttl 内直接使用，过期后只读取 Redis 中的版本计数器，版本未变化时继续使用本地快照；
+ * 版本变化时先从 Redis 读取该版本的目录，不存在时才查询数据库重建。
+ * 发布、取消发布、修改或删除实验时在事务提交后递增版本计数器，所有实例在 local-ttl 内看到新目录。
+ * Redis 不可用时退化为只使用本地快照，过期后直接查询数据库。
+ */
+@Slf4j
+@Component
+public class ExperimentCatalogCache {
+
+    static final String VERSION_KEY = "experiment:catalog:version";
+    static final String CATALOG_KEY_PREFIX = "experiment:catalog:";
+
+    private static final Comparator<ExperimentDTO> CATALOG_ORDER = Comparator
+            .comparing(ExperimentDTO::getStartTime, Comparator.nullsLast(Comparator.reverseOrder()))
+            .thenComparing(ExperimentDTO::getId);
+
+    private final ExperimentRepository experimentRepository;
+    private final StringRedisTemplate redisTemplate;
+    private final ObjectMapper objectMapper;
+    private final Duration localTtl;
+    private final Duration redisTtl;
+
+    private final Counter localHitCounter;
+    private final Counter redisHitCounter;
+    private final Counter rebuildCounter;
+
+    private volatile Snapshot snapshot;
+
+    public ExperimentCatalogCache(ExperimentRepository experimentRepository,
+                                  StringRedisTemplate redisTemplate,
+                                  ObjectMapper objectMapper,
+                                  MeterRegistry meterRegistry,
+                                  @Value("${experiment.catalog.local-ttl:PT5S}") Duration localTtl,
+                                  @Value("${experiment.catalog.redis-ttl:PT1H}") Duration redisTtl) {
+        this.experimentRepository = experimentRepository;
+        this.redisTemplate = redisTemplate;
+        this.objectMapper = objectMapper;
+        this.localTtl = localTtl;
+        this.redisTtl = redisTtl;
+        this.localHitCounter = counter(meterRegistry, "local");
+        this.redisHitCounter = counter(meterRegistry, "redis");
+        this.rebuildCounter = counter(meterRegistry, "rebuild");
+    }
+
+    /**
+     * 获取当前的已发布实验目录
+     *
+     * @return 目录快照
+     */
+    public ExperimentCatalog get() {
+        Snapshot current = snapshot;
+        if (current != null && System.nanoTime() - current.checkedAtNanos() < localTtl.toNanos()) {
+            localHitCounter.increment();
+            return current.catalog();
+        }
+        synchronized (this) {
+            current = snapshot;
+            if (current != null && System.nanoTime() - current.checkedAtNanos() < localTtl.toNanos()) {
+                localHitCounter.increment();
+                return current.catalog();
+            }
+            return refresh(current);
+        }
+    }
+
+    /**
+     * 使目录失效（发布、取消发布、修改或删除实验时调用）
+     * 存在事务时在事务提交后失效，避免其他请求在提交前按旧数据重建目录
+     */
+    public void invalidate() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    doInvalidate();
+                }
+            });
+        } else {
+            doInvalidate();
+        }
+    }
+
+    private void doInvalidate() {
+        snapshot = null;
+        try {
+            redisTemplate.opsForValue().increment(VERSION_KEY);
+        } catch (Exception e) {
+            log.warn("递增实验目录版本失败，其他实例将在本地缓存过期后才能看到变化: {}", e.getMessage());
+        }
+    }
+
+    private ExperimentCatalog refresh(Snapshot current) {
+        // 先读版本再读数据库：重建期间发生的变更会递增版本，旧内容只会写到旧版本下
+        String redisVersion = readRedisVersion();
+        if (current != null && redisVersion != null && redisVersion.equals(current.redisVersion())) {
+            snapshot = new Snapshot(current.catalog(), redisVersion, System.nanoTime());
+            localHitCounter.increment();
+            return current.catalog();
+        }
+
+        ExperimentCatalog catalog = redisVersion != null ? readRedisCatalog(redisVersion) : null;
+        if (catalog != null) {
+            redisHitCounter.increment();
+        } else {
+            catalog = build();
+            rebuildCounter.increment();
+            if (redisVersion != null) {
+                writeRedisCatalog(redisVersion, catalog);
+            }
+        }
+        snapshot = new Snapshot(catalog, redisVersion, System.nanoTime());
+        return catalog;
+    }
+
+    private ExperimentCatalog build() {
+        List<ExperimentDTO> experiments = experimentRepository.findByStatus(Experiment.ExperimentStatus.PUBLISHED)
+                .stream()
+                .map(ExperimentDTO::from)
+                .sorted(CATALOG_ORDER)
+                .toList();
+        return new ExperimentCatalog(contentVersion(experiments), experiments);
+    }
+
+    private String readRedisVersion() {
+        try {
+            String version = redisTemplate.opsForValue().get(VERSION_KEY);
+            return version != null ? version : "0";
+        } catch (Exception e) {
+            log.warn("读取实验目录版本失败，使用本地缓存: {}", e.getMessage());
+            return null;
+        }
+    }
+
+    private ExperimentCatalog readRedisCatalog(String redisVersion) {
+        try {
+            String json = redisTemplate.opsForValue().get(CATALOG_KEY_PREFIX + redisVersion);
+            return json != null ? objectMapper.readValue(json, ExperimentCatalog.class) : null;
+        } catch (Exception e) {
+            log.warn("读取Redis中的实验目录失败: {}", e.getMessage());
+            return null;
+        }
+    }
+
+    private void writeRedisCatalog(String redisVersion, ExperimentCatalog catalog) {
+        try {
+            redisTemplate.opsForValue().set(CATALOG_KEY_PREFIX + redisVersion,
+                    objectMapper.writeValueAsString(catalog), redisTtl);
+        } catch (Exception e) {
+            log.warn("写入Redis中的实验目录失败: {}", e.getMessage());
+        }
+    }
+
+    private String contentVersion(List<ExperimentDTO> experiments) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            byte[] hash = digest.digest(objectMapper.writeValueAsBytes(experiments));
+            return HexFormat.of().formatHex(hash, 0, 8);
+        } catch (Exception e) {
+            // 无法计算哈希时以内容的哈希码代替，只影响 ETag 的区分度
+            return Integer.toHexString(Objects.hash(experiments.toArray()));
+        }
+    }
+
+    private static Counter counter(MeterRegistry meterRegistry, String result) {
+        return Counter.builder("experiment.catalog.cache")
+                .description("已发布实验目录的读取次数")
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+
+    private record Snapshot(ExperimentCatalog catalog, String redisVersion, long checkedAtNanos) {
+    }
+}
@@ -0,0 +1,139 @@
+package org.linghu.experiment.cleanup;
+
+import lombok.Getter;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 对象存储清理任务的运行状态
+ */
+@Getter
+public class StorageCleanupJob {
+
+    /**
+     * 清理任务状态
+     */
+    public enum Status {
+        PENDING,
+        RUNNING,
+        COMPLETED,
+        CANCELLED,
+        FAILED
+    }
+
+    /**
+     * 需要清理的前缀
+     *
+     * @param bucket bucket名称
+     * @param prefix 对象前缀
+     */
+    public record Target(String bucket, String prefix) {
+
+        @Override
+        public String toString() {
+            return bucket + "/" + prefix;
+        }
+    }
+
+    // 保留的失败明细条数，超过后只计数
+    static final int MAX_FAILURE_DETAILS = 100;
+
+    private final String id;
+    private final String experimentId;
+    private final List<Target> targets;
+    private final LocalDateTime createdAt;
+
+    private volatile Status status = Status.PENDING;
+    private volatile LocalDateTime startedAt;
+    private volatile LocalDateTime finishedAt;
+    private volatile String errorMessage;
+
+    // 已完成的前缀数、已删除对象数、删除失败对象数
+    private final AtomicInteger completedTargets = new AtomicInteger();
+    private final AtomicLong deleted = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+    private final List<String> failures = new ArrayList<>();
+
+    StorageCleanupJob(String id, String experimentId, List<Target> targets) {
+        this.id = id;
+        this.experimentId = experimentId;
+        this.targets = List.copyOf(targets);
+        this.createdAt = LocalDateTime.now();
+    }
+
+    synchronized void start() {
+        if (status == Status.PENDING) {
+            status = Status.RUNNING;
+            startedAt = LocalDateTime.now();
+        }
+    }
+
+    void recordBatch(int deletedCount, Map<String, String> batchFailures) {
+        deleted.addAndGet(deletedCount);
+        batchFailures.forEach((objectName, message) -> recordFailure(objectName + ": " + message));
+    }
+
+    /**
+     * 记录一个失败（单个对象或整个前缀）
+     */
+    synchronized void recordFailure(String failure) {
+        failed.incrementAndGet();
+        if (failures.size() < MAX_FAILURE_DETAILS) {
+            failures.add(failure);
+        }
+    }
+
+    void recordTargetCompleted() {
+        completedTargets.incrementAndGet();
+    }
+
+    synchronized void finish(Status finalStatus, String message) {
+        if (status != Status.PENDING && status != Status.RUNNING) {
+            return;
+        }
+        this.status = finalStatus;
+        this.errorMessage = message;
+        this.finishedAt = LocalDateTime.now();
+    }
+
+    public boolean isRunning() {
+        return status == Status.PENDING || status == Status.RUNNING;
+    }
+
+    public int getCompletedTargets() {
+        return completedTargets.get();
+    }
+
+    public long getDeleted() {
+        return deleted.get();
+    }
+
+    public long getFailed() {
+        return failed.get();
+    }
+
+    /**
+     * 失败明细（最多 {@link #MAX_FAILURE_DETAILS} 条）
+     */
+    public synchronized List<String> getFailures() {
+        return List.copyOf(failures);
+    }
+
+    /**
+     * 完成进度（0-100），按已清理完成的前缀计算
+     */
+    public double getProgress() {
+        if (status == Status.COMPLETED) {
+            return 100.0;
+        }
+        if (targets.isEmpty()) {
+            return 0.0;
+        }
+        return Math.min(100.0, completedTargets.get() * 100.0 / targets.size());
+    }
+}
@@ -0,0 +1,140 @@
+package org.linghu.experiment.cleanup;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.linghu.experiment.utils.MinioUtil;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 对象存储清理管理
+ * <p>
+ * 删除实验后其资源文件和学生提交文件在后台分批删除，请求线程不等待清理完成。
+ * 存在事务时在事务提交后才开始清理，事务回滚时清理任务随之取消。
+ * 清理任务的运行状态只保存在内存中。
+ */
+@Slf4j
+@Component
+public class StorageCleanupManager {
+
+    private static final Duration FINISHED_JOB_RETENTION = Duration.ofHours(24);
+
+    private final MinioUtil minioUtil;
+    private final ExecutorService runner;
+
+    private final Map<String, StorageCleanupJob> jobs = new ConcurrentHashMap<>();
+
+    public StorageCleanupManager(MinioUtil minioUtil) {
+        this.minioUtil = minioUtil;
+        AtomicInteger threadIndex = new AtomicInteger();
+        this.runner = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "storage-cleanup-" + threadIndex.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        runner.shutdownNow();
+    }
+
+    /**
+     * 清理已删除实验的资源文件和学生提交文件
+     *
+     * @param experimentId 实验ID
+     * @param studentIds   提交过该实验的学生ID
+     * @return 清理任务
+     */
+    public StorageCleanupJob cleanupExperiment(String experimentId, Collection<String> studentIds) {
+        List<StorageCleanupJob.Target> targets = new ArrayList<>();
+        targets.add(new StorageCleanupJob.Target(MinioUtil.getResourceBucket(), experimentId + "/"));
+        studentIds.stream()
+                .distinct()
+                .sorted()
+                .map(studentId -> new StorageCleanupJob.Target(MinioUtil.getSubmissionBucket(),
+                        studentId + "/" + experimentId + "/"))
+                .forEach(targets::add);
+        return start(experimentId, targets);
+    }
+
+    /**
+     * 启动清理任务
+     *
+     * @param experimentId 所属实验ID
+     * @param targets      需要清理的前缀
+     * @return 清理任务
+     */
+    public StorageCleanupJob start(String experimentId, List<StorageCleanupJob.Target> targets) {
+        pruneFinishedJobs();
+        StorageCleanupJob job = new StorageCleanupJob(UUID.randomUUID().toString(), experimentId, targets);
+        jobs.put(job.getId(), job);
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    if (status == STATUS_COMMITTED) {
+                        runner.execute(() -> run(job));
+                    } else {
+                        job.finish(StorageCleanupJob.Status.CANCELLED, "事务已回滚，未执行清理");
+                    }
+                }
+            });
+        } else {
+            runner.execute(() -> run(job));
+        }
+        log.info("对象存储清理任务 {} 已创建，实验: {}，前缀数: {}", job.getId(), experimentId, targets.size());
+        return job;
+    }
+
+    /**
+     * 获取清理任务
+     *
+     * @param jobId 清理任务ID
+     * @return 清理任务
+     */
+    public Optional<StorageCleanupJob> get(String jobId) {
+        return Optional.ofNullable(jobs.get(jobId));
+    }
+
+    void run(StorageCleanupJob job) {
+        job.start();
+        for (StorageCleanupJob.Target target : job.getTargets()) {
+            if (Thread.currentThread().isInterrupted()) {
+                job.finish(StorageCleanupJob.Status.FAILED, "清理任务被中断");
+                return;
+            }
+            try {
+                minioUtil.deleteByPrefixInBucket(target.bucket(), target.prefix(), job::recordBatch);
+            } catch (Exception e) {
+                // 单个前缀失败不影响其余前缀的清理
+                log.warn("清理前缀 {} 失败: {}", target, e.getMessage());
+                job.recordFailure(target + ": " + e.getMessage());
+            }
+            job.recordTargetCompleted();
+        }
+
+        if (job.getFailed() > 0) {
+            job.finish(StorageCleanupJob.Status.FAILED, job.getFailed() + " 个对象或前缀删除失败");
+            log.warn("对象存储清理任务 {} 完成，删除 {} 个对象，失败 {} 个", job.getId(), job.getDeleted(), job.getFailed());
+        } else {
+            job.finish(StorageCleanupJob.Status.COMPLETED, null);
+            log.info("对象存储清理任务 {} 完成，删除 {} 个对象", job.getId(), job.getDeleted());
+        }
+    }
+
+    private void pruneFinishedJobs() {
+        LocalDateTime threshold = LocalDateTime.now().minus(FINISHED_JOB_RETENTION);
+        jobs.values().removeIf(job -> job.getFinishedAt() != null && job.getFinishedAt().isBefore(threshold));
+    }
+}
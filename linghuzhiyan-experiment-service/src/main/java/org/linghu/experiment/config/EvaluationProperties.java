@@ -0,0 +1,314 @@
+package org.linghu.experiment.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 代码评测配置类
+ * 对应配置中心中的 evaluation.* 配置项
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "evaluation")
+public class EvaluationProperties {
+
+    /**
+     * 评测服务（go-judge）配置
+     */
+    private Service service = new Service();
+
+    /**
+     * 评测队列配置
+     */
+    private Queue queue = new Queue();
+
+    /**
+     * 评测执行配置
+     */
+    private Judge judge = new Judge();
+
+    /**
+     * 评测结果复用配置
+     */
+    private ResultCache resultCache = new ResultCache();
+
+    /**
+     * 客观题答案缓存配置
+     */
+    private AnswerKey answerKey = new AnswerKey();
+
+    /**
+     * 批量重评配置
+     */
+    private Regrade regrade = new Regrade();
+
+    /**
+     * 客观题批量判分配置
+     */
+    private BulkGrade bulkGrade = new BulkGrade();
+
+    /**
+     * 评测服务配置项
+     */
+    @Data
+    public static class Service {
+
+        /**
+         * go-judge 服务地址，兼容以 /run 结尾的旧配置
+         */
+        private String url = "http://localhost:5050";
+
+        /**
+         * 建立连接超时时间
+         */
+        private Duration connectTimeout = Duration.ofSeconds(2);
+
+        /**
+         * 单次请求的响应超时时间
+         */
+        private Duration readTimeout = Duration.ofSeconds(30);
+
+        /**
+         * 同时向评测服务发起的最大请求数（即保持的最大长连接数）
+         */
+        private int maxConnections = 32;
+
+        /**
+         * 单次调用的最大尝试次数（含首次请求）
+         */
+        private int maxAttempts = 3;
+
+        /**
+         * 重试间隔，按尝试次数线性增长
+         */
+        private Duration retryBackoff = Duration.ofMillis(200);
+
+        /**
+         * 重试预算：每个请求为重试预算补充的令牌数，0.2 表示重试量不超过请求量的20%
+         */
+        private double retryBudgetRatio = 0.2;
+
+        /**
+         * 重试预算的最小保底令牌数，保证低流量时也能重试
+         */
+        private int retryBudgetMinTokens = 10;
+
+        /**
+         * 评测节点地址列表，为空时只使用 url 配置的单个节点
+         */
+        private List<String> nodes = new ArrayList<>();
+
+        /**
+         * 注册中心中 go-judge 节点的服务名，配置后定期从注册中心刷新节点列表
+         */
+        private String discoveryServiceId;
+
+        /**
+         * 节点健康检查间隔
+         */
+        private Duration healthCheckInterval = Duration.ofSeconds(5);
+
+        /**
+         * 健康检查超时时间，响应慢于该值视为一次失败
+         */
+        private Duration healthCheckTimeout = Duration.ofSeconds(1);
+
+        /**
+         * 节点连续失败多少次后被摘除
+         */
+        private int ejectionFailureThreshold = 3;
+
+        /**
+         * 节点被摘除的时长
+         */
+        private Duration ejectionDuration = Duration.ofSeconds(30);
+
+        /**
+         * 粘性路由允许的最大负载差：任务首选节点的在途请求数比最空闲节点多出该值时改投最空闲节点
+         */
+        private int stickyMaxImbalance = 4;
+    }
+
+    /**
+     * 评测执行配置项，测试用例未单独设置限制时使用这里的默认值
+     */
+    @Data
+    public static class Judge {
+
+        /**
+         * 编译阶段CPU时间限制
+         */
+        private Duration compileTimeLimit = Duration.ofSeconds(10);
+
+        /**
+         * 编译阶段内存限制
+         */
+        private DataSize compileMemoryLimit = DataSize.ofMegabytes(512);
+
+        /**
+         * 测试用例默认CPU时间限制
+         */
+        private Duration defaultTimeLimit = Duration.ofSeconds(2);
+
+        /**
+         * 测试用例默认内存限制
+         */
+        private DataSize defaultMemoryLimit = DataSize.ofMegabytes(256);
+
+        /**
+         * 未配置测试用例时，编译并运行一次的CPU时间限制
+         */
+        private Duration singleRunTimeLimit = Duration.ofSeconds(6);
+
+        /**
+         * 未配置测试用例时，编译并运行一次的内存限制
+         */
+        private DataSize singleRunMemoryLimit = DataSize.ofMegabytes(512);
+
+        /**
+         * 墙上时间限制相对CPU时间限制的倍数，防止程序阻塞等待
+         */
+        private int clockLimitMultiplier = 3;
+
+        /**
+         * 最大进程数
+         */
+        private int procLimit = 50;
+
+        /**
+         * 标准输出、标准错误的最大收集字节数
+         */
+        private DataSize outputLimit = DataSize.ofKilobytes(64);
+
+        /**
+         * 开启失败即停止时，每批并行运行的测试用例数
+         */
+        private int earlyTerminationBatchSize = 4;
+    }
+
+    /**
+     * 评测结果复用配置项
+     */
+    @Data
+    public static class ResultCache {
+
+        /**
+         * 是否复用相同内容提交的评测结果
+         */
+        private boolean enabled = true;
+    }
+
+    /**
+     * 客观题答案缓存配置项
+     */
+    @Data
+    public static class AnswerKey {
+
+        /**
+         * 最多缓存的任务数，超出时淘汰最久未使用的任务
+         */
+        private int maxTasks = 1000;
+
+        /**
+         * 缓存有效期，多实例部署时其他实例修改题目后最迟在有效期后生效
+         */
+        private Duration expireAfterWrite = Duration.ofMinutes(10);
+    }
+
+    /**
+     * 批量重评配置项
+     */
+    @Data
+    public static class Regrade {
+
+        /**
+         * 分页读取提交记录时的每页条数
+         */
+        private int pageSize = 200;
+
+        /**
+         * 同一时刻在评测队列中的重评任务上限，应小于评测工作线程数，为交互式评测保留工作线程
+         */
+        private int maxInFlight = 2;
+
+        /**
+         * 重评任务的队列优先级，低于交互式评测
+         */
+        private int priority = -100;
+
+        /**
+         * 重评结果批量写入数据库的条数
+         */
+        private int resultBatchSize = 50;
+
+        /**
+         * 未满一批时重评结果的最长写入间隔
+         */
+        private Duration resultFlushInterval = Duration.ofSeconds(1);
+    }
+
+    /**
+     * 客观题批量判分配置项
+     */
+    @Data
+    public static class BulkGrade {
+
+        /**
+         * 每批并行判分并批量插入的提交数
+         */
+        private int batchSize = 500;
+    }
+
+    /**
+     * 评测队列配置项
+     */
+    @Data
+    public static class Queue {
+
+        /**
+         * 评测工作线程数
+         */
+        private int workers = 4;
+
+        /**
+         * 队列中允许等待的最大任务数，超出后拒绝新的评测请求
+         */
+        private int capacity = 1000;
+
+        /**
+         * 默认优先级，数值越大越先执行
+         */
+        private int defaultPriority = 0;
+
+        /**
+         * 评测租约时长，应大于单次评测的最长耗时；实例异常退出后，其领取的任务在租约过期后才会被重新评测
+         */
+        private Duration leaseDuration = Duration.ofMinutes(10);
+
+        /**
+         * 按实验设置的优先级（实验ID -> 优先级）
+         */
+        private Map<String, Integer> experimentPriorities = new HashMap<>();
+
+        /**
+         * 获取实验对应的评测优先级
+         *
+         * @param experimentId 实验ID
+         * @return 优先级
+         */
+        public int priorityOf(String experimentId) {
+            if (experimentId == null) {
+                return defaultPriority;
+            }
+            return experimentPriorities.getOrDefault(experimentId, defaultPriority);
+        }
+    }
+}
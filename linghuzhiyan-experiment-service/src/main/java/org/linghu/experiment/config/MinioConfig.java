@@ -44,6 +44,24 @@ public class MinioConfig {
     @Value("${minio.secure:false}")
     private boolean secure;
 
+    /**
+     * 并行读取对象时允许同时进行的最大请求数
+     */
+    @Value("${minio.fetch.concurrency:16}")
+    private int fetchConcurrency;
+
+    /**
+     * 单次提交允许读取的文件总字节数
+     */
+    @Value("${minio.fetch.maxSubmissionBytes:10485760}")
+    private long maxSubmissionBytes;
+
+    /**
+     * 是否将代码提交的所有文件保存为一个归档对象（关闭时每个文件一个对象）
+     */
+    @Value("${minio.submission.archive:false}")
+    private boolean submissionArchive;
+
     /**
      * 创建MinIO客户端
      * 
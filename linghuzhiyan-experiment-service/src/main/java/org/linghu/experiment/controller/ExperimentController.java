@@ -7,6 +7,7 @@ import org.linghu.experiment.dto.ExperimentDTO;
 import org.linghu.experiment.dto.ExperimentRequestDTO;
 import org.linghu.experiment.dto.PageResult;
 import org.linghu.experiment.dto.Result;
+import org.linghu.experiment.dto.StorageCleanupJobDTO;
 import org.linghu.experiment.service.ExperimentService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
@@ -75,10 +76,16 @@ public class ExperimentController {
     }
 
     @DeleteMapping("/{id}")
-    @Operation(summary = "删除实验", description = "删除指定的实验")
-    public Result<Void> deleteExperiment(@PathVariable String id) {
-        experimentService.deleteExperiment(id);
-        return Result.success();
+    @Operation(summary = "删除实验", description = "删除指定的实验，资源文件和学生提交文件由后台任务清理，返回清理任务")
+    public Result<StorageCleanupJobDTO> deleteExperiment(@PathVariable String id) {
+        StorageCleanupJobDTO cleanupJob = experimentService.deleteExperiment(id);
+        return Result.success(cleanupJob);
+    }
+
+    @GetMapping("/{id}/cleanup/{jobId}")
+    @Operation(summary = "查询清理进度", description = "查询删除实验后对象存储清理任务的进度和失败明细")
+    public Result<StorageCleanupJobDTO> getCleanupJob(@PathVariable String id, @PathVariable String jobId) {
+        return Result.success(experimentService.getCleanupJob(id, jobId));
     }
 
     @PutMapping("/{id}/publish")
@@ -2,6 +2,7 @@ package org.linghu.experiment.controller;
 
 import org.linghu.experiment.dto.ExperimentDTO;
 import org.linghu.experiment.dto.Result;
+import org.linghu.experiment.evaluation.EvaluationResultCache;
 import org.linghu.experiment.service.ExperimentService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.web.bind.annotation.*;
@@ -17,10 +18,26 @@ import org.springframework.web.bind.annotation.*;
 public class ExperimentInternalController {
 
     private final ExperimentService experimentService;
+    private final EvaluationResultCache evaluationResultCache;
 
     @Autowired
-    public ExperimentInternalController(ExperimentService experimentService) {
+    public ExperimentInternalController(ExperimentService experimentService,
+                                        EvaluationResultCache evaluationResultCache) {
         this.experimentService = experimentService;
+        this.evaluationResultCache = evaluationResultCache;
+    }
+
+    /**
+     * 使实验的评测结果缓存失效 - 内部接口
+     * 资源服务更新实验的脚手架文件或测试数据后调用
+     *
+     * @param experimentId 实验ID
+     * @return 操作结果
+     */
+    @PostMapping("/{experimentId}/evaluation-cache/invalidate")
+    public Result<Void> invalidateEvaluationCache(@PathVariable String experimentId) {
+        evaluationResultCache.invalidateExperiment(experimentId);
+        return Result.success();
     }
 
     /**
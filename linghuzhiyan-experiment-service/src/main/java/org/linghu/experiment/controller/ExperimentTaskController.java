@@ -3,8 +3,10 @@ package org.linghu.experiment.controller;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
+import org.linghu.experiment.dto.BulkGradeResultDTO;
 import org.linghu.experiment.dto.ExperimentTaskDTO;
 import org.linghu.experiment.dto.ExperimentTaskRequestDTO;
+import org.linghu.experiment.dto.RegradeJobDTO;
 import org.linghu.experiment.dto.Result;
 import org.linghu.experiment.service.ExperimentTaskService;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -62,5 +64,42 @@ public class ExperimentTaskController {
         experimentTaskService.deleteTask(taskId);
         return Result.success();
     }
-    
+
+    @PostMapping("/{expId}/regrade")
+    @Operation(summary = "重评实验", description = "按每个学生的最新提交重新评测实验下的所有编程任务")
+    public Result<RegradeJobDTO> regradeExperiment(@PathVariable String expId) {
+        return Result.success(experimentTaskService.startRegrade(expId, null));
+    }
+
+    @PostMapping("/{expId}/{taskId}/regrade")
+    @Operation(summary = "重评任务", description = "按每个学生的最新提交重新评测指定编程任务")
+    public Result<RegradeJobDTO> regradeTask(
+            @PathVariable String expId,
+            @PathVariable String taskId) {
+        return Result.success(experimentTaskService.startRegrade(expId, taskId));
+    }
+
+    @PostMapping("/{expId}/{taskId}/auto-grade")
+    @Operation(summary = "客观题批量判分", description = "按每个学生的最新提交对客观题任务批量判分")
+    public Result<BulkGradeResultDTO> gradeObjectiveTask(
+            @PathVariable String expId,
+            @PathVariable String taskId) {
+        return Result.success(experimentTaskService.gradeObjectiveTask(expId, taskId));
+    }
+
+    @GetMapping("/{expId}/regrade/{jobId}")
+    @Operation(summary = "获取重评进度", description = "获取批量重评任务的进度和预计剩余时间")
+    public Result<RegradeJobDTO> getRegradeJob(
+            @PathVariable String expId,
+            @PathVariable String jobId) {
+        return Result.success(experimentTaskService.getRegradeJob(expId, jobId));
+    }
+
+    @DeleteMapping("/{expId}/regrade/{jobId}")
+    @Operation(summary = "取消重评", description = "取消批量重评任务，已开始的评测会执行完毕")
+    public Result<RegradeJobDTO> cancelRegradeJob(
+            @PathVariable String expId,
+            @PathVariable String jobId) {
+        return Result.success(experimentTaskService.cancelRegradeJob(expId, jobId));
+    }
 }
@@ -3,14 +3,19 @@ package org.linghu.experiment.controller;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
+import org.linghu.experiment.catalog.ExperimentCatalog;
 import org.linghu.experiment.dto.*;
 import org.linghu.experiment.service.StudentExperimentService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
+import java.io.IOException;
 import java.util.List;
 
 /**
@@ -22,6 +27,11 @@ import java.util.List;
 @Tag(name = "学生实验参与", description = "学生参与实验相关API")
 public class StudentExperimentController {
 
+    // 评测结果订阅的超时时间（毫秒）
+    private static final long EVALUATION_STREAM_TIMEOUT = 5 * 60 * 1000L;
+    // 实验目录每页最大条数
+    private static final int MAX_CATALOG_PAGE_SIZE = 100;
+
     private final StudentExperimentService studentExperimentService;
 
     @Autowired
@@ -37,6 +47,22 @@ public class StudentExperimentController {
         return Result.success(experiments);
     }
 
+    @GetMapping("/catalog")
+    @Operation(summary = "分页获取实验目录", description = "分页获取已发布的实验，支持 If-None-Match，目录未变化时返回304")
+    public Result<PageResult<ExperimentDTO>> getExperimentCatalog(
+            @RequestParam(defaultValue = "1") int pageNum,
+            @RequestParam(defaultValue = "10") int pageSize,
+            WebRequest webRequest) {
+        int page = Math.max(pageNum, 1);
+        int size = Math.min(Math.max(pageSize, 1), MAX_CATALOG_PAGE_SIZE);
+        ExperimentCatalog catalog = studentExperimentService.getPublishedExperimentCatalog();
+        if (webRequest.checkNotModified(catalog.etag(page, size))) {
+            // 已设置304状态和ETag响应头，不再输出响应体
+            return null;
+        }
+        return Result.success(catalog.page(page, size));
+    }
+
     @GetMapping("/{expId}")
     @Operation(summary = "获取实验详情", description = "获取指定实验的详细信息")
     public Result<ExperimentDTO> getExperiment(
@@ -52,14 +78,35 @@ public class StudentExperimentController {
             @AuthenticationPrincipal UserDetails userDetails) {
         List<ExperimentTaskDTO> tasks = studentExperimentService.getAssignedTasks(userDetails.getUsername());
         return Result.success(tasks);
-    }    @GetMapping("/tasks/{taskId}")
-    @Operation(summary = "获取具体任务", description = "获取特定任务的详细信息")
+    }
+
+    @GetMapping("/dashboard")
+    @Operation(summary = "获取学习进度", description = "获取分配给学生的所有任务及每个任务的最新提交时间、最新得分和状态")
+    public Result<List<TaskProgressDTO>> getProgressDashboard(
+            @AuthenticationPrincipal UserDetails userDetails) {
+        List<TaskProgressDTO> progress = studentExperimentService.getProgressDashboard(userDetails.getUsername());
+        return Result.success(progress);
+    }
+
+    @GetMapping("/tasks/{taskId}")
+    @Operation(summary = "获取具体任务", description = "获取特定任务的详细信息，includeContent为false时编程任务只返回文件名和大小")
     public Result<ExperimentTaskDTO> getTask(
             @PathVariable String taskId,
+            @RequestParam(defaultValue = "true") boolean includeContent,
             @AuthenticationPrincipal UserDetails userDetails) {
-        ExperimentTaskDTO task = studentExperimentService.getTaskById(taskId, userDetails.getUsername());
+        ExperimentTaskDTO task = studentExperimentService.getTaskById(taskId, userDetails.getUsername(), includeContent);
         return Result.success(task);
     }
+
+    @GetMapping("/tasks/{taskId}/file")
+    @Operation(summary = "获取任务文件", description = "获取编程任务的单个脚手架文件内容")
+    public Result<SourceCodeFileDTO> getTaskFile(
+            @PathVariable String taskId,
+            @RequestParam String path,
+            @AuthenticationPrincipal UserDetails userDetails) {
+        SourceCodeFileDTO file = studentExperimentService.getTaskFile(taskId, path, userDetails.getUsername());
+        return Result.success(file);
+    }
     
     @PostMapping("/tasks/submit")
     @Operation(summary = "提交任务", description = "使用SubmissionRequestDTO提交任务的答案或完成情况")
@@ -81,12 +128,58 @@ public class StudentExperimentController {
     }
 
     @GetMapping("/tasks/{taskId}/history")
-    @Operation(summary = "获取特定实验历史评测记录", description = "获取学生特定任务的所有历史评测记录")
-    public Result<List<ExperimentEvaluationDTO>> getTaskEvaluationHistory(
+    @Operation(summary = "获取特定实验历史评测记录", description = "按评测时间倒序分页获取学生特定任务的历史评测记录，includeAnswer为true时返回提交的答案")
+    public Result<CursorPageResult<ExperimentEvaluationDTO>> getTaskEvaluationHistory(
             @PathVariable String taskId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size,
+            @RequestParam(defaultValue = "false") boolean includeAnswer,
             @AuthenticationPrincipal UserDetails userDetails) {
-        List<ExperimentEvaluationDTO> evaluationHistory = studentExperimentService.getTaskEvaluationHistory(
-                taskId, userDetails.getUsername());
+        CursorPageResult<ExperimentEvaluationDTO> evaluationHistory = studentExperimentService.getTaskEvaluationHistory(
+                taskId, userDetails.getUsername(), cursor, size, includeAnswer);
         return Result.success(evaluationHistory);
     }
+
+    @GetMapping("/submissions/{submissionId}/file")
+    @Operation(summary = "查看提交的代码文件", description = "获取自己某次代码提交中的单个文件内容")
+    public Result<SourceCodeFileDTO> getSubmissionFile(
+            @PathVariable String submissionId,
+            @RequestParam String path,
+            @AuthenticationPrincipal UserDetails userDetails) {
+        SourceCodeFileDTO file = studentExperimentService.getSubmissionFile(
+                submissionId, path, userDetails.getUsername());
+        return Result.success(file);
+    }
+
+    @GetMapping("/evaluations/{evaluationId}")
+    @Operation(summary = "查询评测状态", description = "轮询异步评测任务的状态和结果")
+    public Result<ExperimentEvaluationDTO> getEvaluation(
+            @PathVariable String evaluationId,
+            @AuthenticationPrincipal UserDetails userDetails) {
+        ExperimentEvaluationDTO evaluation = studentExperimentService.getEvaluationById(
+                evaluationId, userDetails.getUsername());
+        return Result.success(evaluation);
+    }
+
+    @GetMapping(value = "/evaluations/{evaluationId}/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @Operation(summary = "订阅评测结果", description = "通过SSE在评测结束时推送评测结果")
+    public SseEmitter subscribeEvaluation(
+            @PathVariable String evaluationId,
+            @AuthenticationPrincipal UserDetails userDetails) {
+        SseEmitter emitter = new SseEmitter(EVALUATION_STREAM_TIMEOUT);
+        Runnable unsubscribe = studentExperimentService.subscribeEvaluationResult(evaluationId,
+                userDetails.getUsername(), evaluation -> {
+                    try {
+                        emitter.send(SseEmitter.event().name("result").data(Result.success(evaluation)));
+                        emitter.complete();
+                    } catch (IOException e) {
+                        emitter.completeWithError(e);
+                    }
+                });
+        // 连接超时、出错或关闭时取消订阅，不再等待评测结束才释放
+        emitter.onTimeout(unsubscribe);
+        emitter.onError(error -> unsubscribe.run());
+        emitter.onCompletion(unsubscribe);
+        return emitter;
+    }
 }
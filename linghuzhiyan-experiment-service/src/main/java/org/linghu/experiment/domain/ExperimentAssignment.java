@@ -18,6 +18,8 @@ import java.util.UUID;
 @Entity
 @Table(name = "experiment_assignment", uniqueConstraints = {
     @UniqueConstraint(name = "uk_experiment_user", columnNames = {"task_id", "user_id"})
+}, indexes = {
+    @Index(name = "idx_assignment_user_task", columnList = "user_id, task_id")
 })
 @Data
 @Builder
@@ -17,7 +17,11 @@ import java.time.LocalDateTime;
  * 实验评测领域模型
  */
 @Entity
-@Table(name = "experiment_evaluation")
+@Table(name = "experiment_evaluation", indexes = {
+        @Index(name = "idx_evaluation_status_queued", columnList = "status, queued_time"),
+        @Index(name = "idx_evaluation_task_content_hash", columnList = "task_id, content_hash"),
+        @Index(name = "idx_evaluation_user_task_created", columnList = "user_id, task_id, created_time")
+})
 @Data
 @Builder
 @NoArgsConstructor
@@ -86,6 +90,38 @@ public class ExperimentEvaluation {
     
     @Column(name = "user_answer", columnDefinition = "JSON")
     private String userAnswer;
+
+    // 各测试用例的评测结果，JSON数组
+    @Column(name = "case_results", columnDefinition = "JSON")
+    private String caseResults;
+
+    // 评测结果复用：任务版本与提交文件内容的哈希，相同哈希的评测结果可直接复用
+    @Column(name = "content_hash", length = 64)
+    private String contentHash;
+
+    // 异步评测队列字段
+    @Column(name = "priority")
+    private Integer priority;
+
+    @Column(name = "queued_time")
+    private LocalDateTime queuedTime;
+
+    @Column(name = "started_time")
+    private LocalDateTime startedTime;
+
+    @Column(name = "finished_time")
+    private LocalDateTime finishedTime;
+
+    // 是否为后台评测（批量重评），服务重启恢复时沿用
+    @Column(name = "background")
+    private Boolean background;
+
+    // 评测租约：领取任务的实例和租约到期时间，只有租约过期的RUNNING任务才会被重新领取
+    @Column(name = "lease_owner", length = 36)
+    private String leaseOwner;
+
+    @Column(name = "lease_until")
+    private LocalDateTime leaseUntil;
     
     @CreatedDate
     @Column(name = "created_time", nullable = false, updatable = false)
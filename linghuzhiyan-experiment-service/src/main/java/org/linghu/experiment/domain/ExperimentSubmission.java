@@ -14,7 +14,9 @@ import java.util.List;
  * 实验任务提交领域模型，对应数据库中的experiment_submission表
  */
 @Entity
-@Table(name = "experiment_submission")
+@Table(name = "experiment_submission", indexes = {
+        @Index(name = "idx_submission_task_user_time", columnList = "task_id, user_id, submit_time")
+})
 @Data
 @Builder
 @NoArgsConstructor
@@ -37,6 +37,12 @@ public class ExperimentTask {
 
     @Transient
     private List<Question> questions;
+
+    /**
+     * 编程任务评测配置（测试用例、编译产物等），JSON格式
+     */
+    @Column(name = "judge_config", columnDefinition = "json")
+    private String judgeConfig;
     
     @Builder.Default
     @Column(nullable = false, columnDefinition = "tinyint(1) default 1")
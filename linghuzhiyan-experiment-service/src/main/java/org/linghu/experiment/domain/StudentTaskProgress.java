@@ -0,0 +1,70 @@
+package org.linghu.experiment.domain;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * 学生任务进度领域模型
+ * <p>
+ * 每个（学生, 任务）一行，记录最新提交和最新评测的摘要，在写入提交和评测记录时同步更新，
+ * 学生进度面板只需按用户读取本表，无需逐个任务查询提交和评测记录。
+ */
+@Entity
+@Table(name = "student_task_progress", uniqueConstraints = {
+        @UniqueConstraint(name = "uk_progress_user_task", columnNames = {"user_id", "task_id"})
+})
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class StudentTaskProgress {
+
+    @Id
+    @Column(length = 36)
+    private String id;
+
+    @Column(name = "user_id", nullable = false, length = 36)
+    private String userId;
+
+    @Column(name = "task_id", nullable = false, length = 36)
+    private String taskId;
+
+    @Column(name = "latest_submission_id", length = 36)
+    private String latestSubmissionId;
+
+    @Column(name = "latest_submit_time")
+    private LocalDateTime latestSubmitTime;
+
+    @Builder.Default
+    @Column(name = "submission_count", nullable = false)
+    private Integer submissionCount = 0;
+
+    @Column(name = "latest_evaluation_id", length = 36)
+    private String latestEvaluationId;
+
+    // 最新评测记录的创建时间，用于判断评测的先后顺序
+    @Column(name = "latest_evaluation_time")
+    private LocalDateTime latestEvaluationTime;
+
+    @Column(name = "latest_score", precision = 5, scale = 2)
+    private BigDecimal latestScore;
+
+    @Column(name = "latest_status", length = 20)
+    @Enumerated(EnumType.STRING)
+    private ExperimentEvaluation.EvaluationStatus latestStatus;
+
+    @Column(name = "latest_queued_time")
+    private LocalDateTime latestQueuedTime;
+
+    @Column(name = "created_time", nullable = false, updatable = false)
+    private LocalDateTime createdTime;
+
+    @Column(name = "updated_time")
+    private LocalDateTime updatedTime;
+}
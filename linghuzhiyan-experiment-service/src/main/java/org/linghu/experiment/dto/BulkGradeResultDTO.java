@@ -0,0 +1,23 @@
+package org.linghu.experiment.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+/**
+ * 客观题批量判分结果DTO
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BulkGradeResultDTO {
+    private String taskId;
+    private long graded;            // 判分成功的提交数（每个用户一份最新提交）
+    private long errors;            // 判分失败的提交数
+    private BigDecimal averageScore; // 判分成功的提交的平均分
+    private long elapsedMillis;     // 耗时（毫秒）
+}
@@ -0,0 +1,48 @@
+package org.linghu.experiment.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * 游标分页结果包装类
+ * @param <T> 数据类型
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class CursorPageResult<T> {
+    /**
+     * 数据列表
+     */
+    private List<T> list;
+
+    /**
+     * 下一页的游标，没有更多数据时为null
+     */
+    private String nextCursor;
+
+    /**
+     * 是否还有更多数据
+     */
+    private boolean hasMore;
+
+    /**
+     * 创建游标分页结果
+     * @param <T> 数据类型
+     * @param list 数据列表
+     * @param nextCursor 下一页的游标
+     * @return 游标分页结果
+     */
+    public static <T> CursorPageResult<T> of(List<T> list, String nextCursor) {
+        return CursorPageResult.<T>builder()
+                .list(list)
+                .nextCursor(nextCursor)
+                .hasMore(nextCursor != null)
+                .build();
+    }
+}
@@ -9,7 +9,7 @@ import org.linghu.experiment.domain.Experiment;
 import java.time.LocalDateTime;
 
 @Data
-@Builder
+@Builder(toBuilder = true)
 @NoArgsConstructor
 @AllArgsConstructor
 public class ExperimentDTO {
@@ -20,4 +20,31 @@ public class ExperimentDTO {
     private Experiment.ExperimentStatus status; // "DRAFT", "PUBLISHED"
     private LocalDateTime startTime;
     private LocalDateTime endTime;
+
+    /**
+     * 将实验实体转换为DTO
+     *
+     * @param experiment 实验实体
+     * @return 实验DTO
+     */
+    public static ExperimentDTO from(Experiment experiment) {
+        return ExperimentDTO.builder()
+                .id(experiment.getId())
+                .creator_Id(experiment.getCreatorId())
+                .name(experiment.getName())
+                .description(experiment.getDescription())
+                .status(experiment.getStatus())
+                .startTime(experiment.getStartTime())
+                .endTime(experiment.getEndTime())
+                .build();
+    }
+
+    /**
+     * 复制一份，共享的缓存对象返回给调用方前使用，调用方修改副本不影响缓存
+     *
+     * @return 副本
+     */
+    public ExperimentDTO copy() {
+        return toBuilder().build();
+    }
 }
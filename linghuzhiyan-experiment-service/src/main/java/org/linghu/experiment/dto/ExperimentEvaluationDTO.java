@@ -5,8 +5,11 @@ import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
+import org.linghu.experiment.judge.TestCaseResult;
+
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.util.List;
 
 /**
  * 实验评测结果DTO
@@ -22,11 +25,13 @@ public class ExperimentEvaluationDTO {
     private BigDecimal score;
     private String errorMessage;
     private String additionalInfo;
+    private List<TestCaseResult> caseResults; // 各测试用例结果（配置了测试用例的编程任务）
     
     // 提交相关的额外信息
     private String taskId;
     private String userId;  // 学生ID
     private LocalDateTime submitTime;
+    private LocalDateTime createdTime; // 评测创建时间
     private String userAnswer; // 提交的答案内容
     private String status;
 }
@@ -5,6 +5,7 @@ import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 import org.linghu.experiment.constants.TaskType;
+import org.linghu.experiment.judge.JudgeConfig;
 
 import java.time.LocalDateTime;
 import java.util.List;
@@ -24,6 +25,7 @@ public class ExperimentTaskDTO {
     private Object answers; // 任务答案
     private Boolean required; // 是否允许迟交
     private List<SourceCodeFileDTO> files; // 源代码文件列表（仅当taskType为CODE时有效）
+    private JudgeConfig judgeConfig; // 评测配置（仅教师端返回）
 
     private LocalDateTime createdAt; // 创建时间
     private LocalDateTime updatedAt; // 更新时间
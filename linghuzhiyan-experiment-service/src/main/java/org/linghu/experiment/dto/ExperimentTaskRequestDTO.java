@@ -5,6 +5,7 @@ import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 import org.linghu.experiment.constants.TaskType;
+import org.linghu.experiment.judge.JudgeConfig;
 
 @Data
 @Builder
@@ -16,4 +17,5 @@ public class ExperimentTaskRequestDTO {
     private TaskType taskType; // 任务类型
     private Object question; // 任务问题
     private Boolean required; // 是否允许迟交
+    private JudgeConfig judgeConfig; // 评测配置（仅当taskType为CODE时有效）
 }
@@ -0,0 +1,37 @@
+package org.linghu.experiment.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * 批量重评任务DTO
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class RegradeJobDTO {
+    private String id;
+    private String experimentId;
+    private List<String> taskIds;
+    private String status; // RUNNING / COMPLETED / CANCELLED / FAILED
+    private String errorMessage;
+    private String createdBy;
+
+    // 进度信息
+    private long total;      // 需要重评的提交数（每个用户一份最新提交）
+    private long scanned;    // 已扫描的提交记录数
+    private long enqueued;   // 已加入评测队列数
+    private long completed;  // 已评测完成数
+    private long errors;     // 评测出错数
+    private double progress; // 完成百分比
+    private Long etaSeconds; // 预计剩余秒数
+
+    private LocalDateTime startedAt;
+    private LocalDateTime finishedAt;
+}
@@ -14,5 +14,6 @@ import lombok.NoArgsConstructor;
 @AllArgsConstructor
 public class SourceCodeFileDTO {
     private String fileName; // 文件名
-    private String content;  // 文件内容
+    private String content;  // 文件内容（只返回文件列表时为null）
+    private Long size;       // 文件字节数
 }
@@ -0,0 +1,35 @@
+package org.linghu.experiment.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * 对象存储清理任务DTO
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class StorageCleanupJobDTO {
+    private String id;
+    private String experimentId;
+    private String status; // PENDING / RUNNING / COMPLETED / CANCELLED / FAILED
+    private String errorMessage;
+
+    // 进度信息
+    private int totalTargets;      // 需要清理的前缀数
+    private int completedTargets;  // 已清理完成的前缀数
+    private long deleted;          // 已删除的对象数
+    private long failed;           // 删除失败的对象或前缀数
+    private List<String> failures; // 失败明细（最多100条）
+    private double progress;       // 完成百分比
+
+    private LocalDateTime createdAt;
+    private LocalDateTime startedAt;
+    private LocalDateTime finishedAt;
+}
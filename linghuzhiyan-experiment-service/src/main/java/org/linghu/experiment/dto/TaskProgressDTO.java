@@ -0,0 +1,38 @@
+package org.linghu.experiment.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.linghu.experiment.constants.TaskType;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * 学生任务进度DTO（进度面板条目）
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class TaskProgressDTO {
+    // 任务信息
+    private String taskId;
+    private String experimentId;
+    private String experimentName;
+    private String title;
+    private TaskType taskType;
+    private Boolean required;
+    private Integer orderNum;
+
+    // 最新提交
+    private String latestSubmissionId;
+    private LocalDateTime latestSubmitTime;
+    private int submissionCount;
+
+    // 最新评测
+    private String latestEvaluationId;
+    private BigDecimal latestScore;
+    private String status; // NOT_SUBMITTED、SUBMITTED（已提交未评测）或评测状态
+}
@@ -0,0 +1,183 @@
+package org.linghu.experiment.evaluation;
+
+import org.linghu.experiment.utils.AnswerUtils;
+
+import java.util.*;
+
+/**
+ * 预编译的任务答案
+ * <p>
+ * 标准答案在构建时完成标准化：文本答案预先标准化，多选题答案预先转换为集合，
+ * 判分时只需标准化学生答案并在内存中比较。比较规则：
+ * <ul>
+ *     <li>文本：标准化后比较，任一方含中文时严格相等，否则忽略大小写</li>
+ *     <li>列表（多选题）：数量相同且标准化、转小写后的元素集合相同</li>
+ *     <li>对象：字段数相同且逐字段递归比较</li>
+ *     <li>其他类型：equals</li>
+ * </ul>
+ */
+public class AnswerKey {
+
+    private final Map<String, QuestionKey> questions;
+
+    AnswerKey(Map<String, QuestionKey> questions) {
+        this.questions = Collections.unmodifiableMap(questions);
+    }
+
+    /**
+     * 由题目ID和标准答案构建
+     *
+     * @param expectedAnswers 题目ID -> 标准答案，按题目顺序
+     * @return 预编译答案
+     */
+    public static AnswerKey compile(Map<String, Object> expectedAnswers) {
+        Map<String, QuestionKey> questions = new LinkedHashMap<>();
+        expectedAnswers.forEach((questionId, answer) ->
+                questions.put(questionId, new QuestionKey(questionId, answer, compileAnswer(answer))));
+        return new AnswerKey(questions);
+    }
+
+    /**
+     * 题目，按任务中的题目顺序
+     */
+    public Collection<QuestionKey> getQuestions() {
+        return questions.values();
+    }
+
+    public boolean containsQuestion(String questionId) {
+        return questions.containsKey(questionId);
+    }
+
+    public int size() {
+        return questions.size();
+    }
+
+    public boolean isEmpty() {
+        return questions.isEmpty();
+    }
+
+    /**
+     * 单个题目的标准答案
+     *
+     * @param questionId 题目ID
+     * @param answer     原始标准答案，用于反馈展示
+     * @param expected   预编译的标准答案
+     */
+    public record QuestionKey(String questionId, Object answer, ExpectedAnswer expected) {
+
+        /**
+         * 判断学生答案是否正确
+         *
+         * @param actual 学生答案
+         * @return 是否正确
+         */
+        public boolean matches(Object actual) {
+            return expected.matches(actual);
+        }
+    }
+
+    /**
+     * 预编译的标准答案
+     */
+    public interface ExpectedAnswer {
+
+        boolean matches(Object actual);
+    }
+
+    static ExpectedAnswer compileAnswer(Object answer) {
+        if (answer == null) {
+            return Objects::isNull;
+        }
+        if (answer instanceof String text) {
+            return new TextAnswer(text);
+        }
+        if (answer instanceof List<?> list) {
+            return new ChoiceAnswer(list);
+        }
+        if (answer instanceof Map<?, ?> map) {
+            return new ObjectAnswer(map);
+        }
+        return answer::equals;
+    }
+
+    private static String normalizeChoice(Object choice) {
+        return AnswerUtils.normalize(String.valueOf(choice)).toLowerCase();
+    }
+
+    private static final class TextAnswer implements ExpectedAnswer {
+
+        private final String normalized;
+        private final boolean chinese;
+
+        private TextAnswer(String answer) {
+            this.normalized = AnswerUtils.normalize(answer);
+            this.chinese = AnswerUtils.containsChineseCharacter(answer);
+        }
+
+        @Override
+        public boolean matches(Object actual) {
+            if (!(actual instanceof String text)) {
+                return false;
+            }
+            String normalizedActual = AnswerUtils.normalize(text);
+            // 中文填空题严格对比标准化后的字符串
+            if (chinese || AnswerUtils.containsChineseCharacter(text)) {
+                return normalized.equals(normalizedActual);
+            }
+            return normalized.equalsIgnoreCase(normalizedActual);
+        }
+    }
+
+    private static final class ChoiceAnswer implements ExpectedAnswer {
+
+        private final int size;
+        private final Set<String> choices;
+
+        private ChoiceAnswer(List<?> answer) {
+            this.size = answer.size();
+            Set<String> normalized = new HashSet<>();
+            for (Object choice : answer) {
+                normalized.add(normalizeChoice(choice));
+            }
+            this.choices = Set.copyOf(normalized);
+        }
+
+        @Override
+        public boolean matches(Object actual) {
+            if (!(actual instanceof List<?> list) || list.size() != size) {
+                return false;
+            }
+            Set<String> actualChoices = new HashSet<>();
+            for (Object choice : list) {
+                String normalized = normalizeChoice(choice);
+                if (!choices.contains(normalized)) {
+                    return false;
+                }
+                actualChoices.add(normalized);
+            }
+            return actualChoices.size() == choices.size();
+        }
+    }
+
+    private static final class ObjectAnswer implements ExpectedAnswer {
+
+        private final Map<Object, ExpectedAnswer> fields = new HashMap<>();
+
+        private ObjectAnswer(Map<?, ?> answer) {
+            answer.forEach((key, value) -> fields.put(key, compileAnswer(value)));
+        }
+
+        @Override
+        public boolean matches(Object actual) {
+            if (!(actual instanceof Map<?, ?> map) || map.size() != fields.size()) {
+                return false;
+            }
+            for (Map.Entry<Object, ExpectedAnswer> field : fields.entrySet()) {
+                if (!map.containsKey(field.getKey()) || !field.getValue().matches(map.get(field.getKey()))) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+}
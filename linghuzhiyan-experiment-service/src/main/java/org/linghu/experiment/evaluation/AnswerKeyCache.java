@@ -0,0 +1,189 @@
+package org.linghu.experiment.evaluation;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.linghu.experiment.config.EvaluationProperties;
+import org.linghu.experiment.domain.ExperimentTask;
+import org.linghu.experiment.domain.Question;
+import org.linghu.experiment.repository.QuestionRepository;
+import org.linghu.experiment.utils.JsonUtils;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.util.StringUtils;
+
+import java.util.*;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+/**
+ * 客观题答案缓存
+ * <p>
+ * 按任务缓存预编译的标准答案，判分时不再解析题目ID列表、查询题库和重复标准化标准答案。
+ * 缓存为本地LRU，超过上限时淘汰最久未使用的任务。任务的题目ID列表变化时自动重建；
+ * 修改或删除题目、修改或删除任务时主动失效，多实例部署下其他实例的缓存在有效期后重建。
+ */
+@Slf4j
+@Component
+public class AnswerKeyCache {
+
+    private final QuestionRepository questionRepository;
+    private final EvaluationProperties.AnswerKey cacheProperties;
+
+    // 任务ID -> 预编译答案，按访问顺序排列
+    private final LinkedHashMap<String, CachedAnswerKey> answerKeys;
+    // 每次失效时递增，构建期间发生失效的结果不写入缓存，避免写回旧答案
+    private final AtomicLong generation = new AtomicLong();
+
+    private final Counter hitCounter;
+    private final Counter missCounter;
+
+    public AnswerKeyCache(QuestionRepository questionRepository,
+                          EvaluationProperties evaluationProperties,
+                          MeterRegistry meterRegistry) {
+        this.questionRepository = questionRepository;
+        this.cacheProperties = evaluationProperties.getAnswerKey();
+        int maxTasks = Math.max(1, cacheProperties.getMaxTasks());
+        this.answerKeys = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, CachedAnswerKey> eldest) {
+                return size() > maxTasks;
+            }
+        };
+        this.hitCounter = Counter.builder("evaluation.answer.key.cache")
+                .description("使用缓存的预编译答案判分的次数")
+                .tag("result", "hit")
+                .register(meterRegistry);
+        this.missCounter = Counter.builder("evaluation.answer.key.cache")
+                .description("重新构建预编译答案的次数")
+                .tag("result", "miss")
+                .register(meterRegistry);
+        Gauge.builder("evaluation.answer.key.cache.size", this, AnswerKeyCache::size)
+                .description("缓存的任务答案数")
+                .register(meterRegistry);
+    }
+
+    /**
+     * 获取任务的预编译答案
+     *
+     * @param task 实验任务
+     * @return 预编译答案，任务没有题目时为空
+     */
+    public AnswerKey get(ExperimentTask task) {
+        String questionIds = task.getQuestionIds();
+        long expireNanos = cacheProperties.getExpireAfterWrite().toNanos();
+        synchronized (answerKeys) {
+            CachedAnswerKey cached = answerKeys.get(task.getId());
+            if (cached != null && Objects.equals(cached.questionIds(), questionIds)
+                    && System.nanoTime() - cached.builtAtNanos() < expireNanos) {
+                hitCounter.increment();
+                return cached.answerKey();
+            }
+        }
+
+        missCounter.increment();
+        long buildGeneration = generation.get();
+        long builtAt = System.nanoTime();
+        AnswerKey answerKey = build(questionIds);
+        synchronized (answerKeys) {
+            if (generation.get() == buildGeneration) {
+                answerKeys.put(task.getId(), new CachedAnswerKey(questionIds, answerKey, builtAt));
+            }
+        }
+        return answerKey;
+    }
+
+    /**
+     * 使任务的预编译答案失效（修改或删除任务时调用）
+     *
+     * @param taskId 任务ID
+     */
+    public void invalidateTask(String taskId) {
+        invalidate(cache -> cache.remove(taskId) != null ? 1 : 0);
+    }
+
+    /**
+     * 使包含该题目的任务答案失效（修改或删除题目时调用）
+     *
+     * @param questionId 题目ID
+     */
+    public void invalidateQuestion(String questionId) {
+        invalidate(cache -> {
+            int before = cache.size();
+            cache.values().removeIf(cached -> cached.answerKey().containsQuestion(questionId));
+            return before - cache.size();
+        });
+    }
+
+    int size() {
+        synchronized (answerKeys) {
+            return answerKeys.size();
+        }
+    }
+
+    /**
+     * 立即失效，并在当前事务提交后再失效一次，避免事务提交前并发判分读到旧答案后写回缓存
+     */
+    private void invalidate(Function<Map<String, CachedAnswerKey>, Integer> remover) {
+        Runnable invalidation = () -> {
+            synchronized (answerKeys) {
+                generation.incrementAndGet();
+                int removed = remover.apply(answerKeys);
+                if (removed > 0) {
+                    log.debug("客观题答案缓存失效 {} 个任务", removed);
+                }
+            }
+        };
+        invalidation.run();
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    invalidation.run();
+                }
+            });
+        }
+    }
+
+    private AnswerKey build(String questionIdsJson) {
+        if (!StringUtils.hasText(questionIdsJson)) {
+            return AnswerKey.compile(Collections.emptyMap());
+        }
+        @SuppressWarnings("unchecked")
+        List<String> questionIds = JsonUtils.parseObject(questionIdsJson, List.class);
+        if (questionIds == null || questionIds.isEmpty()) {
+            return AnswerKey.compile(Collections.emptyMap());
+        }
+
+        Map<String, Question> questionsById = new HashMap<>();
+        for (Question question : questionRepository.findByIdIn(questionIds)) {
+            questionsById.put(question.getId(), question);
+        }
+
+        // 按任务中的题目顺序构建，题库中已不存在的题目不计分
+        Map<String, Object> expectedAnswers = new LinkedHashMap<>();
+        for (String questionId : questionIds) {
+            Question question = questionsById.get(questionId);
+            if (question != null) {
+                expectedAnswers.put(questionId, parseAnswer(question));
+            }
+        }
+        return AnswerKey.compile(expectedAnswers);
+    }
+
+    private Object parseAnswer(Question question) {
+        if (!StringUtils.hasText(question.getAnswer())) {
+            return null;
+        }
+        Object answer = JsonUtils.parseObject(question.getAnswer(), Object.class);
+        if (answer == null) {
+            throw new RuntimeException("题目答案格式错误: " + question.getId());
+        }
+        return answer;
+    }
+
+    private record CachedAnswerKey(String questionIds, AnswerKey answerKey, long builtAtNanos) {
+    }
+}
@@ -0,0 +1,657 @@
+package org.linghu.experiment.evaluation;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.linghu.experiment.config.EvaluationProperties;
+import org.linghu.experiment.domain.ExperimentEvaluation;
+import org.linghu.experiment.domain.ExperimentSubmission;
+import org.linghu.experiment.domain.ExperimentTask;
+import org.linghu.experiment.judge.*;
+import org.linghu.experiment.utils.JsonUtils;
+import org.linghu.experiment.utils.MinioUtil;
+import org.linghu.experiment.utils.SubmissionArchive;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.*;
+import java.util.function.Function;
+
+/**
+ * 编程题评测器，负责读取学生提交的代码并调用评测服务
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class CodeEvaluator {
+
+    private static final String COMPILE_SCRIPT = "compile.sh";
+    private static final String RUN_SCRIPT = "run.sh";
+    private static final Set<String> JUDGE_SCRIPTS = Set.of(COMPILE_SCRIPT, RUN_SCRIPT);
+    private static final List<String> ENV = List.of("PATH=/usr/bin:/bin");
+
+    private final MinioUtil minioUtil;
+    private final GoJudgeClient goJudgeClient;
+    private final JudgeFileCache judgeFileCache;
+    private final JudgeNodeRegistry judgeNodeRegistry;
+    private final EvaluationProperties evaluationProperties;
+
+    /**
+     * 对CODE类型的任务进行评测，并将结果写入评测实体
+     *
+     * @param task       实验任务
+     * @param submission 学生提交
+     * @param evaluation 待填充的评测实体
+     * @throws Exception 如果评测过程发生错误
+     */
+    public void evaluate(ExperimentTask task, ExperimentSubmission submission,
+                         ExperimentEvaluation evaluation) throws Exception {
+        String userId = submission.getUserId();
+        log.info("开始评测用户 {} 在任务 {} 的代码提交", userId, task.getId());
+
+        // 从MinIO获取提交的代码文件内容，顺序与提交顺序一致
+        Map<String, String> submittedFiles = submittedFiles(minioUtil, submission);
+        log.info("用户 {} 提交了 {} 个代码文件", userId, submittedFiles.size());
+
+        // 教师提供的任务文件（评测脚本、测试数据和模板代码）已缓存在评测服务中，内容未被修改的文件通过fileId引用
+        JudgeFileCache.TaskScaffold scaffold = loadScaffold(task);
+        Map<String, String> files = sandboxFiles(scaffold, submittedFiles);
+
+        // 同一次评测的上传、编译、运行和清理都在同一节点上进行，缓存文件和编译产物只在该节点有效
+        JudgeNode node = judgeNodeRegistry.select(task.getId());
+        log.debug("任务 {} 的评测分配到节点 {}", task.getId(), node);
+
+        JudgeConfig judgeConfig = JsonUtils.parseObject(task.getJudgeConfig(), JudgeConfig.class);
+        if (judgeConfig != null && judgeConfig.hasTestCases()) {
+            evaluateTestCases(node, files, scaffold, judgeConfig, evaluation);
+        } else {
+            evaluateSingleRun(node, files, scaffold, judgeConfig, evaluation);
+        }
+    }
+
+    /**
+     * 组装评测沙箱中的文件：任务提供的文件全部放入，学生提交的文件覆盖同名的模板文件，
+     * 但任务提供的评测脚本（compile.sh、run.sh）不会被覆盖；任务未提供评测脚本时沿用提交中的脚本
+     *
+     * @param scaffold       任务脚手架
+     * @param submittedFiles 学生提交的文件
+     * @return 沙箱内相对路径 -> 文件内容
+     */
+    static Map<String, String> sandboxFiles(JudgeFileCache.TaskScaffold scaffold,
+                                            Map<String, String> submittedFiles) {
+        Map<String, String> files = new LinkedHashMap<>(scaffold.filesByPath());
+        submittedFiles.forEach((path, content) -> {
+            if (JUDGE_SCRIPTS.contains(path) && scaffold.filesByPath().containsKey(path)) {
+                log.info("忽略提交中的 {}，使用任务提供的评测脚本", path);
+                return;
+            }
+            files.put(path, content);
+            log.debug("获取到文件 {}, 内容长度: {} 字符", path, content.length());
+        });
+        return files;
+    }
+
+    /**
+     * 读取提交的所有代码文件
+     * 归档提交一次读取整个归档对象；每个文件一个对象的提交并行读取各文件
+     *
+     * @param minioUtil  MinIO工具
+     * @param submission 学生提交
+     * @return 沙箱内相对路径 -> 文件内容，顺序与提交顺序一致
+     * @throws Exception 如果读取失败或超过字节预算
+     */
+    @SuppressWarnings("unchecked")
+    static Map<String, String> submittedFiles(MinioUtil minioUtil, ExperimentSubmission submission)
+            throws Exception {
+        Map<String, Object> answerData = JsonUtils.parseObject(submission.getUserAnswer(), Map.class);
+        Map<String, String> files = new LinkedHashMap<>();
+        Optional<List<SubmissionArchive.Entry>> entries = SubmissionArchive.entries(answerData);
+        if (entries.isPresent()) {
+            List<String> contents = minioUtil.downloadSubmissionArchive((String) answerData.get("archive"),
+                    entries.get(), minioUtil.getMaxSubmissionBytes());
+            for (int i = 0; i < contents.size(); i++) {
+                files.put(entries.get().get(i).name(), contents.get(i));
+            }
+            return files;
+        }
+
+        // 从MinIO并行获取提交的代码文件内容，结果顺序与路径顺序一致
+        List<String> filePaths = submittedPaths(submission);
+        List<String> contents = minioUtil.downloadFilesAsStrings(filePaths, minioUtil.getMaxSubmissionBytes());
+        for (int i = 0; i < filePaths.size(); i++) {
+            files.put(relativePath(filePaths.get(i)), contents.get(i));
+        }
+        return files;
+    }
+
+    /**
+     * 解析提交记录中的代码文件路径
+     *
+     * @param submission 学生提交
+     * @return MinIO中的文件路径列表
+     */
+    @SuppressWarnings("unchecked")
+    public static List<String> submittedPaths(ExperimentSubmission submission) {
+        Map<String, Object> answerData = JsonUtils.parseObject(submission.getUserAnswer(), Map.class);
+        if (answerData == null) {
+            throw new RuntimeException("无法解析提交的代码信息");
+        }
+
+        List<String> filePaths = (List<String>) answerData.get("paths");
+        if (filePaths == null || filePaths.isEmpty()) {
+            throw new RuntimeException("未找到提交的代码文件");
+        }
+        return filePaths;
+    }
+
+    /**
+     * 计算提交文件在评测沙箱中的相对路径
+     *
+     * @param path MinIO中的文件路径
+     * @return 沙箱内相对路径
+     */
+    public static String relativePath(String path) {
+        // 典型路径格式: userId/experimentId/taskId/timestamp/根目录/{文件名}，前四段之后即提交时的文件名
+        String[] pathParts = path.split("/", 5);
+        return SubmissionArchive.sandboxPath(pathParts[pathParts.length - 1]);
+    }
+
+    /**
+     * 未配置测试用例时，执行一次 compile.sh && run.sh，以标准错误是否为空判定结果
+     */
+    private void evaluateSingleRun(JudgeNode node, Map<String, String> files,
+                                   JudgeFileCache.TaskScaffold scaffold, JudgeConfig judgeConfig,
+                                   ExperimentEvaluation evaluation) throws Exception {
+        log.info("准备使用compile.sh和run.sh脚本执行评测");
+
+        // 资源限制优先使用任务配置，未配置时使用全局配置
+        EvaluationProperties.Judge limits = evaluationProperties.getJudge();
+        long cpuLimit = judgeConfig != null && judgeConfig.getTimeLimit() != null
+                ? judgeConfig.getTimeLimit() * 1_000_000L
+                : limits.getSingleRunTimeLimit().toNanos();
+        long memoryLimit = judgeConfig != null && judgeConfig.getMemoryLimit() != null
+                ? judgeConfig.getMemoryLimit() * 1024L * 1024L
+                : limits.getSingleRunMemoryLimit().toBytes();
+
+        GoJudgeResult result = runFirst(node, files, scaffold, copyIn -> GoJudgeCmd.builder()
+                .args(Arrays.asList("/bin/sh", "-c", "./" + COMPILE_SCRIPT + " && ./" + RUN_SCRIPT))
+                .env(ENV)
+                // 设置文件流
+                .files(Arrays.asList(
+                        GoJudgeFile.content(""),
+                        GoJudgeFile.collector("stdout", limits.getOutputLimit().toBytes()),
+                        GoJudgeFile.collector("stderr", limits.getOutputLimit().toBytes())))
+                // 设置资源限制
+                .cpuLimit(cpuLimit)
+                .clockLimit(cpuLimit * limits.getClockLimitMultiplier())
+                .memoryLimit(memoryLimit)
+                .procLimit(limits.getProcLimit())
+                .copyIn(copyIn)
+                .copyOut(Arrays.asList("stdout", "stderr"))
+                .build());
+
+        // 解析评测结果
+        String stdout = result.fileContent("stdout");
+        String stderr = result.fileContent("stderr");
+        log.info("评测完成，状态: {}，stdout长度: {}，stderr长度: {}", result.getStatus(), stdout.length(), stderr.length());
+
+        // 填充评测结果，如有错误，得分为0
+        evaluation.setScore(stderr.isEmpty() ? JudgeConfig.totalScoreOf(judgeConfig) : BigDecimal.ZERO);
+        evaluation.setAdditionalInfo(stdout);
+        evaluation.setErrorMessage(stderr);
+        evaluation.setStdout(stdout);
+        evaluation.setStderr(stderr);
+        evaluation.setExecutionTime(result.getTime());
+        evaluation.setMemoryUsage(result.getMemory());
+        evaluation.setStatus(stderr.isEmpty()
+                ? ExperimentEvaluation.EvaluationStatus.COMPLETED
+                : ExperimentEvaluation.EvaluationStatus.FAILED);
+    }
+
+    /**
+     * 按测试用例评测：compile.sh 只执行一次，编译产物通过 copyOutCached 保留在评测服务中，
+     * 随后所有测试用例作为同一请求中的多条命令并行运行，各自使用独立的资源限制并单独计分；
+     * 运行阶段的沙箱同样包含提交的源文件，未配置编译产物的任务（如解释型语言）也能按用例评测
+     */
+    private void evaluateTestCases(JudgeNode node, Map<String, String> files,
+                                   JudgeFileCache.TaskScaffold scaffold,
+                                   JudgeConfig judgeConfig, ExperimentEvaluation evaluation) throws Exception {
+        EvaluationProperties.Judge limits = evaluationProperties.getJudge();
+        List<JudgeConfig.TestCase> testCases = judgeConfig.getTestCases();
+        List<String> artifacts = judgeConfig.getArtifacts() != null ? judgeConfig.getArtifacts() : List.of();
+        log.info("开始按测试用例评测，用例数: {}，编译产物: {}", testCases.size(), artifacts);
+
+        // 1. 编译一次，缓存编译产物
+        long compileTimeLimit = limits.getCompileTimeLimit().toNanos();
+        GoJudgeResult compileResult = runFirst(node, files, scaffold, copyIn -> GoJudgeCmd.builder()
+                .args(Arrays.asList("/bin/sh", "-c", "./" + COMPILE_SCRIPT))
+                .env(ENV)
+                .files(Arrays.asList(
+                        GoJudgeFile.content(""),
+                        GoJudgeFile.collector("stdout", limits.getOutputLimit().toBytes()),
+                        GoJudgeFile.collector("stderr", limits.getOutputLimit().toBytes())))
+                .cpuLimit(compileTimeLimit)
+                .clockLimit(compileTimeLimit * limits.getClockLimitMultiplier())
+                .memoryLimit(limits.getCompileMemoryLimit().toBytes())
+                .procLimit(limits.getProcLimit())
+                .copyIn(copyIn)
+                .copyOut(Arrays.asList("stdout", "stderr"))
+                .copyOutCached(artifacts)
+                .build());
+
+        Map<String, String> artifactIds = compileResult.getFileIds() != null
+                ? compileResult.getFileIds() : Map.of();
+        String compileOutput = compileResult.fileContent("stderr");
+        evaluation.setStdout(compileResult.fileContent("stdout"));
+        try {
+            List<String> missing = artifacts.stream().filter(name -> !artifactIds.containsKey(name)).toList();
+            if (!compileResult.isAccepted() || !missing.isEmpty()) {
+                String message = !compileResult.isAccepted()
+                        ? compileFailureMessage(compileResult)
+                        : "未找到编译产物: " + String.join(", ", missing);
+                log.info("编译失败: {}", message);
+                evaluation.setCompiled(false);
+                evaluation.setCompileMessage(message);
+                evaluation.setScore(BigDecimal.ZERO);
+                evaluation.setErrorMessage(message);
+                evaluation.setStderr(compileOutput);
+                evaluation.setAdditionalInfo("编译失败");
+                evaluation.setStatus(ExperimentEvaluation.EvaluationStatus.FAILED);
+                return;
+            }
+            evaluation.setCompiled(true);
+            evaluation.setCompileMessage(compileOutput);
+
+            // 2. 运行测试用例：与编译阶段相同的沙箱文件（任务文件、提交的源文件和 run.sh）加上编译产物复制到每个用例的沙箱中，
+            // 解释型语言没有编译产物时直接运行提交的源文件
+            requireRunScript(files);
+            Map<String, GoJudgeFile> artifactCopyIn = new HashMap<>();
+            artifactIds.forEach((name, fileId) -> artifactCopyIn.put(name, GoJudgeFile.cached(fileId)));
+
+            List<TestCaseResult> caseResults = runTestCases(node, judgeConfig, scaffold, files, artifactCopyIn);
+            fillCaseResults(evaluation, caseResults, JudgeConfig.totalScoreOf(judgeConfig));
+        } finally {
+            deleteArtifacts(node, artifactIds.values());
+        }
+    }
+
+    /**
+     * 运行测试用例；开启失败即停止时按批运行，出现失败后剩余用例标记为跳过
+     */
+    private List<TestCaseResult> runTestCases(JudgeNode node, JudgeConfig judgeConfig,
+                                              JudgeFileCache.TaskScaffold scaffold, Map<String, String> runFiles,
+                                              Map<String, GoJudgeFile> artifactCopyIn) throws Exception {
+        List<JudgeConfig.TestCase> testCases = judgeConfig.getTestCases();
+        boolean stopOnFirstFailure = judgeConfig.isStopOnFirstFailure();
+        List<BigDecimal> maxScores = allocateScores(testCases, JudgeConfig.totalScoreOf(judgeConfig));
+        int batchSize = stopOnFirstFailure
+                ? Math.max(1, evaluationProperties.getJudge().getEarlyTerminationBatchSize())
+                : testCases.size();
+
+        List<TestCaseResult> caseResults = new ArrayList<>(testCases.size());
+        boolean failed = false;
+        for (int from = 0; from < testCases.size(); from += batchSize) {
+            int to = Math.min(testCases.size(), from + batchSize);
+            if (failed) {
+                for (int i = from; i < to; i++) {
+                    caseResults.add(skipped(testCases.get(i), i, maxScores.get(i)));
+                }
+                continue;
+            }
+
+            int batchFrom = from;
+            int batchTo = to;
+            List<GoJudgeResult> results = runWithCachedFiles(node, cachedHashes -> {
+                Map<String, GoJudgeFile> copyIn = buildCopyIn(node, runFiles, scaffold, cachedHashes);
+                copyIn.putAll(artifactCopyIn);
+                List<GoJudgeCmd> cmds = new ArrayList<>(batchTo - batchFrom);
+                for (int i = batchFrom; i < batchTo; i++) {
+                    cmds.add(buildRunCmd(judgeConfig, testCases.get(i), copyIn));
+                }
+                return GoJudgeRequest.builder().cmd(cmds).build();
+            });
+            if (results == null || results.size() != to - from) {
+                throw new RuntimeException("评测服务返回的结果数量与测试用例数量不一致");
+            }
+
+            for (int i = from; i < to; i++) {
+                TestCaseResult caseResult = judgeCase(testCases.get(i), i, results.get(i - from), maxScores.get(i));
+                caseResults.add(caseResult);
+                failed |= !caseResult.getPassed();
+            }
+            failed &= stopOnFirstFailure;
+        }
+        return caseResults;
+    }
+
+    private GoJudgeCmd buildRunCmd(JudgeConfig judgeConfig, JudgeConfig.TestCase testCase,
+                                   Map<String, GoJudgeFile> runCopyIn) {
+        EvaluationProperties.Judge limits = evaluationProperties.getJudge();
+        Long timeLimit = testCase.getTimeLimit() != null ? testCase.getTimeLimit() : judgeConfig.getTimeLimit();
+        Long memoryLimitMb = testCase.getMemoryLimit() != null ? testCase.getMemoryLimit() : judgeConfig.getMemoryLimit();
+        long cpuLimit = timeLimit != null
+                ? timeLimit * 1_000_000L
+                : limits.getDefaultTimeLimit().toNanos();
+        long memoryLimit = memoryLimitMb != null
+                ? memoryLimitMb * 1024L * 1024L
+                : limits.getDefaultMemoryLimit().toBytes();
+
+        return GoJudgeCmd.builder()
+                .args(Arrays.asList("/bin/sh", "-c", "./" + RUN_SCRIPT))
+                .env(ENV)
+                .files(Arrays.asList(
+                        GoJudgeFile.content(testCase.getInput() != null ? testCase.getInput() : ""),
+                        GoJudgeFile.collector("stdout", limits.getOutputLimit().toBytes()),
+                        GoJudgeFile.collector("stderr", limits.getOutputLimit().toBytes())))
+                .cpuLimit(cpuLimit)
+                .clockLimit(cpuLimit * limits.getClockLimitMultiplier())
+                .memoryLimit(memoryLimit)
+                .procLimit(limits.getProcLimit())
+                .copyIn(runCopyIn)
+                .build();
+    }
+
+    /**
+     * 判定单个测试用例：运行正常结束且输出与期望一致即通过
+     */
+    private TestCaseResult judgeCase(JudgeConfig.TestCase testCase, int index, GoJudgeResult result,
+                                     BigDecimal maxScore) {
+        String status;
+        String message = null;
+        if (!result.isAccepted()) {
+            status = result.getStatus();
+            message = result.getError() != null ? result.getError() : result.fileContent("stderr");
+        } else if (!normalizeOutput(result.fileContent("stdout")).equals(normalizeOutput(testCase.getExpectedOutput()))) {
+            status = TestCaseResult.STATUS_WRONG_ANSWER;
+            message = "输出与期望结果不一致";
+        } else {
+            status = GoJudgeResult.STATUS_ACCEPTED;
+        }
+        boolean passed = GoJudgeResult.STATUS_ACCEPTED.equals(status);
+
+        return TestCaseResult.builder()
+                .name(caseName(testCase, index))
+                .status(status)
+                .passed(passed)
+                .score(passed ? maxScore : BigDecimal.ZERO)
+                .maxScore(maxScore)
+                .time(result.getTime())
+                .memory(result.getMemory())
+                .message(message)
+                .build();
+    }
+
+    private TestCaseResult skipped(JudgeConfig.TestCase testCase, int index, BigDecimal maxScore) {
+        return TestCaseResult.builder()
+                .name(caseName(testCase, index))
+                .status(TestCaseResult.STATUS_SKIPPED)
+                .passed(false)
+                .score(BigDecimal.ZERO)
+                .maxScore(maxScore)
+                .message("前序测试用例未通过，已跳过")
+                .build();
+    }
+
+    /**
+     * 汇总测试用例结果并写入评测实体
+     */
+    private void fillCaseResults(ExperimentEvaluation evaluation, List<TestCaseResult> caseResults,
+                                 BigDecimal totalScore) {
+        BigDecimal score = BigDecimal.ZERO;
+        long passedCount = 0;
+        long maxTime = 0;
+        long maxMemory = 0;
+        TestCaseResult firstFailure = null;
+        for (TestCaseResult caseResult : caseResults) {
+            score = score.add(caseResult.getScore());
+            if (caseResult.getPassed()) {
+                passedCount++;
+            } else if (firstFailure == null) {
+                firstFailure = caseResult;
+            }
+            maxTime = Math.max(maxTime, caseResult.getTime() != null ? caseResult.getTime() : 0);
+            maxMemory = Math.max(maxMemory, caseResult.getMemory() != null ? caseResult.getMemory() : 0);
+        }
+
+        String failureMessage = firstFailure != null
+                ? firstFailure.getName() + ": " + firstFailure.getStatus()
+                + (firstFailure.getMessage() != null ? "，" + firstFailure.getMessage() : "")
+                : "";
+        log.info("测试用例评测完成，通过 {}/{}，得分: {}", passedCount, caseResults.size(), score);
+
+        evaluation.setScore(score.min(totalScore));
+        evaluation.setCaseResults(JsonUtils.toJsonString(caseResults));
+        evaluation.setAdditionalInfo(String.format("通过 %d/%d 个测试用例", passedCount, caseResults.size()));
+        evaluation.setErrorMessage(failureMessage);
+        evaluation.setStderr(failureMessage);
+        evaluation.setExecutionTime(maxTime);
+        evaluation.setMemoryUsage(maxMemory);
+        evaluation.setStatus(firstFailure == null
+                ? ExperimentEvaluation.EvaluationStatus.COMPLETED
+                : ExperimentEvaluation.EvaluationStatus.FAILED);
+    }
+
+    /**
+     * 计算各测试用例满分：显式设置的分值保持不变，其余用例平分任务满分中的剩余分数
+     */
+    static List<BigDecimal> allocateScores(List<JudgeConfig.TestCase> testCases, BigDecimal totalScore) {
+        BigDecimal explicitTotal = BigDecimal.ZERO;
+        int unsetCount = 0;
+        for (JudgeConfig.TestCase testCase : testCases) {
+            if (testCase.getScore() != null) {
+                explicitTotal = explicitTotal.add(testCase.getScore());
+            } else {
+                unsetCount++;
+            }
+        }
+        BigDecimal share = unsetCount > 0
+                ? totalScore.subtract(explicitTotal).max(BigDecimal.ZERO)
+                .divide(BigDecimal.valueOf(unsetCount), 2, RoundingMode.DOWN)
+                : BigDecimal.ZERO;
+
+        List<BigDecimal> scores = new ArrayList<>(testCases.size());
+        for (JudgeConfig.TestCase testCase : testCases) {
+            scores.add(testCase.getScore() != null ? testCase.getScore() : share);
+        }
+        return scores;
+    }
+
+    /**
+     * 规范化输出：统一换行符，忽略行尾空白和末尾空行
+     */
+    static String normalizeOutput(String output) {
+        if (output == null) {
+            return "";
+        }
+        String[] lines = output.replace("\r\n", "\n").split("\n");
+        StringBuilder normalized = new StringBuilder();
+        for (String line : lines) {
+            normalized.append(line.stripTrailing()).append('\n');
+        }
+        return normalized.toString().stripTrailing();
+    }
+
+    private String compileFailureMessage(GoJudgeResult compileResult) {
+        String stderr = compileResult.fileContent("stderr");
+        if (!stderr.isEmpty()) {
+            return stderr;
+        }
+        return compileResult.getError() != null ? compileResult.getError() : compileResult.getStatus();
+    }
+
+    private void requireRunScript(Map<String, String> files) {
+        if (!files.containsKey(RUN_SCRIPT)) {
+            throw new RuntimeException("未找到" + RUN_SCRIPT + "脚本");
+        }
+    }
+
+    private String caseName(JudgeConfig.TestCase testCase, int index) {
+        return testCase.getName() != null ? testCase.getName() : "测试用例" + (index + 1);
+    }
+
+    /**
+     * 删除评测服务中缓存的编译产物，失败时仅记录日志，由 go-judge 自行过期清理
+     */
+    private void deleteArtifacts(JudgeNode node, Collection<String> fileIds) {
+        for (String fileId : fileIds) {
+            try {
+                goJudgeClient.deleteFile(node, fileId);
+            } catch (Exception e) {
+                log.warn("删除评测服务缓存文件 {} 失败: {}", fileId, e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * 执行单条命令并返回结果
+     *
+     * @param node           评测节点
+     * @param files          沙箱中的文件（相对路径 -> 内容）
+     * @param scaffold       任务脚手架
+     * @param commandFactory 根据copyIn构建命令
+     * @return 命令执行结果
+     * @throws Exception 如果评测服务调用失败
+     */
+    private GoJudgeResult runFirst(JudgeNode node, Map<String, String> files,
+                                   JudgeFileCache.TaskScaffold scaffold,
+                                   Function<Map<String, GoJudgeFile>, GoJudgeCmd> commandFactory) throws Exception {
+        List<GoJudgeResult> results = runWithCachedFiles(node, cachedHashes -> GoJudgeRequest.builder()
+                .cmd(List.of(commandFactory.apply(buildCopyIn(node, files, scaffold, cachedHashes))))
+                .build());
+        if (results == null || results.isEmpty()) {
+            throw new RuntimeException("评测服务未返回结果");
+        }
+        return results.get(0);
+    }
+
+    /**
+     * 执行评测请求；评测服务的缓存文件已被清理时，重新上传后再执行一次
+     *
+     * @param node           评测节点
+     * @param requestFactory 根据输出参数 cachedHashes 构建请求，记录通过fileId引用的文件内容哈希
+     * @return 各命令的执行结果
+     * @throws Exception 如果评测服务调用失败
+     */
+    private List<GoJudgeResult> runWithCachedFiles(JudgeNode node, RequestFactory requestFactory) throws Exception {
+        Set<String> cachedHashes = new HashSet<>();
+        List<GoJudgeResult> results = goJudgeClient.run(node, requestFactory.build(cachedHashes));
+
+        if (!cachedHashes.isEmpty() && results != null
+                && results.stream().anyMatch(GoJudgeResult::isFileError)) {
+            log.warn("评测服务缓存文件已失效，重新上传 {} 个任务文件", cachedHashes.size());
+            judgeFileCache.evict(node, cachedHashes);
+            cachedHashes.clear();
+            results = goJudgeClient.run(node, requestFactory.build(cachedHashes));
+        }
+        return results;
+    }
+
+    /**
+     * 根据引用的缓存文件构建评测请求
+     */
+    @FunctionalInterface
+    private interface RequestFactory {
+        GoJudgeRequest build(Set<String> cachedHashes) throws Exception;
+    }
+
+    /**
+     * 构建 go-judge 的 copyIn
+     *
+     * @param node         评测节点，缓存文件按节点上传
+     * @param files        沙箱中的文件（相对路径 -> 内容）
+     * @param scaffold     任务脚手架
+     * @param cachedHashes 输出参数，记录通过fileId引用的文件内容哈希
+     * @return copyIn映射
+     * @throws Exception 如果上传缓存文件失败
+     */
+    private Map<String, GoJudgeFile> buildCopyIn(JudgeNode node, Map<String, String> files,
+                                                 JudgeFileCache.TaskScaffold scaffold,
+                                                 Set<String> cachedHashes) throws Exception {
+        Map<String, GoJudgeFile> copyIn = new HashMap<>();
+        Map<String, Set<String>> directories = new HashMap<>();
+        for (Map.Entry<String, String> file : files.entrySet()) {
+            String filePath = file.getKey();
+
+            // 如果文件在子目录中，需要确保目录已经创建
+            if (filePath.contains("/")) {
+                String dirPath = filePath.substring(0, filePath.lastIndexOf('/'));
+                createDirectoryStructure(copyIn, dirPath, directories);
+            }
+
+            // 添加文件，与任务文件内容相同的文件引用缓存
+            copyIn.put(filePath, toCopyInFile(node, file.getValue(), scaffold, cachedHashes));
+        }
+        return copyIn;
+    }
+
+    private GoJudgeFile toCopyInFile(JudgeNode node, String content, JudgeFileCache.TaskScaffold scaffold,
+                                     Set<String> cachedHashes) throws Exception {
+        String contentHash = JudgeFileCache.sha256(content);
+        if (scaffold.contains(contentHash)) {
+            String fileId = judgeFileCache.resolveFileId(node, scaffold, contentHash);
+            if (fileId != null) {
+                cachedHashes.add(contentHash);
+                return GoJudgeFile.cached(fileId);
+            }
+        }
+        return GoJudgeFile.content(content);
+    }
+
+    /**
+     * 加载任务文件；评测脚本和测试数据以任务中的版本为准，加载失败时本次评测失败
+     */
+    private JudgeFileCache.TaskScaffold loadScaffold(ExperimentTask task) {
+        try {
+            return judgeFileCache.getScaffold(task.getExperimentId(), task.getId());
+        } catch (Exception e) {
+            throw new RuntimeException("加载任务 " + task.getId() + " 的评测文件失败: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * 为代码评测创建目录结构
+     *
+     * @param copyIn      评测服务的copyIn映射
+     * @param dirPath     需要创建的目录路径
+     * @param directories 已创建目录的缓存
+     */
+    private void createDirectoryStructure(Map<String, GoJudgeFile> copyIn, String dirPath,
+                                          Map<String, Set<String>> directories) {
+        // 如果目录已经创建过，直接返回
+        if (directories.containsKey(dirPath)) {
+            return;
+        }
+
+        // 分解路径，确保上级目录先被创建
+        String[] parts = dirPath.split("/");
+        StringBuilder currentPath = new StringBuilder();
+
+        // 逐级创建目录
+        for (int i = 0; i < parts.length; i++) {
+            if (i > 0) {
+                currentPath.append("/");
+            }
+            currentPath.append(parts[i]);
+
+            String path = currentPath.toString();
+
+            // 记录创建的目录
+            if (!directories.containsKey(path)) {
+                Set<String> subdirs = new HashSet<>();
+                directories.put(path, subdirs);
+
+                // 将当前目录添加到其父目录的子目录集合中
+                if (i > 0) {
+                    String parentPath = path.substring(0, path.lastIndexOf('/'));
+                    if (directories.containsKey(parentPath)) {
+                        directories.get(parentPath).add(parts[i]);
+                    }
+                }
+
+                // 在copyIn中创建目录项
+                // 在GoJudge中，目录作为特殊的文件处理，内容为空但路径以/结尾
+                copyIn.put(path + "/", GoJudgeFile.content(""));
+            }
+        }
+    }
+}
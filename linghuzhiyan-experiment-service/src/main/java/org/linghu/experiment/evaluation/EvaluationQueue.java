@@ -0,0 +1,467 @@
+package org.linghu.experiment.evaluation;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.linghu.experiment.config.EvaluationProperties;
+import org.linghu.experiment.domain.ExperimentEvaluation;
+import org.linghu.experiment.domain.ExperimentEvaluation.EvaluationStatus;
+import org.linghu.experiment.domain.ExperimentSubmission;
+import org.linghu.experiment.domain.ExperimentTask;
+import org.linghu.experiment.repository.ExperimentEvaluationRepository;
+import org.linghu.experiment.repository.ExperimentSubmissionRepository;
+import org.linghu.experiment.repository.ExperimentTaskRepository;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/**
+ * 代码评测队列
+ * <p>
+ * 评测任务以 PENDING 状态持久化到 experiment_evaluation 表中，由有界的工作线程池按优先级异步执行，
+ * 执行前通过条件更新领取任务并持有租约，服务重启后会从数据库中恢复 PENDING 和租约已过期的任务。
+ * 客户端通过轮询或订阅获取评测结果。
+ */
+@Slf4j
+@Component
+public class EvaluationQueue {
+
+    private static final Set<EvaluationStatus> TERMINAL_STATUSES = EnumSet.of(
+            EvaluationStatus.COMPLETED, EvaluationStatus.FAILED, EvaluationStatus.TIMEOUT, EvaluationStatus.ERROR);
+
+    private final ExperimentEvaluationRepository evaluationRepository;
+    private final ExperimentTaskRepository taskRepository;
+    private final ExperimentSubmissionRepository submissionRepository;
+    private final CodeEvaluator codeEvaluator;
+    private final StudentProgressTracker progressTracker;
+    private final EvaluationProperties.Queue queueProperties;
+    private final EvaluationProperties.Regrade regradeProperties;
+    private final MeterRegistry meterRegistry;
+    // 当前实例的标识，领取评测任务时写入租约
+    private final String instanceId = UUID.randomUUID().toString();
+
+    // 评测ID -> 等待结果的订阅者
+    private final Map<String, List<Consumer<ExperimentEvaluation>>> listeners = new ConcurrentHashMap<>();
+    private final AtomicLong sequence = new AtomicLong();
+    // 后台评测（批量重评）的结果先缓冲，再批量写入数据库
+    private final Queue<ExperimentEvaluation> bufferedResults = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger bufferedResultCount = new AtomicInteger();
+
+    private ThreadPoolExecutor executor;
+    private ScheduledExecutorService resultFlusher;
+    private Timer waitTimer;
+    private Timer runTimer;
+
+    public EvaluationQueue(ExperimentEvaluationRepository evaluationRepository,
+                           ExperimentTaskRepository taskRepository,
+                           ExperimentSubmissionRepository submissionRepository,
+                           CodeEvaluator codeEvaluator,
+                           StudentProgressTracker progressTracker,
+                           EvaluationProperties evaluationProperties,
+                           MeterRegistry meterRegistry) {
+        this.evaluationRepository = evaluationRepository;
+        this.taskRepository = taskRepository;
+        this.submissionRepository = submissionRepository;
+        this.codeEvaluator = codeEvaluator;
+        this.progressTracker = progressTracker;
+        this.queueProperties = evaluationProperties.getQueue();
+        this.regradeProperties = evaluationProperties.getRegrade();
+        this.meterRegistry = meterRegistry;
+    }
+
+    @PostConstruct
+    public void start() {
+        int workers = Math.max(1, queueProperties.getWorkers());
+        AtomicInteger threadIndex = new AtomicInteger();
+        // 核心线程数与最大线程数一致，任务按优先级在PriorityBlockingQueue中排队
+        executor = new ThreadPoolExecutor(workers, workers, 0L, TimeUnit.MILLISECONDS,
+                new PriorityBlockingQueue<>(),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "evaluation-worker-" + threadIndex.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+
+        Gauge.builder("evaluation.queue.depth", executor, e -> e.getQueue().size())
+                .description("等待执行的评测任务数")
+                .register(meterRegistry);
+        Gauge.builder("evaluation.queue.active", executor, ThreadPoolExecutor::getActiveCount)
+                .description("正在执行的评测任务数")
+                .register(meterRegistry);
+        waitTimer = Timer.builder("evaluation.queue.wait")
+                .description("评测任务排队等待时间")
+                .register(meterRegistry);
+        runTimer = Timer.builder("evaluation.queue.run")
+                .description("评测任务执行时间")
+                .register(meterRegistry);
+
+        long flushMillis = Math.max(100, regradeProperties.getResultFlushInterval().toMillis());
+        resultFlusher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "evaluation-result-flusher");
+            thread.setDaemon(true);
+            return thread;
+        });
+        resultFlusher.scheduleWithFixedDelay(this::flushResultsQuietly, flushMillis, flushMillis, TimeUnit.MILLISECONDS);
+
+        log.info("评测队列已启动，工作线程数: {}，队列容量: {}", workers, queueProperties.getCapacity());
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (executor != null) {
+            // 未执行的任务仍以PENDING状态保存在数据库中，重启后会被恢复；执行中的任务在租约过期后恢复
+            executor.shutdownNow();
+        }
+        if (resultFlusher != null) {
+            resultFlusher.shutdownNow();
+            flushResultsQuietly();
+        }
+    }
+
+    /**
+     * 服务启动后恢复数据库中未完成的评测任务
+     * 其他实例仍在租约内执行的任务不会被恢复，多个实例恢复同一任务时由领取时的条件更新保证只执行一次
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void recoverPendingEvaluations() {
+        List<ExperimentEvaluation> unfinished = evaluationRepository.findRecoverable(
+                EvaluationStatus.PENDING, EvaluationStatus.RUNNING, LocalDateTime.now());
+        for (ExperimentEvaluation evaluation : unfinished) {
+            dispatch(evaluation.getId(), evaluation.getPriority() != null
+                    ? evaluation.getPriority() : queueProperties.getDefaultPriority(),
+                    Boolean.TRUE.equals(evaluation.getBackground()));
+        }
+        if (!unfinished.isEmpty()) {
+            log.info("已恢复 {} 个未完成的评测任务", unfinished.size());
+        }
+    }
+
+    /**
+     * 将提交加入评测队列
+     * 如果当前存在事务，任务会在事务提交后才交给工作线程执行
+     *
+     * @param task       实验任务
+     * @param submission 学生提交
+     * @return 处于PENDING状态的评测记录
+     */
+    public ExperimentEvaluation enqueue(ExperimentTask task, ExperimentSubmission submission) {
+        return enqueue(task, submission, null);
+    }
+
+    /**
+     * 将提交加入评测队列，并记录内容哈希供后续相同提交复用评测结果
+     *
+     * @param task        实验任务
+     * @param submission  学生提交
+     * @param contentHash 内容哈希，可为null
+     * @return 处于PENDING状态的评测记录
+     */
+    public ExperimentEvaluation enqueue(ExperimentTask task, ExperimentSubmission submission, String contentHash) {
+        if (getDepth() >= queueProperties.getCapacity()) {
+            throw new RuntimeException("评测队列已满，请稍后重试");
+        }
+
+        int priority = queueProperties.priorityOf(task.getExperimentId());
+        ExperimentEvaluation evaluation = ExperimentEvaluation.builder()
+                .id(UUID.randomUUID().toString())
+                .submissionId(submission.getId())
+                .userId(submission.getUserId())
+                .taskId(task.getId())
+                .status(EvaluationStatus.PENDING)
+                .priority(priority)
+                .contentHash(contentHash)
+                .background(false)
+                .queuedTime(LocalDateTime.now())
+                .build();
+        ExperimentEvaluation saved = evaluationRepository.save(evaluation);
+        progressTracker.recordEvaluation(saved);
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    dispatch(saved.getId(), priority, false);
+                }
+            });
+        } else {
+            dispatch(saved.getId(), priority, false);
+        }
+
+        log.info("评测任务 {} 已入队，优先级: {}，当前队列深度: {}", saved.getId(), priority, getDepth());
+        return saved;
+    }
+
+    /**
+     * 以后台优先级批量加入评测队列（用于批量重评）
+     * 评测记录批量插入，评测结果缓冲后批量写回；交互式评测总是优先于后台评测执行
+     *
+     * @param task        实验任务
+     * @param submissions 学生提交
+     * @param onFinished  每个评测结束（结果已写入数据库）后的回调
+     * @return 处于PENDING状态的评测记录
+     */
+    public List<ExperimentEvaluation> enqueueBackground(ExperimentTask task, List<ExperimentSubmission> submissions,
+                                                        Consumer<ExperimentEvaluation> onFinished) {
+        int priority = regradeProperties.getPriority();
+        LocalDateTime now = LocalDateTime.now();
+        List<ExperimentEvaluation> evaluations = new ArrayList<>(submissions.size());
+        for (ExperimentSubmission submission : submissions) {
+            evaluations.add(ExperimentEvaluation.builder()
+                    .id(UUID.randomUUID().toString())
+                    .submissionId(submission.getId())
+                    .userId(submission.getUserId())
+                    .taskId(task.getId())
+                    .status(EvaluationStatus.PENDING)
+                    .priority(priority)
+                    .background(true)
+                    .queuedTime(now)
+                    .build());
+        }
+        List<ExperimentEvaluation> saved = evaluationRepository.saveAll(evaluations);
+        progressTracker.recordEvaluations(saved);
+
+        for (ExperimentEvaluation evaluation : saved) {
+            addListener(evaluation.getId(), onFinished);
+            dispatch(evaluation.getId(), priority, true);
+        }
+        return saved;
+    }
+
+    /**
+     * 订阅评测结果，评测结束时回调；如果评测已经结束则立即回调
+     *
+     * @param evaluationId 评测ID
+     * @param listener     结果回调
+     */
+    public void subscribe(String evaluationId, Consumer<ExperimentEvaluation> listener) {
+        addListener(evaluationId, listener);
+
+        // 注册后再检查一次状态，避免评测在注册前已完成而错过通知
+        evaluationRepository.findById(evaluationId)
+                .filter(this::isFinished)
+                .ifPresent(this::notifyListeners);
+    }
+
+    /**
+     * 取消订阅评测结果（如客户端断开连接），避免订阅者在评测结束前一直保留
+     *
+     * @param evaluationId 评测ID
+     * @param listener     订阅时传入的结果回调
+     */
+    public void unsubscribe(String evaluationId, Consumer<ExperimentEvaluation> listener) {
+        listeners.computeIfPresent(evaluationId, (id, subscribers) -> {
+            subscribers.remove(listener);
+            return subscribers.isEmpty() ? null : subscribers;
+        });
+    }
+
+    /**
+     * 判断评测是否已经结束
+     *
+     * @param evaluation 评测记录
+     * @return 是否已结束
+     */
+    public boolean isFinished(ExperimentEvaluation evaluation) {
+        return evaluation.getStatus() != null && TERMINAL_STATUSES.contains(evaluation.getStatus());
+    }
+
+    /**
+     * 获取当前排队中的任务数
+     *
+     * @return 队列深度
+     */
+    public int getDepth() {
+        return executor.getQueue().size();
+    }
+
+    private void dispatch(String evaluationId, int priority, boolean background) {
+        try {
+            executor.execute(new EvaluationJob(evaluationId, priority, background,
+                    sequence.incrementAndGet(), System.nanoTime()));
+        } catch (RejectedExecutionException e) {
+            log.warn("评测队列已关闭，评测任务 {} 将在服务重启后恢复", evaluationId);
+        }
+    }
+
+    /**
+     * 执行一个评测任务
+     *
+     * @return 需要通知订阅者的评测结果；后台评测的结果缓冲后批量写入并通知，返回null
+     */
+    private ExperimentEvaluation process(String evaluationId, boolean background) {
+        LocalDateTime now = LocalDateTime.now();
+        int claimed = evaluationRepository.claim(evaluationId, EvaluationStatus.PENDING, EvaluationStatus.RUNNING,
+                instanceId, now, now.plus(queueProperties.getLeaseDuration()));
+        ExperimentEvaluation evaluation = evaluationRepository.findById(evaluationId)
+                .orElseThrow(() -> new RuntimeException("评测记录不存在"));
+        if (claimed == 0) {
+            if (isFinished(evaluation)) {
+                return evaluation;
+            }
+            // 已被其他实例领取，由该实例写入结果；后台评测照常回调，避免一直占用重评并发额度
+            log.info("评测任务 {} 已被实例 {} 领取，跳过", evaluationId, evaluation.getLeaseOwner());
+            return background ? evaluation : null;
+        }
+        if (!background) {
+            progressTracker.recordEvaluation(evaluation);
+        }
+
+        try {
+            ExperimentTask task = taskRepository.findById(evaluation.getTaskId())
+                    .orElseThrow(() -> new RuntimeException("实验任务不存在"));
+            ExperimentSubmission submission = submissionRepository.findById(evaluation.getSubmissionId())
+                    .orElseThrow(() -> new RuntimeException("未找到该任务的提交记录"));
+            codeEvaluator.evaluate(task, submission, evaluation);
+        } catch (Exception e) {
+            log.error("代码评测失败: " + e.getMessage(), e);
+            evaluation.setStatus(EvaluationStatus.ERROR);
+            evaluation.setScore(BigDecimal.ZERO);
+            evaluation.setErrorMessage("代码评测失败: " + e.getMessage());
+        }
+
+        evaluation.setFinishedTime(LocalDateTime.now());
+        if (background) {
+            bufferResult(evaluation);
+            return null;
+        }
+        ExperimentEvaluation saved = evaluationRepository.save(evaluation);
+        try {
+            progressTracker.recordEvaluation(saved);
+        } catch (Exception e) {
+            // 评测结果已经写入，进度更新失败仍然通知订阅者
+            log.error("更新评测 {} 的学生任务进度失败: {}", saved.getId(), e.getMessage(), e);
+        }
+        return saved;
+    }
+
+    /**
+     * 缓冲后台评测结果，达到批量大小时立即写入
+     */
+    private void bufferResult(ExperimentEvaluation evaluation) {
+        bufferedResults.add(evaluation);
+        if (bufferedResultCount.incrementAndGet() >= Math.max(1, regradeProperties.getResultBatchSize())) {
+            flushResults();
+        }
+    }
+
+    /**
+     * 将缓冲的后台评测结果批量写入数据库并通知订阅者
+     */
+    synchronized void flushResults() {
+        List<ExperimentEvaluation> batch = new ArrayList<>();
+        ExperimentEvaluation evaluation;
+        while ((evaluation = bufferedResults.poll()) != null) {
+            batch.add(evaluation);
+        }
+        if (batch.isEmpty()) {
+            return;
+        }
+        bufferedResultCount.addAndGet(-batch.size());
+
+        List<ExperimentEvaluation> saved = batch;
+        try {
+            saved = evaluationRepository.saveAll(batch);
+            progressTracker.recordEvaluations(saved);
+            log.debug("批量写入 {} 条后台评测结果", saved.size());
+        } catch (Exception e) {
+            // 未写入的记录仍为RUNNING状态，租约过期后服务重启时会重新评测
+            log.error("批量写入 {} 条后台评测结果失败: {}", batch.size(), e.getMessage(), e);
+        }
+        saved.forEach(this::notifyListeners);
+    }
+
+    private void flushResultsQuietly() {
+        try {
+            flushResults();
+        } catch (Exception e) {
+            log.error("写入后台评测结果失败: {}", e.getMessage(), e);
+        }
+    }
+
+    private void addListener(String evaluationId, Consumer<ExperimentEvaluation> listener) {
+        // 在 compute 中添加，避免与取消订阅并发时加入已被移除的订阅列表
+        listeners.compute(evaluationId, (id, subscribers) -> {
+            List<Consumer<ExperimentEvaluation>> result = subscribers != null ? subscribers : new CopyOnWriteArrayList<>();
+            result.add(listener);
+            return result;
+        });
+    }
+
+    private void notifyListeners(ExperimentEvaluation evaluation) {
+        List<Consumer<ExperimentEvaluation>> subscribers = listeners.remove(evaluation.getId());
+        if (subscribers == null) {
+            return;
+        }
+        for (Consumer<ExperimentEvaluation> subscriber : subscribers) {
+            try {
+                subscriber.accept(evaluation);
+            } catch (Exception e) {
+                log.warn("推送评测结果失败: {}", e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * 评测任务，优先级高的先执行，同优先级按入队顺序执行
+     */
+    private final class EvaluationJob implements Runnable, Comparable<EvaluationJob> {
+        private final String evaluationId;
+        private final int priority;
+        private final boolean background;
+        private final long sequence;
+        private final long enqueuedAt;
+
+        private EvaluationJob(String evaluationId, int priority, boolean background, long sequence, long enqueuedAt) {
+            this.evaluationId = evaluationId;
+            this.priority = priority;
+            this.background = background;
+            this.sequence = sequence;
+            this.enqueuedAt = enqueuedAt;
+        }
+
+        @Override
+        public void run() {
+            waitTimer.record(System.nanoTime() - enqueuedAt, TimeUnit.NANOSECONDS);
+            Timer.Sample sample = Timer.start(meterRegistry);
+            ExperimentEvaluation finished = null;
+            try {
+                finished = process(evaluationId, background);
+            } catch (Exception e) {
+                log.error("评测任务 {} 执行异常: {}", evaluationId, e.getMessage(), e);
+                if (background) {
+                    // 保证批量重评能够统计到该任务，避免一直占用重评并发额度
+                    finished = ExperimentEvaluation.builder()
+                            .id(evaluationId)
+                            .status(EvaluationStatus.ERROR)
+                            .errorMessage("评测任务执行异常: " + e.getMessage())
+                            .build();
+                }
+            } finally {
+                sample.stop(runTimer);
+            }
+            // 先记录执行耗时再通知，订阅者收到结果时指标已经包含本次评测
+            if (finished != null) {
+                notifyListeners(finished);
+            }
+        }
+
+        @Override
+        public int compareTo(EvaluationJob other) {
+            int byPriority = Integer.compare(other.priority, priority);
+            return byPriority != 0 ? byPriority : Long.compare(sequence, other.sequence);
+        }
+    }
+}
@@ -0,0 +1,209 @@
+package org.linghu.experiment.evaluation;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.linghu.experiment.config.EvaluationProperties;
+import org.linghu.experiment.domain.ExperimentEvaluation;
+import org.linghu.experiment.domain.ExperimentEvaluation.EvaluationStatus;
+import org.linghu.experiment.domain.ExperimentSubmission;
+import org.linghu.experiment.domain.ExperimentTask;
+import org.linghu.experiment.dto.SourceCodeFileDTO;
+import org.linghu.experiment.judge.JudgeFileCache;
+import org.linghu.experiment.repository.ExperimentEvaluationRepository;
+import org.linghu.experiment.repository.ExperimentTaskRepository;
+import org.linghu.experiment.utils.JsonUtils;
+import org.linghu.experiment.utils.SubmissionArchive;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.*;
+
+/**
+ * 评测结果复用
+ * <p>
+ * 以任务版本（评测配置、脚手架文件版本）和规范化后的提交文件集合计算内容哈希，
+ * 相同哈希的提交直接复用已有评测结果，不再调用评测服务。
+ * 各文件的哈希在上传时计算并保存在提交记录中，查询结果时只读取元数据，不下载提交内容。
+ * 任务的脚手架或测试数据变化时通过 {@link #invalidateTask(ExperimentTask)} 使旧结果失效。
+ */
+@Slf4j
+@Component
+public class EvaluationResultCache {
+
+    /**
+     * 提交记录答案数据中保存各文件内容哈希的字段（沙箱内路径 -> 哈希）
+     */
+    public static final String CONTENT_HASHES_KEY = "contentHashes";
+
+    // 评测服务给出的确定性结果才可复用，ERROR/TIMEOUT可能由评测服务故障导致
+    private static final Set<EvaluationStatus> REUSABLE_STATUSES =
+            EnumSet.of(EvaluationStatus.COMPLETED, EvaluationStatus.FAILED);
+    private static final Set<EvaluationStatus> SAME_SUBMISSION_STATUSES = EnumSet.of(
+            EvaluationStatus.PENDING, EvaluationStatus.RUNNING, EvaluationStatus.COMPLETED, EvaluationStatus.FAILED);
+
+    private final JudgeFileCache judgeFileCache;
+    private final ExperimentEvaluationRepository evaluationRepository;
+    private final ExperimentTaskRepository taskRepository;
+    private final EvaluationProperties.ResultCache cacheProperties;
+
+    private final Counter hitCounter;
+    private final Counter missCounter;
+
+    public EvaluationResultCache(JudgeFileCache judgeFileCache,
+                                 ExperimentEvaluationRepository evaluationRepository,
+                                 ExperimentTaskRepository taskRepository,
+                                 EvaluationProperties evaluationProperties,
+                                 MeterRegistry meterRegistry) {
+        this.judgeFileCache = judgeFileCache;
+        this.evaluationRepository = evaluationRepository;
+        this.taskRepository = taskRepository;
+        this.cacheProperties = evaluationProperties.getResultCache();
+        this.hitCounter = Counter.builder("evaluation.result.cache")
+                .description("复用已有评测结果的次数")
+                .tag("result", "hit")
+                .register(meterRegistry);
+        this.missCounter = Counter.builder("evaluation.result.cache")
+                .description("未找到可复用评测结果的次数")
+                .tag("result", "miss")
+                .register(meterRegistry);
+    }
+
+    /**
+     * 计算提交文件的内容哈希，上传提交时调用并保存到答案数据的 {@link #CONTENT_HASHES_KEY} 字段
+     * 内容统一换行符，保证与换行风格无关；文件名或内容为空的文件被跳过
+     *
+     * @param files 提交的源文件
+     * @return 沙箱内路径 -> 内容哈希
+     */
+    public static Map<String, String> contentHashes(List<SourceCodeFileDTO> files) {
+        Map<String, String> hashes = new LinkedHashMap<>();
+        for (SourceCodeFileDTO file : files) {
+            if (file.getFileName() == null || file.getContent() == null) {
+                continue;
+            }
+            hashes.put(SubmissionArchive.sandboxPath(file.getFileName()),
+                    JudgeFileCache.sha256(file.getContent().replace("\r\n", "\n")));
+        }
+        return hashes;
+    }
+
+    /**
+     * 计算提交的内容哈希，只使用提交记录中保存的文件哈希和任务元数据
+     * 没有保存文件哈希的旧提交以提交ID代替文件集合，只复用同一提交的评测
+     *
+     * @param task       实验任务
+     * @param submission 学生提交
+     * @return 内容哈希；未启用复用或计算失败时返回null
+     */
+    @SuppressWarnings("unchecked")
+    public String fingerprint(ExperimentTask task, ExperimentSubmission submission) {
+        if (!cacheProperties.isEnabled()) {
+            return null;
+        }
+        try {
+            StringBuilder source = new StringBuilder()
+                    .append("task:").append(task.getId()).append('\n')
+                    .append("scaffold:").append(judgeFileCache.getScaffoldVersion(task.getExperimentId(), task.getId()))
+                    .append('\n')
+                    .append("judge:").append(Objects.toString(task.getJudgeConfig(), "")).append('\n');
+
+            Map<String, Object> answerData = JsonUtils.parseObject(submission.getUserAnswer(), Map.class);
+            if (answerData != null && answerData.get(CONTENT_HASHES_KEY) instanceof Map<?, ?> hashes) {
+                // 文件按沙箱内路径排序，与提交顺序无关
+                new TreeMap<>((Map<String, String>) hashes).forEach((path, hash) ->
+                        source.append(path).append(':').append(hash).append('\n'));
+            } else {
+                source.append("submission:").append(submission.getId()).append('\n');
+            }
+            return JudgeFileCache.sha256(source.toString());
+        } catch (Exception e) {
+            log.warn("计算提交 {} 的内容哈希失败，将直接评测: {}", submission.getId(), e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * 查找可复用的评测结果
+     * 同一提交的评测（包括仍在评测中的）直接返回；其他提交的相同内容评测结果复制为当前提交的新记录
+     *
+     * @param task        实验任务
+     * @param submission  学生提交
+     * @param contentHash 内容哈希
+     * @return 可直接返回给客户端的评测记录
+     */
+    public Optional<ExperimentEvaluation> reuse(ExperimentTask task, ExperimentSubmission submission,
+                                                String contentHash) {
+        if (contentHash == null) {
+            return Optional.empty();
+        }
+
+        Optional<ExperimentEvaluation> sameSubmission = evaluationRepository
+                .findFirstBySubmissionIdAndContentHashAndStatusInOrderByQueuedTimeDesc(
+                        submission.getId(), contentHash, SAME_SUBMISSION_STATUSES);
+        if (sameSubmission.isPresent()) {
+            hitCounter.increment();
+            log.info("提交 {} 内容未变化，复用评测记录 {}", submission.getId(), sameSubmission.get().getId());
+            return sameSubmission;
+        }
+
+        Optional<ExperimentEvaluation> sameContent = evaluationRepository
+                .findFirstByTaskIdAndContentHashAndStatusInOrderByFinishedTimeDesc(
+                        task.getId(), contentHash, REUSABLE_STATUSES);
+        if (sameContent.isEmpty()) {
+            missCounter.increment();
+            return Optional.empty();
+        }
+
+        hitCounter.increment();
+        ExperimentEvaluation source = sameContent.get();
+        LocalDateTime now = LocalDateTime.now();
+        ExperimentEvaluation copy = ExperimentEvaluation.builder()
+                .id(UUID.randomUUID().toString())
+                .submissionId(submission.getId())
+                .userId(submission.getUserId())
+                .taskId(task.getId())
+                .score(source.getScore())
+                .errorMessage(source.getErrorMessage())
+                .additionalInfo(source.getAdditionalInfo())
+                .status(source.getStatus())
+                .stdout(source.getStdout())
+                .stderr(source.getStderr())
+                .compiled(source.getCompiled())
+                .compileMessage(source.getCompileMessage())
+                .executionTime(source.getExecutionTime())
+                .memoryUsage(source.getMemoryUsage())
+                .caseResults(source.getCaseResults())
+                .contentHash(contentHash)
+                .priority(source.getPriority())
+                .queuedTime(now)
+                .startedTime(now)
+                .finishedTime(now)
+                .build();
+        log.info("提交 {} 与评测记录 {} 内容相同，复用评测结果", submission.getId(), source.getId());
+        return Optional.of(evaluationRepository.save(copy));
+    }
+
+    /**
+     * 使任务的已有评测结果不再被复用（脚手架文件或测试数据变化时调用）
+     *
+     * @param task 实验任务
+     */
+    @Transactional
+    public void invalidateTask(ExperimentTask task) {
+        judgeFileCache.invalidateTask(task.getExperimentId(), task.getId());
+        int cleared = evaluationRepository.clearContentHashByTaskId(task.getId());
+        log.info("任务 {} 的评测结果缓存已失效，清除 {} 条记录", task.getId(), cleared);
+    }
+
+    /**
+     * 使实验下所有任务的已有评测结果不再被复用
+     *
+     * @param experimentId 实验ID
+     */
+    @Transactional
+    public void invalidateExperiment(String experimentId) {
+        taskRepository.findByExperimentId(experimentId).forEach(this::invalidateTask);
+    }
+}
@@ -0,0 +1,159 @@
+package org.linghu.experiment.evaluation;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.linghu.experiment.config.EvaluationProperties;
+import org.linghu.experiment.domain.ExperimentEvaluation;
+import org.linghu.experiment.domain.ExperimentTask;
+import org.linghu.experiment.dto.BulkGradeResultDTO;
+import org.linghu.experiment.repository.ExperimentSubmissionRepository;
+import org.linghu.experiment.repository.ExperimentSubmissionRepository.SubmissionAnswer;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * 客观题批量判分
+ * <p>
+ * 一次查询按用户流式读取任务下每个学生的最新提交，按批在多个线程中并行判分（共用同一份预编译答案），
+ * 评测记录通过 JDBC 批量插入，不经过评测队列和 JPA 持久化上下文。
+ * 流式读取占用只读事务的连接，每批结果在独立的事务中写入并提交。
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ObjectiveBulkGrader {
+
+    private static final String INSERT_SQL = "INSERT INTO experiment_evaluation (id, submission_id, user_id, task_id, "
+            + "score, error_message, additional_info, status, finished_time, created_time, updated_time) "
+            + "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private final ExperimentSubmissionRepository submissionRepository;
+    private final AnswerKeyCache answerKeyCache;
+    private final JdbcTemplate jdbcTemplate;
+    private final StudentProgressTracker progressTracker;
+    private final EvaluationProperties evaluationProperties;
+    private final PlatformTransactionManager transactionManager;
+
+    /**
+     * 对任务下每个学生的最新提交判分
+     *
+     * @param task 客观题任务
+     * @return 判分结果统计
+     */
+    @Transactional(readOnly = true)
+    public BulkGradeResultDTO gradeTask(ExperimentTask task) {
+        long startNanos = System.nanoTime();
+        AnswerKey answerKey = answerKeyCache.get(task);
+        if (answerKey.isEmpty()) {
+            throw new RuntimeException("任务没有可判分的题目");
+        }
+
+        int batchSize = Math.max(1, evaluationProperties.getBulkGrade().getBatchSize());
+        // 流式读取期间读取连接不能执行其他语句，每批结果在新事务（另一个连接）中写入
+        TransactionTemplate batchTransaction = new TransactionTemplate(transactionManager);
+        batchTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        GradeStats stats = new GradeStats();
+        List<SubmissionAnswer> batch = new ArrayList<>(batchSize);
+        String lastUserId = null;
+
+        try (Stream<SubmissionAnswer> answers = submissionRepository.streamLatestAnswersByTaskId(task.getId())) {
+            Iterator<SubmissionAnswer> iterator = answers.iterator();
+            while (iterator.hasNext()) {
+                SubmissionAnswer answer = iterator.next();
+                // 结果按用户排序，同一用户提交时间相同的多条最新提交只取第一条
+                if (answer.getUserId().equals(lastUserId)) {
+                    continue;
+                }
+                lastUserId = answer.getUserId();
+                batch.add(answer);
+                if (batch.size() >= batchSize) {
+                    gradeBatch(batchTransaction, task.getId(), answerKey, batch, stats);
+                    batch.clear();
+                }
+            }
+        }
+        if (!batch.isEmpty()) {
+            gradeBatch(batchTransaction, task.getId(), answerKey, batch, stats);
+        }
+
+        long elapsedMillis = (System.nanoTime() - startNanos) / 1_000_000;
+        log.info("任务 {} 客观题批量判分完成: 共{}份提交，失败{}份，耗时{}ms",
+                task.getId(), stats.graded, stats.errors, elapsedMillis);
+
+        return BulkGradeResultDTO.builder()
+                .taskId(task.getId())
+                .graded(stats.graded)
+                .errors(stats.errors)
+                .averageScore(stats.averageScore())
+                .elapsedMillis(elapsedMillis)
+                .build();
+    }
+
+    private void gradeBatch(TransactionTemplate batchTransaction, String taskId, AnswerKey answerKey,
+                            List<SubmissionAnswer> batch, GradeStats stats) {
+        List<ExperimentEvaluation> evaluations = batch.parallelStream()
+                .map(answer -> {
+                    try {
+                        return ObjectiveGrader.grade(answerKey, taskId, answer.getId(),
+                                answer.getUserId(), answer.getUserAnswer());
+                    } catch (Exception e) {
+                        log.warn("提交 {} 判分失败: {}", answer.getId(), e.getMessage());
+                        return ObjectiveGrader.failed(taskId, answer.getId(), answer.getUserId(), e);
+                    }
+                })
+                .toList();
+
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        batchTransaction.executeWithoutResult(status -> {
+            jdbcTemplate.batchUpdate(INSERT_SQL, evaluations, evaluations.size(), (ps, evaluation) -> {
+                ps.setString(1, evaluation.getId());
+                ps.setString(2, evaluation.getSubmissionId());
+                ps.setString(3, evaluation.getUserId());
+                ps.setString(4, evaluation.getTaskId());
+                ps.setBigDecimal(5, evaluation.getScore());
+                ps.setString(6, evaluation.getErrorMessage());
+                ps.setString(7, evaluation.getAdditionalInfo());
+                ps.setString(8, evaluation.getStatus().name());
+                ps.setTimestamp(9, Timestamp.valueOf(evaluation.getFinishedTime()));
+                ps.setTimestamp(10, now);
+                ps.setTimestamp(11, now);
+            });
+            progressTracker.recordEvaluations(evaluations);
+        });
+
+        for (ExperimentEvaluation evaluation : evaluations) {
+            if (evaluation.getStatus() == ExperimentEvaluation.EvaluationStatus.COMPLETED) {
+                stats.graded++;
+                stats.scoreSum = stats.scoreSum.add(evaluation.getScore());
+            } else {
+                stats.errors++;
+            }
+        }
+    }
+
+    private static class GradeStats {
+        private long graded;
+        private long errors;
+        private BigDecimal scoreSum = BigDecimal.ZERO;
+
+        private BigDecimal averageScore() {
+            if (graded == 0) {
+                return BigDecimal.ZERO;
+            }
+            return scoreSum.divide(BigDecimal.valueOf(graded), 2, RoundingMode.HALF_UP);
+        }
+    }
+}
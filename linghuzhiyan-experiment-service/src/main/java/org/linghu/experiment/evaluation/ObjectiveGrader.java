@@ -0,0 +1,153 @@
+package org.linghu.experiment.evaluation;
+
+import org.linghu.experiment.domain.ExperimentEvaluation;
+import org.linghu.experiment.domain.ExperimentEvaluation.EvaluationStatus;
+import org.linghu.experiment.utils.JsonUtils;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.stream.Collectors;
+
+/**
+ * 客观题判分
+ * <p>
+ * 按预编译答案对学生答案判分并生成评测记录（未保存），只做内存计算，可在多个线程中并行调用。
+ */
+public final class ObjectiveGrader {
+
+    private ObjectiveGrader() {
+    }
+
+    /**
+     * 判分
+     *
+     * @param answerKey    任务的预编译答案
+     * @param taskId       任务ID
+     * @param submissionId 提交ID
+     * @param userId       用户ID
+     * @param userAnswer   学生提交的答案JSON
+     * @return 评测记录
+     */
+    public static ExperimentEvaluation grade(AnswerKey answerKey, String taskId, String submissionId,
+                                             String userId, String userAnswer) {
+        Map<String, Object> userAnswers = parseUserAnswers(userAnswer);
+        BigDecimal score = BigDecimal.ZERO;
+        int totalQuestions = answerKey.size();
+        int correctAnswers = 0;
+        StringBuilder feedback = new StringBuilder();
+
+        // 按题目顺序比较答案
+        for (AnswerKey.QuestionKey question : answerKey.getQuestions()) {
+            String questionId = question.questionId();
+            Object userAns = userAnswers.get(questionId);
+
+            if (userAns != null) {
+                if (question.matches(userAns)) {
+                    correctAnswers++;
+                    feedback.append("问题").append(questionId).append(": 正确✓\n");
+                } else {
+                    // 格式化答案显示，更友好地显示中文和其他文本
+                    feedback.append("问题").append(questionId).append(": 错误✗\n")
+                            .append("- 您的答案: ").append(formatAnswerForDisplay(userAns)).append("\n")
+                            .append("- 正确答案: ").append(formatAnswerForDisplay(question.answer())).append("\n\n");
+                }
+            } else {
+                feedback.append("问题").append(questionId).append(": 未作答\n");
+            }
+        }
+
+        // 计算得分 (满分为100)
+        if (totalQuestions > 0) {
+            score = new BigDecimal(correctAnswers * 100.0 / totalQuestions).setScale(2, RoundingMode.HALF_UP);
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        return ExperimentEvaluation.builder()
+                .id(UUID.randomUUID().toString())
+                .submissionId(submissionId)
+                .userId(userId)
+                .taskId(taskId)
+                .score(score)
+                .status(EvaluationStatus.COMPLETED)
+                .additionalInfo("自动评分: 共" + totalQuestions + "题，正确" + correctAnswers + "题")
+                .errorMessage(feedback.toString())
+                .finishedTime(now)
+                .build();
+    }
+
+    /**
+     * 生成判分失败的评测记录
+     *
+     * @param taskId       任务ID
+     * @param submissionId 提交ID
+     * @param userId       用户ID
+     * @param e            异常
+     * @return 评测记录
+     */
+    public static ExperimentEvaluation failed(String taskId, String submissionId, String userId, Exception e) {
+        return ExperimentEvaluation.builder()
+                .id(UUID.randomUUID().toString())
+                .submissionId(submissionId)
+                .userId(userId)
+                .taskId(taskId)
+                .score(BigDecimal.ZERO)
+                .status(EvaluationStatus.ERROR)
+                .errorMessage("自动评测失败: " + e.getMessage())
+                .finishedTime(LocalDateTime.now())
+                .build();
+    }
+
+    private static Map<String, Object> parseUserAnswers(String userAnswer) {
+        if (userAnswer == null || userAnswer.isEmpty()) {
+            return Collections.emptyMap();
+        }
+        // 尝试将用户答案解析为JSON
+        @SuppressWarnings("unchecked")
+        Map<String, Object> parsedAnswers = JsonUtils.parseObject(userAnswer, Map.class);
+        if (parsedAnswers != null) {
+            return parsedAnswers;
+        }
+        // 如果不是JSON格式，则作为单个答案处理
+        Map<String, Object> userAnswers = new HashMap<>();
+        userAnswers.put("answer", userAnswer);
+        return userAnswers;
+    }
+
+    /**
+     * 格式化答案用于显示，使其对用户更友好
+     *
+     * @param answer 原始答案对象
+     * @return 格式化后的显示字符串
+     */
+    static String formatAnswerForDisplay(Object answer) {
+        if (answer == null) {
+            return "未作答";
+        }
+
+        if (answer instanceof String) {
+            return (String) answer;
+        } else if (answer instanceof List) {
+            List<?> list = (List<?>) answer;
+            if (list.isEmpty()) {
+                return "[]";
+            }
+
+            return list.stream()
+                    .map(Object::toString)
+                    .collect(Collectors.joining(", ", "[", "]"));
+        } else if (answer instanceof Map) {
+            Map<?, ?> map = (Map<?, ?>) answer;
+            if (map.isEmpty()) {
+                return "{}";
+            }
+
+            return map.entrySet().stream()
+                    .map(entry -> entry.getKey() + ": " + entry.getValue())
+                    .collect(Collectors.joining(", ", "{", "}"));
+        }
+
+        return answer.toString();
+    }
+}
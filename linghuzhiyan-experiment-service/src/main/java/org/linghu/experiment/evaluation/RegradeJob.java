@@ -0,0 +1,152 @@
+package org.linghu.experiment.evaluation;
+
+import lombok.Getter;
+import org.linghu.experiment.domain.ExperimentEvaluation;
+import org.linghu.experiment.domain.ExperimentEvaluation.EvaluationStatus;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 批量重评任务的运行状态
+ */
+@Getter
+public class RegradeJob {
+
+    /**
+     * 重评任务状态
+     */
+    public enum Status {
+        RUNNING,
+        COMPLETED,
+        CANCELLED,
+        FAILED
+    }
+
+    private final String id;
+    private final String experimentId;
+    private final List<String> taskIds;
+    private final String createdBy;
+    private final LocalDateTime startedAt;
+
+    private volatile Status status = Status.RUNNING;
+    private volatile long total;
+    private volatile LocalDateTime finishedAt;
+    private volatile String errorMessage;
+
+    // 已扫描的提交数、已加入评测队列数、已评测完成数、评测出错数
+    private final AtomicLong scanned = new AtomicLong();
+    private final AtomicLong enqueued = new AtomicLong();
+    private final AtomicLong completed = new AtomicLong();
+    private final AtomicLong errors = new AtomicLong();
+
+    RegradeJob(String id, String experimentId, List<String> taskIds, String createdBy) {
+        this.id = id;
+        this.experimentId = experimentId;
+        this.taskIds = List.copyOf(taskIds);
+        this.createdBy = createdBy;
+        this.startedAt = LocalDateTime.now();
+    }
+
+    void setTotal(long total) {
+        this.total = total;
+    }
+
+    void recordScanned() {
+        scanned.incrementAndGet();
+    }
+
+    void recordEnqueued(int count) {
+        enqueued.addAndGet(count);
+    }
+
+    /**
+     * 记录一个评测结果，并唤醒等待评测全部结束的线程
+     */
+    synchronized void recordResult(ExperimentEvaluation evaluation) {
+        completed.incrementAndGet();
+        if (evaluation.getStatus() == EvaluationStatus.ERROR || evaluation.getStatus() == EvaluationStatus.TIMEOUT) {
+            errors.incrementAndGet();
+        }
+        notifyAll();
+    }
+
+    /**
+     * 等待已加入队列的评测全部结束
+     *
+     * @param timeoutMillis 最长等待时间
+     * @return 是否已全部结束
+     */
+    synchronized boolean awaitDrained(long timeoutMillis) throws InterruptedException {
+        if (getInFlight() > 0) {
+            wait(timeoutMillis);
+        }
+        return getInFlight() == 0;
+    }
+
+    synchronized void finish(Status finalStatus, String message) {
+        if (status != Status.RUNNING) {
+            return;
+        }
+        this.status = finalStatus;
+        this.errorMessage = message;
+        this.finishedAt = LocalDateTime.now();
+        notifyAll();
+    }
+
+    public boolean isRunning() {
+        return status == Status.RUNNING;
+    }
+
+    public long getScanned() {
+        return scanned.get();
+    }
+
+    public long getEnqueued() {
+        return enqueued.get();
+    }
+
+    public long getCompleted() {
+        return completed.get();
+    }
+
+    public long getErrors() {
+        return errors.get();
+    }
+
+    /**
+     * 已加入队列但尚未结束的评测数
+     */
+    public long getInFlight() {
+        return enqueued.get() - completed.get();
+    }
+
+    /**
+     * 完成进度（0-100）
+     */
+    public double getProgress() {
+        if (status == Status.COMPLETED) {
+            return 100.0;
+        }
+        long currentTotal = total;
+        if (currentTotal <= 0) {
+            return 0.0;
+        }
+        return Math.min(100.0, completed.get() * 100.0 / currentTotal);
+    }
+
+    /**
+     * 按当前评测速率估算的剩余秒数，尚无完成的评测或任务已结束时返回null
+     */
+    public Long getEtaSeconds() {
+        long done = completed.get();
+        if (!isRunning() || done == 0) {
+            return null;
+        }
+        long elapsedMillis = Math.max(1, Duration.between(startedAt, LocalDateTime.now()).toMillis());
+        long remaining = Math.max(0, total - done);
+        return Math.round(remaining * (elapsedMillis / 1000.0) / done);
+    }
+}
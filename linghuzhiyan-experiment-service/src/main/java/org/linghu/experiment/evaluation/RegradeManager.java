@@ -0,0 +1,218 @@
+package org.linghu.experiment.evaluation;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.linghu.experiment.config.EvaluationProperties;
+import org.linghu.experiment.domain.ExperimentSubmission;
+import org.linghu.experiment.domain.ExperimentTask;
+import org.linghu.experiment.repository.ExperimentSubmissionRepository;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 批量重评管理
+ * <p>
+ * 按页读取任务的提交记录，只取每个用户的最新提交，以后台优先级交给评测队列执行。
+ * 所有重评任务共享同一个并发额度，同一时刻在队列中的重评评测数不超过配置的上限，
+ * 保证交互式评测不会被饿死。重评任务的运行状态只保存在内存中。
+ */
+@Slf4j
+@Component
+public class RegradeManager {
+
+    // 按提交时间倒序，保证每个用户最先读到的就是最新提交
+    private static final Sort LATEST_FIRST = Sort.by(Sort.Direction.DESC, "submitTime").and(Sort.by("id"));
+    private static final long POLL_MILLIS = 200;
+    private static final Duration FINISHED_JOB_RETENTION = Duration.ofHours(24);
+
+    private final ExperimentSubmissionRepository submissionRepository;
+    private final EvaluationQueue evaluationQueue;
+    private final EvaluationProperties.Regrade regradeProperties;
+    private final Semaphore inFlight;
+    private final ExecutorService runner;
+
+    private final Map<String, RegradeJob> jobs = new ConcurrentHashMap<>();
+
+    public RegradeManager(ExperimentSubmissionRepository submissionRepository,
+                          EvaluationQueue evaluationQueue,
+                          EvaluationProperties evaluationProperties) {
+        this.submissionRepository = submissionRepository;
+        this.evaluationQueue = evaluationQueue;
+        this.regradeProperties = evaluationProperties.getRegrade();
+        this.inFlight = new Semaphore(Math.max(1, regradeProperties.getMaxInFlight()));
+        AtomicInteger threadIndex = new AtomicInteger();
+        this.runner = Executors.newCachedThreadPool(runnable -> {
+            Thread thread = new Thread(runnable, "regrade-runner-" + threadIndex.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        runner.shutdownNow();
+    }
+
+    /**
+     * 启动批量重评
+     *
+     * @param experimentId 实验ID
+     * @param tasks        需要重评的任务
+     * @param createdBy    发起人
+     * @return 重评任务
+     */
+    public RegradeJob start(String experimentId, List<ExperimentTask> tasks, String createdBy) {
+        if (tasks.isEmpty()) {
+            throw new RuntimeException("没有可重评的编程任务");
+        }
+        List<String> taskIds = tasks.stream().map(ExperimentTask::getId).toList();
+        RegradeJob job;
+        synchronized (jobs) {
+            pruneFinishedJobs();
+            boolean overlapping = jobs.values().stream()
+                    .anyMatch(existing -> existing.isRunning()
+                            && existing.getTaskIds().stream().anyMatch(taskIds::contains));
+            if (overlapping) {
+                throw new RuntimeException("该任务已有正在进行的重评");
+            }
+            job = new RegradeJob(UUID.randomUUID().toString(), experimentId, taskIds, createdBy);
+            jobs.put(job.getId(), job);
+        }
+
+        RegradeJob started = job;
+        runner.execute(() -> run(started, tasks));
+        log.info("重评任务 {} 已启动，实验: {}，任务数: {}", job.getId(), experimentId, tasks.size());
+        return job;
+    }
+
+    /**
+     * 获取重评任务
+     *
+     * @param jobId 重评任务ID
+     * @return 重评任务
+     */
+    public Optional<RegradeJob> get(String jobId) {
+        return Optional.ofNullable(jobs.get(jobId));
+    }
+
+    /**
+     * 取消重评任务，已进入评测队列的评测仍会执行完毕
+     *
+     * @param jobId 重评任务ID
+     * @return 重评任务
+     */
+    public RegradeJob cancel(String jobId) {
+        RegradeJob job = get(jobId).orElseThrow(() -> new RuntimeException("重评任务不存在"));
+        job.finish(RegradeJob.Status.CANCELLED, null);
+        log.info("重评任务 {} 已取消，已完成 {}/{}", jobId, job.getCompleted(), job.getTotal());
+        return job;
+    }
+
+    void run(RegradeJob job, List<ExperimentTask> tasks) {
+        try {
+            long total = 0;
+            for (ExperimentTask task : tasks) {
+                total += submissionRepository.countDistinctUserIdByTaskId(task.getId());
+            }
+            job.setTotal(total);
+
+            for (ExperimentTask task : tasks) {
+                if (!job.isRunning()) {
+                    return;
+                }
+                regradeTask(job, task);
+            }
+
+            // 等待已入队的评测全部写回后再标记完成
+            while (job.isRunning() && !job.awaitDrained(POLL_MILLIS)) {
+                // 继续等待
+            }
+            job.finish(RegradeJob.Status.COMPLETED, null);
+            log.info("重评任务 {} 已完成，评测 {} 个提交，出错 {} 个", job.getId(), job.getCompleted(), job.getErrors());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            job.finish(RegradeJob.Status.FAILED, "重评任务被中断");
+        } catch (Exception e) {
+            log.error("重评任务 {} 执行失败: {}", job.getId(), e.getMessage(), e);
+            job.finish(RegradeJob.Status.FAILED, e.getMessage());
+        }
+    }
+
+    private void regradeTask(RegradeJob job, ExperimentTask task) throws InterruptedException {
+        Set<String> seenUsers = new HashSet<>();
+        int pageSize = Math.max(1, regradeProperties.getPageSize());
+        int pageNumber = 0;
+        Page<ExperimentSubmission> page;
+        do {
+            page = submissionRepository.findByTaskId(task.getId(), PageRequest.of(pageNumber++, pageSize, LATEST_FIRST));
+
+            List<ExperimentSubmission> latest = new ArrayList<>();
+            for (ExperimentSubmission submission : page.getContent()) {
+                job.recordScanned();
+                if (seenUsers.add(submission.getUserId())) {
+                    latest.add(submission);
+                }
+            }
+            if (!submitThrottled(job, task, latest)) {
+                return;
+            }
+        } while (page.hasNext());
+    }
+
+    /**
+     * 按并发额度分批把提交交给评测队列
+     *
+     * @return 重评任务被取消时返回false
+     */
+    private boolean submitThrottled(RegradeJob job, ExperimentTask task, List<ExperimentSubmission> submissions)
+            throws InterruptedException {
+        int next = 0;
+        while (next < submissions.size()) {
+            if (!inFlight.tryAcquire(POLL_MILLIS, TimeUnit.MILLISECONDS)) {
+                if (!job.isRunning()) {
+                    return false;
+                }
+                continue;
+            }
+            if (!job.isRunning()) {
+                inFlight.release();
+                return false;
+            }
+
+            // 一次取走当前所有空闲额度，使评测记录能批量插入
+            int permits = 1 + inFlight.drainPermits();
+            int count = Math.min(permits, submissions.size() - next);
+            if (permits > count) {
+                inFlight.release(permits - count);
+            }
+
+            List<ExperimentSubmission> batch = submissions.subList(next, next + count);
+            job.recordEnqueued(count);
+            try {
+                evaluationQueue.enqueueBackground(task, batch, evaluation -> {
+                    job.recordResult(evaluation);
+                    inFlight.release();
+                });
+            } catch (RuntimeException e) {
+                job.recordEnqueued(-count);
+                inFlight.release(count);
+                throw e;
+            }
+            next += count;
+        }
+        return true;
+    }
+
+    private void pruneFinishedJobs() {
+        LocalDateTime threshold = LocalDateTime.now().minus(FINISHED_JOB_RETENTION);
+        jobs.values().removeIf(job -> job.getFinishedAt() != null && job.getFinishedAt().isBefore(threshold));
+    }
+}
@@ -0,0 +1,218 @@
+package org.linghu.experiment.evaluation;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.linghu.experiment.domain.ExperimentEvaluation;
+import org.linghu.experiment.domain.ExperimentSubmission;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * 学生任务进度维护
+ * <p>
+ * 写入提交和评测记录后，按 (user_id, task_id) 更新 student_task_progress 表中的最新提交和最新评测摘要：
+ * 先执行条件更新，记录不存在时再插入，插入触发唯一键冲突时改为重新执行条件更新。
+ * 只有时间不早于当前记录的提交/评测（或同一评测的状态变化）才会覆盖进度，评测结果乱序写入时不会回退。
+ * 更新失败时抛出异常，由调用方所在的事务一起回滚，进度不会与提交和评测记录不一致。
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class StudentProgressTracker {
+
+    // 提交数总要累加，最新提交用 CASE 按时间选择
+    // 比较用的时间列必须最后赋值：MySQL 按顺序赋值，后面的表达式会读到已更新的值
+    private static final String SUBMISSION_UPDATE_SQL = "UPDATE student_task_progress SET "
+            + ifNewer("latest_submit_time", "latest_submission_id") + ", "
+            + "submission_count = submission_count + 1, updated_time = ?, "
+            + ifNewer("latest_submit_time", "latest_submit_time") + " "
+            + "WHERE user_id = ? AND task_id = ?";
+
+    private static final String SUBMISSION_INSERT_SQL = "INSERT INTO student_task_progress (id, user_id, task_id, "
+            + "latest_submission_id, latest_submit_time, submission_count, created_time, updated_time) "
+            + "VALUES (?, ?, ?, ?, ?, 1, ?, ?)";
+
+    // 同一评测的状态变化总是更新；数据库保存时间时可能进位，不能只靠时间比较识别同一评测
+    private static final String EVALUATION_UPDATE_SQL = "UPDATE student_task_progress SET "
+            + "latest_evaluation_id = ?, latest_evaluation_time = ?, latest_score = ?, latest_status = ?, "
+            + "latest_queued_time = ?, updated_time = ? "
+            + "WHERE user_id = ? AND task_id = ? AND (latest_evaluation_id = ? OR latest_evaluation_time IS NULL "
+            + "OR latest_evaluation_time <= ?)";
+
+    private static final String EVALUATION_INSERT_SQL = "INSERT INTO student_task_progress (id, user_id, task_id, "
+            + "submission_count, latest_evaluation_id, latest_evaluation_time, latest_score, latest_status, "
+            + "latest_queued_time, created_time, updated_time) "
+            + "VALUES (?, ?, ?, 0, ?, ?, ?, ?, ?, ?, ?)";
+
+    // 回填：进度表为空时（首次上线）从已有的提交和评测记录生成进度，回填期间写入的进度以实时写入为准
+    private static final String[] BACKFILL_SQL = {
+            "INSERT IGNORE INTO student_task_progress (id, user_id, task_id, latest_submit_time, submission_count, "
+                    + "created_time, updated_time) "
+                    + "SELECT UUID(), user_id, task_id, MAX(submit_time), COUNT(*), CURRENT_TIMESTAMP, CURRENT_TIMESTAMP "
+                    + "FROM experiment_submission GROUP BY user_id, task_id",
+            "UPDATE student_task_progress p SET latest_submission_id = (SELECT s.id FROM experiment_submission s "
+                    + "WHERE s.user_id = p.user_id AND s.task_id = p.task_id AND s.submit_time = p.latest_submit_time "
+                    + "ORDER BY s.id LIMIT 1)",
+            "INSERT IGNORE INTO student_task_progress (id, user_id, task_id, submission_count, created_time, updated_time) "
+                    + "SELECT UUID(), e.user_id, e.task_id, 0, CURRENT_TIMESTAMP, CURRENT_TIMESTAMP "
+                    + "FROM experiment_evaluation e WHERE NOT EXISTS (SELECT 1 FROM student_task_progress p "
+                    + "WHERE p.user_id = e.user_id AND p.task_id = e.task_id) GROUP BY e.user_id, e.task_id",
+            "UPDATE student_task_progress p SET latest_evaluation_id = (SELECT e.id FROM experiment_evaluation e "
+                    + "WHERE e.user_id = p.user_id AND e.task_id = p.task_id "
+                    + "ORDER BY e.created_time DESC, e.id DESC LIMIT 1)",
+            "UPDATE student_task_progress p SET "
+                    + "latest_evaluation_time = (SELECT e.created_time FROM experiment_evaluation e WHERE e.id = p.latest_evaluation_id), "
+                    + "latest_score = (SELECT e.score FROM experiment_evaluation e WHERE e.id = p.latest_evaluation_id), "
+                    + "latest_status = (SELECT e.status FROM experiment_evaluation e WHERE e.id = p.latest_evaluation_id), "
+                    + "latest_queued_time = (SELECT e.queued_time FROM experiment_evaluation e WHERE e.id = p.latest_evaluation_id) "
+                    + "WHERE p.latest_evaluation_id IS NOT NULL"
+    };
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * 记录学生的新提交
+     *
+     * @param submission 已保存的提交记录
+     */
+    public void recordSubmission(ExperimentSubmission submission) {
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        Timestamp submitTime = Timestamp.valueOf(submission.getSubmitTime() != null
+                ? submission.getSubmitTime() : now.toLocalDateTime());
+        Object[] updateArgs = {submitTime, submission.getId(), now, submitTime, submitTime,
+                submission.getUserId(), submission.getTaskId()};
+        if (jdbcTemplate.update(SUBMISSION_UPDATE_SQL, updateArgs) > 0) {
+            return;
+        }
+        try {
+            jdbcTemplate.update(SUBMISSION_INSERT_SQL, UUID.randomUUID().toString(), submission.getUserId(),
+                    submission.getTaskId(), submission.getId(), submitTime, now, now);
+        } catch (DuplicateKeyException e) {
+            // 并发的第一次提交已经插入了进度记录
+            jdbcTemplate.update(SUBMISSION_UPDATE_SQL, updateArgs);
+        }
+    }
+
+    /**
+     * 记录评测结果（包括入队时的PENDING状态）
+     *
+     * @param evaluation 已保存的评测记录
+     */
+    public void recordEvaluation(ExperimentEvaluation evaluation) {
+        recordEvaluations(List.of(evaluation));
+    }
+
+    /**
+     * 批量记录评测结果，先批量执行条件更新，未更新的记录再尝试插入
+     *
+     * @param evaluations 已保存的评测记录
+     */
+    public void recordEvaluations(Collection<ExperimentEvaluation> evaluations) {
+        if (evaluations.isEmpty()) {
+            return;
+        }
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        List<ExperimentEvaluation> batch = new ArrayList<>(evaluations);
+        int[][] counts = jdbcTemplate.batchUpdate(EVALUATION_UPDATE_SQL, batch, batch.size(),
+                (ps, evaluation) -> setEvaluationUpdate(ps, evaluation, now));
+
+        int index = 0;
+        for (int[] chunk : counts) {
+            for (int count : chunk) {
+                ExperimentEvaluation evaluation = batch.get(index++);
+                if (count == 0) {
+                    insertEvaluation(evaluation, now);
+                }
+            }
+        }
+    }
+
+    /**
+     * 条件更新没有命中时，可能是进度记录不存在，也可能是已有更新的评测
+     */
+    private void insertEvaluation(ExperimentEvaluation evaluation, Timestamp now) {
+        try {
+            jdbcTemplate.update(EVALUATION_INSERT_SQL, ps -> {
+                ps.setString(1, UUID.randomUUID().toString());
+                ps.setString(2, evaluation.getUserId());
+                ps.setString(3, evaluation.getTaskId());
+                ps.setString(4, evaluation.getId());
+                ps.setTimestamp(5, evaluationTime(evaluation, now));
+                ps.setBigDecimal(6, evaluation.getScore());
+                ps.setString(7, evaluation.getStatus() != null ? evaluation.getStatus().name() : null);
+                ps.setTimestamp(8, queuedTime(evaluation));
+                ps.setTimestamp(9, now);
+                ps.setTimestamp(10, now);
+            });
+        } catch (DuplicateKeyException e) {
+            // 记录已存在：已有更新的评测时条件更新不生效，并发插入的记录则由本次更新覆盖
+            jdbcTemplate.update(EVALUATION_UPDATE_SQL, ps -> setEvaluationUpdate(ps, evaluation, now));
+        }
+    }
+
+    private static void setEvaluationUpdate(PreparedStatement ps, ExperimentEvaluation evaluation, Timestamp now)
+            throws SQLException {
+        Timestamp evaluationTime = evaluationTime(evaluation, now);
+        ps.setString(1, evaluation.getId());
+        ps.setTimestamp(2, evaluationTime);
+        ps.setBigDecimal(3, evaluation.getScore());
+        ps.setString(4, evaluation.getStatus() != null ? evaluation.getStatus().name() : null);
+        ps.setTimestamp(5, queuedTime(evaluation));
+        ps.setTimestamp(6, now);
+        ps.setString(7, evaluation.getUserId());
+        ps.setString(8, evaluation.getTaskId());
+        ps.setString(9, evaluation.getId());
+        ps.setTimestamp(10, evaluationTime);
+    }
+
+    /**
+     * JDBC批量插入的评测记录没有回填创建时间，以当前时间代替
+     */
+    private static Timestamp evaluationTime(ExperimentEvaluation evaluation, Timestamp now) {
+        return evaluation.getCreatedTime() != null ? Timestamp.valueOf(evaluation.getCreatedTime()) : now;
+    }
+
+    private static Timestamp queuedTime(ExperimentEvaluation evaluation) {
+        return evaluation.getQueuedTime() != null ? Timestamp.valueOf(evaluation.getQueuedTime()) : null;
+    }
+
+    /**
+     * 服务启动后，如果进度表为空则从已有的提交和评测记录回填
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfillIfEmpty() {
+        try {
+            List<Integer> existing = jdbcTemplate.queryForList("SELECT 1 FROM student_task_progress LIMIT 1", Integer.class);
+            if (!existing.isEmpty()) {
+                return;
+            }
+            long startNanos = System.nanoTime();
+            for (String sql : BACKFILL_SQL) {
+                jdbcTemplate.update(sql);
+            }
+            log.info("学生任务进度回填完成，耗时{}ms", (System.nanoTime() - startNanos) / 1_000_000);
+        } catch (Exception e) {
+            log.error("学生任务进度回填失败: {}", e.getMessage(), e);
+        }
+    }
+
+    /**
+     * 新时间不早于当前时间时取新值，新时间和新值依次作为两个参数绑定
+     */
+    private static String ifNewer(String timeColumn, String column) {
+        return column + " = CASE WHEN " + timeColumn + " IS NULL OR ? >= " + timeColumn
+                + " THEN ? ELSE " + column + " END";
+    }
+}
@@ -0,0 +1,362 @@
+package org.linghu.experiment.judge;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.linghu.experiment.config.EvaluationProperties;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * go-judge 评测服务客户端
+ * <p>
+ * 基于JDK HttpClient复用长连接，通过信号量限制每个节点的并发连接数；请求体由Jackson直接编码为字节，
+ * 响应体以流的方式解码，保证多行输出原样返回。对连接失败和5xx响应按重试预算进行重试，
+ * 并记录每次调用的耗时指标。未指定节点的调用发往 evaluation.service.url 对应的默认节点，
+ * 多节点调度见 {@link JudgeNodeRegistry}。
+ */
+@Slf4j
+@Component
+public class GoJudgeClient {
+
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+    private static final TypeReference<List<GoJudgeResult>> RESULT_LIST_TYPE = new TypeReference<>() {
+    };
+    private static final TypeReference<String> FILE_ID_TYPE = new TypeReference<>() {
+    };
+
+    private final EvaluationProperties.Service serviceProperties;
+    private final MeterRegistry meterRegistry;
+    private final HttpClient httpClient;
+    private final JudgeNode defaultNode;
+    private final RetryBudget retryBudget;
+    private final Counter retryCounter;
+
+    public GoJudgeClient(EvaluationProperties evaluationProperties, MeterRegistry meterRegistry) {
+        this.serviceProperties = evaluationProperties.getService();
+        this.meterRegistry = meterRegistry;
+        this.httpClient = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(serviceProperties.getConnectTimeout())
+                .build();
+        this.defaultNode = createNode("default", serviceProperties.getUrl());
+        this.retryBudget = new RetryBudget(serviceProperties.getRetryBudgetRatio(),
+                serviceProperties.getRetryBudgetMinTokens());
+        this.retryCounter = Counter.builder("judge.client.retries")
+                .description("评测服务请求重试次数")
+                .register(meterRegistry);
+    }
+
+    /**
+     * 调用 go-judge /run 执行命令
+     *
+     * @param request 评测请求
+     * @return 每条命令的执行结果
+     * @throws IOException 如果评测服务不可用或返回错误
+     */
+    public List<GoJudgeResult> run(GoJudgeRequest request) throws IOException {
+        return run(defaultNode, request);
+    }
+
+    /**
+     * 在指定节点上调用 go-judge /run 执行命令
+     *
+     * @param node    评测节点
+     * @param request 评测请求
+     * @return 每条命令的执行结果
+     * @throws IOException 如果评测服务不可用或返回错误
+     */
+    public List<GoJudgeResult> run(JudgeNode node, GoJudgeRequest request) throws IOException {
+        // 请求体编码一次后在重试时复用，并带有 Content-Length；内联的文件内容已受提交字节预算限制，
+        // 改为边编码边发送需要每次尝试重新编码且只能使用分块传输，收益不抵开销
+        byte[] body = OBJECT_MAPPER.writeValueAsBytes(request);
+        log.debug("评测请求体大小: {} 字节，节点: {}", body.length, node.getId());
+        return execute(node, "run", HttpRequest.newBuilder(resolve(node, "/run"))
+                .header("Content-Type", "application/json")
+                .header("Accept", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofByteArray(body)), RESULT_LIST_TYPE);
+    }
+
+    /**
+     * 上传文件到 go-judge 文件存储，后续请求可通过 fileId 引用，无需重复发送文件内容
+     *
+     * @param fileName 文件名
+     * @param content  文件内容
+     * @return go-judge 返回的文件ID
+     * @throws IOException 如果上传失败
+     */
+    public String uploadFile(String fileName, byte[] content) throws IOException {
+        return uploadFile(defaultNode, fileName, content);
+    }
+
+    /**
+     * 上传文件到指定节点的 go-judge 文件存储，文件ID只在该节点上有效
+     *
+     * @param node     评测节点
+     * @param fileName 文件名
+     * @param content  文件内容
+     * @return go-judge 返回的文件ID
+     * @throws IOException 如果上传失败
+     */
+    public String uploadFile(JudgeNode node, String fileName, byte[] content) throws IOException {
+        String boundary = "----linghu" + UUID.randomUUID().toString().replace("-", "");
+        byte[] head = ("--" + boundary + "\r\n"
+                + "Content-Disposition: form-data; name=\"file\"; filename=\"" + fileName + "\"\r\n"
+                + "Content-Type: application/octet-stream\r\n\r\n").getBytes(StandardCharsets.UTF_8);
+        byte[] tail = ("\r\n--" + boundary + "--\r\n").getBytes(StandardCharsets.UTF_8);
+
+        // 分段发送，文件内容不再复制到新的缓冲区
+        return execute(node, "file", HttpRequest.newBuilder(resolve(node, "/file"))
+                .header("Content-Type", "multipart/form-data; boundary=" + boundary)
+                .header("Accept", "application/json")
+                .POST(HttpRequest.BodyPublishers.concat(
+                        HttpRequest.BodyPublishers.ofByteArray(head),
+                        HttpRequest.BodyPublishers.ofByteArray(content),
+                        HttpRequest.BodyPublishers.ofByteArray(tail))), FILE_ID_TYPE);
+    }
+
+    /**
+     * 删除 go-judge 文件存储中的缓存文件（如编译产物）
+     *
+     * @param fileId 文件ID
+     * @throws IOException 如果删除失败
+     */
+    public void deleteFile(String fileId) throws IOException {
+        deleteFile(defaultNode, fileId);
+    }
+
+    /**
+     * 删除指定节点上 go-judge 文件存储中的缓存文件
+     *
+     * @param node   评测节点
+     * @param fileId 文件ID
+     * @throws IOException 如果删除失败
+     */
+    public void deleteFile(JudgeNode node, String fileId) throws IOException {
+        execute(node, "file", HttpRequest.newBuilder(resolve(node, "/file/" + fileId))
+                .DELETE(), null);
+    }
+
+    /**
+     * 健康检查：请求节点的 /version 接口，不重试
+     *
+     * @param node 评测节点
+     * @return 响应耗时
+     * @throws IOException 如果节点不可用
+     */
+    public Duration checkHealth(JudgeNode node) throws IOException {
+        HttpRequest request = HttpRequest.newBuilder(resolve(node, "/version"))
+                .timeout(serviceProperties.getHealthCheckTimeout())
+                .GET()
+                .build();
+        long start = System.nanoTime();
+        try {
+            HttpResponse<InputStream> response = httpClient.send(request, HttpResponse.BodyHandlers.ofInputStream());
+            try (InputStream body = response.body()) {
+                body.readNBytes(1024);
+            }
+            if (response.statusCode() != 200) {
+                throw new IOException("评测节点健康检查失败，状态码: " + response.statusCode());
+            }
+            return Duration.ofNanos(System.nanoTime() - start);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("健康检查被中断", e);
+        }
+    }
+
+    /**
+     * 按当前连接配置创建评测节点
+     *
+     * @param id  节点ID
+     * @param url 节点地址
+     * @return 评测节点
+     */
+    public JudgeNode createNode(String id, String url) {
+        return new JudgeNode(id, url, serviceProperties.getMaxConnections());
+    }
+
+    /**
+     * 获取默认评测节点
+     *
+     * @return 默认节点
+     */
+    public JudgeNode getDefaultNode() {
+        return defaultNode;
+    }
+
+    /**
+     * 获取评测服务基础地址，兼容以 /run 结尾的旧配置
+     *
+     * @return 基础地址
+     */
+    public String getBaseUrl() {
+        return defaultNode.getBaseUrl();
+    }
+
+    private URI resolve(JudgeNode node, String path) {
+        return URI.create(node.getBaseUrl() + path);
+    }
+
+    /**
+     * 执行请求，在连接失败或服务端错误时按重试预算重试
+     * responseType 为null时忽略响应体
+     */
+    private <T> T execute(JudgeNode node, String endpoint, HttpRequest.Builder requestBuilder,
+                          TypeReference<T> responseType) throws IOException {
+        HttpRequest request = requestBuilder.timeout(serviceProperties.getReadTimeout()).build();
+        int maxAttempts = Math.max(1, serviceProperties.getMaxAttempts());
+        retryBudget.deposit();
+
+        IOException lastError = null;
+        for (int attempt = 1; attempt <= maxAttempts; attempt++) {
+            if (attempt > 1) {
+                if (!retryBudget.tryWithdraw()) {
+                    log.warn("评测服务重试预算已耗尽，放弃重试: {}", endpoint);
+                    break;
+                }
+                retryCounter.increment();
+                sleepBeforeRetry(attempt);
+            }
+
+            long start = System.nanoTime();
+            String outcome = "error";
+            node.requestStarted();
+            try {
+                T result = sendOnce(node, request, responseType);
+                outcome = "success";
+                node.recordSuccess();
+                return result;
+            } catch (NonRetryableException e) {
+                // 4xx或响应无法解析说明节点本身正常
+                node.recordSuccess();
+                throw e;
+            } catch (RetryableException e) {
+                lastError = e;
+                log.warn("评测节点 {} 请求失败（第{}次尝试）: {}", node.getId(), attempt, e.getMessage());
+                // 本地等待连接超时不代表节点故障，不计入节点失败次数
+                if (!(e instanceof ConnectionWaitTimeoutException)
+                        && node.recordFailure(serviceProperties.getEjectionFailureThreshold(),
+                        serviceProperties.getEjectionDuration())) {
+                    log.warn("评测节点 {} 连续请求失败，暂时摘除 {}", node, serviceProperties.getEjectionDuration());
+                }
+            } finally {
+                node.requestFinished();
+                Timer.builder("judge.client.request")
+                        .description("评测服务单次请求耗时")
+                        .tag("endpoint", endpoint)
+                        .tag("node", node.getId())
+                        .tag("outcome", outcome)
+                        .register(meterRegistry)
+                        .record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            }
+        }
+        throw lastError != null ? lastError : new IOException("评测服务请求失败: " + endpoint);
+    }
+
+    private <T> T sendOnce(JudgeNode node, HttpRequest request, TypeReference<T> responseType) throws IOException {
+        Semaphore connectionPermits = node.getConnectionPermits();
+        try {
+            if (!connectionPermits.tryAcquire(serviceProperties.getReadTimeout().toMillis(), TimeUnit.MILLISECONDS)) {
+                throw new ConnectionWaitTimeoutException("等待评测服务连接超时");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("评测请求被中断", e);
+        }
+
+        try {
+            HttpResponse<InputStream> response = httpClient.send(request, HttpResponse.BodyHandlers.ofInputStream());
+            try (InputStream body = response.body()) {
+                int statusCode = response.statusCode();
+                if (statusCode == 200) {
+                    if (responseType == null) {
+                        return null;
+                    }
+                    try {
+                        return OBJECT_MAPPER.readValue(body, responseType);
+                    } catch (JsonProcessingException e) {
+                        throw new NonRetryableException("解析评测服务响应失败: " + e.getOriginalMessage(), e);
+                    }
+                }
+                String message = "评测服务返回错误状态码: " + statusCode + ", "
+                        + new String(body.readNBytes(1024), StandardCharsets.UTF_8);
+                if (statusCode >= 500) {
+                    throw new RetryableException(message);
+                }
+                throw new NonRetryableException(message);
+            }
+        } catch (RetryableException | NonRetryableException e) {
+            throw e;
+        } catch (IOException e) {
+            // 连接失败、超时、长连接被对端关闭等网络异常均可重试
+            throw new RetryableException("评测服务连接失败: " + e.getMessage(), e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("评测请求被中断", e);
+        } finally {
+            connectionPermits.release();
+        }
+    }
+
+    private void sleepBeforeRetry(int attempt) throws IOException {
+        Duration backoff = serviceProperties.getRetryBackoff().multipliedBy(attempt - 1);
+        try {
+            Thread.sleep(backoff.toMillis());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("评测请求被中断", e);
+        }
+    }
+
+    /**
+     * 不可重试的请求异常（4xx响应或响应无法解析）
+     */
+    private static class NonRetryableException extends IOException {
+        NonRetryableException(String message) {
+            super(message);
+        }
+
+        NonRetryableException(String message, Throwable cause) {
+            super(message, cause);
+        }
+    }
+
+    /**
+     * 可重试的请求异常（连接失败、超时或服务端错误）
+     */
+    private static class RetryableException extends IOException {
+        RetryableException(String message) {
+            super(message);
+        }
+
+        RetryableException(String message, Throwable cause) {
+            super(message, cause);
+        }
+    }
+
+    /**
+     * 等待本地连接许可超时（节点并发连接已满）
+     */
+    private static class ConnectionWaitTimeoutException extends RetryableException {
+        ConnectionWaitTimeoutException(String message) {
+            super(message);
+        }
+    }
+}
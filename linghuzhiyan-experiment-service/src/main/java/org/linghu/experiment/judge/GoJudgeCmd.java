@@ -0,0 +1,62 @@
+package org.linghu.experiment.judge;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * go-judge 单条执行命令
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class GoJudgeCmd {
+
+    private List<String> args;
+
+    private List<String> env;
+
+    /**
+     * 标准输入、标准输出、标准错误
+     */
+    private List<GoJudgeFile> files;
+
+    /**
+     * CPU时间限制（纳秒）
+     */
+    private Long cpuLimit;
+
+    /**
+     * 墙上时间限制（纳秒）
+     */
+    private Long clockLimit;
+
+    /**
+     * 内存限制（字节）
+     */
+    private Long memoryLimit;
+
+    private Integer procLimit;
+
+    /**
+     * 复制到沙箱中的文件（沙箱内路径 -> 文件）
+     */
+    private Map<String, GoJudgeFile> copyIn;
+
+    /**
+     * 执行结束后以内容形式返回的文件
+     */
+    private List<String> copyOut;
+
+    /**
+     * 执行结束后缓存在 go-judge 中、以文件ID形式返回的文件
+     */
+    private List<String> copyOutCached;
+}
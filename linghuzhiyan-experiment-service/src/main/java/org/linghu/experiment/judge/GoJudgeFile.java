@@ -0,0 +1,60 @@
+package org.linghu.experiment.judge;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * go-judge 文件描述
+ * 既用于 files（标准输入/输出收集器），也用于 copyIn（内联内容或缓存文件ID）
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class GoJudgeFile {
+
+    /**
+     * 内联文件内容
+     */
+    private String content;
+
+    /**
+     * 输出收集器名称（stdout/stderr）
+     */
+    private String name;
+
+    /**
+     * 输出收集器最大字节数
+     */
+    private Long max;
+
+    /**
+     * go-judge 文件存储中的缓存文件ID
+     */
+    private String fileId;
+
+    /**
+     * 内联内容文件
+     */
+    public static GoJudgeFile content(String content) {
+        return GoJudgeFile.builder().content(content).build();
+    }
+
+    /**
+     * 输出收集器
+     */
+    public static GoJudgeFile collector(String name, long max) {
+        return GoJudgeFile.builder().name(name).max(max).build();
+    }
+
+    /**
+     * 引用已缓存的文件
+     */
+    public static GoJudgeFile cached(String fileId) {
+        return GoJudgeFile.builder().fileId(fileId).build();
+    }
+}
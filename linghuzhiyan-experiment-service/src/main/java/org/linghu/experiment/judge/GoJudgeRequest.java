@@ -0,0 +1,20 @@
+package org.linghu.experiment.judge;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * go-judge /run 请求
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class GoJudgeRequest {
+
+    private List<GoJudgeCmd> cmd;
+}
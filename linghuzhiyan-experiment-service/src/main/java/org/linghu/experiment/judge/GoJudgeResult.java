@@ -0,0 +1,80 @@
+package org.linghu.experiment.judge;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.Map;
+
+/**
+ * go-judge 单条命令的执行结果
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class GoJudgeResult {
+
+    public static final String STATUS_ACCEPTED = "Accepted";
+
+    /**
+     * copyIn 引用的缓存文件不存在（已被 go-judge 清理）时返回的状态
+     */
+    public static final String STATUS_FILE_ERROR = "File Error";
+
+    /**
+     * 执行状态，如 Accepted、Nonzero Exit Status、Time Limit Exceeded 等
+     */
+    private String status;
+
+    private Integer exitStatus;
+
+    private String error;
+
+    /**
+     * CPU时间（纳秒）
+     */
+    private Long time;
+
+    /**
+     * 内存使用（字节）
+     */
+    private Long memory;
+
+    /**
+     * 墙上时间（纳秒）
+     */
+    private Long runTime;
+
+    /**
+     * copyOut 返回的文件内容
+     */
+    private Map<String, String> files;
+
+    /**
+     * copyOutCached 返回的缓存文件ID
+     */
+    private Map<String, String> fileIds;
+
+    /**
+     * 获取输出文件内容，不存在时返回空字符串
+     */
+    public String fileContent(String name) {
+        if (files == null) {
+            return "";
+        }
+        String content = files.get(name);
+        return content != null ? content : "";
+    }
+
+    public boolean isAccepted() {
+        return STATUS_ACCEPTED.equals(status);
+    }
+
+    public boolean isFileError() {
+        return STATUS_FILE_ERROR.equals(status);
+    }
+}
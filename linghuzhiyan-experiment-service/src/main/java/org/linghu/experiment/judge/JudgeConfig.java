@@ -0,0 +1,123 @@
+package org.linghu.experiment.judge;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 编程任务的评测配置，以JSON形式保存在 experiment_task.judge_config 中
+ * <p>
+ * 配置了测试用例时，评测分为编译和运行两个阶段：compile.sh 只执行一次，
+ * 产物缓存在 go-judge 中，随后每个测试用例以 run.sh 单独运行并按输出比对计分。
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class JudgeConfig {
+
+    /**
+     * 未设置满分时的默认满分
+     */
+    public static final BigDecimal DEFAULT_TOTAL_SCORE = new BigDecimal("100");
+
+    /**
+     * 编译产物（沙箱内相对路径），编译后缓存并复制到每个测试用例的沙箱中；
+     * 提交的源文件总会复制到测试用例的沙箱中，解释型语言或没有编译步骤的任务无需配置
+     */
+    @Builder.Default
+    private List<String> artifacts = new ArrayList<>();
+
+    /**
+     * 是否在首个测试用例失败后停止运行剩余用例
+     */
+    @Builder.Default
+    private Boolean stopOnFirstFailure = false;
+
+    /**
+     * 测试用例列表
+     */
+    @Builder.Default
+    private List<TestCase> testCases = new ArrayList<>();
+
+    /**
+     * 任务满分，为空时为100
+     */
+    private BigDecimal totalScore;
+
+    /**
+     * 任务的CPU时间限制（毫秒）：未配置测试用例时用于整体运行，配置测试用例时作为各用例的默认值；为空时使用全局默认值
+     */
+    private Long timeLimit;
+
+    /**
+     * 任务的内存限制（MB），用法同 timeLimit
+     */
+    private Long memoryLimit;
+
+    public boolean hasTestCases() {
+        return testCases != null && !testCases.isEmpty();
+    }
+
+    /**
+     * 获取任务满分
+     *
+     * @param config 评测配置，可以为null
+     * @return 满分
+     */
+    public static BigDecimal totalScoreOf(JudgeConfig config) {
+        return config != null && config.getTotalScore() != null ? config.getTotalScore() : DEFAULT_TOTAL_SCORE;
+    }
+
+    public boolean isStopOnFirstFailure() {
+        return Boolean.TRUE.equals(stopOnFirstFailure);
+    }
+
+    /**
+     * 单个测试用例
+     */
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    public static class TestCase {
+
+        private String name;
+
+        /**
+         * 标准输入
+         */
+        private String input;
+
+        /**
+         * 期望的标准输出，比对时忽略行尾空白和末尾空行
+         */
+        private String expectedOutput;
+
+        /**
+         * CPU时间限制（毫秒），为空时使用任务或全局默认值
+         */
+        private Long timeLimit;
+
+        /**
+         * 内存限制（MB），为空时使用任务或全局默认值
+         */
+        private Long memoryLimit;
+
+        /**
+         * 用例分值，为空时与其他未设置分值的用例平分满分中的剩余分数
+         */
+        private BigDecimal score;
+    }
+}
@@ -0,0 +1,228 @@
+package org.linghu.experiment.judge;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.minio.Result;
+import io.minio.messages.Item;
+import lombok.extern.slf4j.Slf4j;
+import org.linghu.experiment.utils.MinioUtil;
+import org.linghu.experiment.utils.SubmissionArchive;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * go-judge 缓存文件管理
+ * <p>
+ * 教师提供的任务脚手架文件（compile.sh、run.sh 及模板代码）对所有学生都相同。
+ * 这些文件按内容哈希上传到每个 go-judge 节点的文件存储一次，评测请求通过 fileId 引用，
+ * 不再在每次请求中内联完整内容。文件ID只在上传的节点上有效，因此按节点分别缓存。任务文件变化时（MinIO ETag 变化）自动重新加载，
+ * go-judge 清理缓存后由调用方通过 {@link #evict(JudgeNode, Collection)} 触发重新上传。
+ * 文件ID映射只保留仍被某个任务脚手架引用的内容，节点下线时通过 {@link #evictNode(JudgeNode)} 整体移除。
+ */
+@Slf4j
+@Component
+public class JudgeFileCache {
+
+    private static final String TASK_PREFIX_FORMAT = "%s/experiment/%s/";
+
+    private final MinioUtil minioUtil;
+    private final GoJudgeClient goJudgeClient;
+
+    // 任务键(experimentId/taskId) -> 脚手架文件
+    private final Map<String, TaskScaffold> scaffolds = new ConcurrentHashMap<>();
+    // 节点ID -> (内容哈希 -> go-judge 文件ID)
+    private final Map<String, Map<String, String>> fileIds = new ConcurrentHashMap<>();
+
+    private final Counter hitCounter;
+    private final Counter uploadCounter;
+
+    public JudgeFileCache(MinioUtil minioUtil, GoJudgeClient goJudgeClient, MeterRegistry meterRegistry) {
+        this.minioUtil = minioUtil;
+        this.goJudgeClient = goJudgeClient;
+        this.hitCounter = Counter.builder("judge.file.cache")
+                .description("评测请求中引用缓存文件的次数")
+                .tag("result", "hit")
+                .register(meterRegistry);
+        this.uploadCounter = Counter.builder("judge.file.cache")
+                .description("上传到评测服务文件存储的次数")
+                .tag("result", "upload")
+                .register(meterRegistry);
+    }
+
+    /**
+     * 获取任务的脚手架文件，MinIO中的文件未变化时直接返回缓存
+     *
+     * @param experimentId 实验ID
+     * @param taskId       任务ID
+     * @return 任务脚手架
+     * @throws Exception 如果读取MinIO失败
+     */
+    public TaskScaffold getScaffold(String experimentId, String taskId) throws Exception {
+        String prefix = String.format(TASK_PREFIX_FORMAT, experimentId, taskId);
+        List<String> objectNames = new ArrayList<>();
+        String version = listTaskFiles(prefix, objectNames);
+
+        String taskKey = experimentId + "/" + taskId;
+        TaskScaffold cached = scaffolds.get(taskKey);
+        if (cached != null && cached.version().equals(version)) {
+            return cached;
+        }
+
+        Map<String, String> contentsByHash = new HashMap<>();
+        Map<String, String> filesByPath = new LinkedHashMap<>();
+        for (String objectName : objectNames) {
+            String content = minioUtil.downloadFileAsString(objectName);
+            contentsByHash.put(sha256(content), content);
+            filesByPath.put(SubmissionArchive.sandboxPath(objectName.substring(prefix.length())), content);
+        }
+        TaskScaffold scaffold = new TaskScaffold(version, Collections.unmodifiableMap(contentsByHash),
+                Collections.unmodifiableMap(filesByPath));
+        if (scaffolds.put(taskKey, scaffold) != null) {
+            pruneFileIds();
+        }
+        log.info("已加载任务 {} 的脚手架文件 {} 个，版本: {}", taskKey, contentsByHash.size(), version);
+        return scaffold;
+    }
+
+    /**
+     * 获取任务脚手架的版本号，只列举对象元数据，不下载文件内容
+     *
+     * @param experimentId 实验ID
+     * @param taskId       任务ID
+     * @return 版本号，与 {@link #getScaffold} 返回的版本一致
+     * @throws Exception 如果读取MinIO失败
+     */
+    public String getScaffoldVersion(String experimentId, String taskId) throws Exception {
+        return listTaskFiles(String.format(TASK_PREFIX_FORMAT, experimentId, taskId), new ArrayList<>());
+    }
+
+    /**
+     * 列举任务文件，以对象名和ETag计算版本号，文件内容变化时版本随之变化
+     *
+     * @param prefix      任务文件前缀
+     * @param objectNames 输出参数，任务文件的对象名
+     * @return 版本号
+     */
+    private String listTaskFiles(String prefix, List<String> objectNames) throws Exception {
+        StringBuilder versionSource = new StringBuilder();
+        for (Result<Item> result : minioUtil.listObjects(MinioUtil.getResourceBucket(), prefix)) {
+            Item item = result.get();
+            String objectName = item.objectName();
+            if (objectName.endsWith("/") || objectName.contains("/original/")) {
+                continue;
+            }
+            objectNames.add(objectName);
+            versionSource.append(objectName).append(':').append(item.etag()).append('\n');
+        }
+        return sha256(versionSource.toString());
+    }
+
+    /**
+     * 获取脚手架文件在指定节点上的 go-judge 文件ID，未上传过时先上传到该节点
+     *
+     * @param node        评测节点
+     * @param scaffold    任务脚手架
+     * @param contentHash 文件内容哈希
+     * @return 文件ID；如果内容不属于脚手架则返回null
+     * @throws IOException 如果上传失败
+     */
+    public String resolveFileId(JudgeNode node, TaskScaffold scaffold, String contentHash) throws IOException {
+        String content = scaffold.contentsByHash().get(contentHash);
+        if (content == null) {
+            return null;
+        }
+
+        Map<String, String> nodeFileIds = fileIds.computeIfAbsent(node.getId(), id -> new ConcurrentHashMap<>());
+        String fileId = nodeFileIds.get(contentHash);
+        if (fileId != null) {
+            hitCounter.increment();
+            return fileId;
+        }
+
+        String uploaded = goJudgeClient.uploadFile(node, contentHash, content.getBytes(StandardCharsets.UTF_8));
+        uploadCounter.increment();
+        String existing = nodeFileIds.putIfAbsent(contentHash, uploaded);
+        return existing != null ? existing : uploaded;
+    }
+
+    /**
+     * 移除指定节点上已失效的文件ID（go-judge 返回 File Error 时调用），下次引用时重新上传
+     *
+     * @param node          评测节点
+     * @param contentHashes 文件内容哈希
+     */
+    public void evict(JudgeNode node, Collection<String> contentHashes) {
+        Map<String, String> nodeFileIds = fileIds.get(node.getId());
+        if (nodeFileIds != null) {
+            nodeFileIds.keySet().removeAll(contentHashes);
+        }
+    }
+
+    /**
+     * 移除已下线节点上的全部文件ID
+     *
+     * @param node 评测节点
+     */
+    public void evictNode(JudgeNode node) {
+        fileIds.remove(node.getId());
+    }
+
+    /**
+     * 使任务的脚手架缓存失效
+     *
+     * @param experimentId 实验ID
+     * @param taskId       任务ID
+     */
+    public void invalidateTask(String experimentId, String taskId) {
+        if (scaffolds.remove(experimentId + "/" + taskId) != null) {
+            pruneFileIds();
+        }
+    }
+
+    /**
+     * 移除不再被任何任务脚手架引用的文件ID，任务文件更新后旧版本内容的映射随之清除
+     */
+    private void pruneFileIds() {
+        Set<String> referenced = new HashSet<>();
+        scaffolds.values().forEach(scaffold -> referenced.addAll(scaffold.contentsByHash().keySet()));
+        fileIds.values().forEach(nodeFileIds -> nodeFileIds.keySet().retainAll(referenced));
+    }
+
+    /**
+     * 当前缓存的文件ID数量（所有节点合计）
+     */
+    int fileIdCount() {
+        return fileIds.values().stream().mapToInt(Map::size).sum();
+    }
+
+    /**
+     * 计算内容的SHA-256哈希
+     *
+     * @param content 文本内容
+     * @return 十六进制哈希
+     */
+    public static String sha256(String content) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(content.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 不可用", e);
+        }
+    }
+
+    /**
+     * 任务脚手架：版本号、按内容哈希索引的文件内容，以及按沙箱内相对路径索引的文件内容
+     */
+    public record TaskScaffold(String version, Map<String, String> contentsByHash, Map<String, String> filesByPath) {
+
+        public boolean contains(String contentHash) {
+            return contentsByHash.containsKey(contentHash);
+        }
+    }
+}
@@ -0,0 +1,118 @@
+package org.linghu.experiment.judge;
+
+import java.time.Duration;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * go-judge 评测节点
+ * <p>
+ * 记录节点地址、正在处理的请求数和健康状态。连续失败次数达到阈值时节点被摘除一段时间，
+ * 摘除期满后重新参与调度，再次失败会立即被摘除。
+ */
+public class JudgeNode {
+
+    private final String id;
+    private final String baseUrl;
+    private final Semaphore connectionPermits;
+    private final AtomicInteger outstanding = new AtomicInteger();
+    private final AtomicInteger consecutiveFailures = new AtomicInteger();
+    private final AtomicLong ejections = new AtomicLong();
+    private volatile long ejectedUntilNanos;
+    private volatile boolean ejected;
+
+    public JudgeNode(String id, String baseUrl, int maxConnections) {
+        this.id = id;
+        this.baseUrl = normalizeBaseUrl(baseUrl);
+        this.connectionPermits = new Semaphore(Math.max(1, maxConnections), true);
+    }
+
+    /**
+     * 规范化节点地址，兼容以 / 或 /run 结尾的旧配置
+     *
+     * @param url 配置的地址
+     * @return 基础地址
+     */
+    static String normalizeBaseUrl(String url) {
+        String normalized = url.trim();
+        if (normalized.endsWith("/")) {
+            normalized = normalized.substring(0, normalized.length() - 1);
+        }
+        if (normalized.endsWith("/run")) {
+            normalized = normalized.substring(0, normalized.length() - "/run".length());
+        }
+        return normalized;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public String getBaseUrl() {
+        return baseUrl;
+    }
+
+    Semaphore getConnectionPermits() {
+        return connectionPermits;
+    }
+
+    /**
+     * 正在处理的请求数
+     */
+    public int getOutstanding() {
+        return outstanding.get();
+    }
+
+    public long getEjections() {
+        return ejections.get();
+    }
+
+    /**
+     * 节点当前是否可以接收请求（未被摘除或摘除已到期）
+     */
+    public boolean isAvailable() {
+        return !ejected || System.nanoTime() - ejectedUntilNanos >= 0;
+    }
+
+    void requestStarted() {
+        outstanding.incrementAndGet();
+    }
+
+    void requestFinished() {
+        outstanding.decrementAndGet();
+    }
+
+    /**
+     * 记录一次成功，清除失败计数并恢复节点
+     */
+    void recordSuccess() {
+        consecutiveFailures.set(0);
+        ejected = false;
+    }
+
+    /**
+     * 记录一次失败（连接失败、超时、5xx 或健康检查过慢）
+     *
+     * @param threshold        连续失败阈值
+     * @param ejectionDuration 摘除时长
+     * @return 本次失败是否导致节点被摘除
+     */
+    boolean recordFailure(int threshold, Duration ejectionDuration) {
+        int failures = consecutiveFailures.incrementAndGet();
+        // 摘除到期后重新接收请求的节点，再次失败时直接摘除
+        if (failures >= Math.max(1, threshold) || (ejected && isAvailable())) {
+            ejectedUntilNanos = System.nanoTime() + ejectionDuration.toNanos();
+            ejected = true;
+            consecutiveFailures.set(0);
+            ejections.incrementAndGet();
+            return true;
+        }
+        return false;
+    }
+
+    @Override
+    public String toString() {
+        return id + "(" + baseUrl + ")";
+    }
+}
@@ -0,0 +1,255 @@
+package org.linghu.experiment.judge;
+
+import io.micrometer.core.instrument.*;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.linghu.experiment.config.EvaluationProperties;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.client.discovery.DiscoveryClient;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * go-judge 评测节点注册表
+ * <p>
+ * 节点来自静态配置（evaluation.service.nodes / url）或注册中心，定期做健康检查，
+ * 连续失败或响应过慢的节点被暂时摘除。调度时同一任务优先发往按任务ID做一致性哈希得到的节点，
+ * 使该任务的脚手架缓存文件留在同一节点上；该节点明显比其他节点繁忙时改投在途请求最少的节点。
+ */
+@Slf4j
+@Component
+public class JudgeNodeRegistry {
+
+    private final GoJudgeClient goJudgeClient;
+    private final JudgeFileCache judgeFileCache;
+    private final EvaluationProperties.Service serviceProperties;
+    private final MeterRegistry meterRegistry;
+    private final ObjectProvider<DiscoveryClient> discoveryClientProvider;
+
+    // 节点地址 -> 节点
+    private final Map<String, JudgeNode> nodes = new ConcurrentHashMap<>();
+    // 节点地址 -> 节点指标，节点下线时一并移除
+    private final Map<String, List<Meter>> nodeMeters = new ConcurrentHashMap<>();
+
+    private ScheduledExecutorService healthChecker;
+
+    public JudgeNodeRegistry(GoJudgeClient goJudgeClient,
+                             JudgeFileCache judgeFileCache,
+                             EvaluationProperties evaluationProperties,
+                             MeterRegistry meterRegistry,
+                             ObjectProvider<DiscoveryClient> discoveryClientProvider) {
+        this.goJudgeClient = goJudgeClient;
+        this.judgeFileCache = judgeFileCache;
+        this.serviceProperties = evaluationProperties.getService();
+        this.meterRegistry = meterRegistry;
+        this.discoveryClientProvider = discoveryClientProvider;
+    }
+
+    @PostConstruct
+    public void start() {
+        refreshNodes();
+        long intervalMillis = Math.max(100, serviceProperties.getHealthCheckInterval().toMillis());
+        healthChecker = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "judge-health-checker");
+            thread.setDaemon(true);
+            return thread;
+        });
+        healthChecker.scheduleWithFixedDelay(this::checkNodesQuietly, intervalMillis, intervalMillis,
+                TimeUnit.MILLISECONDS);
+        log.info("评测节点注册表已启动，节点: {}", nodes.keySet());
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (healthChecker != null) {
+            healthChecker.shutdownNow();
+        }
+    }
+
+    /**
+     * 为一次评测选择节点
+     *
+     * @param affinityKey 粘性路由键（任务ID），为null时直接选择最空闲的节点
+     * @return 评测节点
+     */
+    public JudgeNode select(String affinityKey) {
+        List<JudgeNode> candidates = nodes.values().stream().filter(JudgeNode::isAvailable).toList();
+        if (candidates.isEmpty()) {
+            // 所有节点都被摘除时不拒绝评测，退回到全部节点中选择
+            candidates = List.copyOf(nodes.values());
+        }
+        if (candidates.isEmpty()) {
+            throw new RuntimeException("没有可用的评测节点");
+        }
+
+        JudgeNode leastLoaded = leastOutstanding(candidates);
+        if (affinityKey != null) {
+            JudgeNode preferred = rendezvous(affinityKey, candidates);
+            if (preferred.getOutstanding() - leastLoaded.getOutstanding()
+                    <= Math.max(0, serviceProperties.getStickyMaxImbalance())) {
+                countSelection(preferred, "sticky");
+                return preferred;
+            }
+        }
+        countSelection(leastLoaded, "least-outstanding");
+        return leastLoaded;
+    }
+
+    /**
+     * 获取当前所有节点
+     *
+     * @return 节点列表
+     */
+    public List<JudgeNode> getNodes() {
+        return List.copyOf(nodes.values());
+    }
+
+    /**
+     * 按配置或注册中心刷新节点列表
+     */
+    void refreshNodes() {
+        Set<String> urls = new LinkedHashSet<>();
+        List<String> configured = serviceProperties.getNodes() != null && !serviceProperties.getNodes().isEmpty()
+                ? serviceProperties.getNodes()
+                : List.of(serviceProperties.getUrl());
+        configured.forEach(url -> urls.add(JudgeNode.normalizeBaseUrl(url)));
+
+        String serviceId = serviceProperties.getDiscoveryServiceId();
+        DiscoveryClient discoveryClient = discoveryClientProvider != null
+                ? discoveryClientProvider.getIfAvailable() : null;
+        if (serviceId != null && !serviceId.isBlank() && discoveryClient != null) {
+            List<ServiceInstance> instances = discoveryClient.getInstances(serviceId);
+            if (!instances.isEmpty()) {
+                // 注册中心中有实例时以注册中心为准，否则保留静态配置
+                urls.clear();
+                instances.forEach(instance -> urls.add(JudgeNode.normalizeBaseUrl(instance.getUri().toString())));
+            }
+        }
+
+        for (String url : urls) {
+            nodes.computeIfAbsent(url, this::registerNode);
+        }
+        for (String url : List.copyOf(nodes.keySet())) {
+            if (!urls.contains(url)) {
+                JudgeNode removed = nodes.remove(url);
+                if (removed != null) {
+                    judgeFileCache.evictNode(removed);
+                }
+                List<Meter> meters = nodeMeters.remove(url);
+                if (meters != null) {
+                    meters.forEach(meterRegistry::remove);
+                }
+                log.info("评测节点 {} 已下线", url);
+            }
+        }
+    }
+
+    /**
+     * 对所有节点做一次健康检查
+     */
+    void checkNodes() {
+        refreshNodes();
+        for (JudgeNode node : nodes.values()) {
+            try {
+                Duration latency = goJudgeClient.checkHealth(node);
+                // 摘除期内的节点即使检查通过也要等到期满才恢复
+                if (node.isAvailable()) {
+                    node.recordSuccess();
+                }
+                log.debug("评测节点 {} 健康检查通过，耗时 {}ms", node, latency.toMillis());
+            } catch (IOException e) {
+                if (node.recordFailure(serviceProperties.getEjectionFailureThreshold(),
+                        serviceProperties.getEjectionDuration())) {
+                    log.warn("评测节点 {} 健康检查连续失败，暂时摘除 {}: {}", node,
+                            serviceProperties.getEjectionDuration(), e.getMessage());
+                }
+            }
+        }
+    }
+
+    private void checkNodesQuietly() {
+        try {
+            checkNodes();
+        } catch (Exception e) {
+            log.error("评测节点健康检查失败: {}", e.getMessage(), e);
+        }
+    }
+
+    private JudgeNode registerNode(String url) {
+        JudgeNode node = goJudgeClient.createNode(url, url);
+        Tags tags = Tags.of("node", node.getId());
+        List<Meter> meters = new ArrayList<>();
+        meters.add(Gauge.builder("judge.node.outstanding", node, JudgeNode::getOutstanding)
+                .description("评测节点正在处理的请求数")
+                .tags(tags)
+                .register(meterRegistry));
+        meters.add(Gauge.builder("judge.node.available", node, n -> n.isAvailable() ? 1 : 0)
+                .description("评测节点是否可用（1可用，0已摘除）")
+                .tags(tags)
+                .register(meterRegistry));
+        meters.add(FunctionCounter.builder("judge.node.ejections", node, JudgeNode::getEjections)
+                .description("评测节点被摘除的次数")
+                .tags(tags)
+                .register(meterRegistry));
+        nodeMeters.put(url, meters);
+        log.info("评测节点 {} 已上线", url);
+        return node;
+    }
+
+    private void countSelection(JudgeNode node, String route) {
+        Counter.builder("judge.node.selections")
+                .description("分配到评测节点的评测次数")
+                .tag("node", node.getId())
+                .tag("route", route)
+                .register(meterRegistry)
+                .increment();
+    }
+
+    /**
+     * 选择在途请求最少的节点，数量相同时随机选择，避免总是落在同一节点
+     */
+    private static JudgeNode leastOutstanding(List<JudgeNode> candidates) {
+        int offset = ThreadLocalRandom.current().nextInt(candidates.size());
+        JudgeNode best = null;
+        for (int i = 0; i < candidates.size(); i++) {
+            JudgeNode node = candidates.get((offset + i) % candidates.size());
+            if (best == null || node.getOutstanding() < best.getOutstanding()) {
+                best = node;
+            }
+        }
+        return best;
+    }
+
+    /**
+     * 最高随机权重（Rendezvous）哈希：节点增减时只有落在该节点上的任务会改变归属
+     */
+    static JudgeNode rendezvous(String key, List<JudgeNode> candidates) {
+        JudgeNode best = null;
+        long bestWeight = Long.MIN_VALUE;
+        for (JudgeNode node : candidates) {
+            long weight = mix(((long) key.hashCode() << 32) ^ node.getBaseUrl().hashCode());
+            if (best == null || weight > bestWeight) {
+                best = node;
+                bestWeight = weight;
+            }
+        }
+        return best;
+    }
+
+    private static long mix(long value) {
+        long z = value + 0x9E3779B97F4A7C15L;
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+}
@@ -0,0 +1,47 @@
+package org.linghu.experiment.judge;
+
+/**
+ * 重试预算
+ * <p>
+ * 每个请求按比例存入令牌，每次重试消耗一个令牌，令牌不足时放弃重试，
+ * 避免评测服务故障时重试流量成倍放大。
+ */
+class RetryBudget {
+
+    private final double ratio;
+    private final double minTokens;
+    private final double maxTokens;
+    private double tokens;
+
+    RetryBudget(double ratio, int minTokens) {
+        this.ratio = Math.max(0, ratio);
+        this.minTokens = Math.max(0, minTokens);
+        // 令牌上限为保底令牌数的两倍，防止长时间无故障后积累过多重试额度
+        this.maxTokens = Math.max(1, this.minTokens * 2);
+        this.tokens = this.minTokens;
+    }
+
+    /**
+     * 记录一次请求，补充令牌
+     */
+    synchronized void deposit() {
+        tokens = Math.min(maxTokens, tokens + ratio);
+    }
+
+    /**
+     * 尝试消耗一个令牌用于重试
+     *
+     * @return 是否允许重试
+     */
+    synchronized boolean tryWithdraw() {
+        if (tokens < 1) {
+            return false;
+        }
+        tokens -= 1;
+        return true;
+    }
+
+    synchronized double available() {
+        return tokens;
+    }
+}
@@ -0,0 +1,59 @@
+package org.linghu.experiment.judge;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+/**
+ * 单个测试用例的评测结果，以JSON数组形式保存在 experiment_evaluation.case_results 中
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class TestCaseResult {
+
+    public static final String STATUS_WRONG_ANSWER = "Wrong Answer";
+    public static final String STATUS_SKIPPED = "Skipped";
+
+    private String name;
+
+    /**
+     * 用例状态：Accepted、Wrong Answer、Skipped 或 go-judge 返回的运行状态
+     */
+    private String status;
+
+    private Boolean passed;
+
+    /**
+     * 用例得分
+     */
+    private BigDecimal score;
+
+    /**
+     * 用例满分
+     */
+    private BigDecimal maxScore;
+
+    /**
+     * CPU时间（纳秒）
+     */
+    private Long time;
+
+    /**
+     * 内存使用（字节）
+     */
+    private Long memory;
+
+    /**
+     * 标准错误或运行错误信息
+     */
+    private String message;
+}
@@ -1,9 +1,17 @@
 package org.linghu.experiment.repository;
 
 import org.linghu.experiment.domain.ExperimentEvaluation;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -12,6 +20,15 @@ import java.util.Optional;
  */
 @Repository
 public interface ExperimentEvaluationRepository extends JpaRepository<ExperimentEvaluation, String> {
+
+    // 评测历史查询：关联提交记录取提交时间，按创建时间和ID倒序，配合 (user_id, task_id, created_time) 索引
+    String HISTORY_SELECT = "SELECT e.id AS id, e.submissionId AS submissionId, e.userId AS userId, e.taskId AS taskId, "
+            + "e.score AS score, e.errorMessage AS errorMessage, e.additionalInfo AS additionalInfo, "
+            + "e.caseResults AS caseResults, e.status AS status, e.queuedTime AS queuedTime, "
+            + "e.createdTime AS createdTime, s.submitTime AS submitTime "
+            + "FROM ExperimentEvaluation e LEFT JOIN e.submission s ";
+
+    String HISTORY_ORDER = "ORDER BY e.createdTime DESC, e.id DESC";
     
     /**
      * 根据提交ID查找评测结果
@@ -37,4 +54,132 @@ public interface ExperimentEvaluationRepository extends JpaRepository<Experiment
      * @return 评测结果列表
      */
     List<ExperimentEvaluation> findByUserIdAndTaskIdOrderByIdDesc(String studentId, String taskId);
+
+    /**
+     * 查找可以恢复的排队评测任务（用于服务重启后恢复评测队列）
+     * 包括PENDING任务和租约已过期的RUNNING任务，仍在租约内的RUNNING任务由持有租约的实例继续执行
+     *
+     * @param pending PENDING状态
+     * @param running RUNNING状态
+     * @param now     当前时间
+     * @return 按入队时间排序的评测任务列表
+     */
+    @Query("SELECT e FROM ExperimentEvaluation e WHERE e.queuedTime IS NOT NULL AND (e.status = :pending "
+            + "OR (e.status = :running AND (e.leaseUntil IS NULL OR e.leaseUntil < :now))) ORDER BY e.queuedTime ASC")
+    List<ExperimentEvaluation> findRecoverable(@Param("pending") ExperimentEvaluation.EvaluationStatus pending,
+                                               @Param("running") ExperimentEvaluation.EvaluationStatus running,
+                                               @Param("now") LocalDateTime now);
+
+    /**
+     * 领取评测任务：只有PENDING或租约已过期的RUNNING任务才能被领取，
+     * 多个实例同时领取同一任务时只有一个能更新成功
+     *
+     * @param id         评测ID
+     * @param pending    PENDING状态
+     * @param running    RUNNING状态
+     * @param owner      领取任务的实例
+     * @param now        当前时间
+     * @param leaseUntil 租约到期时间
+     * @return 更新的记录数，0表示任务已结束或已被其他实例领取
+     */
+    @Transactional
+    @Modifying
+    @Query("UPDATE ExperimentEvaluation e SET e.status = :running, e.leaseOwner = :owner, e.leaseUntil = :leaseUntil, "
+            + "e.startedTime = :now WHERE e.id = :id AND (e.status = :pending "
+            + "OR (e.status = :running AND (e.leaseUntil IS NULL OR e.leaseUntil < :now)))")
+    int claim(@Param("id") String id,
+              @Param("pending") ExperimentEvaluation.EvaluationStatus pending,
+              @Param("running") ExperimentEvaluation.EvaluationStatus running,
+              @Param("owner") String owner,
+              @Param("now") LocalDateTime now,
+              @Param("leaseUntil") LocalDateTime leaseUntil);
+
+    /**
+     * 查找同一提交、相同内容哈希的最新评测（包括仍在评测中的记录）
+     *
+     * @param submissionId 提交ID
+     * @param contentHash  内容哈希
+     * @param statuses     评测状态集合
+     * @return 最新的评测记录
+     */
+    Optional<ExperimentEvaluation> findFirstBySubmissionIdAndContentHashAndStatusInOrderByQueuedTimeDesc(
+            String submissionId, String contentHash, Collection<ExperimentEvaluation.EvaluationStatus> statuses);
+
+    /**
+     * 查找同一任务下相同内容哈希的最新已完成评测
+     *
+     * @param taskId      任务ID
+     * @param contentHash 内容哈希
+     * @param statuses    评测状态集合
+     * @return 最新的评测记录
+     */
+    Optional<ExperimentEvaluation> findFirstByTaskIdAndContentHashAndStatusInOrderByFinishedTimeDesc(
+            String taskId, String contentHash, Collection<ExperimentEvaluation.EvaluationStatus> statuses);
+
+    /**
+     * 清除任务下所有评测的内容哈希，使已有评测结果不再被复用
+     *
+     * @param taskId 任务ID
+     * @return 更新的记录数
+     */
+    @Modifying
+    @Query("UPDATE ExperimentEvaluation e SET e.contentHash = NULL WHERE e.taskId = :taskId AND e.contentHash IS NOT NULL")
+    int clearContentHashByTaskId(@Param("taskId") String taskId);
+
+    /**
+     * 按创建时间倒序查询学生在任务下的评测历史第一页（关联提交记录取提交时间，不读取答案内容）
+     *
+     * @param userId   学生ID
+     * @param taskId   任务ID
+     * @param pageable 只使用条数，不统计总数
+     * @return 评测历史
+     */
+    @Query(HISTORY_SELECT + "WHERE e.userId = :userId AND e.taskId = :taskId " + HISTORY_ORDER)
+    List<HistoryEntry> findHistory(@Param("userId") String userId, @Param("taskId") String taskId,
+                                   Pageable pageable);
+
+    /**
+     * 按创建时间倒序查询游标之后的评测历史
+     *
+     * @param userId      学生ID
+     * @param taskId      任务ID
+     * @param createdTime 游标所在记录的创建时间
+     * @param id          游标所在记录的ID
+     * @param pageable    只使用条数，不统计总数
+     * @return 评测历史
+     */
+    @Query(HISTORY_SELECT + "WHERE e.userId = :userId AND e.taskId = :taskId "
+            + "AND (e.createdTime < :createdTime OR (e.createdTime = :createdTime AND e.id < :id)) " + HISTORY_ORDER)
+    List<HistoryEntry> findHistoryAfter(@Param("userId") String userId, @Param("taskId") String taskId,
+                                        @Param("createdTime") LocalDateTime createdTime, @Param("id") String id,
+                                        Pageable pageable);
+
+    /**
+     * 评测历史投影
+     */
+    interface HistoryEntry {
+        String getId();
+
+        String getSubmissionId();
+
+        String getUserId();
+
+        String getTaskId();
+
+        BigDecimal getScore();
+
+        String getErrorMessage();
+
+        String getAdditionalInfo();
+
+        String getCaseResults();
+
+        ExperimentEvaluation.EvaluationStatus getStatus();
+
+        LocalDateTime getQueuedTime();
+
+        LocalDateTime getCreatedTime();
+
+        LocalDateTime getSubmitTime();
+    }
 }
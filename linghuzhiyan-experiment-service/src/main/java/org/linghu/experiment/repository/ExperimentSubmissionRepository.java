@@ -1,17 +1,22 @@
 package org.linghu.experiment.repository;
 
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.linghu.experiment.domain.ExperimentSubmission;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.Date;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 /**
  * 实验提交仓储接口，负责实验提交数据的持久化
@@ -35,6 +40,25 @@ public interface ExperimentSubmissionRepository extends JpaRepository<Experiment
      * @return 提交记录分页结果
      */
     Page<ExperimentSubmission> findByTaskId(String taskId, Pageable pageable);
+
+    /**
+     * 统计任务的提交人数（每个用户只计一次）
+     *
+     * @param taskId 任务ID
+     * @return 提交人数
+     */
+    @Query("SELECT COUNT(DISTINCT es.userId) FROM ExperimentSubmission es WHERE es.taskId = :taskId")
+    long countDistinctUserIdByTaskId(@Param("taskId") String taskId);
+
+    /**
+     * 查询提交过实验中任一任务的用户ID
+     *
+     * @param experimentId 实验ID
+     * @return 用户ID列表
+     */
+    @Query("SELECT DISTINCT es.userId FROM ExperimentSubmission es JOIN ExperimentTask et ON es.taskId = et.id " +
+            "WHERE et.experimentId = :experimentId")
+    List<String> findDistinctUserIdsByExperimentId(@Param("experimentId") String experimentId);
     
     /**
      * 根据任务ID和提交时间范围查询提交记录
@@ -143,4 +167,40 @@ public interface ExperimentSubmissionRepository extends JpaRepository<Experiment
      * @return 提交记录分页结果
      */
     Page<ExperimentSubmission> findByUserId(String userId, Pageable pageable);
+
+    /**
+     * 批量查询提交的答案内容
+     *
+     * @param ids 提交ID集合
+     * @return 答案投影
+     */
+    @Query("SELECT es.id AS id, es.userId AS userId, es.userAnswer AS userAnswer FROM ExperimentSubmission es " +
+            "WHERE es.id IN :ids")
+    List<SubmissionAnswer> findAnswersByIdIn(@Param("ids") Collection<String> ids);
+
+    /**
+     * 逐行读取任务下每个用户的最新提交（只取判分需要的字段），需要在事务中使用并关闭
+     * 同一用户存在提交时间相同的多条最新提交时都会返回，按用户ID排序，由调用方去重。
+     * fetch size 为 Integer.MIN_VALUE 时 MySQL 驱动只对这条语句逐行流式读取，不会一次读入整个结果集；
+     * 流关闭前该连接不能执行其他语句，写入需要使用另一个连接
+     *
+     * @param taskId 任务ID
+     * @return 最新提交流
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "" + Integer.MIN_VALUE))
+    @Query("SELECT es.id AS id, es.userId AS userId, es.userAnswer AS userAnswer FROM ExperimentSubmission es " +
+            "WHERE es.taskId = :taskId AND es.submitTime = (SELECT MAX(latest.submitTime) FROM ExperimentSubmission latest " +
+            "WHERE latest.taskId = es.taskId AND latest.userId = es.userId) ORDER BY es.userId, es.id")
+    Stream<SubmissionAnswer> streamLatestAnswersByTaskId(@Param("taskId") String taskId);
+
+    /**
+     * 提交的答案投影
+     */
+    interface SubmissionAnswer {
+        String getId();
+
+        String getUserId();
+
+        String getUserAnswer();
+    }
 }
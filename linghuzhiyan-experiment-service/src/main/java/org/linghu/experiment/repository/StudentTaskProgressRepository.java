@@ -0,0 +1,86 @@
+package org.linghu.experiment.repository;
+
+import org.linghu.experiment.constants.TaskType;
+import org.linghu.experiment.domain.ExperimentEvaluation;
+import org.linghu.experiment.domain.StudentTaskProgress;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * 学生任务进度仓库
+ * <p>
+ * 进度记录由 StudentProgressTracker 通过 upsert 语句维护，这里只负责读取
+ */
+@Repository
+public interface StudentTaskProgressRepository extends JpaRepository<StudentTaskProgress, String> {
+
+    /**
+     * 查询学生在指定任务上的进度
+     *
+     * @param userId 用户ID
+     * @param taskId 任务ID
+     * @return 进度记录
+     */
+    Optional<StudentTaskProgress> findByUserIdAndTaskId(String userId, String taskId);
+
+    /**
+     * 查询学生进度面板：分配给学生的所有任务及其进度，一次查询完成
+     * 分配表按 (user_id, task_id) 索引读取，任务和实验按主键关联，进度按 (user_id, task_id) 唯一键关联
+     *
+     * @param userId 用户ID
+     * @return 面板条目，按实验和任务顺序排序
+     */
+    @Query("SELECT t.id AS taskId, t.experimentId AS experimentId, x.name AS experimentName, t.title AS title, "
+            + "t.taskType AS taskType, t.required AS required, t.orderNum AS orderNum, "
+            + "p.latestSubmissionId AS latestSubmissionId, p.latestSubmitTime AS latestSubmitTime, "
+            + "p.submissionCount AS submissionCount, p.latestEvaluationId AS latestEvaluationId, "
+            + "p.latestEvaluationTime AS latestEvaluationTime, p.latestScore AS latestScore, "
+            + "p.latestStatus AS latestStatus, p.latestQueuedTime AS latestQueuedTime "
+            + "FROM ExperimentAssignment a JOIN a.task t JOIN t.experiment x "
+            + "LEFT JOIN StudentTaskProgress p ON p.userId = a.userId AND p.taskId = a.taskId "
+            + "WHERE a.userId = :userId "
+            + "ORDER BY x.startTime, t.experimentId, t.orderNum, t.id")
+    List<DashboardEntry> findDashboard(@Param("userId") String userId);
+
+    /**
+     * 进度面板条目
+     */
+    interface DashboardEntry {
+        String getTaskId();
+
+        String getExperimentId();
+
+        String getExperimentName();
+
+        String getTitle();
+
+        TaskType getTaskType();
+
+        Boolean getRequired();
+
+        Integer getOrderNum();
+
+        String getLatestSubmissionId();
+
+        LocalDateTime getLatestSubmitTime();
+
+        Integer getSubmissionCount();
+
+        String getLatestEvaluationId();
+
+        LocalDateTime getLatestEvaluationTime();
+
+        BigDecimal getLatestScore();
+
+        ExperimentEvaluation.EvaluationStatus getLatestStatus();
+
+        LocalDateTime getLatestQueuedTime();
+    }
+}
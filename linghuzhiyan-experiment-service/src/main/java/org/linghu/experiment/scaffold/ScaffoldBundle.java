@@ -0,0 +1,35 @@
+package org.linghu.experiment.scaffold;
+
+import java.util.List;
+
+/**
+ * 任务脚手架文件包
+ * <p>
+ * 版本号由任务前缀下各对象的对象名和 ETag 计算，任意文件新增、删除或修改时版本随之变化。
+ *
+ * @param version    文件包版本
+ * @param files      脚手架文件，按对象名排序
+ * @param totalBytes 文件总字节数
+ */
+public record ScaffoldBundle(String version, List<ScaffoldFile> files, long totalBytes) {
+
+    public ScaffoldBundle {
+        files = List.copyOf(files);
+    }
+
+    /**
+     * 脚手架文件
+     *
+     * @param fileName   相对于任务前缀的文件路径
+     * @param objectName MinIO中的对象名
+     * @param etag       对象 ETag
+     * @param size       文件字节数
+     * @param content    文件内容（UTF-8），只返回元数据时为null
+     */
+    public record ScaffoldFile(String fileName, String objectName, String etag, long size, String content) {
+
+        public ScaffoldFile withContent(String content) {
+            return new ScaffoldFile(fileName, objectName, etag, size, content);
+        }
+    }
+}
@@ -0,0 +1,239 @@
+package org.linghu.experiment.scaffold;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.minio.Result;
+import io.minio.messages.Item;
+import lombok.extern.slf4j.Slf4j;
+import org.linghu.experiment.judge.JudgeFileCache;
+import org.linghu.experiment.utils.MinioUtil;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+import java.util.*;
+
+/**
+ * 任务脚手架文件包缓存（学生查看编程任务时使用）
+ * <p>
+ * 每次读取只列举一次任务前缀，以对象名和 ETag 计算版本号；版本未变化时直接使用本地缓存，
+ * 不再逐个下载文件。本地缓存按最近使用淘汰，总大小不超过 local-max-size。
+ * 开启 redis-enabled 后，重建的文件包按版本序列化写入 Redis，其他实例遇到同一版本时直接读取，
+ * 不必再从 MinIO 下载每个文件。Redis 不可用时退化为只使用本地缓存。
+ * <p>
+ * 文件内容按原始字节（UTF-8）读取，与评测时 {@link JudgeFileCache} 使用的脚手架内容一致，
+ * 学生未修改的模板文件提交后仍能按内容哈希命中评测节点上的缓存文件。
+ */
+@Slf4j
+@Component
+public class ScaffoldBundleCache {
+
+    static final String BUNDLE_KEY_PREFIX = "experiment:scaffold:";
+
+    private static final String TASK_PREFIX_FORMAT = "%s/experiment/%s/";
+
+    private final MinioUtil minioUtil;
+    private final StringRedisTemplate redisTemplate;
+    private final ObjectMapper objectMapper;
+    private final long localMaxBytes;
+    private final boolean redisEnabled;
+    private final Duration redisTtl;
+
+    private final Counter localHitCounter;
+    private final Counter redisHitCounter;
+    private final Counter rebuildCounter;
+
+    // 任务键(experimentId/taskId) -> 文件包，按访问顺序排列，超过总大小时淘汰最久未使用的文件包
+    private final LinkedHashMap<String, ScaffoldBundle> bundles = new LinkedHashMap<>(16, 0.75f, true);
+    private long cachedBytes;
+
+    public ScaffoldBundleCache(MinioUtil minioUtil,
+                               StringRedisTemplate redisTemplate,
+                               ObjectMapper objectMapper,
+                               MeterRegistry meterRegistry,
+                               @Value("${experiment.scaffold.local-max-size:64MB}") DataSize localMaxSize,
+                               @Value("${experiment.scaffold.redis-enabled:false}") boolean redisEnabled,
+                               @Value("${experiment.scaffold.redis-ttl:PT1H}") Duration redisTtl) {
+        this.minioUtil = minioUtil;
+        this.redisTemplate = redisTemplate;
+        this.objectMapper = objectMapper;
+        this.localMaxBytes = localMaxSize.toBytes();
+        this.redisEnabled = redisEnabled;
+        this.redisTtl = redisTtl;
+        this.localHitCounter = counter(meterRegistry, "local");
+        this.redisHitCounter = counter(meterRegistry, "redis");
+        this.rebuildCounter = counter(meterRegistry, "rebuild");
+    }
+
+    /**
+     * 获取任务的脚手架文件包（包含文件内容），MinIO中的文件未变化时直接返回缓存
+     *
+     * @param experimentId 实验ID
+     * @param taskId       任务ID
+     * @return 文件包
+     * @throws Exception 如果读取MinIO失败
+     */
+    public ScaffoldBundle get(String experimentId, String taskId) throws Exception {
+        String taskKey = taskKey(experimentId, taskId);
+        ScaffoldBundle listing = list(experimentId, taskId);
+
+        ScaffoldBundle cached = getLocal(taskKey, listing.version());
+        if (cached != null) {
+            localHitCounter.increment();
+            return cached;
+        }
+
+        ScaffoldBundle bundle = readRedisBundle(taskKey, listing.version());
+        if (bundle != null) {
+            redisHitCounter.increment();
+        } else {
+            bundle = load(listing);
+            rebuildCounter.increment();
+            writeRedisBundle(taskKey, bundle);
+            log.info("已加载任务 {} 的脚手架文件 {} 个，版本: {}", taskKey, bundle.files().size(), bundle.version());
+        }
+        putLocal(taskKey, bundle);
+        return bundle;
+    }
+
+    /**
+     * 只获取任务脚手架文件的元数据（文件名、大小、ETag），不下载文件内容
+     *
+     * @param experimentId 实验ID
+     * @param taskId       任务ID
+     * @return 不含内容的文件列表
+     * @throws Exception 如果读取MinIO失败
+     */
+    public List<ScaffoldBundle.ScaffoldFile> listFiles(String experimentId, String taskId) throws Exception {
+        return list(experimentId, taskId).files();
+    }
+
+    /**
+     * 获取单个脚手架文件，缓存中有当前版本的文件包时直接使用，否则只下载该文件
+     *
+     * @param experimentId 实验ID
+     * @param taskId       任务ID
+     * @param fileName     相对于任务前缀的文件路径
+     * @return 包含内容的文件；文件不存在时返回null
+     * @throws Exception 如果读取MinIO失败
+     */
+    public ScaffoldBundle.ScaffoldFile getFile(String experimentId, String taskId, String fileName) throws Exception {
+        ScaffoldBundle listing = list(experimentId, taskId);
+        ScaffoldBundle.ScaffoldFile file = listing.files().stream()
+                .filter(candidate -> candidate.fileName().equals(fileName))
+                .findFirst()
+                .orElse(null);
+        if (file == null) {
+            return null;
+        }
+
+        ScaffoldBundle cached = getLocal(taskKey(experimentId, taskId), listing.version());
+        if (cached != null) {
+            localHitCounter.increment();
+            return cached.files().stream()
+                    .filter(candidate -> candidate.fileName().equals(fileName))
+                    .findFirst()
+                    .orElse(null);
+        }
+        return file.withContent(minioUtil.downloadFileAsString(file.objectName()));
+    }
+
+    /**
+     * 列举任务前缀下的脚手架文件并计算版本号，不下载文件内容
+     */
+    private ScaffoldBundle list(String experimentId, String taskId) throws Exception {
+        String prefix = String.format(TASK_PREFIX_FORMAT, experimentId, taskId);
+
+        List<ScaffoldBundle.ScaffoldFile> files = new ArrayList<>();
+        StringBuilder versionSource = new StringBuilder();
+        long totalBytes = 0;
+        for (Result<Item> result : minioUtil.listObjects(MinioUtil.getResourceBucket(), prefix)) {
+            Item item = result.get();
+            String objectName = item.objectName();
+            if (objectName.endsWith("/") || objectName.contains("/original/")) {
+                continue;
+            }
+            files.add(new ScaffoldBundle.ScaffoldFile(objectName.substring(prefix.length()), objectName,
+                    item.etag(), item.size(), null));
+            versionSource.append(objectName).append(':').append(item.etag()).append('\n');
+            totalBytes += item.size();
+        }
+        files.sort(Comparator.comparing(ScaffoldBundle.ScaffoldFile::objectName));
+        return new ScaffoldBundle(JudgeFileCache.sha256(versionSource.toString()), files, totalBytes);
+    }
+
+    private ScaffoldBundle load(ScaffoldBundle listing) throws Exception {
+        List<ScaffoldBundle.ScaffoldFile> files = new ArrayList<>(listing.files().size());
+        for (ScaffoldBundle.ScaffoldFile file : listing.files()) {
+            files.add(file.withContent(minioUtil.downloadFileAsString(file.objectName())));
+        }
+        return new ScaffoldBundle(listing.version(), files, listing.totalBytes());
+    }
+
+    private synchronized ScaffoldBundle getLocal(String taskKey, String version) {
+        ScaffoldBundle cached = bundles.get(taskKey);
+        return cached != null && cached.version().equals(version) ? cached : null;
+    }
+
+    private synchronized void putLocal(String taskKey, ScaffoldBundle bundle) {
+        ScaffoldBundle previous = bundles.remove(taskKey);
+        if (previous != null) {
+            cachedBytes -= previous.totalBytes();
+        }
+        if (bundle.totalBytes() > localMaxBytes) {
+            // 单个文件包超过缓存上限时不缓存，避免挤出所有其他任务
+            return;
+        }
+        bundles.put(taskKey, bundle);
+        cachedBytes += bundle.totalBytes();
+
+        Iterator<ScaffoldBundle> eldest = bundles.values().iterator();
+        while (cachedBytes > localMaxBytes && eldest.hasNext()) {
+            cachedBytes -= eldest.next().totalBytes();
+            eldest.remove();
+        }
+    }
+
+    private ScaffoldBundle readRedisBundle(String taskKey, String version) {
+        if (!redisEnabled) {
+            return null;
+        }
+        try {
+            String json = redisTemplate.opsForValue().get(bundleKey(taskKey, version));
+            return json != null ? objectMapper.readValue(json, ScaffoldBundle.class) : null;
+        } catch (Exception e) {
+            log.warn("读取Redis中的脚手架文件包失败: {}", e.getMessage());
+            return null;
+        }
+    }
+
+    private void writeRedisBundle(String taskKey, ScaffoldBundle bundle) {
+        if (!redisEnabled) {
+            return;
+        }
+        try {
+            redisTemplate.opsForValue().set(bundleKey(taskKey, bundle.version()),
+                    objectMapper.writeValueAsString(bundle), redisTtl);
+        } catch (Exception e) {
+            log.warn("写入Redis中的脚手架文件包失败: {}", e.getMessage());
+        }
+    }
+
+    private static String taskKey(String experimentId, String taskId) {
+        return experimentId + "/" + taskId;
+    }
+
+    private static String bundleKey(String taskKey, String version) {
+        return BUNDLE_KEY_PREFIX + taskKey + ":" + version;
+    }
+
+    private static Counter counter(MeterRegistry meterRegistry, String result) {
+        return Counter.builder("experiment.scaffold.cache")
+                .description("任务脚手架文件包的读取次数")
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+}
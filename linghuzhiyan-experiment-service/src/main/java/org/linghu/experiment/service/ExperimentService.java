@@ -2,6 +2,7 @@ package org.linghu.experiment.service;
 
 import org.linghu.experiment.dto.ExperimentDTO;
 import org.linghu.experiment.dto.ExperimentRequestDTO;
+import org.linghu.experiment.dto.StorageCleanupJobDTO;
 import org.springframework.data.domain.Page;
 
 /**
@@ -46,11 +47,21 @@ public interface ExperimentService {
     ExperimentDTO updateExperiment(String id, ExperimentRequestDTO requestDTO, String username);
     
     /**
-     * 删除实验
+     * 删除实验，实验的资源文件和学生提交文件在事务提交后由后台任务清理
      * 
      * @param id 实验ID
+     * @return 对象存储清理任务
      */
-    void deleteExperiment(String id);
+    StorageCleanupJobDTO deleteExperiment(String id);
+
+    /**
+     * 获取删除实验后的对象存储清理任务
+     *
+     * @param experimentId 实验ID
+     * @param jobId 清理任务ID
+     * @return 清理任务
+     */
+    StorageCleanupJobDTO getCleanupJob(String experimentId, String jobId);
     
     /**
      * 发布实验
@@ -1,7 +1,9 @@
 package org.linghu.experiment.service;
 
+import org.linghu.experiment.dto.BulkGradeResultDTO;
 import org.linghu.experiment.dto.ExperimentTaskDTO;
 import org.linghu.experiment.dto.ExperimentTaskRequestDTO;
+import org.linghu.experiment.dto.RegradeJobDTO;
 
 import java.util.List;
 import java.util.Map;
@@ -52,4 +54,40 @@ public interface ExperimentTaskService {
      * @return 更新顺序后的任务DTO列表
      */
     List<ExperimentTaskDTO> adjustTaskOrder(String experimentId, List<Map<String, String>> taskOrderList);
+
+    /**
+     * 批量重评实验下的编程任务，每个学生只重评最新一次提交
+     *
+     * @param experimentId 实验ID
+     * @param taskId       任务ID，为null时重评实验下所有编程任务
+     * @return 重评任务DTO
+     */
+    RegradeJobDTO startRegrade(String experimentId, String taskId);
+
+    /**
+     * 获取批量重评任务的进度
+     *
+     * @param experimentId 实验ID
+     * @param jobId        重评任务ID
+     * @return 重评任务DTO
+     */
+    RegradeJobDTO getRegradeJob(String experimentId, String jobId);
+
+    /**
+     * 取消批量重评任务
+     *
+     * @param experimentId 实验ID
+     * @param jobId        重评任务ID
+     * @return 重评任务DTO
+     */
+    RegradeJobDTO cancelRegradeJob(String experimentId, String jobId);
+
+    /**
+     * 对客观题任务批量判分，每个学生只判最新一次提交
+     *
+     * @param experimentId 实验ID
+     * @param taskId       任务ID
+     * @return 判分结果统计
+     */
+    BulkGradeResultDTO gradeObjectiveTask(String experimentId, String taskId);
 }
@@ -1,8 +1,10 @@
 package org.linghu.experiment.service;
 
+import org.linghu.experiment.catalog.ExperimentCatalog;
 import org.linghu.experiment.dto.*;
 
 import java.util.List;
+import java.util.function.Consumer;
 
 /**
  * 学生实验参与服务接口
@@ -17,6 +19,13 @@ public interface StudentExperimentService {
      */
     List<ExperimentDTO> getStudentExperiments(String username);
     
+    /**
+     * 获取已发布实验目录（所有学生共用，带版本号，用于分页和 ETag）
+     *
+     * @return 已发布实验目录
+     */
+    ExperimentCatalog getPublishedExperimentCatalog();
+
     /**
      * 获取实验详情
      * 
@@ -41,6 +50,26 @@ public interface StudentExperimentService {
      * @return 任务DTO
      */
     ExperimentTaskDTO getTaskById(String taskId, String username);
+
+    /**
+     * 获取特定任务的详情，编程任务可以只返回脚手架文件列表，文件内容通过 {@link #getTaskFile} 按需获取
+     *
+     * @param taskId 任务ID
+     * @param username 用户名
+     * @param includeFileContent 是否返回脚手架文件内容
+     * @return 任务DTO
+     */
+    ExperimentTaskDTO getTaskById(String taskId, String username, boolean includeFileContent);
+
+    /**
+     * 获取编程任务的单个脚手架文件
+     *
+     * @param taskId 任务ID
+     * @param path 文件相对于任务目录的路径
+     * @param username 用户名
+     * @return 源代码文件DTO
+     */
+    SourceCodeFileDTO getTaskFile(String taskId, String path, String username);
     
     /**
      * 提交实验任务（使用SubmissionRequestDTO）
@@ -51,6 +80,14 @@ public interface StudentExperimentService {
      */
     ExperimentSubmissionDTO submitTask(SubmissionRequestDTO submissionRequest, String username);
 
+    /**
+     * 获取学生进度面板：分配给学生的所有任务及每个任务的最新提交时间、最新得分和状态
+     *
+     * @param username 用户名
+     * @return 任务进度列表
+     */
+    List<TaskProgressDTO> getProgressDashboard(String username);
+
     /**
      * 获取实验任务评测结果
      * 
@@ -61,11 +98,44 @@ public interface StudentExperimentService {
     ExperimentEvaluationDTO getTaskEvaluationResult(String taskId, String username);
     
     /**
-     * 获取实验任务历史评测记录
+     * 获取学生自己提交的单个代码文件
+     *
+     * @param submissionId 提交ID
+     * @param path 文件在提交中的相对路径
+     * @param username 用户名
+     * @return 源代码文件DTO
+     */
+    SourceCodeFileDTO getSubmissionFile(String submissionId, String path, String username);
+
+    /**
+     * 获取单条评测记录（用于轮询异步评测结果）
+     *
+     * @param evaluationId 评测ID
+     * @param username 用户名
+     * @return 评测结果DTO
+     */
+    ExperimentEvaluationDTO getEvaluationById(String evaluationId, String username);
+
+    /**
+     * 订阅异步评测结果，评测结束后回调
+     *
+     * @param evaluationId 评测ID
+     * @param username 用户名
+     * @param listener 评测结束时的回调
+     * @return 取消订阅的操作，客户端断开连接时调用
+     */
+    Runnable subscribeEvaluationResult(String evaluationId, String username, Consumer<ExperimentEvaluationDTO> listener);
+
+    /**
+     * 按评测时间倒序分页获取实验任务历史评测记录
      * 
      * @param taskId 任务ID
      * @param username 用户名
-     * @return 评测结果DTO列表
+     * @param cursor 上一页返回的游标，为空时从最新记录开始
+     * @param size 每页条数
+     * @param includeAnswer 是否返回提交的答案内容
+     * @return 评测结果DTO游标分页结果
      */
-    List<ExperimentEvaluationDTO> getTaskEvaluationHistory(String taskId, String username);
+    CursorPageResult<ExperimentEvaluationDTO> getTaskEvaluationHistory(String taskId, String username, String cursor,
+                                                                       int size, boolean includeAnswer);
 }
@@ -2,12 +2,17 @@ package org.linghu.experiment.service.impl;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.linghu.experiment.catalog.ExperimentCatalogCache;
+import org.linghu.experiment.cleanup.StorageCleanupJob;
+import org.linghu.experiment.cleanup.StorageCleanupManager;
 import org.linghu.experiment.client.UserServiceClient;
 import org.linghu.experiment.domain.Experiment;
 import org.linghu.experiment.dto.ExperimentDTO;
 import org.linghu.experiment.dto.ExperimentRequestDTO;
+import org.linghu.experiment.dto.StorageCleanupJobDTO;
 import org.linghu.experiment.dto.UserDTO;
 import org.linghu.experiment.repository.ExperimentRepository;
+import org.linghu.experiment.repository.ExperimentSubmissionRepository;
 import org.linghu.experiment.repository.ExperimentTaskRepository;
 import org.linghu.experiment.service.ExperimentService;
 import org.springframework.data.domain.Page;
@@ -19,6 +24,7 @@ import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.List;
 import java.util.UUID;
 
 /**
@@ -32,6 +38,9 @@ public class ExperimentServiceImpl implements ExperimentService {
     private final ExperimentRepository experimentRepository;
     private final ExperimentTaskRepository taskRepository;
     private final UserServiceClient userServiceClient;
+    private final ExperimentCatalogCache experimentCatalogCache;
+    private final ExperimentSubmissionRepository submissionRepository;
+    private final StorageCleanupManager storageCleanupManager;
 
     @Override
     @Transactional
@@ -54,8 +63,11 @@ public class ExperimentServiceImpl implements ExperimentService {
                 .build();
 
         Experiment savedExperiment = experimentRepository.save(experiment);
+        if (savedExperiment.getStatus() == Experiment.ExperimentStatus.PUBLISHED) {
+            experimentCatalogCache.invalidate();
+        }
 
-        return convertToDTO(savedExperiment);
+        return ExperimentDTO.from(savedExperiment);
     }
 
     @Override
@@ -64,7 +76,7 @@ public class ExperimentServiceImpl implements ExperimentService {
         Page<Experiment> experiments = experimentRepository.findAll(pageable);
 
         return experiments.map(experiment -> {
-            return convertToDTO(experiment);
+            return ExperimentDTO.from(experiment);
         });
     }
 
@@ -73,7 +85,7 @@ public class ExperimentServiceImpl implements ExperimentService {
         Experiment experiment = experimentRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("实验不存在"));
 
-        return convertToDTO(experiment);
+        return ExperimentDTO.from(experiment);
     }
 
     @Override
@@ -100,17 +112,32 @@ public class ExperimentServiceImpl implements ExperimentService {
         experiment.setEndTime(requestDTO.getEndTime());
 
         Experiment updatedExperiment = experimentRepository.save(experiment);
+        experimentCatalogCache.invalidate();
 
-        return convertToDTO(updatedExperiment);
+        return ExperimentDTO.from(updatedExperiment);
     }
 
     @Override
     @Transactional
-    public void deleteExperiment(String id) {
+    public StorageCleanupJobDTO deleteExperiment(String id) {
         if (!experimentRepository.existsById(id)) {
             throw new RuntimeException("实验不存在");
         }
+        // 提交文件按学生ID分目录存放，删除任务之前先取得提交过该实验的学生
+        List<String> studentIds = submissionRepository.findDistinctUserIdsByExperimentId(id);
         experimentRepository.deleteById(id);
+        experimentCatalogCache.invalidate();
+
+        StorageCleanupJob job = storageCleanupManager.cleanupExperiment(id, studentIds);
+        return convertToCleanupJobDTO(job);
+    }
+
+    @Override
+    public StorageCleanupJobDTO getCleanupJob(String experimentId, String jobId) {
+        StorageCleanupJob job = storageCleanupManager.get(jobId)
+                .filter(candidate -> candidate.getExperimentId().equals(experimentId))
+                .orElseThrow(() -> new RuntimeException("清理任务不存在"));
+        return convertToCleanupJobDTO(job);
     }
 
     @Override
@@ -130,10 +157,9 @@ public class ExperimentServiceImpl implements ExperimentService {
 
         experiment.setStatus(Experiment.ExperimentStatus.PUBLISHED);
         Experiment publishedExperiment = experimentRepository.save(experiment);
+        experimentCatalogCache.invalidate();
 
-    
-
-        return convertToDTO(publishedExperiment);
+        return ExperimentDTO.from(publishedExperiment);
     }
 
     @Override
@@ -151,26 +177,27 @@ public class ExperimentServiceImpl implements ExperimentService {
         }
         experiment.setStatus(Experiment.ExperimentStatus.DRAFT);
         Experiment unpublishedExperiment = experimentRepository.save(experiment);
+        experimentCatalogCache.invalidate();
 
-        return convertToDTO(unpublishedExperiment);
+        return ExperimentDTO.from(unpublishedExperiment);
     }
 
-    /**
-     * 将实验实体转换为DTO
-     * 
-     * @param experiment  实验实体
-     * @return 实验DTO
-     */
-    private ExperimentDTO convertToDTO(Experiment experiment) {
-        ExperimentDTO dto = new ExperimentDTO();
-        dto.setId(experiment.getId());
-        dto.setCreator_Id(experiment.getCreatorId());
-        dto.setName(experiment.getName());
-        dto.setDescription(experiment.getDescription());
-        dto.setStatus(experiment.getStatus());
-        dto.setStartTime(experiment.getStartTime());
-        dto.setEndTime(experiment.getEndTime());
-        return dto;
+    private StorageCleanupJobDTO convertToCleanupJobDTO(StorageCleanupJob job) {
+        return StorageCleanupJobDTO.builder()
+                .id(job.getId())
+                .experimentId(job.getExperimentId())
+                .status(job.getStatus().name())
+                .errorMessage(job.getErrorMessage())
+                .totalTargets(job.getTargets().size())
+                .completedTargets(job.getCompletedTargets())
+                .deleted(job.getDeleted())
+                .failed(job.getFailed())
+                .failures(job.getFailures())
+                .progress(job.getProgress())
+                .createdAt(job.getCreatedAt())
+                .startedAt(job.getStartedAt())
+                .finishedAt(job.getFinishedAt())
+                .build();
     }
 
     /**
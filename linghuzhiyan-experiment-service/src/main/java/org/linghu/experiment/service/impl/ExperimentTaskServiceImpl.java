@@ -7,12 +7,21 @@ import lombok.extern.slf4j.Slf4j;
 import org.linghu.experiment.client.UserServiceClient;
 import org.linghu.experiment.constants.TaskType;
 import org.linghu.experiment.domain.ExperimentTask;
+import org.linghu.experiment.dto.BulkGradeResultDTO;
 import org.linghu.experiment.dto.ExperimentTaskDTO;
 import org.linghu.experiment.dto.ExperimentTaskRequestDTO;
+import org.linghu.experiment.dto.RegradeJobDTO;
 import org.linghu.experiment.dto.SourceCodeFileDTO;
+import org.linghu.experiment.evaluation.AnswerKeyCache;
+import org.linghu.experiment.evaluation.EvaluationResultCache;
+import org.linghu.experiment.evaluation.ObjectiveBulkGrader;
+import org.linghu.experiment.evaluation.RegradeJob;
+import org.linghu.experiment.evaluation.RegradeManager;
+import org.linghu.experiment.judge.JudgeConfig;
 import org.linghu.experiment.repository.ExperimentRepository;
 import org.linghu.experiment.repository.ExperimentTaskRepository;
 import org.linghu.experiment.service.ExperimentTaskService;
+import org.linghu.experiment.utils.JsonUtils;
 import org.springframework.security.access.AccessDeniedException;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
@@ -21,6 +30,7 @@ import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import java.util.UUID;
 import java.util.stream.Collectors;
 
@@ -35,6 +45,10 @@ public class ExperimentTaskServiceImpl implements ExperimentTaskService {
     private final ExperimentRepository experimentRepository;
     private final ObjectMapper objectMapper;
     private final UserServiceClient userServiceClient;
+    private final EvaluationResultCache evaluationResultCache;
+    private final RegradeManager regradeManager;
+    private final AnswerKeyCache answerKeyCache;
+    private final ObjectiveBulkGrader objectiveBulkGrader;
 
     @Override
     @Transactional
@@ -74,6 +88,7 @@ public class ExperimentTaskServiceImpl implements ExperimentTaskService {
                 .orderNum(nextOrder)
                 .questionIds(questionIdsJson) // 使用处理后的JSON字符串
                 .required(requestDTO.getRequired())
+                .judgeConfig(JsonUtils.toJsonString(requestDTO.getJudgeConfig()))
                 .build();
         ExperimentTask savedTask = experimentTaskRepository.save(task);
 
@@ -102,6 +117,14 @@ public class ExperimentTaskServiceImpl implements ExperimentTaskService {
         task.setDescription(requestDTO.getDescription());
         task.setTaskType(requestDTO.getTaskType() != null ? requestDTO.getTaskType() : task.getTaskType());
         task.setRequired(requestDTO.getRequired());
+        if (requestDTO.getJudgeConfig() != null) {
+            String judgeConfigJson = JsonUtils.toJsonString(requestDTO.getJudgeConfig());
+            if (!Objects.equals(judgeConfigJson, task.getJudgeConfig())) {
+                // 测试数据变化后，已有评测结果不再复用
+                task.setJudgeConfig(judgeConfigJson);
+                evaluationResultCache.invalidateTask(task);
+            }
+        }
 
         String questionIdsJson = null;
         if (requestDTO.getQuestion() != null) {
@@ -118,6 +141,7 @@ public class ExperimentTaskServiceImpl implements ExperimentTaskService {
         task.setQuestionIds(questionIdsJson);
 
         ExperimentTask updatedTask = experimentTaskRepository.save(task);
+        answerKeyCache.invalidateTask(id);
         return convertToDTO(updatedTask, null);
     }
 
@@ -134,6 +158,7 @@ public class ExperimentTaskServiceImpl implements ExperimentTaskService {
         ensureOwnerOfExperiment(task.getExperimentId(), "无权删除该实验任务");
 
         experimentTaskRepository.deleteById(id);
+        answerKeyCache.invalidateTask(id);
     }
 
     @Override
@@ -170,6 +195,85 @@ public class ExperimentTaskServiceImpl implements ExperimentTaskService {
                 .collect(Collectors.toList());
     }
 
+    @Override
+    public RegradeJobDTO startRegrade(String experimentId, String taskId) {
+        ensureOwnerOfExperiment(experimentId, "无权重评该实验");
+
+        List<ExperimentTask> tasks;
+        if (taskId != null) {
+            ExperimentTask task = experimentTaskRepository.findById(taskId)
+                    .orElseThrow(() -> new RuntimeException("任务不存在"));
+            if (!task.getExperimentId().equals(experimentId)) {
+                throw new RuntimeException("任务不属于指定实验");
+            }
+            if (task.getTaskType() != TaskType.CODE) {
+                throw new RuntimeException("只有编程任务可以重评");
+            }
+            tasks = List.of(task);
+        } else {
+            tasks = experimentTaskRepository.findByExperimentIdOrderByOrderNumAsc(experimentId).stream()
+                    .filter(task -> task.getTaskType() == TaskType.CODE)
+                    .collect(Collectors.toList());
+        }
+
+        RegradeJob job = regradeManager.start(experimentId, tasks, getCurrentUsernameFromSecurityContext());
+        return convertToRegradeJobDTO(job);
+    }
+
+    @Override
+    public RegradeJobDTO getRegradeJob(String experimentId, String jobId) {
+        ensureOwnerOfExperiment(experimentId, "无权查看该重评任务");
+        return convertToRegradeJobDTO(findRegradeJob(experimentId, jobId));
+    }
+
+    @Override
+    public RegradeJobDTO cancelRegradeJob(String experimentId, String jobId) {
+        ensureOwnerOfExperiment(experimentId, "无权取消该重评任务");
+        findRegradeJob(experimentId, jobId);
+        return convertToRegradeJobDTO(regradeManager.cancel(jobId));
+    }
+
+    @Override
+    public BulkGradeResultDTO gradeObjectiveTask(String experimentId, String taskId) {
+        ensureOwnerOfExperiment(experimentId, "无权评分该实验");
+
+        ExperimentTask task = experimentTaskRepository.findById(taskId)
+                .orElseThrow(() -> new RuntimeException("任务不存在"));
+        if (!task.getExperimentId().equals(experimentId)) {
+            throw new RuntimeException("任务不属于指定实验");
+        }
+        if (task.getTaskType() == TaskType.CODE) {
+            throw new RuntimeException("编程任务请使用重评");
+        }
+        return objectiveBulkGrader.gradeTask(task);
+    }
+
+    private RegradeJob findRegradeJob(String experimentId, String jobId) {
+        return regradeManager.get(jobId)
+                .filter(job -> job.getExperimentId().equals(experimentId))
+                .orElseThrow(() -> new RuntimeException("重评任务不存在"));
+    }
+
+    private RegradeJobDTO convertToRegradeJobDTO(RegradeJob job) {
+        return RegradeJobDTO.builder()
+                .id(job.getId())
+                .experimentId(job.getExperimentId())
+                .taskIds(job.getTaskIds())
+                .status(job.getStatus().name())
+                .errorMessage(job.getErrorMessage())
+                .createdBy(job.getCreatedBy())
+                .total(job.getTotal())
+                .scanned(job.getScanned())
+                .enqueued(job.getEnqueued())
+                .completed(job.getCompleted())
+                .errors(job.getErrors())
+                .progress(job.getProgress())
+                .etaSeconds(job.getEtaSeconds())
+                .startedAt(job.getStartedAt())
+                .finishedAt(job.getFinishedAt())
+                .build();
+    }
+
     /**
      * 将实验任务实体转换为DTO
      * 
@@ -187,6 +291,7 @@ public class ExperimentTaskServiceImpl implements ExperimentTaskService {
                 .orderNum(task.getOrderNum())
                 .required(task.getRequired())
                 .files(sourceCodeFiles)
+                .judgeConfig(JsonUtils.parseObject(task.getJudgeConfig(), JudgeConfig.class))
                 .createdAt(task.getCreatedAt())
                 .updatedAt(task.getUpdatedAt())
                 .build();
@@ -8,6 +8,7 @@ import org.linghu.experiment.domain.Question.QuestionType;
 import org.linghu.experiment.dto.QuestionDTO;
 import org.linghu.experiment.dto.QuestionRequestDTO;
 import org.linghu.experiment.dto.UserDTO;
+import org.linghu.experiment.evaluation.AnswerKeyCache;
 import org.linghu.experiment.repository.QuestionRepository;
 import org.linghu.experiment.service.QuestionService;
 import org.linghu.experiment.utils.JsonUtils;
@@ -32,6 +33,7 @@ public class QuestionServiceImpl implements QuestionService {
     
     private final QuestionRepository questionRepository;
     private final UserServiceClient userServiceClient;
+    private final AnswerKeyCache answerKeyCache;
     private final SimpleDateFormat dateFormat=new SimpleDateFormat("yyyy-MM-dd HH:mm:ss");
 
 
@@ -87,6 +89,8 @@ public class QuestionServiceImpl implements QuestionService {
         question.setUpdatedAt(new Date());
 
         Question updatedQuestion = questionRepository.save(question);
+        // 标准答案可能变化，引用该题目的任务重新构建判分答案
+        answerKeyCache.invalidateQuestion(id);
         return convertToDTO(updatedQuestion);
     }
 
@@ -96,6 +100,7 @@ public class QuestionServiceImpl implements QuestionService {
         Question question = questionRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("题目不存在"));
         questionRepository.delete(question);
+        answerKeyCache.invalidateQuestion(id);
     }
 
     @Override
@@ -1,28 +1,41 @@
 package org.linghu.experiment.service.impl;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
-import io.minio.Result;
-import io.minio.messages.Item;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.linghu.experiment.catalog.ExperimentCatalog;
+import org.linghu.experiment.catalog.ExperimentCatalogCache;
 import org.linghu.experiment.client.UserServiceClient;
 import org.linghu.experiment.constants.TaskType;
 import org.linghu.experiment.domain.*;
 import org.linghu.experiment.dto.*;
+import org.linghu.experiment.evaluation.AnswerKey;
+import org.linghu.experiment.evaluation.AnswerKeyCache;
+import org.linghu.experiment.evaluation.CodeEvaluator;
+import org.linghu.experiment.evaluation.EvaluationQueue;
+import org.linghu.experiment.evaluation.EvaluationResultCache;
+import org.linghu.experiment.evaluation.ObjectiveGrader;
+import org.linghu.experiment.evaluation.StudentProgressTracker;
+import org.linghu.experiment.judge.TestCaseResult;
 import org.linghu.experiment.repository.*;
+import org.linghu.experiment.scaffold.ScaffoldBundle;
+import org.linghu.experiment.scaffold.ScaffoldBundleCache;
 import org.linghu.experiment.service.QuestionService;
 import org.linghu.experiment.service.StudentExperimentService;
 import org.linghu.experiment.utils.JsonUtils;
 import org.linghu.experiment.utils.MinioUtil;
+import org.linghu.experiment.utils.SubmissionArchive;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.util.StringUtils;
 
-import java.io.BufferedReader;
-import java.io.InputStreamReader;
-import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDateTime;
 import java.util.*;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
 
 /**
@@ -33,6 +46,13 @@ import java.util.stream.Collectors;
 @RequiredArgsConstructor
 public class StudentExperimentServiceImpl implements StudentExperimentService {
 
+    // 评测历史每页最大条数
+    private static final int MAX_HISTORY_PAGE_SIZE = 100;
+    private static final String CURSOR_SEPARATOR = "|";
+    // 只能由服务端上传代码文件时写入的答案字段
+    private static final Set<String> SERVER_OWNED_ANSWER_KEYS = Set.of(
+            "paths", "archive", "format", "entries", EvaluationResultCache.CONTENT_HASHES_KEY);
+
     private final ExperimentRepository experimentRepository;
     private final UserServiceClient userServiceClient;
     private final ExperimentTaskRepository experimentTaskRepository;
@@ -41,18 +61,24 @@ public class StudentExperimentServiceImpl implements StudentExperimentService {
     private final ExperimentEvaluationRepository evaluationRepository;
     private final QuestionService questionService;
     private final MinioUtil minioUtil;
+    private final EvaluationQueue evaluationQueue;
+    private final EvaluationResultCache evaluationResultCache;
+    private final AnswerKeyCache answerKeyCache;
+    private final StudentTaskProgressRepository progressRepository;
+    private final StudentProgressTracker progressTracker;
+    private final ExperimentCatalogCache experimentCatalogCache;
+    private final ScaffoldBundleCache scaffoldBundleCache;
 
 
     @Override
-    @Transactional(readOnly = true)
     public List<ExperimentDTO> getStudentExperiments(String username) {
-        // 获取所有已发布的实验
-        List<Experiment> publishedExperiments = experimentRepository
-                .findByStatus(Experiment.ExperimentStatus.PUBLISHED);
+        // 已发布实验对所有学生相同，直接使用缓存的目录
+        return experimentCatalogCache.get().experiments();
+    }
 
-        return publishedExperiments.stream()
-                .map(this::convertToExperimentDTO)
-                .collect(Collectors.toList());
+    @Override
+    public ExperimentCatalog getPublishedExperimentCatalog() {
+        return experimentCatalogCache.get();
     }
 
     @Override
@@ -61,7 +87,7 @@ public class StudentExperimentServiceImpl implements StudentExperimentService {
         // 获取实验详情
         Experiment experiment = findExperimentById(expId);
 
-        return convertToExperimentDTO(experiment);
+        return ExperimentDTO.from(experiment);
     }
 
     @Override
@@ -80,15 +106,32 @@ public class StudentExperimentServiceImpl implements StudentExperimentService {
                 .collect(Collectors.toList());
     }
 
+    @Override
+    @Transactional(readOnly = true)
+    public List<TaskProgressDTO> getProgressDashboard(String username) {
+        UserDTO user = findUserByUsername(username);
+
+        // 分配的任务和进度表一次关联查询，不再逐个任务查询提交和评测记录
+        return progressRepository.findDashboard(user.getId()).stream()
+                .map(this::convertToTaskProgressDTO)
+                .collect(Collectors.toList());
+    }
+
     @Override
     @Transactional()
     public ExperimentTaskDTO getTaskById(String taskId, String username) {
+        return getTaskById(taskId, username, true);
+    }
+
+    @Override
+    @Transactional()
+    public ExperimentTaskDTO getTaskById(String taskId, String username, boolean includeFileContent) {
         ExperimentTask task = findTaskById(taskId);
 
-        // 如果是编程题，从MinIO中获取源代码
+        // 如果是编程题，从脚手架缓存中获取源代码
         List<SourceCodeFileDTO> sourceCodeFiles = null;
         if (task.getTaskType() != null && task.getTaskType() == TaskType.CODE) {
-            sourceCodeFiles = getSourceCodeFromMinio(task.getExperimentId(), taskId);
+            sourceCodeFiles = getSourceCodeFromMinio(task.getExperimentId(), taskId, includeFileContent);
         }
 
         // 如果是OTHER类型，需要获取题目信息
@@ -137,24 +180,96 @@ public class StudentExperimentServiceImpl implements StudentExperimentService {
             return autoEvaluateNonCodeTask(task, submission.get(), user.getId());
         }
 
-        // 对于CODE类型，调用代码评测服务
+        // 内容相同的提交直接复用已有评测结果，不再调用评测服务
+        String contentHash = evaluationResultCache.fingerprint(task, submission.get());
+        Optional<ExperimentEvaluation> reused = evaluationResultCache.reuse(task, submission.get(), contentHash);
+        if (reused.isPresent()) {
+            progressTracker.recordEvaluation(reused.get());
+            return convertToEvaluationDTO(reused.get());
+        }
+
+        // 对于CODE类型，加入评测队列异步执行，客户端通过轮询或订阅获取结果
+        ExperimentEvaluation queuedEvaluation = evaluationQueue.enqueue(task, submission.get(), contentHash);
+        return convertToEvaluationDTO(queuedEvaluation);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public ExperimentEvaluationDTO getEvaluationById(String evaluationId, String username) {
+        UserDTO user = findUserByUsername(username);
+        ExperimentEvaluation evaluation = findOwnEvaluation(evaluationId, user.getId());
+        return convertToEvaluationDTO(evaluation);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    @SuppressWarnings("unchecked")
+    public SourceCodeFileDTO getSubmissionFile(String submissionId, String path, String username) {
+        UserDTO user = findUserByUsername(username);
+        ExperimentSubmission submission = submissionRepository.findById(submissionId)
+                .orElseThrow(() -> new RuntimeException("提交记录不存在"));
+        if (!Objects.equals(submission.getUserId(), user.getId())) {
+            throw new RuntimeException("无权查看该提交记录");
+        }
+
+        Map<String, Object> answerData = JsonUtils.parseObject(submission.getUserAnswer(), Map.class);
         try {
-            return evaluateCodeTask(task, submission.get(), user.getId());
+            // 归档提交只按偏移读取该文件的字节范围
+            Optional<List<SubmissionArchive.Entry>> entries = SubmissionArchive.entries(answerData);
+            if (entries.isPresent()) {
+                SubmissionArchive.Entry entry = entries.get().stream()
+                        .filter(candidate -> candidate.name().equals(path))
+                        .findFirst()
+                        .orElseThrow(() -> new RuntimeException("提交中不存在该文件"));
+                String content = minioUtil.downloadSubmissionArchiveEntry((String) answerData.get("archive"), entry,
+                        minioUtil.getMaxSubmissionBytes());
+                return SourceCodeFileDTO.builder().fileName(path).content(content).build();
+            }
+
+            String objectName = CodeEvaluator.submittedPaths(submission).stream()
+                    .filter(candidate -> CodeEvaluator.relativePath(candidate).equals(path))
+                    .findFirst()
+                    .orElseThrow(() -> new RuntimeException("提交中不存在该文件"));
+            return SourceCodeFileDTO.builder().fileName(path).content(minioUtil.downloadFileAsString(objectName)).build();
+        } catch (RuntimeException e) {
+            throw e;
         } catch (Exception e) {
-            log.error("代码评测失败: " + e.getMessage(), e);
-
-            // 返回评测失败结果
-            return ExperimentEvaluationDTO.builder()
-                    .submissionId(submission.get().getId())
-                    .taskId(taskId)
-                    .userId(user.getId())
-                    .score(BigDecimal.ZERO)
-                    .status("ERROR")
-                    .errorMessage("代码评测失败: " + e.getMessage())
-                    .build();
+            log.error("读取提交文件失败: submissionId={}, path={}", submissionId, path, e);
+            throw new RuntimeException("读取提交文件失败: " + e.getMessage(), e);
         }
     }
 
+    @Override
+    @Transactional(readOnly = true)
+    public SourceCodeFileDTO getTaskFile(String taskId, String path, String username) {
+        ExperimentTask task = findTaskById(taskId);
+        if (task.getTaskType() != TaskType.CODE) {
+            throw new RuntimeException("该任务不是编程任务");
+        }
+
+        ScaffoldBundle.ScaffoldFile file;
+        try {
+            file = scaffoldBundleCache.getFile(task.getExperimentId(), taskId, path);
+        } catch (Exception e) {
+            log.error("读取任务文件失败: taskId={}, path={}", taskId, path, e);
+            throw new RuntimeException("读取任务文件失败: " + e.getMessage(), e);
+        }
+        if (file == null) {
+            throw new RuntimeException("任务中不存在该文件");
+        }
+        return toSourceCodeFileDTO(file);
+    }
+
+    @Override
+    public Runnable subscribeEvaluationResult(String evaluationId, String username,
+                                              Consumer<ExperimentEvaluationDTO> listener) {
+        UserDTO user = findUserByUsername(username);
+        findOwnEvaluation(evaluationId, user.getId());
+        Consumer<ExperimentEvaluation> subscriber = evaluation -> listener.accept(convertToEvaluationDTO(evaluation));
+        evaluationQueue.subscribe(evaluationId, subscriber);
+        return () -> evaluationQueue.unsubscribe(evaluationId, subscriber);
+    }
+
     /**
      * 自动评测非编程类型的任务
      *
@@ -165,199 +280,71 @@ public class StudentExperimentServiceImpl implements StudentExperimentService {
      */
     private ExperimentEvaluationDTO autoEvaluateNonCodeTask(ExperimentTask task, ExperimentSubmission submission,
                                                             String userId) {
-        String userAnswer = submission.getUserAnswer();
-        Map<String, Object> expectedAnswers = new HashMap<>();
-        Map<String, Object> userAnswers = new HashMap<>();
-        BigDecimal score = BigDecimal.ZERO;
-        int totalQuestions = 0;
-        int correctAnswers = 0;
-        StringBuilder feedback = new StringBuilder();
+        ExperimentEvaluation evaluationEntity;
         try {
-            // 解析任务中的问题ID列表
-            if (task.getQuestionIds() != null && !task.getQuestionIds().isEmpty()) {
-                @SuppressWarnings("unchecked")
-                List<String> questionIdsArray = JsonUtils.parseObject(task.getQuestionIds(), List.class);
-
-                if (questionIdsArray != null && !questionIdsArray.isEmpty()) {
-                    // 获取题目对象列表
-                    List<QuestionDTO> questions = questionService.getQuestionsByIds(questionIdsArray);
-
-                    // 构建预期答案映射（题目ID -> 标准答案）
-                    for (QuestionDTO question : questions) {
-                        expectedAnswers.put(question.getId(), question.getAnswer());
-                    }
-                }
-            }
-
-            // 解析用户提交的答案
-            if (userAnswer != null && !userAnswer.isEmpty()) {
-                // 尝试将用户答案解析为JSON
-                @SuppressWarnings("unchecked")
-                Map<String, Object> parsedAnswers = JsonUtils.parseObject(userAnswer, Map.class);
-                if (parsedAnswers != null) {
-                    userAnswers = parsedAnswers;
-                } else {
-                    // 如果不是JSON格式，则作为单个答案处理
-                    userAnswers = new HashMap<>();
-                    userAnswers.put("answer", userAnswer);
-                }
-            }
-
-            // 比较答案并计算得分
-            if (expectedAnswers != null && !expectedAnswers.isEmpty()) {
-                totalQuestions = expectedAnswers.size();
-
-                // 遍历预期答案进行比较
-                for (Map.Entry<String, Object> entry : expectedAnswers.entrySet()) {
-                    String questionId = entry.getKey();
-                    Object expectedAnswer = entry.getValue();
-                    Object userAns = userAnswers.get(questionId);
-
-                    if (userAns != null) {
-                        boolean isCorrect = compareAnswers(expectedAnswer, userAns);
-                        if (isCorrect) {
-                            correctAnswers++;
-                            feedback.append("问题").append(questionId).append(": 正确✓\n");
-                        } else {
-                            // 格式化答案显示，更友好地显示中文和其他文本
-                            String expectedDisplay = formatAnswerForDisplay(expectedAnswer);
-                            String actualDisplay = formatAnswerForDisplay(userAns);
-
-                            feedback.append("问题").append(questionId).append(": 错误✗\n")
-                                    .append("- 您的答案: ").append(actualDisplay).append("\n")
-                                    .append("- 正确答案: ").append(expectedDisplay).append("\n\n");
-                        }
-                    } else {
-                        feedback.append("问题").append(questionId).append(": 未作答\n");
-                    }
-                }
-
-                // 计算得分 (满分为100)
-                if (totalQuestions > 0) {
-                    score = new BigDecimal(correctAnswers * 100.0 / totalQuestions).setScale(2,
-                            java.math.RoundingMode.HALF_UP);
-                }
-            }
-
-            // 创建并保存评测结果
-            ExperimentEvaluation evaluationEntity = ExperimentEvaluation.builder()
-                    .id(UUID.randomUUID().toString())
-                    .submissionId(submission.getId())
-                    .userId(userId)
-                    .taskId(task.getId())
-                    .score(score)
-                    .additionalInfo("自动评分: 共" + totalQuestions + "题，正确" + correctAnswers + "题")
-                    .errorMessage(feedback.toString())
-                    .build();
+            // 使用任务的预编译标准答案判分
+            AnswerKey answerKey = answerKeyCache.get(task);
+            evaluationEntity = ObjectiveGrader.grade(answerKey, task.getId(), submission.getId(), userId,
+                    submission.getUserAnswer());
             log.info("自动评测结果构建完成");
-            ExperimentEvaluation savedEvaluation = evaluationRepository.save(evaluationEntity);
-            log.info("自动评测结果已保存: ");
-            // 返回评测结果DTO
-            return convertToEvaluationDTO(savedEvaluation);
         } catch (Exception e) {
             // 如果自动评测过程中出错，返回错误信息
             log.error("自动评测失败: " + e.getMessage(), e);
-
-            ExperimentEvaluation evaluationEntity = ExperimentEvaluation.builder()
-                    .id(UUID.randomUUID().toString())
-                    .submissionId(submission.getId())
-                    .userId(userId)
-                    .taskId(task.getId())
-                    .score(BigDecimal.ZERO)
-                    .errorMessage("自动评测失败: " + e.getMessage())
-                    .build();
-
-            ExperimentEvaluation savedEvaluation = evaluationRepository.save(evaluationEntity);
-            return convertToEvaluationDTO(savedEvaluation);
+            evaluationEntity = ObjectiveGrader.failed(task.getId(), submission.getId(), userId, e);
         }
+
+        ExperimentEvaluation savedEvaluation = evaluationRepository.save(evaluationEntity);
+        progressTracker.recordEvaluation(savedEvaluation);
+        return convertToEvaluationDTO(savedEvaluation);
     }
 
-    /**
-     * 比较预期答案和用户答案是否匹配
-     *
-     * @param expected 预期答案
-     * @param actual   用户答案
-     * @return 是否匹配
-     */
-    private boolean compareAnswers(Object expected, Object actual) {
-        if (expected == null && actual == null) {
-            return true;
+    @Override
+    @Transactional(readOnly = true)
+    public CursorPageResult<ExperimentEvaluationDTO> getTaskEvaluationHistory(String taskId, String username,
+                                                                              String cursor, int size,
+                                                                              boolean includeAnswer) {
+        UserDTO user = findUserByUsername(username);
+        int pageSize = Math.min(Math.max(size, 1), MAX_HISTORY_PAGE_SIZE);
+
+        // 多查一条用于判断是否还有下一页，不统计总数
+        Pageable limit = PageRequest.of(0, pageSize + 1);
+        List<ExperimentEvaluationRepository.HistoryEntry> entries;
+        if (StringUtils.hasText(cursor)) {
+            HistoryCursor historyCursor = decodeHistoryCursor(cursor);
+            entries = evaluationRepository.findHistoryAfter(user.getId(), taskId,
+                    historyCursor.createdTime(), historyCursor.id(), limit);
+        } else {
+            entries = evaluationRepository.findHistory(user.getId(), taskId, limit);
         }
 
-        if (expected == null || actual == null) {
-            return false;
-        } // 处理不同类型的答案比较
-        if (expected instanceof String && actual instanceof String) {
-            // 对于中文字符串，优先使用中文填空题特殊处理
-            String expectedStr = (String) expected;
-            String actualStr = (String) actual;
-
-            // 检查是否含有中文字符，如果有则使用特殊的中文答案比较
-            if (containsChineseCharacter(expectedStr) || containsChineseCharacter(actualStr)) {
-                return compareChineseFillBlankAnswers(expectedStr, actualStr);
-            }
-
-            // 非中文答案使用标准比较
-            expectedStr = normalizeString(expectedStr);
-            actualStr = normalizeString(actualStr);
-            return expectedStr.equalsIgnoreCase(actualStr);
-        } else if (expected instanceof List && actual instanceof List) {
-            // 列表比较 - 检查是否包含相同元素（用于多选题）
-            List<?> expectedList = (List<?>) expected;
-            List<?> actualList = (List<?>) actual;
-
-            if (expectedList.size() != actualList.size()) {
-                return false;
-            } // 标准化并转换为小写字符串集合进行比较（支持中文和其他语言）
-            Set<String> expectedSet = expectedList.stream()
-                    .map(Object::toString)
-                    .map(this::normalizeString)
-                    .map(String::toLowerCase)
-                    .collect(Collectors.toSet());
+        boolean hasMore = entries.size() > pageSize;
+        if (hasMore) {
+            entries = entries.subList(0, pageSize);
+        }
 
-            Set<String> actualSet = actualList.stream()
-                    .map(Object::toString)
-                    .map(this::normalizeString)
-                    .map(String::toLowerCase)
+        // 答案内容较大，只在需要时按本页的提交ID一次查询
+        Map<String, String> answers = Collections.emptyMap();
+        if (includeAnswer && !entries.isEmpty()) {
+            Set<String> submissionIds = entries.stream()
+                    .map(ExperimentEvaluationRepository.HistoryEntry::getSubmissionId)
                     .collect(Collectors.toSet());
-
-            return expectedSet.equals(actualSet);
-        } else if (expected instanceof Map && actual instanceof Map) {
-            // 对象比较 - 递归比较每个字段
-            Map<?, ?> expectedMap = (Map<?, ?>) expected;
-            Map<?, ?> actualMap = (Map<?, ?>) actual;
-
-            if (expectedMap.size() != actualMap.size()) {
-                return false;
-            }
-
-            for (Map.Entry<?, ?> entry : expectedMap.entrySet()) {
-                Object key = entry.getKey();
-                if (!actualMap.containsKey(key) || !compareAnswers(entry.getValue(), actualMap.get(key))) {
-                    return false;
-                }
+            answers = new HashMap<>();
+            for (ExperimentSubmissionRepository.SubmissionAnswer answer : submissionRepository.findAnswersByIdIn(submissionIds)) {
+                answers.put(answer.getId(), answer.getUserAnswer());
             }
-
-            return true;
         }
 
-        // 其他类型直接调用equals比较
-        return expected.equals(actual);
-    }
-
-    @Override
-    @Transactional(readOnly = true)
-    public List<ExperimentEvaluationDTO> getTaskEvaluationHistory(String taskId, String username) {
-        UserDTO user = findUserByUsername(username);
-
-        // 查询当前用户在该任务下的所有评测
-        List<ExperimentEvaluation> evaluations = evaluationRepository
-                .findByUserIdAndTaskIdOrderByIdDesc(user.getId(), taskId);
+        List<ExperimentEvaluationDTO> history = new ArrayList<>(entries.size());
+        for (ExperimentEvaluationRepository.HistoryEntry entry : entries) {
+            history.add(convertToEvaluationDTO(entry, answers.get(entry.getSubmissionId())));
+        }
 
-        // 转换为DTO
-        return evaluations.stream()
-                .map(this::convertToEvaluationDTO)
-                .collect(Collectors.toList());
+        String nextCursor = null;
+        if (hasMore) {
+            ExperimentEvaluationRepository.HistoryEntry last = entries.get(entries.size() - 1);
+            nextCursor = encodeHistoryCursor(last.getCreatedTime(), last.getId());
+        }
+        return CursorPageResult.of(history, nextCursor);
     }
 
     @Override
@@ -383,25 +370,14 @@ public class StudentExperimentServiceImpl implements StudentExperimentService {
                 // 优先处理DTO中的文件列表（直接提交的代码文件）
                 if (submissionRequest.getFiles() != null && !submissionRequest.getFiles().isEmpty()) {
                     // 直接使用SubmissionRequestDTO对象
-                    // 上传代码文件
-                    List<String> uploadedPaths = minioUtil.uploadStudentCodeSubmission(user.getId(), submissionRequest);
-
-                    // 使用JSON格式存储文件路径列表
-                    Map<String, Object> answerData = new HashMap<>();
-                    answerData.put("paths", uploadedPaths);
-                    answerData.put("fileCount", uploadedPaths.size());
-                    answerData.put("fileNames", submissionRequest.getFiles().stream()
-                            .map(SourceCodeFileDTO::getFileName)
-                            .collect(Collectors.toList()));
-                    answerData.put("timestamp", System.currentTimeMillis());
-                    userAnswer = JsonUtils.toJsonString(answerData);
+                    // 上传代码文件，使用JSON格式存储文件位置
+                    userAnswer = JsonUtils.toJsonString(uploadCodeFiles(user.getId(), submissionRequest));
                 }
                 // 处理Map类型的答案
                 else if (submissionRequest.getUserAnswer() instanceof Map) {
                     ObjectMapper objectMapper = new ObjectMapper();
+                    Map<String, Object> answerMap = (Map<String, Object>) submissionRequest.getUserAnswer();
                     try {
-                        // 尝试获取必要的字段
-                        Map<String, Object> answerMap = (Map<String, Object>) submissionRequest.getUserAnswer();
 
                         // 验证提交内容
                         Object mapTaskId = answerMap.get("taskId");
@@ -427,26 +403,15 @@ public class StudentExperimentServiceImpl implements StudentExperimentService {
                                     .files(files)
                                     .build();
 
-                            // 上传所有代码文件
-                            List<String> uploadedPaths = minioUtil.uploadStudentCodeSubmission(user.getId(),
-                                    tempSubmission);
-
-                            // 使用JSON格式存储文件路径列表
-                            Map<String, Object> answerData = new HashMap<>();
-                            answerData.put("paths", uploadedPaths);
-                            answerData.put("fileCount", uploadedPaths.size());
-                            answerData.put("fileNames", files.stream()
-                                    .map(SourceCodeFileDTO::getFileName)
-                                    .collect(Collectors.toList()));
-                            answerData.put("timestamp", System.currentTimeMillis());
-                            userAnswer = JsonUtils.toJsonString(answerData);
+                            // 上传所有代码文件，使用JSON格式存储文件位置
+                            userAnswer = JsonUtils.toJsonString(uploadCodeFiles(user.getId(), tempSubmission));
                         } else {
                             // 如果没有files字段，则作为普通答案处理
-                            userAnswer = JsonUtils.toJsonString(submissionRequest.getUserAnswer());
+                            userAnswer = JsonUtils.toJsonString(withoutServerOwnedKeys(answerMap));
                         }
                     } catch (Exception e) {
                         // 处理失败则作为普通答案处理
-                        userAnswer = JsonUtils.toJsonString(submissionRequest.getUserAnswer());
+                        userAnswer = JsonUtils.toJsonString(withoutServerOwnedKeys(answerMap));
                     }
                 } // 如果是字符串形式的代码，将其保存为文件
                 else if (submissionRequest.getUserAnswer() != null) {
@@ -463,16 +428,8 @@ public class StudentExperimentServiceImpl implements StudentExperimentService {
                             .files(List.of(codeFile))
                             .build();
 
-                    // 上传文件并存储路径
-                    List<String> uploadedPaths = minioUtil.uploadStudentCodeSubmission(user.getId(), tempSubmission);
-
-                    // 使用JSON格式存储文件路径
-                    Map<String, Object> answerData = new HashMap<>();
-                    answerData.put("paths", uploadedPaths);
-                    answerData.put("fileCount", uploadedPaths.size());
-                    answerData.put("fileName", "submission.txt");
-                    answerData.put("timestamp", System.currentTimeMillis());
-                    userAnswer = JsonUtils.toJsonString(answerData);
+                    // 上传文件并使用JSON格式存储文件位置
+                    userAnswer = JsonUtils.toJsonString(uploadCodeFiles(user.getId(), tempSubmission));
                 }
             } catch (Exception e) {
                 throw new RuntimeException("处理代码提交失败: " + e.getMessage(), e);
@@ -502,6 +459,7 @@ public class StudentExperimentServiceImpl implements StudentExperimentService {
 
         // 保存提交记录
         ExperimentSubmission savedSubmission = submissionRepository.save(submissionEntity);
+        progressTracker.recordSubmission(savedSubmission);
 
         // 将用户答案转换为适当格式
         Object formattedUserAnswer;
@@ -523,6 +481,48 @@ public class StudentExperimentServiceImpl implements StudentExperimentService {
 
     // 辅助方法
 
+    /**
+     * 去掉客户端答案中只能由服务端写入的代码文件字段，
+     * 避免伪造的文件路径、归档清单或内容哈希被评测和结果缓存信任
+     *
+     * @param answerMap 客户端提交的答案
+     * @return 可以保存的答案副本
+     */
+    private static Map<String, Object> withoutServerOwnedKeys(Map<String, Object> answerMap) {
+        Map<String, Object> sanitized = new LinkedHashMap<>(answerMap);
+        sanitized.keySet().removeAll(SERVER_OWNED_ANSWER_KEYS);
+        return sanitized;
+    }
+
+    /**
+     * 上传代码文件，按配置保存为一个归档对象或每个文件一个对象
+     *
+     * @param userId            用户ID
+     * @param submissionRequest 包含代码文件的提交请求
+     * @return 保存到提交记录中的答案数据
+     * @throws Exception 如果上传失败
+     */
+    private Map<String, Object> uploadCodeFiles(String userId, SubmissionRequestDTO submissionRequest)
+            throws Exception {
+        Map<String, Object> answerData;
+        if (minioUtil.isSubmissionArchiveEnabled()) {
+            answerData = minioUtil.uploadStudentCodeArchive(userId, submissionRequest);
+        } else {
+            List<String> uploadedPaths = minioUtil.uploadStudentCodeSubmission(userId, submissionRequest);
+            answerData = new HashMap<>();
+            answerData.put("paths", uploadedPaths);
+            answerData.put("fileCount", uploadedPaths.size());
+            answerData.put("fileNames", submissionRequest.getFiles().stream()
+                    .map(SourceCodeFileDTO::getFileName)
+                    .collect(Collectors.toList()));
+        }
+        // 保存各文件的内容哈希，查询评测结果时据此判断能否复用，无需重新下载提交内容
+        answerData.put(EvaluationResultCache.CONTENT_HASHES_KEY,
+                EvaluationResultCache.contentHashes(submissionRequest.getFiles()));
+        answerData.put("timestamp", System.currentTimeMillis());
+        return answerData;
+    }
+
     private UserDTO findUserByUsername(String username) {
         try {
             return userServiceClient.getUserByUsernameInExp(username);
@@ -542,16 +542,13 @@ public class StudentExperimentServiceImpl implements StudentExperimentService {
                 .orElseThrow(() -> new RuntimeException("实验任务不存在"));
     }
 
-    private ExperimentDTO convertToExperimentDTO(Experiment experiment) {
-        ExperimentDTO dto = new ExperimentDTO();
-        dto.setId(experiment.getId());
-        dto.setName(experiment.getName());
-        dto.setDescription(experiment.getDescription());
-        dto.setCreator_Id(experiment.getCreatorId());
-        dto.setStatus(experiment.getStatus());
-        dto.setStartTime(experiment.getStartTime());
-        dto.setEndTime(experiment.getEndTime());
-        return dto;
+    private ExperimentEvaluation findOwnEvaluation(String evaluationId, String userId) {
+        ExperimentEvaluation evaluation = evaluationRepository.findById(evaluationId)
+                .orElseThrow(() -> new RuntimeException("评测记录不存在"));
+        if (!Objects.equals(evaluation.getUserId(), userId)) {
+            throw new RuntimeException("无权查看该评测记录");
+        }
+        return evaluation;
     }
 
     private ExperimentTaskDTO convertToTaskDTO(ExperimentTask task) {
@@ -590,7 +587,7 @@ public class StudentExperimentServiceImpl implements StudentExperimentService {
         String userId = null;
         LocalDateTime submitTime = null;
         String userAnswer = null;
-        String status = "EVALUATED";
+        String status = resolveEvaluationStatus(evaluation);
 
         if (evaluation.getSubmissionId() != null) {
             Optional<ExperimentSubmission> optSubmission = submissionRepository.findById(evaluation.getSubmissionId());
@@ -609,542 +606,153 @@ public class StudentExperimentServiceImpl implements StudentExperimentService {
                 .score(evaluation.getScore())
                 .errorMessage(evaluation.getErrorMessage())
                 .additionalInfo(evaluation.getAdditionalInfo())
+                .caseResults(parseCaseResults(evaluation.getCaseResults()))
                 .taskId(taskId)
                 .userId(userId)
                 .submitTime(submitTime)
+                .createdTime(evaluation.getCreatedTime())
                 .userAnswer(userAnswer).status(status)
                 .build();
     }
 
-    /**
-     * 从MinIO获取实验源代码
-     *
-     * @param experimentId 实验ID
-     * @param taskId       任务ID
-     * @return 源代码文件列表，如果没有源代码文件则返回null
-     */
-    private List<SourceCodeFileDTO> getSourceCodeFromMinio(String experimentId, String taskId) {
-        try {
-            // 尝试不同的路径模式来获取源代码文件
-            List<String> possiblePrefixes = Arrays.asList(
-                    experimentId + "/experiment/" + taskId + "/" // 不包含 original 目录的路径
-            );
-
-            List<SourceCodeFileDTO> sourceCodeFiles = new ArrayList<>();
-            boolean filesFound = false;
-
-            for (String prefix : possiblePrefixes) {
-                try {
-                    Iterable<Result<Item>> codeItems = minioUtil.listObjects("resource", prefix);
-                    Iterator<Result<Item>> iterator = codeItems.iterator();
-
-                    // 检查是否有文件
-                    if (iterator.hasNext()) {
-                        filesFound = true;
-
-                        // 遍历所有文件
-                        for (Result<Item> result : codeItems) {
-                            Item item = result.get();
-                            String objectName = item.objectName();
-
-                            // 跳过目录
-                            if (objectName.endsWith("/") || objectName.contains("/original/")) {
-                                continue;
-                            }
-                            // 下载并读取文件内容
-                            try (BufferedReader reader = new BufferedReader(
-                                    new InputStreamReader(minioUtil.downloadFile(objectName).getInputStream()))) {
-
-                                // 获取文件名
-                                String fileName = objectName.startsWith(prefix) ? objectName.substring(prefix.length())
-                                        : objectName.substring(objectName.lastIndexOf("/") + 1);
-
-                                // 读取文件内容
-                                StringBuilder contentBuilder = new StringBuilder();
-                                String line;
-                                while ((line = reader.readLine()) != null) {
-                                    contentBuilder.append(line).append("\n");
-                                }
-
-                                // 创建源代码文件DTO
-                                sourceCodeFiles.add(SourceCodeFileDTO.builder()
-                                        .fileName(fileName)
-                                        .content(contentBuilder.toString())
-                                        .build());
-                            }
-                        }
-
-                        // 找到文件后退出循环
-                        break;
-                    }
-                } catch (Exception e) {
-                    // 记录当前路径尝试的错误但继续尝试其他路径
-                    System.err.println("尝试从前缀 " + prefix + " 获取文件失败: " + e.getMessage());
-                }
-            }
-
-            return filesFound ? sourceCodeFiles : null;
-
-        } catch (Exception e) {
-            // 记录错误但不抛出异常，允许任务正常返回（只是没有源代码）
-            System.err.println("获取实验源代码失败: " + e.getMessage());
-            e.printStackTrace();
-            return null;
-        }
+    private ExperimentEvaluationDTO convertToEvaluationDTO(ExperimentEvaluationRepository.HistoryEntry entry,
+                                                           String userAnswer) {
+        return ExperimentEvaluationDTO.builder()
+                .id(entry.getId())
+                .submissionId(entry.getSubmissionId())
+                .score(entry.getScore())
+                .errorMessage(entry.getErrorMessage())
+                .additionalInfo(entry.getAdditionalInfo())
+                .caseResults(parseCaseResults(entry.getCaseResults()))
+                .taskId(entry.getTaskId())
+                .userId(entry.getUserId())
+                .submitTime(entry.getSubmitTime())
+                .createdTime(entry.getCreatedTime())
+                .userAnswer(userAnswer)
+                .status(resolveEvaluationStatus(entry.getQueuedTime(), entry.getStatus()))
+                .build();
     }
 
     /**
-     * /**
-     * 从MinIO获取学生代码文件内容
-     *
-     * @param filePath MinIO中的文件路径
-     * @return 文件内容字符串
+     * 生成评测历史的分页游标（最后一条记录的创建时间和ID）
      */
-    private String getFileContentFromMinio(String filePath) {
-        try {
-            org.springframework.core.io.Resource fileResource = minioUtil.downloadFile(filePath);
-            BufferedReader reader = new BufferedReader(new InputStreamReader(fileResource.getInputStream()));
-            StringBuilder content = new StringBuilder();
-            String line;
-            while ((line = reader.readLine()) != null) {
-                content.append(line).append("\n");
-            }
-            reader.close();
-            return content.toString();
-        } catch (Exception e) {
-            System.err.println("从MinIO获取文件内容失败: " + e.getMessage());
-            return "[无法获取文件内容]";
-        }
+    private String encodeHistoryCursor(LocalDateTime createdTime, String id) {
+        String raw = createdTime + CURSOR_SEPARATOR + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
     }
 
-    /**
-     * 标准化字符串，用于比较时处理中文和其他特殊字符
-     *
-     * @param input 输入字符串
-     * @return 标准化后的字符串
-     */
-    private String normalizeString(String input) {
-        if (input == null) {
-            return "";
+    private HistoryCursor decodeHistoryCursor(String cursor) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int separator = raw.indexOf(CURSOR_SEPARATOR);
+            return new HistoryCursor(LocalDateTime.parse(raw.substring(0, separator)), raw.substring(separator + 1));
+        } catch (RuntimeException e) {
+            throw new RuntimeException("无效的分页游标");
         }
-
-        // 去除首尾空格
-        String result = input.trim();
-
-        // 替换多个空格为单个空格
-        result = result.replaceAll("\\s+", " ");
-
-        // 移除标点符号（包括中文标点）
-        result = result.replaceAll("[\\p{Punct}\\p{IsPunctuation}]", "");
-
-        // 标准化中文全角字符到半角字符
-        result = normalizeFullWidthChars(result);
-
-        return result;
     }
 
-    /**
-     * 将全角字符转换为半角字符
-     *
-     * @param input 输入字符串
-     * @return 转换后的字符串
-     */
-    private String normalizeFullWidthChars(String input) {
-        if (input == null) {
-            return "";
-        }
-
-        char[] chars = input.toCharArray();
-        for (int i = 0; i < chars.length; i++) {
-            if (chars[i] >= 0xFF01 && chars[i] <= 0xFF5E) {
-                // 全角字符范围
-                chars[i] = (char) (chars[i] - 0xFEE0);
-            } else if (chars[i] == 0x3000) {
-                // 全角空格
-                chars[i] = ' ';
-            }
-        }
-
-        return new String(chars);
+    private record HistoryCursor(LocalDateTime createdTime, String id) {
     }
 
     /**
-     * 格式化答案用于显示，使其对用户更友好
+     * 解析评测实体中保存的测试用例结果
      *
-     * @param answer 原始答案对象
-     * @return 格式化后的显示字符串
+     * @param caseResults JSON数组
+     * @return 测试用例结果列表，未配置测试用例时返回null
      */
-    private String formatAnswerForDisplay(Object answer) {
-        if (answer == null) {
-            return "未作答";
-        }
-
-        if (answer instanceof String) {
-            return (String) answer;
-        } else if (answer instanceof List) {
-            List<?> list = (List<?>) answer;
-            if (list.isEmpty()) {
-                return "[]";
-            }
-
-            return list.stream()
-                    .map(Object::toString)
-                    .collect(Collectors.joining(", ", "[", "]"));
-        } else if (answer instanceof Map) {
-            Map<?, ?> map = (Map<?, ?>) answer;
-            if (map.isEmpty()) {
-                return "{}";
-            }
-
-            return map.entrySet().stream()
-                    .map(entry -> entry.getKey() + ": " + entry.getValue())
-                    .collect(Collectors.joining(", ", "{", "}"));
-        }
-
-        return answer.toString();
+    private List<TestCaseResult> parseCaseResults(String caseResults) {
+        TestCaseResult[] results = JsonUtils.parseObject(caseResults, TestCaseResult[].class);
+        return results != null ? Arrays.asList(results) : null;
     }
 
     /**
-     * 特殊处理填空题答案比较，支持中文
-     *
-     * @param expected 预期答案
-     * @param actual   实际答案
-     * @return 是否匹配
+     * 将进度看板的一行转换为任务进度DTO
      */
-    private boolean compareChineseFillBlankAnswers(String expected, String actual) {
-        if (expected == null || actual == null) {
-            return false;
-        }
-
-        // 标准化处理
-        String normalizedExpected = normalizeString(expected);
-        String normalizedActual = normalizeString(actual);
-
-        // 严格对比格式化后的字符串，不完全一致就是错误
-        return normalizedExpected.equals(normalizedActual);
+    private TaskProgressDTO convertToTaskProgressDTO(StudentTaskProgressRepository.DashboardEntry entry) {
+        return TaskProgressDTO.builder()
+                .taskId(entry.getTaskId())
+                .experimentId(entry.getExperimentId())
+                .experimentName(entry.getExperimentName())
+                .title(entry.getTitle())
+                .taskType(entry.getTaskType())
+                .required(entry.getRequired())
+                .orderNum(entry.getOrderNum())
+                .latestSubmissionId(entry.getLatestSubmissionId())
+                .latestSubmitTime(entry.getLatestSubmitTime())
+                .submissionCount(entry.getSubmissionCount() != null ? entry.getSubmissionCount() : 0)
+                .latestEvaluationId(entry.getLatestEvaluationId())
+                .latestScore(entry.getLatestScore())
+                .status(resolveProgressStatus(entry))
+                .build();
     }
 
     /**
-     * 检查字符串是否包含中文字符
-     *
-     * @param str 要检查的字符串
-     * @return 是否包含中文字符
+     * 计算任务进度的展示状态：未提交、已提交待评测，或最新评测的展示状态
      */
-    private boolean containsChineseCharacter(String str) {
-        if (str == null || str.isEmpty()) {
-            return false;
+    private String resolveProgressStatus(StudentTaskProgressRepository.DashboardEntry entry) {
+        if (entry.getLatestEvaluationId() == null) {
+            return entry.getLatestSubmitTime() == null ? "NOT_SUBMITTED" : "SUBMITTED";
         }
-
-        for (char c : str.toCharArray()) {
-            if (Character.UnicodeBlock.of(c) == Character.UnicodeBlock.CJK_UNIFIED_IDEOGRAPHS
-                    || Character.UnicodeBlock.of(c) == Character.UnicodeBlock.CJK_COMPATIBILITY_IDEOGRAPHS
-                    || Character.UnicodeBlock.of(c) == Character.UnicodeBlock.CJK_UNIFIED_IDEOGRAPHS_EXTENSION_A
-                    || Character.UnicodeBlock.of(c) == Character.UnicodeBlock.CJK_UNIFIED_IDEOGRAPHS_EXTENSION_B
-                    || Character.UnicodeBlock.of(c) == Character.UnicodeBlock.CJK_SYMBOLS_AND_PUNCTUATION) {
-                return true;
-            }
+        // 重新提交后尚未评测，得分仍显示上一次评测的结果
+        if (entry.getLatestSubmitTime() != null && entry.getLatestEvaluationTime() != null
+                && entry.getLatestSubmitTime().isAfter(entry.getLatestEvaluationTime())) {
+            return "SUBMITTED";
         }
-
-        return false;
+        return resolveEvaluationStatus(entry.getLatestQueuedTime(), entry.getLatestStatus());
     }
 
     /**
-     * 对CODE类型的任务进行评测
+     * 计算评测结果对外展示的状态
+     * 经过评测队列的代码评测返回队列状态，其余评测统一为EVALUATED
      *
-     * @param task       实验任务
-     * @param submission 学生提交
-     * @param userId     用户ID
-     * @return 评测结果DTO
-     * @throws Exception 如果评测过程发生错误
+     * @param evaluation 评测实体
+     * @return 展示状态
      */
-    private ExperimentEvaluationDTO evaluateCodeTask(ExperimentTask task, ExperimentSubmission submission,
-                                                     String userId) throws Exception {
-        // 获取用户提交的代码文件路径
-        String userAnswer = submission.getUserAnswer();
-
-        log.info("开始评测用户 {} 在任务 {} 的代码提交", userId, task.getId());
-
-        // 解析用户提交的文件路径
-        @SuppressWarnings("unchecked")
-        Map<String, Object> answerData = JsonUtils.parseObject(userAnswer, Map.class);
-        if (answerData == null) {
-            throw new RuntimeException("无法解析提交的代码信息");
-        }
-
-        @SuppressWarnings("unchecked")
-        List<String> filePaths = (List<String>) answerData.get("paths");
-        if (filePaths == null || filePaths.isEmpty()) {
-            throw new RuntimeException("未找到提交的代码文件");
-        }
-
-        log.info("用户 {} 提交了 {} 个代码文件", userId, filePaths.size());
-
-        // 从MinIO获取提交的代码文件内容
-        List<Map<String, String>> files = new ArrayList<>();
-        for (String path : filePaths) {
-            String content = getFileContentFromMinio(path);
-
-            // 提取相对路径，保留目录结构
-            String relativePath = path;
-            // 典型路径格式: userId/experimentId/taskId/timestamp/根目录/{文件名}
-            String[] pathParts = path.split("/");
-
-            // 从该目录之后开始提取路径
-            relativePath = String.join("/", Arrays.copyOfRange(pathParts, 5, pathParts.length));
-
-
-            Map<String, String> fileMap = new HashMap<>();
-            fileMap.put("name", relativePath);
-            fileMap.put("content", content);
-            files.add(fileMap);
-
-            log.debug("获取到文件 {}, 内容长度: {} 字符", relativePath, content.length());
-        }
-
-        log.info("准备使用提交目录中的compile.sh和run.sh脚本执行评测");
-
-        // 构建评测请求数据 - 使用go judge格式
-        Map<String, Object> requestData = new HashMap<>();
-
-        Map<String, Object> cmdMap = new HashMap<>();
-
-        cmdMap.put("args", Arrays.asList("/bin/sh", "-c", "./compile.sh && ./run.sh"));
-        cmdMap.put("env", Arrays.asList("PATH=/usr/bin:/bin"));
-
-        // 设置文件流
-        List<Map<String, Object>> filesList = new ArrayList<>();
-        filesList.add(new HashMap<String, Object>() {
-            {
-                put("content", "");
-            }
-        });
-        filesList.add(new HashMap<String, Object>() {
-            {
-                put("name", "stdout");
-                put("max", 10240);
-            }
-        });
-        filesList.add(new HashMap<String, Object>() {
-            {
-                put("name", "stderr");
-                put("max", 10240);
-            }
-        });
-        cmdMap.put("files", filesList);
-
-        // 设置资源限制
-        cmdMap.put("cpuLimit", 6000000000L);
-        cmdMap.put("memoryLimit", 536870912L);
-        cmdMap.put("procLimit", 50);
-
-        // 构建copyIn用于上传文件
-        Map<String, Object> copyIn = new HashMap<>();
-
-        // 添加用户提交的文件
-        Map<String, Set<String>> directories = new HashMap<>();
-        for (Map<String, String> file : files) {
-            String filePath = file.get("name");
-
-            // 如果文件在子目录中，需要确保目录已经创建
-            if (filePath.contains("/")) {
-                String dirPath = filePath.substring(0, filePath.lastIndexOf('/'));
-                createDirectoryStructure(copyIn, dirPath, directories);
-            }
-
-            // 添加文件
-            copyIn.put(filePath, new HashMap<String, String>() {
-                {
-                    put("content", file.get("content"));
-                }
-            });
-        }
-
-        cmdMap.put("copyIn", copyIn);
-        cmdMap.put("copyOut", Arrays.asList("stdout", "stderr"));
-
-        // 将cmd添加到requestData
-        requestData.put("cmd", Arrays.asList(cmdMap)); // 发送HTTP请求到评测服务
-        String evaluationServiceUrl = "http://10.128.54.190:5050/run";
-        String responseJson = sendHttpRequest(evaluationServiceUrl, JsonUtils.toJsonString(requestData));
-
-        // 解析评测结果
-        String stdout = "";
-        String stderr = "";
-
-        try {
-            log.info("开始解析评测结果: {}", responseJson);
-
-            @SuppressWarnings("unchecked")
-            List<Map<String, Object>> resultArray = JsonUtils.parseObject(responseJson, List.class);
-
-            if (resultArray != null && !resultArray.isEmpty()) {
-                // 数组格式处理
-                log.info("检测到数组格式的评测结果");
-                Map<String, Object> result = resultArray.get(0);
-
-                if (result.containsKey("files")) {
-                    @SuppressWarnings("unchecked")
-                    Map<String, Object> resultFiles = (Map<String, Object>) result.get("files");
-
-                    if (resultFiles != null) {
-                        // 直接获取值
-                        Object stdoutObj = resultFiles.get("stdout");
-                        stdout = stdoutObj != null ? stdoutObj.toString() : "";
-
-                        Object stderrObj = resultFiles.get("stderr");
-                        stderr = stderrObj != null ? stderrObj.toString() : "";
+    private String resolveEvaluationStatus(ExperimentEvaluation evaluation) {
+        return resolveEvaluationStatus(evaluation.getQueuedTime(), evaluation.getStatus());
+    }
 
-                        log.info("从数组格式中解析到 stdout: {}, stderr: {}", stdout, stderr);
-                    }
-                }
-            }
-        } catch (Exception e) {
-            log.error("解析评测结果出错: " + e.getMessage(), e);
-            throw new RuntimeException("解析评测结果出错: " + e.getMessage());
+    private String resolveEvaluationStatus(LocalDateTime queuedTime, ExperimentEvaluation.EvaluationStatus status) {
+        if (queuedTime == null || status == null) {
+            return "EVALUATED";
         }
-
-        // 保存评测结果
-        ExperimentEvaluation evaluationEntity = ExperimentEvaluation.builder()
-                .id(UUID.randomUUID().toString())
-                .submissionId(submission.getId())
-                .userId(userId)
-                .taskId(task.getId())
-                .score(stderr.isEmpty() ? new BigDecimal("100") : BigDecimal.ZERO) // 如有错误，得分为0
-                .additionalInfo(stdout)
-                .errorMessage(stderr)
-                .build();
-
-        ExperimentEvaluation savedEvaluation = evaluationRepository.save(evaluationEntity);
-        // 如果存在编译或运行错误，立即返回错误结果
-        ExperimentEvaluationDTO resultDTO = convertToEvaluationDTO(savedEvaluation);
-        if (!stderr.isEmpty()) {
-            // 创建新的DTO，设置FAILED状态
-            return ExperimentEvaluationDTO.builder()
-                    .id(resultDTO.getId())
-                    .submissionId(resultDTO.getSubmissionId())
-                    .score(resultDTO.getScore())
-                    .errorMessage(resultDTO.getErrorMessage())
-                    .additionalInfo(resultDTO.getAdditionalInfo())
-                    .taskId(resultDTO.getTaskId())
-                    .userId(resultDTO.getUserId())
-                    .submitTime(resultDTO.getSubmitTime())
-                    .userAnswer(resultDTO.getUserAnswer())
-                    .status("FAILED")
-                    .build();
+        if (status == ExperimentEvaluation.EvaluationStatus.COMPLETED) {
+            return "SUCCESS";
         }
-
-        // 无错误，返回成功结果
-        return ExperimentEvaluationDTO.builder()
-                .id(resultDTO.getId())
-                .submissionId(resultDTO.getSubmissionId())
-                .score(resultDTO.getScore())
-                .errorMessage(resultDTO.getErrorMessage())
-                .additionalInfo(resultDTO.getAdditionalInfo())
-                .taskId(resultDTO.getTaskId())
-                .userId(resultDTO.getUserId())
-                .submitTime(resultDTO.getSubmitTime())
-                .userAnswer(resultDTO.getUserAnswer())
-                .status("SUCCESS")
-                .build();
+        return status.name();
     }
 
     /**
-     * 发送HTTP请求到评测服务
+     * 从MinIO获取实验源代码（经脚手架文件包缓存，任务文件未变化时不再下载）
      *
-     * @param url  请求URL
-     * @param json 请求体JSON
-     * @return 响应JSON
-     * @throws Exception 如果请求失败
+     * @param experimentId 实验ID
+     * @param taskId       任务ID
+     * @param includeContent 是否包含文件内容，为false时只返回文件名和大小
+     * @return 源代码文件列表，如果没有源代码文件则返回null
      */
-    private String sendHttpRequest(String url, String json) throws Exception {
-        log.info("发送评测请求到 {}", url);
-        log.debug("评测请求体: {}", json);
-
-        java.net.URI uri = java.net.URI.create(url);
-        java.net.URL apiUrl = uri.toURL();
-        java.net.HttpURLConnection conn = (java.net.HttpURLConnection) apiUrl.openConnection();
-        conn.setRequestMethod("POST");
-        conn.setRequestProperty("Content-Type", "application/json");
-        conn.setRequestProperty("Accept", "application/json");
-        conn.setDoOutput(true);
-
-        // 发送请求体
-        try (java.io.OutputStream os = conn.getOutputStream()) {
-            byte[] input = json.getBytes("UTF-8");
-            os.write(input, 0, input.length);
-        }
-
-        // 获取响应
-        int responseCode = conn.getResponseCode();
-        log.info("评测服务返回状态码: {}", responseCode);
-
-        if (responseCode != 200) {
-            log.error("评测服务返回错误状态码: {}", responseCode);
-            throw new RuntimeException("评测服务返回错误状态码: " + responseCode);
-        }
-
-        // 读取响应内容
-        try (BufferedReader br = new BufferedReader(
-                new InputStreamReader(conn.getInputStream(), "UTF-8"))) {
-            StringBuilder response = new StringBuilder();
-            String responseLine;
-            while ((responseLine = br.readLine()) != null) {
-                response.append(responseLine.trim());
+    private List<SourceCodeFileDTO> getSourceCodeFromMinio(String experimentId, String taskId, boolean includeContent) {
+        try {
+            List<ScaffoldBundle.ScaffoldFile> files = includeContent
+                    ? scaffoldBundleCache.get(experimentId, taskId).files()
+                    : scaffoldBundleCache.listFiles(experimentId, taskId);
+            if (files.isEmpty()) {
+                return null;
             }
-            String responseStr = response.toString();
-            log.debug("评测服务响应: {}", responseStr);
-            return responseStr;
+            return files.stream()
+                    .map(this::toSourceCodeFileDTO)
+                    .collect(Collectors.toList());
+        } catch (Exception e) {
+            // 记录错误但不抛出异常，允许任务正常返回（只是没有源代码）
+            log.error("获取实验源代码失败: experimentId={}, taskId={}", experimentId, taskId, e);
+            return null;
         }
     }
 
-    /**
-     * 为代码评测创建目录结构
-     *
-     * @param copyIn      评测服务的copyIn映射
-     * @param dirPath     需要创建的目录路径
-     * @param directories 已创建目录的缓存
-     */
-    private void createDirectoryStructure(Map<String, Object> copyIn, String dirPath,
-                                          Map<String, Set<String>> directories) {
-        // 如果目录已经创建过，直接返回
-        if (directories.containsKey(dirPath)) {
-            return;
-        }
-
-        // 分解路径，确保上级目录先被创建
-        String[] parts = dirPath.split("/");
-        StringBuilder currentPath = new StringBuilder();
-
-        // 逐级创建目录
-        for (int i = 0; i < parts.length; i++) {
-            if (i > 0) {
-                currentPath.append("/");
-            }
-            currentPath.append(parts[i]);
-
-            String path = currentPath.toString();
-
-            // 记录创建的目录
-            if (!directories.containsKey(path)) {
-                Set<String> subdirs = new HashSet<>();
-                directories.put(path, subdirs);
-
-                // 将当前目录添加到其父目录的子目录集合中
-                if (i > 0) {
-                    String parentPath = path.substring(0, path.lastIndexOf('/'));
-                    if (directories.containsKey(parentPath)) {
-                        directories.get(parentPath).add(parts[i]);
-                    }
-                }
-
-                // 在copyIn中创建目录项
-                // 在GoJudge中，目录作为特殊的文件处理，内容为空但路径以/结尾
-                copyIn.put(path + "/", new HashMap<String, String>() {
-                    {
-                        put("content", "");
-                    }
-                });
-            }
-        }
+    private SourceCodeFileDTO toSourceCodeFileDTO(ScaffoldBundle.ScaffoldFile file) {
+        return SourceCodeFileDTO.builder()
+                .fileName(file.fileName())
+                .content(file.content())
+                .size(file.size())
+                .build();
     }
 }
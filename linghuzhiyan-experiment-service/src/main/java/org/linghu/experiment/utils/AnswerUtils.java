@@ -0,0 +1,84 @@
+package org.linghu.experiment.utils;
+
+import java.util.regex.Pattern;
+
+/**
+ * 答案标准化工具类，客观题判分时对标准答案和学生答案使用相同的标准化规则
+ */
+public class AnswerUtils {
+
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+    // 标点符号（包括中文标点）
+    private static final Pattern PUNCTUATION = Pattern.compile("[\\p{Punct}\\p{IsPunctuation}]");
+
+    /**
+     * 标准化字符串，用于比较时处理中文和其他特殊字符
+     *
+     * @param input 输入字符串
+     * @return 标准化后的字符串
+     */
+    public static String normalize(String input) {
+        if (input == null) {
+            return "";
+        }
+
+        // 去除首尾空格，替换多个空格为单个空格
+        String result = WHITESPACE.matcher(input.trim()).replaceAll(" ");
+
+        // 移除标点符号
+        result = PUNCTUATION.matcher(result).replaceAll("");
+
+        // 标准化中文全角字符到半角字符
+        return normalizeFullWidthChars(result);
+    }
+
+    /**
+     * 将全角字符转换为半角字符
+     *
+     * @param input 输入字符串
+     * @return 转换后的字符串
+     */
+    public static String normalizeFullWidthChars(String input) {
+        if (input == null) {
+            return "";
+        }
+
+        char[] chars = input.toCharArray();
+        for (int i = 0; i < chars.length; i++) {
+            if (chars[i] >= 0xFF01 && chars[i] <= 0xFF5E) {
+                // 全角字符范围
+                chars[i] = (char) (chars[i] - 0xFEE0);
+            } else if (chars[i] == 0x3000) {
+                // 全角空格
+                chars[i] = ' ';
+            }
+        }
+
+        return new String(chars);
+    }
+
+    /**
+     * 检查字符串是否包含中文字符
+     *
+     * @param str 要检查的字符串
+     * @return 是否包含中文字符
+     */
+    public static boolean containsChineseCharacter(String str) {
+        if (str == null || str.isEmpty()) {
+            return false;
+        }
+
+        for (int i = 0; i < str.length(); i++) {
+            Character.UnicodeBlock block = Character.UnicodeBlock.of(str.charAt(i));
+            if (block == Character.UnicodeBlock.CJK_UNIFIED_IDEOGRAPHS
+                    || block == Character.UnicodeBlock.CJK_COMPATIBILITY_IDEOGRAPHS
+                    || block == Character.UnicodeBlock.CJK_UNIFIED_IDEOGRAPHS_EXTENSION_A
+                    || block == Character.UnicodeBlock.CJK_UNIFIED_IDEOGRAPHS_EXTENSION_B
+                    || block == Character.UnicodeBlock.CJK_SYMBOLS_AND_PUNCTUATION) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+}
@@ -1,13 +1,13 @@
 package org.linghu.experiment.utils;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import io.minio.*;
 import io.minio.http.Method;
+import io.minio.messages.DeleteError;
+import io.minio.messages.DeleteObject;
 import io.minio.messages.Item;
-import org.apache.commons.compress.archivers.tar.TarArchiveEntry;
-import org.apache.commons.compress.archivers.tar.TarArchiveInputStream;
-import org.apache.commons.compress.archivers.zip.ZipArchiveEntry;
-import org.apache.commons.compress.archivers.zip.ZipArchiveInputStream;
-import org.apache.commons.compress.compressors.gzip.GzipCompressorInputStream;
+import jakarta.annotation.PreDestroy;
 import org.linghu.experiment.config.MinioConfig;
 import org.linghu.experiment.dto.SourceCodeFileDTO;
 import org.linghu.experiment.dto.SubmissionRequestDTO;
@@ -16,13 +16,13 @@ import org.springframework.core.io.InputStreamResource;
 import org.springframework.stereotype.Component;
 import org.springframework.web.multipart.MultipartFile;
 
-import java.io.ByteArrayInputStream;
-import java.io.ByteArrayOutputStream;
-import java.io.InputStream;
+import java.io.*;
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.*;
-import java.util.concurrent.TimeUnit;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * MinIO操作工具类 - 提供基于MinIO的文件存储操作
@@ -47,10 +47,28 @@ public class MinioUtil {
     // 时间戳格式
     private static final String TIMESTAMP_FORMAT = "yyyyMMdd-HHmmss";
 
+    // 一次多对象删除请求最多包含的对象数（S3接口上限）
+    private static final int MAX_DELETE_BATCH = 1000;
+
+    // 并行读取对象使用的虚拟线程执行器，并发数由信号量限制
+    private final ExecutorService fetchExecutor = Executors.newVirtualThreadPerTaskExecutor();
+    private final Semaphore fetchPermits;
+    private final Timer fetchTimer;
+
     @Autowired
-    public MinioUtil(MinioClient minioClient, MinioConfig minioConfig) {
+    public MinioUtil(MinioClient minioClient, MinioConfig minioConfig, MeterRegistry meterRegistry) {
         this.minioClient = minioClient;
         this.minioConfig = minioConfig;
+        this.fetchPermits = new Semaphore(Math.max(1, minioConfig.getFetchConcurrency()));
+        this.fetchTimer = Timer.builder("minio.fetch")
+                .description("从MinIO读取单个对象的耗时")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        fetchExecutor.shutdownNow();
     }
 
     /**
@@ -179,6 +197,86 @@ public class MinioUtil {
         return new InputStreamResource(stream);
     }
 
+    /**
+     * 从MinIO读取文本文件的完整内容（UTF-8），保持原始字节不做换行处理
+     *
+     * @param objectName MinIO中的对象名
+     * @return 文件内容
+     * @throws Exception 如果下载失败
+     */
+    public String downloadFileAsString(String objectName) throws Exception {
+        try (InputStream stream = downloadFile(objectName).getInputStream()) {
+            return new String(stream.readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+
+    /**
+     * 并行读取多个文本文件，结果顺序与传入的对象名顺序一致
+     * <p>
+     * 所有调用共享同一个并发上限，避免大量评测同时进行时压垮MinIO；
+     * 读取的总字节数超过 maxTotalBytes 时立即失败并取消其余读取。
+     *
+     * @param objectNames  MinIO中的对象名列表
+     * @param maxTotalBytes 允许读取的总字节数
+     * @return 文件内容列表（UTF-8）
+     * @throws Exception 如果任一文件读取失败或超过字节预算
+     */
+    public List<String> downloadFilesAsStrings(List<String> objectNames, long maxTotalBytes) throws Exception {
+        AtomicLong remainingBytes = new AtomicLong(maxTotalBytes);
+        List<Future<String>> futures = new ArrayList<>(objectNames.size());
+        for (String objectName : objectNames) {
+            futures.add(fetchExecutor.submit(() -> fetchWithinBudget(objectName, remainingBytes, maxTotalBytes)));
+        }
+
+        List<String> contents = new ArrayList<>(objectNames.size());
+        try {
+            for (Future<String> future : futures) {
+                contents.add(future.get());
+            }
+        } catch (ExecutionException e) {
+            futures.forEach(future -> future.cancel(true));
+            if (e.getCause() instanceof Exception cause) {
+                throw cause;
+            }
+            throw e;
+        } catch (InterruptedException e) {
+            futures.forEach(future -> future.cancel(true));
+            Thread.currentThread().interrupt();
+            throw e;
+        }
+        return contents;
+    }
+
+    /**
+     * 在字节预算内读取单个对象
+     */
+    private String fetchWithinBudget(String objectName, AtomicLong remainingBytes, long maxTotalBytes)
+            throws Exception {
+        fetchPermits.acquire();
+        long start = System.nanoTime();
+        try (InputStream stream = downloadFile(objectName).getInputStream()) {
+            // 最多多读1个字节，用于判断是否超出剩余预算
+            long remaining = remainingBytes.get();
+            byte[] bytes = stream.readNBytes((int) Math.min(Integer.MAX_VALUE - 8, Math.max(0, remaining) + 1));
+            if (remainingBytes.addAndGet(-bytes.length) < 0) {
+                throw new RuntimeException("提交文件总大小超过限制（" + maxTotalBytes + " 字节）");
+            }
+            return new String(bytes, StandardCharsets.UTF_8);
+        } finally {
+            fetchTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            fetchPermits.release();
+        }
+    }
+
+    /**
+     * 获取单次提交允许读取的文件总字节数
+     *
+     * @return 字节数
+     */
+    public long getMaxSubmissionBytes() {
+        return minioConfig.getMaxSubmissionBytes();
+    }
+
     /**
      * 从MinIO删除文件
      * 
@@ -206,12 +304,7 @@ public class MinioUtil {
      */
     public void deleteByPrefix(String prefix) throws Exception {
         validateObjectPrefix(prefix);
-
-        Iterable<Result<Item>> results = listObjects(prefix);
-        for (Result<Item> result : results) {
-            Item item = result.get();
-            deleteFile(item.objectName());
-        }
+        deleteByPrefixInBucket(determineBucketByObjectPath(prefix), prefix);
     }
 
     /**
@@ -268,23 +361,82 @@ public class MinioUtil {
     }
 
     /**
-     * 删除指定bucket中特定前缀下的所有文件
+     * 删除指定bucket中特定前缀下的所有文件，任一对象删除失败时抛出异常
      * 
      * @param bucketName bucket名称
      * @param prefix     前缀路径
      * @throws Exception 如果删除失败
      */
     private void deleteByPrefixInBucket(String bucketName, String prefix) throws Exception {
-        Iterable<Result<Item>> results = listObjects(bucketName, prefix);
-        for (Result<Item> result : results) {
-            Item item = result.get();
-            minioClient.removeObject(RemoveObjectArgs.builder()
-                    .bucket(bucketName)
-                    .object(item.objectName())
-                    .build());
+        Map<String, String> failures = new LinkedHashMap<>();
+        deleteByPrefixInBucket(bucketName, prefix, (deleted, batchFailures) -> failures.putAll(batchFailures));
+        if (!failures.isEmpty()) {
+            Map.Entry<String, String> first = failures.entrySet().iterator().next();
+            throw new RuntimeException("删除对象失败 " + failures.size() + " 个，例如 " + first.getKey() + ": "
+                    + first.getValue());
         }
     }
 
+    /**
+     * 分批删除指定bucket中特定前缀下的所有文件
+     * <p>
+     * 边列举边删除，每批最多 {@link #MAX_DELETE_BATCH} 个对象，使用一次多对象删除请求，
+     * 单个对象删除失败不会中断其余对象的删除，失败的对象通过回调报告。
+     *
+     * @param bucketName bucket名称
+     * @param prefix     前缀路径
+     * @param progress   每批删除完成后的回调
+     * @return 成功删除的对象数
+     * @throws Exception 如果列举对象或发送删除请求失败
+     */
+    public long deleteByPrefixInBucket(String bucketName, String prefix, DeleteProgressListener progress)
+            throws Exception {
+        long deleted = 0;
+        List<DeleteObject> batch = new ArrayList<>(MAX_DELETE_BATCH);
+        for (Result<Item> result : listObjects(bucketName, prefix)) {
+            batch.add(new DeleteObject(result.get().objectName()));
+            if (batch.size() == MAX_DELETE_BATCH) {
+                deleted += removeBatch(bucketName, batch, progress);
+                batch = new ArrayList<>(MAX_DELETE_BATCH);
+            }
+        }
+        if (!batch.isEmpty()) {
+            deleted += removeBatch(bucketName, batch, progress);
+        }
+        return deleted;
+    }
+
+    private int removeBatch(String bucketName, List<DeleteObject> batch, DeleteProgressListener progress)
+            throws Exception {
+        // removeObjects 是惰性的，遍历结果时才真正发送请求；结果中只包含删除失败的对象
+        Map<String, String> failures = new LinkedHashMap<>();
+        for (Result<DeleteError> result : minioClient.removeObjects(RemoveObjectsArgs.builder()
+                .bucket(bucketName)
+                .objects(batch)
+                .build())) {
+            DeleteError error = result.get();
+            failures.put(error.objectName(), error.message());
+        }
+        int deleted = batch.size() - failures.size();
+        progress.batchDeleted(deleted, failures);
+        return deleted;
+    }
+
+    /**
+     * 分批删除的进度回调
+     */
+    @FunctionalInterface
+    public interface DeleteProgressListener {
+
+        /**
+         * 一批对象删除完成
+         *
+         * @param deleted  本批成功删除的对象数
+         * @param failures 本批删除失败的对象名及错误信息
+         */
+        void batchDeleted(int deleted, Map<String, String> failures);
+    }
+
     /**
      * 生成文件的临时预览URL
      * 
@@ -448,6 +600,89 @@ public class MinioUtil {
         return uploadedPaths;
     }
 
+    /**
+     * 上传学生代码提交的归档 - 所有源文件打包为submission bucket中的一个对象
+     * 路径: {studentId}/{experimentId}/{taskId}/{timestamp}/submission.gz
+     *
+     * @param studentId         学生ID
+     * @param submissionRequest 提交请求DTO（包含experimentId、taskId和files）
+     * @return 保存到提交记录中的归档清单
+     * @throws Exception 如果上传失败
+     */
+    public Map<String, Object> uploadStudentCodeArchive(String studentId, SubmissionRequestDTO submissionRequest)
+            throws Exception {
+        if (submissionRequest == null || submissionRequest.getFiles() == null || submissionRequest.getFiles().isEmpty()) {
+            throw new IllegalArgumentException("代码提交内容不能为空");
+        }
+
+        SubmissionArchive.Packed packed = SubmissionArchive.pack(submissionRequest.getFiles());
+        String timestamp = LocalDateTime.now().format(DateTimeFormatter.ofPattern(TIMESTAMP_FORMAT));
+        String objectName = String.join(PATH_SEPARATOR, studentId, submissionRequest.getExperimentId(),
+                submissionRequest.getTaskId(), timestamp, SubmissionArchive.OBJECT_NAME);
+
+        uploadToSubmissionBucket(objectName, new ByteArrayInputStream(packed.data()), packed.data().length,
+                "application/gzip");
+        return SubmissionArchive.manifest(objectName, packed.entries());
+    }
+
+    /**
+     * 一次读取代码提交归档并解压所有文件，与并行读取共享并发上限
+     *
+     * @param objectName    归档对象名
+     * @param entries       归档清单
+     * @param maxTotalBytes 允许解压的文件总字节数
+     * @return 文件内容列表（UTF-8），顺序与清单一致
+     * @throws Exception 如果读取失败或超过字节预算
+     */
+    public List<String> downloadSubmissionArchive(String objectName, List<SubmissionArchive.Entry> entries,
+                                                  long maxTotalBytes) throws Exception {
+        fetchPermits.acquire();
+        long start = System.nanoTime();
+        try (InputStream stream = downloadFile(objectName).getInputStream()) {
+            // 压缩后的大小不会超过原始大小加上每个gzip成员的头尾开销
+            long maxArchiveBytes = maxTotalBytes + 64L * entries.size();
+            byte[] data = stream.readNBytes((int) Math.min(Integer.MAX_VALUE - 8, maxArchiveBytes + 1));
+            if (data.length > maxArchiveBytes) {
+                throw new RuntimeException("提交文件总大小超过限制（" + maxTotalBytes + " 字节）");
+            }
+            return SubmissionArchive.unpack(data, entries, maxTotalBytes);
+        } finally {
+            fetchTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            fetchPermits.release();
+        }
+    }
+
+    /**
+     * 按清单中的偏移只读取归档中的单个文件
+     *
+     * @param objectName 归档对象名
+     * @param entry      文件清单项
+     * @param maxBytes   允许解压的字节数
+     * @return 文件内容（UTF-8）
+     * @throws Exception 如果读取失败或超过字节限制
+     */
+    public String downloadSubmissionArchiveEntry(String objectName, SubmissionArchive.Entry entry, long maxBytes)
+            throws Exception {
+        GetObjectArgs getObjectArgs = GetObjectArgs.builder()
+                .bucket(determineBucketByObjectPath(objectName))
+                .object(objectName)
+                .offset(entry.offset())
+                .length(entry.length())
+                .build();
+        try (InputStream stream = minioClient.getObject(getObjectArgs)) {
+            return new String(SubmissionArchive.inflate(stream, maxBytes), StandardCharsets.UTF_8);
+        }
+    }
+
+    /**
+     * 是否将代码提交保存为单个归档对象
+     *
+     * @return 是否使用归档
+     */
+    public boolean isSubmissionArchiveEnabled() {
+        return minioConfig.isSubmissionArchive();
+    }
+
     /**
      * 上传通用资源到默认bucket
      * 
@@ -970,233 +1205,5 @@ public class MinioUtil {
         return lowerFilename.endsWith(".zip") || lowerFilename.endsWith(".rar") || 
                lowerFilename.endsWith(".7z") || lowerFilename.endsWith(".tar") || 
                lowerFilename.endsWith(".gz") || lowerFilename.endsWith(".tar.gz");
-    }    /**
-     * 自动解压压缩包并上传所有文件，保持目录结构
-     * 
-     * @param experimentId 实验ID
-     * @param taskId 任务ID（可选）
-     * @param compressedFile 压缩文件流
-     * @param filename 压缩文件名
-     * @param contentType 压缩文件类型
-     * @return 解压出的文件路径列表
-     * @throws Exception 如果解压或上传失败
-     */
-    public List<String> extractAndUploadCompressedFile(String experimentId, String taskId, 
-            InputStream compressedFile, String filename, String contentType) throws Exception {
-        
-        List<String> uploadedFiles = new ArrayList<>();
-        
-        // 首先读取原始压缩文件内容
-        byte[] compressedData = readAllBytes(compressedFile);
-        
-        // 生成基础路径
-        String basePath = generateExperimentResourceBasePath(experimentId, taskId);
-        
-        // 根据文件扩展名确定解压方式
-        String lowerFilename = filename.toLowerCase();
-        
-        try {
-            if (lowerFilename.endsWith(".zip")) {
-                uploadedFiles.addAll(extractZipFile(new ByteArrayInputStream(compressedData), basePath));
-            } else if (lowerFilename.endsWith(".tar") || lowerFilename.endsWith(".tar.gz")) {
-                uploadedFiles.addAll(extractTarFile(new ByteArrayInputStream(compressedData), basePath, lowerFilename.endsWith(".gz")));
-            } else if (lowerFilename.endsWith(".gz") && !lowerFilename.endsWith(".tar.gz")) {
-                uploadedFiles.addAll(extractGzFile(new ByteArrayInputStream(compressedData), basePath, filename));
-            } else {
-                throw new UnsupportedOperationException("不支持的压缩格式: " + filename);
-            }
-            
-            // 同时保存原始压缩包
-            String compressedFilePath = uploadOriginalCompressedFile(experimentId, taskId, 
-                    new ByteArrayInputStream(compressedData), filename, contentType, compressedData.length);
-            uploadedFiles.add(compressedFilePath);
-            
-        } catch (Exception e) {
-            throw new Exception("解压文件失败: " + e.getMessage(), e);
-        }
-        
-        return uploadedFiles;
-    }
-
-    /**
-     * 解压ZIP文件
-     */
-    private List<String> extractZipFile(InputStream zipStream, String basePath) throws Exception {
-        List<String> uploadedFiles = new ArrayList<>();
-          try (ZipArchiveInputStream zis = new ZipArchiveInputStream(zipStream)) {
-            ZipArchiveEntry entry;
-            while ((entry = (ZipArchiveEntry) zis.getNextEntry()) != null) {
-                if (!entry.isDirectory()) {
-                    String entryPath = basePath + entry.getName();
-                    
-                    // 读取文件内容
-                    ByteArrayOutputStream baos = new ByteArrayOutputStream();
-                    byte[] buffer = new byte[1024];
-                    int len;
-                    while ((len = zis.read(buffer)) > 0) {
-                        baos.write(buffer, 0, len);
-                    }
-                    
-                    // 上传文件到MinIO
-                    InputStream fileStream = new ByteArrayInputStream(baos.toByteArray());
-                    String mimeType = detectMimeTypeFromFilename(entry.getName());
-                    String uploadedPath = uploadToResourceBucket(entryPath, fileStream, 
-                            baos.size(), mimeType);
-                    
-                    // 添加元数据记录目录结构
-                    addDirectoryMetadata(uploadedPath, entry.getName(), "extracted_from_zip");
-                    
-                    uploadedFiles.add(uploadedPath);
-                }
-            }
-        }
-        
-        return uploadedFiles;
-    }
-
-    /**
-     * 解压TAR文件
-     */
-    private List<String> extractTarFile(InputStream tarStream, String basePath, boolean isGzipped) throws Exception {
-        List<String> uploadedFiles = new ArrayList<>();
-        
-        InputStream inputStream = isGzipped ? new GzipCompressorInputStream(tarStream) : tarStream;
-          try (TarArchiveInputStream tis = new TarArchiveInputStream(inputStream)) {
-            TarArchiveEntry entry;
-            while ((entry = (TarArchiveEntry) tis.getNextEntry()) != null) {
-                if (!entry.isDirectory()) {
-                    String entryPath = basePath + entry.getName();
-                    
-                    // 读取文件内容
-                    ByteArrayOutputStream baos = new ByteArrayOutputStream();
-                    byte[] buffer = new byte[1024];
-                    int len;
-                    while ((len = tis.read(buffer)) > 0) {
-                        baos.write(buffer, 0, len);
-                    }
-                    
-                    // 上传文件到MinIO
-                    InputStream fileStream = new ByteArrayInputStream(baos.toByteArray());
-                    String mimeType = detectMimeTypeFromFilename(entry.getName());
-                    String uploadedPath = uploadToResourceBucket(entryPath, fileStream, 
-                            baos.size(), mimeType);
-                    
-                    // 添加元数据记录目录结构
-                    addDirectoryMetadata(uploadedPath, entry.getName(), "extracted_from_tar");
-                    
-                    uploadedFiles.add(uploadedPath);
-                }
-            }
-        }
-        
-        return uploadedFiles;
-    }
-
-    /**
-     * 解压GZ文件（单文件压缩）
-     */
-    private List<String> extractGzFile(InputStream gzStream, String basePath, String originalFilename) throws Exception {
-        List<String> uploadedFiles = new ArrayList<>();
-        
-        // 移除.gz扩展名得到原始文件名
-        String extractedFilename = originalFilename.substring(0, originalFilename.lastIndexOf(".gz"));
-        String entryPath = basePath + extractedFilename;
-        
-        try (GzipCompressorInputStream gis = new GzipCompressorInputStream(gzStream)) {
-            // 读取解压后的内容
-            ByteArrayOutputStream baos = new ByteArrayOutputStream();
-            byte[] buffer = new byte[1024];
-            int len;
-            while ((len = gis.read(buffer)) > 0) {
-                baos.write(buffer, 0, len);
-            }
-            
-            // 上传文件到MinIO
-            InputStream fileStream = new ByteArrayInputStream(baos.toByteArray());
-            String mimeType = detectMimeTypeFromFilename(extractedFilename);
-            String uploadedPath = uploadToResourceBucket(entryPath, fileStream, 
-                    baos.size(), mimeType);
-            
-            // 添加元数据记录目录结构
-            addDirectoryMetadata(uploadedPath, extractedFilename, "extracted_from_gz");
-            
-            uploadedFiles.add(uploadedPath);
-        }
-        
-        return uploadedFiles;
-    }    /**
-     * 上传原始压缩文件
-     */
-    private String uploadOriginalCompressedFile(String experimentId, String taskId, 
-            InputStream compressedFile, String filename, String contentType, long fileSize) throws Exception {
-        String basePath = generateExperimentResourceBasePath(experimentId, taskId);
-        String compressedFilePath = basePath + "original/" + generateUniqueFileName(filename);
-        
-        return uploadToResourceBucket(compressedFilePath, compressedFile, fileSize, contentType);
-    }
-
-    /**
-     * 生成实验资源基础路径
-     */
-    private String generateExperimentResourceBasePath(String experimentId, String taskId) {
-        StringBuilder pathBuilder = new StringBuilder();
-        pathBuilder.append(experimentId).append(PATH_SEPARATOR);
-        pathBuilder.append(RESOURCE_TYPE_EXPERIMENT).append(PATH_SEPARATOR);
-        
-        if (taskId != null && !taskId.trim().isEmpty()) {
-            pathBuilder.append(taskId).append(PATH_SEPARATOR);
-        }
-        
-        return pathBuilder.toString();
-    }    /**
-     * 通过MinIO元数据添加目录结构信息
-     */
-    private void addDirectoryMetadata(String objectPath, String originalPath, String extractionType) throws Exception {
-        // 创建元数据映射
-        Map<String, String> metadata = new HashMap<>();
-        metadata.put("original-path", originalPath);
-        metadata.put("extraction-type", extractionType);
-        metadata.put("extraction-time", LocalDateTime.now().toString());
-        
-        // 注意：MinIO不支持直接更新已上传文件的元数据
-        // 这里只是记录，在实际应用中可以考虑在上传时直接设置元数据
-        // 或者使用数据库记录这些信息
-    }
-
-    /**
-     * 根据文件名检测MIME类型
-     */
-    private String detectMimeTypeFromFilename(String filename) {
-        String extension = "";
-        if (filename.contains(".")) {
-            extension = filename.substring(filename.lastIndexOf(".")).toLowerCase();
-        }
-        
-        switch (extension) {
-            case ".java": return "text/x-java-source";
-            case ".cpp": case ".c": return "text/x-c";
-            case ".py": return "text/x-python";
-            case ".js": return "application/javascript";
-            case ".html": return "text/html";
-            case ".css": return "text/css";
-            case ".txt": return "text/plain";
-            case ".md": return "text/markdown";
-            case ".json": return "application/json";
-            case ".xml": return "application/xml";
-            default: return "application/octet-stream";
-        }
-    }
-
-    /**
-     * 读取输入流的所有字节
-     */
-    private byte[] readAllBytes(InputStream inputStream) throws Exception {
-        ByteArrayOutputStream buffer = new ByteArrayOutputStream();
-        byte[] data = new byte[1024];
-        int len;
-        while ((len = inputStream.read(data)) != -1) {
-            buffer.write(data, 0, len);
-        }
-        return buffer.toByteArray();
     }
 }
@@ -0,0 +1,199 @@
+package org.linghu.experiment.utils;
+
+import org.linghu.experiment.dto.SourceCodeFileDTO;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * 代码提交归档
+ * <p>
+ * 一次提交的所有源文件保存为一个对象：每个文件单独压缩为一个 gzip 成员后依次拼接（整体仍是合法的多成员 gzip 文件），
+ * 各文件在对象中的偏移和长度记录在清单中并保存到提交记录的 userAnswer 里。
+ * 评测时一次读取整个对象，查看单个文件时只按偏移读取对应的字节范围。
+ */
+public final class SubmissionArchive {
+
+    /**
+     * 归档格式标识，保存在清单的 format 字段中
+     */
+    public static final String FORMAT = "gzip-members";
+
+    /**
+     * 归档对象的文件名
+     */
+    public static final String OBJECT_NAME = "submission.gz";
+
+    private SubmissionArchive() {
+    }
+
+    /**
+     * 归档中的单个文件
+     *
+     * @param name   文件在评测沙箱中的相对路径
+     * @param offset 压缩数据在对象中的起始字节
+     * @param length 压缩数据的字节数
+     * @param size   原始文件的字节数
+     */
+    public record Entry(String name, long offset, long length, long size) {
+    }
+
+    /**
+     * 打包结果
+     *
+     * @param data    归档对象内容
+     * @param entries 文件清单，顺序与提交顺序一致
+     */
+    public record Packed(byte[] data, List<Entry> entries) {
+    }
+
+    /**
+     * 打包源文件，文件名或内容为空的文件被跳过
+     *
+     * @param files 源文件列表
+     * @return 打包结果
+     * @throws IOException 如果压缩失败
+     */
+    public static Packed pack(List<SourceCodeFileDTO> files) throws IOException {
+        ByteArrayOutputStream data = new ByteArrayOutputStream();
+        List<Entry> entries = new ArrayList<>(files.size());
+        for (SourceCodeFileDTO file : files) {
+            if (file.getFileName() == null || file.getContent() == null) {
+                continue;
+            }
+            byte[] content = file.getContent().getBytes(StandardCharsets.UTF_8);
+            long offset = data.size();
+            try (GZIPOutputStream gzip = new GZIPOutputStream(data) {
+                @Override
+                public void close() throws IOException {
+                    // 只结束当前成员，不关闭底层输出
+                    finish();
+                    def.end();
+                }
+            }) {
+                gzip.write(content);
+            }
+            entries.add(new Entry(sandboxPath(file.getFileName()), offset, data.size() - offset, content.length));
+        }
+        if (entries.isEmpty()) {
+            throw new IllegalArgumentException("代码提交内容不能为空");
+        }
+        return new Packed(data.toByteArray(), entries);
+    }
+
+    /**
+     * 计算提交文件在评测沙箱中的相对路径
+     * <p>
+     * 前端提交的文件名以项目根目录开头（如 project/src/Main.java），沙箱中去掉根目录只保留其下的结构；
+     * 归档和逐文件上传两种方式都用此方法，保证评测时的文件布局一致。
+     *
+     * @param fileName 提交时的文件名
+     * @return 沙箱内相对路径，不含目录的文件名原样返回
+     */
+    public static String sandboxPath(String fileName) {
+        int separator = fileName.indexOf('/');
+        return separator < 0 ? fileName : fileName.substring(separator + 1);
+    }
+
+    /**
+     * 解压整个归档中的所有文件
+     *
+     * @param data     归档对象内容
+     * @param entries  文件清单
+     * @param maxBytes 允许解压的总字节数
+     * @return 文件内容（UTF-8），顺序与清单一致
+     * @throws IOException 如果解压失败或超过字节限制
+     */
+    public static List<String> unpack(byte[] data, List<Entry> entries, long maxBytes) throws IOException {
+        List<String> contents = new ArrayList<>(entries.size());
+        long remaining = maxBytes;
+        for (Entry entry : entries) {
+            if (entry.offset() < 0 || entry.length() < 0 || entry.offset() + entry.length() > data.length) {
+                throw new IOException("提交归档已损坏: " + entry.name());
+            }
+            byte[] content = inflate(new ByteArrayInputStream(data, (int) entry.offset(), (int) entry.length()),
+                    remaining, maxBytes);
+            remaining -= content.length;
+            contents.add(new String(content, StandardCharsets.UTF_8));
+        }
+        return contents;
+    }
+
+    /**
+     * 解压单个文件的压缩数据
+     *
+     * @param compressed 按清单偏移读取的压缩数据
+     * @param maxBytes   允许解压的字节数
+     * @return 文件内容
+     * @throws IOException 如果解压失败或超过字节限制
+     */
+    public static byte[] inflate(InputStream compressed, long maxBytes) throws IOException {
+        return inflate(compressed, maxBytes, maxBytes);
+    }
+
+    private static byte[] inflate(InputStream compressed, long remainingBytes, long maxBytes) throws IOException {
+        try (GZIPInputStream gzip = new GZIPInputStream(compressed)) {
+            // 最多多读1个字节，用于判断是否超出限制
+            byte[] content = gzip.readNBytes((int) Math.min(Integer.MAX_VALUE - 8, Math.max(0, remainingBytes) + 1));
+            if (content.length > remainingBytes) {
+                throw new IOException("提交文件总大小超过限制（" + maxBytes + " 字节）");
+            }
+            return content;
+        }
+    }
+
+    /**
+     * 生成保存到提交记录中的清单
+     *
+     * @param objectName 归档对象名
+     * @param entries    文件清单
+     * @return 清单数据
+     */
+    public static Map<String, Object> manifest(String objectName, List<Entry> entries) {
+        List<Map<String, Object>> files = new ArrayList<>(entries.size());
+        for (Entry entry : entries) {
+            Map<String, Object> file = new LinkedHashMap<>();
+            file.put("name", entry.name());
+            file.put("offset", entry.offset());
+            file.put("length", entry.length());
+            file.put("size", entry.size());
+            files.add(file);
+        }
+        Map<String, Object> manifest = new HashMap<>();
+        manifest.put("archive", objectName);
+        manifest.put("format", FORMAT);
+        manifest.put("entries", files);
+        manifest.put("fileCount", entries.size());
+        manifest.put("fileNames", entries.stream().map(Entry::name).toList());
+        return manifest;
+    }
+
+    /**
+     * 从提交记录的答案数据中读取归档清单
+     *
+     * @param answerData 提交记录中的答案数据
+     * @return 文件清单；不是归档格式的提交返回空
+     */
+    @SuppressWarnings("unchecked")
+    public static Optional<List<Entry>> entries(Map<String, Object> answerData) {
+        if (answerData == null || !FORMAT.equals(answerData.get("format"))
+                || !(answerData.get("entries") instanceof List<?> files)) {
+            return Optional.empty();
+        }
+        List<Entry> entries = new ArrayList<>(files.size());
+        for (Object item : files) {
+            Map<String, Object> file = (Map<String, Object>) item;
+            entries.add(new Entry((String) file.get("name"),
+                    ((Number) file.get("offset")).longValue(),
+                    ((Number) file.get("length")).longValue(),
+                    ((Number) file.get("size")).longValue()));
+        }
+        return Optional.of(entries);
+    }
+}
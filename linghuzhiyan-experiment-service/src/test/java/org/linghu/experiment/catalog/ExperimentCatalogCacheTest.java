@@ -0,0 +1,185 @@
+package org.linghu.experiment.catalog;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.linghu.experiment.domain.Experiment;
+import org.linghu.experiment.dto.ExperimentDTO;
+import org.linghu.experiment.dto.PageResult;
+import org.linghu.experiment.repository.ExperimentRepository;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ValueOperations;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * ExperimentCatalogCache 单元测试
+ */
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class ExperimentCatalogCacheTest {
+
+    private static final String CATALOG_KEY = ExperimentCatalogCache.CATALOG_KEY_PREFIX;
+
+    @Mock
+    private ExperimentRepository experimentRepository;
+
+    @Mock
+    private StringRedisTemplate redisTemplate;
+
+    @Mock
+    private ValueOperations<String, String> valueOperations;
+
+    private final ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+    private final LocalDateTime now = LocalDateTime.now();
+
+    @BeforeEach
+    void setUp() {
+        when(redisTemplate.opsForValue()).thenReturn(valueOperations);
+        when(experimentRepository.findByStatus(Experiment.ExperimentStatus.PUBLISHED)).thenReturn(List.of(
+                experiment("exp-old", now.minusDays(2)),
+                experiment("exp-new", now),
+                experiment("exp-mid", now.minusDays(1))));
+    }
+
+    @Test
+    void get_WithinLocalTtl_ShouldNotQueryRedisOrDatabase() {
+        // Given
+        ExperimentCatalogCache cache = cache(Duration.ofHours(1));
+
+        // When
+        ExperimentCatalog first = cache.get();
+        ExperimentCatalog second = cache.get();
+
+        // Then：按开始时间倒序
+        assertSame(first, second);
+        assertEquals(List.of("exp-new", "exp-mid", "exp-old"),
+                first.experiments().stream().map(ExperimentDTO::getId).toList());
+        verify(experimentRepository, times(1)).findByStatus(Experiment.ExperimentStatus.PUBLISHED);
+        verify(valueOperations, times(1)).get(ExperimentCatalogCache.VERSION_KEY);
+    }
+
+    @Test
+    void get_WhenVersionUnchanged_ShouldReuseLocalSnapshot() {
+        // Given
+        when(valueOperations.get(ExperimentCatalogCache.VERSION_KEY)).thenReturn("3");
+        ExperimentCatalogCache cache = cache(Duration.ZERO);
+
+        // When
+        ExperimentCatalog first = cache.get();
+        ExperimentCatalog second = cache.get();
+
+        // Then：重建后写入Redis，版本未变化时只读取版本号
+        assertSame(first, second);
+        verify(experimentRepository, times(1)).findByStatus(Experiment.ExperimentStatus.PUBLISHED);
+        verify(valueOperations).set(eq(CATALOG_KEY + "3"), anyString(), eq(Duration.ofHours(1)));
+        verify(valueOperations, times(2)).get(ExperimentCatalogCache.VERSION_KEY);
+    }
+
+    @Test
+    void get_WhenVersionChanged_ShouldLoadCatalogFromRedis() throws Exception {
+        // Given
+        ExperimentCatalog stored = new ExperimentCatalog("abc", List.of(ExperimentDTO.builder()
+                .id("exp-redis").name("Redis").startTime(now).build()));
+        when(valueOperations.get(ExperimentCatalogCache.VERSION_KEY)).thenReturn("1", "2");
+        when(valueOperations.get(CATALOG_KEY + "2")).thenReturn(objectMapper.writeValueAsString(stored));
+        ExperimentCatalogCache cache = cache(Duration.ZERO);
+
+        // When
+        cache.get();
+        ExperimentCatalog catalog = cache.get();
+
+        // Then：其他实例发布后，本实例直接使用Redis中新版本的目录
+        assertEquals(stored, catalog);
+        verify(experimentRepository, times(1)).findByStatus(Experiment.ExperimentStatus.PUBLISHED);
+    }
+
+    @Test
+    void get_WhenRedisUnavailable_ShouldFallBackToDatabase() {
+        // Given
+        when(valueOperations.get(anyString())).thenThrow(new RuntimeException("connection refused"));
+        ExperimentCatalogCache cache = cache(Duration.ZERO);
+
+        // When
+        ExperimentCatalog catalog = cache.get();
+
+        // Then
+        assertEquals(3, catalog.experiments().size());
+        verify(valueOperations, never()).set(anyString(), anyString(), any(Duration.class));
+    }
+
+    @Test
+    void invalidate_ShouldIncrementVersionAndDropLocalSnapshot() {
+        // Given
+        ExperimentCatalogCache cache = cache(Duration.ofHours(1));
+        cache.get();
+
+        // When
+        cache.invalidate();
+        cache.get();
+
+        // Then
+        verify(valueOperations).increment(ExperimentCatalogCache.VERSION_KEY);
+        verify(experimentRepository, times(2)).findByStatus(Experiment.ExperimentStatus.PUBLISHED);
+    }
+
+    @Test
+    void catalog_ShouldPageAndTagEachPage() {
+        // Given
+        ExperimentCatalog catalog = cache(Duration.ofHours(1)).get();
+
+        // When
+        PageResult<ExperimentDTO> page = catalog.page(2, 2);
+        PageResult<ExperimentDTO> beyond = catalog.page(5, 2);
+
+        // Then：内容相同的目录版本相同，不同页的ETag不同
+        assertEquals(List.of("exp-old"), page.getList().stream().map(ExperimentDTO::getId).toList());
+        assertEquals(3, page.getTotal());
+        assertTrue(beyond.getList().isEmpty());
+        assertEquals(catalog.version(), cache(Duration.ofHours(1)).get().version());
+        assertNotEquals(catalog.etag(1, 2), catalog.etag(2, 2));
+    }
+
+    @Test
+    void catalog_ShouldReturnCopiesOfSharedExperiments() {
+        // Given
+        ExperimentCatalogCache cache = cache(Duration.ofHours(1));
+
+        // When：调用方修改返回的实验
+        cache.get().experiments().get(0).setName("changed");
+        cache.get().page(1, 1).getList().get(0).setStatus(Experiment.ExperimentStatus.DRAFT);
+
+        // Then：缓存中的目录不受影响
+        ExperimentDTO cached = cache.get().experiments().get(0);
+        assertEquals("exp-new", cached.getName());
+        assertEquals(Experiment.ExperimentStatus.PUBLISHED, cached.getStatus());
+    }
+
+    private ExperimentCatalogCache cache(Duration localTtl) {
+        return new ExperimentCatalogCache(experimentRepository, redisTemplate, objectMapper,
+                new SimpleMeterRegistry(), localTtl, Duration.ofHours(1));
+    }
+
+    private static Experiment experiment(String id, LocalDateTime startTime) {
+        return Experiment.builder()
+                .id(id)
+                .name(id)
+                .creatorId("teacher1")
+                .status(Experiment.ExperimentStatus.PUBLISHED)
+                .startTime(startTime)
+                .endTime(startTime.plusDays(7))
+                .build();
+    }
+}
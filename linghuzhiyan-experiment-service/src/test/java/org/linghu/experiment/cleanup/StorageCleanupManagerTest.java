@@ -0,0 +1,120 @@
+package org.linghu.experiment.cleanup;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.linghu.experiment.utils.MinioUtil;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+/**
+ * StorageCleanupManager 单元测试
+ */
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class StorageCleanupManagerTest {
+
+    @Mock
+    private MinioUtil minioUtil;
+
+    private StorageCleanupManager manager;
+
+    @BeforeEach
+    void setUp() {
+        manager = new StorageCleanupManager(minioUtil);
+    }
+
+    @AfterEach
+    void tearDown() {
+        manager.shutdown();
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void run_ShouldDeleteEveryPrefixAndRecordProgress() throws Exception {
+        // Given
+        when(minioUtil.deleteByPrefixInBucket(any(), any(), any())).thenAnswer(invocation -> {
+            MinioUtil.DeleteProgressListener listener = invocation.getArgument(2);
+            listener.batchDeleted(1000, Map.of());
+            listener.batchDeleted(500, Map.of());
+            return 1500L;
+        });
+        StorageCleanupJob job = new StorageCleanupJob("job1", "exp1", List.of(
+                new StorageCleanupJob.Target("resource", "exp1/"),
+                new StorageCleanupJob.Target("submission", "user1/exp1/")));
+
+        // When
+        manager.run(job);
+
+        // Then
+        assertEquals(StorageCleanupJob.Status.COMPLETED, job.getStatus());
+        assertEquals(3000, job.getDeleted());
+        assertEquals(2, job.getCompletedTargets());
+        assertEquals(100.0, job.getProgress());
+        verify(minioUtil).deleteByPrefixInBucket(eq("submission"), eq("user1/exp1/"), any());
+    }
+
+    @Test
+    void run_WhenSomeObjectsOrPrefixesFail_ShouldContinueAndReportFailures() throws Exception {
+        // Given：第一个前缀有对象删除失败，第二个前缀列举失败
+        when(minioUtil.deleteByPrefixInBucket(eq("resource"), eq("exp1/"), any())).thenAnswer(invocation -> {
+            MinioUtil.DeleteProgressListener listener = invocation.getArgument(2);
+            listener.batchDeleted(9, Map.of("exp1/locked.txt", "Access Denied"));
+            return 9L;
+        });
+        when(minioUtil.deleteByPrefixInBucket(eq("submission"), eq("user1/exp1/"), any()))
+                .thenThrow(new RuntimeException("connection refused"));
+        StorageCleanupJob job = new StorageCleanupJob("job1", "exp1", List.of(
+                new StorageCleanupJob.Target("resource", "exp1/"),
+                new StorageCleanupJob.Target("submission", "user1/exp1/")));
+
+        // When
+        manager.run(job);
+
+        // Then
+        assertEquals(StorageCleanupJob.Status.FAILED, job.getStatus());
+        assertEquals(9, job.getDeleted());
+        assertEquals(2, job.getFailed());
+        assertEquals(List.of("exp1/locked.txt: Access Denied", "submission/user1/exp1/: connection refused"),
+                job.getFailures());
+    }
+
+    @Test
+    void cleanupExperiment_InTransaction_ShouldWaitForCommit() {
+        // Given
+        TransactionSynchronizationManager.initSynchronization();
+
+        // When
+        StorageCleanupJob job = manager.cleanupExperiment("exp1", List.of("user2", "user1", "user2"));
+
+        // Then：资源前缀加每个学生一个提交前缀，提交前不执行
+        assertEquals(List.of(new StorageCleanupJob.Target("resource", "exp1/"),
+                new StorageCleanupJob.Target("submission", "user1/exp1/"),
+                new StorageCleanupJob.Target("submission", "user2/exp1/")), job.getTargets());
+        assertEquals(StorageCleanupJob.Status.PENDING, job.getStatus());
+        verifyNoInteractions(minioUtil);
+
+        // When：事务回滚
+        TransactionSynchronizationManager.getSynchronizations()
+                .forEach(synchronization -> synchronization.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK));
+
+        // Then
+        assertEquals(StorageCleanupJob.Status.CANCELLED, job.getStatus());
+        assertSame(job, manager.get(job.getId()).orElseThrow());
+    }
+}
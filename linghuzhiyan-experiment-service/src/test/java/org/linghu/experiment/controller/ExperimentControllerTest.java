@@ -10,6 +10,7 @@ import org.linghu.experiment.dto.ExperimentDTO;
 import org.linghu.experiment.dto.ExperimentRequestDTO;
 import org.linghu.experiment.dto.PageResult;
 import org.linghu.experiment.dto.Result;
+import org.linghu.experiment.dto.StorageCleanupJobDTO;
 import org.linghu.experiment.service.ExperimentService;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
@@ -294,16 +295,18 @@ class ExperimentControllerTest {
         @DisplayName("成功删除实验")
         void shouldDeleteExperimentSuccessfully() {
             // given
-            doNothing().when(experimentService).deleteExperiment("exp123");
+            StorageCleanupJobDTO cleanupJob = StorageCleanupJobDTO.builder()
+                    .id("job1").experimentId("exp123").status("PENDING").build();
+            when(experimentService.deleteExperiment("exp123")).thenReturn(cleanupJob);
 
             // when
-            Result<Void> response = experimentController.deleteExperiment("exp123");
+            Result<StorageCleanupJobDTO> response = experimentController.deleteExperiment("exp123");
 
-            // then
+            // then：删除立即返回清理任务，不等待对象存储清理完成
             assertThat(response).isNotNull();
             assertThat(response.getCode()).isEqualTo(200);
             assertThat(response.getMessage()).isEqualTo("success");
-            assertThat(response.getData()).isNull();
+            assertThat(response.getData()).isEqualTo(cleanupJob);
 
             verify(experimentService).deleteExperiment("exp123");
         }
@@ -6,6 +6,7 @@ import org.junit.jupiter.api.Nested;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.linghu.experiment.dto.ExperimentDTO;
+import org.linghu.experiment.evaluation.EvaluationResultCache;
 import org.linghu.experiment.service.ExperimentService;
 import org.linghu.experiment.dto.Result;
 import org.mockito.InjectMocks;
@@ -30,6 +31,9 @@ class ExperimentInternalControllerTest {
     @Mock
     private ExperimentService experimentService;
 
+    @Mock
+    private EvaluationResultCache evaluationResultCache;
+
     @InjectMocks
     private ExperimentInternalController experimentInternalController;
 
@@ -361,4 +365,20 @@ class ExperimentInternalControllerTest {
             verify(experimentService).getExperimentById("exp123");
         }
     }
+
+    @Nested
+    @DisplayName("评测结果缓存失效测试")
+    class InvalidateEvaluationCacheTests {
+
+        @Test
+        @DisplayName("使实验的评测结果缓存失效")
+        void shouldInvalidateEvaluationCache() {
+            // when
+            Result<Void> response = experimentInternalController.invalidateEvaluationCache("exp123");
+
+            // then
+            assertThat(response.getCode()).isEqualTo(200);
+            verify(evaluationResultCache).invalidateExperiment("exp123");
+        }
+    }
 }
@@ -5,16 +5,25 @@ import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Nested;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.linghu.experiment.catalog.ExperimentCatalog;
 import org.linghu.experiment.dto.*;
 import org.linghu.experiment.service.StudentExperimentService;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
 import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
+import java.io.IOException;
 import java.time.LocalDateTime;
 import java.util.Arrays;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.Mockito.*;
@@ -248,6 +257,79 @@ class StudentExperimentControllerTest {
         }
     }
 
+    @Nested
+    @DisplayName("获取实验目录测试")
+    class GetExperimentCatalogTests {
+
+        @Test
+        @DisplayName("返回目录分页并设置ETag")
+        void shouldReturnCatalogPageWithETag() {
+            // given
+            ExperimentCatalog catalog = new ExperimentCatalog("v1", List.of(sampleExperimentDTO));
+            when(studentExperimentService.getPublishedExperimentCatalog()).thenReturn(catalog);
+            MockHttpServletResponse servletResponse = new MockHttpServletResponse();
+
+            // when
+            Result<PageResult<ExperimentDTO>> response = studentExperimentController.getExperimentCatalog(1, 10,
+                    new ServletWebRequest(new MockHttpServletRequest("GET", "/api/student/experiments/catalog"),
+                            servletResponse));
+
+            // then
+            assertThat(response.getCode()).isEqualTo(200);
+            assertThat(response.getData().getList()).containsExactly(sampleExperimentDTO);
+            assertThat(response.getData().getTotal()).isEqualTo(1);
+            assertThat(servletResponse.getHeader("ETag")).isEqualTo(catalog.etag(1, 10));
+        }
+
+        @Test
+        @DisplayName("目录未变化时返回304")
+        void shouldReturnNotModifiedWhenETagMatches() {
+            // given
+            ExperimentCatalog catalog = new ExperimentCatalog("v1", List.of(sampleExperimentDTO));
+            when(studentExperimentService.getPublishedExperimentCatalog()).thenReturn(catalog);
+            MockHttpServletRequest servletRequest = new MockHttpServletRequest("GET", "/api/student/experiments/catalog");
+            servletRequest.addHeader("If-None-Match", catalog.etag(1, 10));
+            MockHttpServletResponse servletResponse = new MockHttpServletResponse();
+
+            // when
+            Result<PageResult<ExperimentDTO>> response = studentExperimentController.getExperimentCatalog(1, 10,
+                    new ServletWebRequest(servletRequest, servletResponse));
+
+            // then
+            assertThat(response).isNull();
+            assertThat(servletResponse.getStatus()).isEqualTo(304);
+        }
+    }
+
+    @Nested
+    @DisplayName("获取学习进度测试")
+    class GetProgressDashboardTests {
+
+        @Test
+        @DisplayName("成功获取学习进度")
+        void shouldGetProgressDashboardSuccessfully() {
+            // given
+            List<TaskProgressDTO> progress = List.of(TaskProgressDTO.builder()
+                    .taskId("task123")
+                    .latestSubmitTime(LocalDateTime.now())
+                    .submissionCount(1)
+                    .status("SUBMITTED")
+                    .build());
+            when(userDetails.getUsername()).thenReturn("student123");
+            when(studentExperimentService.getProgressDashboard("student123")).thenReturn(progress);
+
+            // when
+            Result<List<TaskProgressDTO>> response = studentExperimentController.getProgressDashboard(userDetails);
+
+            // then
+            assertThat(response).isNotNull();
+            assertThat(response.getCode()).isEqualTo(200);
+            assertThat(response.getData()).isEqualTo(progress);
+
+            verify(studentExperimentService).getProgressDashboard("student123");
+        }
+    }
+
     @Nested
     @DisplayName("获取具体任务测试")
     class GetTaskTests {
@@ -257,10 +339,10 @@ class StudentExperimentControllerTest {
         void shouldGetTaskSuccessfully() {
             // given
             when(userDetails.getUsername()).thenReturn("student123");
-            when(studentExperimentService.getTaskById("task123", "student123")).thenReturn(sampleTaskDTO);
+            when(studentExperimentService.getTaskById("task123", "student123", true)).thenReturn(sampleTaskDTO);
 
             // when
-            Result<ExperimentTaskDTO> response = studentExperimentController.getTask("task123", userDetails);
+            Result<ExperimentTaskDTO> response = studentExperimentController.getTask("task123", true, userDetails);
 
             // then
             assertThat(response).isNotNull();
@@ -268,7 +350,7 @@ class StudentExperimentControllerTest {
             assertThat(response.getMessage()).isEqualTo("success");
             assertThat(response.getData()).isEqualTo(sampleTaskDTO);
 
-            verify(studentExperimentService).getTaskById("task123", "student123");
+            verify(studentExperimentService).getTaskById("task123", "student123", true);
         }
 
         @Test
@@ -276,17 +358,33 @@ class StudentExperimentControllerTest {
         void shouldHandleGetUnauthorizedTask() {
             // given
             when(userDetails.getUsername()).thenReturn("student123");
-            when(studentExperimentService.getTaskById("task123", "student123"))
+            when(studentExperimentService.getTaskById("task123", "student123", true))
                     .thenThrow(new RuntimeException("无权限访问该任务"));
 
             // when & then
             try {
-                studentExperimentController.getTask("task123", userDetails);
+                studentExperimentController.getTask("task123", true, userDetails);
             } catch (RuntimeException e) {
                 assertThat(e.getMessage()).isEqualTo("无权限访问该任务");
             }
 
-            verify(studentExperimentService).getTaskById("task123", "student123");
+            verify(studentExperimentService).getTaskById("task123", "student123", true);
+        }
+
+        @Test
+        @DisplayName("按需获取任务脚手架文件")
+        void shouldGetTaskFileSuccessfully() {
+            // given
+            SourceCodeFileDTO file = SourceCodeFileDTO.builder().fileName("src/Main.java").content("class Main {}").build();
+            when(userDetails.getUsername()).thenReturn("student123");
+            when(studentExperimentService.getTaskFile("task123", "src/Main.java", "student123")).thenReturn(file);
+
+            // when
+            Result<SourceCodeFileDTO> response = studentExperimentController.getTaskFile("task123", "src/Main.java", userDetails);
+
+            // then
+            assertThat(response.getCode()).isEqualTo(200);
+            assertThat(response.getData()).isEqualTo(file);
         }
     }
 
@@ -402,20 +500,24 @@ class StudentExperimentControllerTest {
         void shouldGetTaskEvaluationHistorySuccessfully() {
             // given
             when(userDetails.getUsername()).thenReturn("student123");
-            when(studentExperimentService.getTaskEvaluationHistory("task123", "student123")).thenReturn(evaluationList);
+            CursorPageResult<ExperimentEvaluationDTO> page = CursorPageResult.of(evaluationList, "next");
+            when(studentExperimentService.getTaskEvaluationHistory("task123", "student123", null, 20, false))
+                    .thenReturn(page);
 
             // when
-            Result<List<ExperimentEvaluationDTO>> response = studentExperimentController.getTaskEvaluationHistory("task123", userDetails);
+            Result<CursorPageResult<ExperimentEvaluationDTO>> response = studentExperimentController
+                    .getTaskEvaluationHistory("task123", null, 20, false, userDetails);
 
             // then
             assertThat(response).isNotNull();
             assertThat(response.getCode()).isEqualTo(200);
             assertThat(response.getMessage()).isEqualTo("success");
             assertThat(response.getData()).isNotNull();
-            assertThat(response.getData()).hasSize(1);
-            assertThat(response.getData()).isEqualTo(evaluationList);
+            assertThat(response.getData().getList()).hasSize(1);
+            assertThat(response.getData().getList()).isEqualTo(evaluationList);
+            assertThat(response.getData().isHasMore()).isTrue();
 
-            verify(studentExperimentService).getTaskEvaluationHistory("task123", "student123");
+            verify(studentExperimentService).getTaskEvaluationHistory("task123", "student123", null, 20, false);
         }
 
         @Test
@@ -423,19 +525,22 @@ class StudentExperimentControllerTest {
         void shouldHandleEmptyEvaluationHistory() {
             // given
             when(userDetails.getUsername()).thenReturn("student123");
-            when(studentExperimentService.getTaskEvaluationHistory("task123", "student123")).thenReturn(Arrays.asList());
+            when(studentExperimentService.getTaskEvaluationHistory("task123", "student123", "cursor1", 20, true))
+                    .thenReturn(CursorPageResult.of(Arrays.asList(), null));
 
             // when
-            Result<List<ExperimentEvaluationDTO>> response = studentExperimentController.getTaskEvaluationHistory("task123", userDetails);
+            Result<CursorPageResult<ExperimentEvaluationDTO>> response = studentExperimentController
+                    .getTaskEvaluationHistory("task123", "cursor1", 20, true, userDetails);
 
             // then
             assertThat(response).isNotNull();
             assertThat(response.getCode()).isEqualTo(200);
             assertThat(response.getMessage()).isEqualTo("success");
             assertThat(response.getData()).isNotNull();
-            assertThat(response.getData()).isEmpty();
+            assertThat(response.getData().getList()).isEmpty();
+            assertThat(response.getData().isHasMore()).isFalse();
 
-            verify(studentExperimentService).getTaskEvaluationHistory("task123", "student123");
+            verify(studentExperimentService).getTaskEvaluationHistory("task123", "student123", "cursor1", 20, true);
         }
 
         @Test
@@ -443,17 +548,43 @@ class StudentExperimentControllerTest {
         void shouldHandleServiceExceptionWhenGettingHistory() {
             // given
             when(userDetails.getUsername()).thenReturn("student123");
-            when(studentExperimentService.getTaskEvaluationHistory("task123", "student123"))
+            when(studentExperimentService.getTaskEvaluationHistory("task123", "student123", null, 20, false))
                     .thenThrow(new RuntimeException("获取评测历史失败"));
 
             // when & then
             try {
-                studentExperimentController.getTaskEvaluationHistory("task123", userDetails);
+                studentExperimentController.getTaskEvaluationHistory("task123", null, 20, false, userDetails);
             } catch (RuntimeException e) {
                 assertThat(e.getMessage()).isEqualTo("获取评测历史失败");
             }
 
-            verify(studentExperimentService).getTaskEvaluationHistory("task123", "student123");
+            verify(studentExperimentService).getTaskEvaluationHistory("task123", "student123", null, 20, false);
+        }
+    }
+
+    @Nested
+    @DisplayName("订阅评测结果测试")
+    class SubscribeEvaluationTests {
+
+        @Test
+        @DisplayName("连接超时或出错时取消订阅")
+        @SuppressWarnings("unchecked")
+        void shouldUnsubscribeOnTimeoutAndError() {
+            // given
+            AtomicInteger unsubscribed = new AtomicInteger();
+            when(userDetails.getUsername()).thenReturn("student123");
+            when(studentExperimentService.subscribeEvaluationResult(eq("eval123"), eq("student123"), any()))
+                    .thenReturn(unsubscribed::incrementAndGet);
+
+            // when：模拟容器触发 SseEmitter 的超时和错误回调
+            SseEmitter timedOut = studentExperimentController.subscribeEvaluation("eval123", userDetails);
+            ((Runnable) ReflectionTestUtils.getField(timedOut, "timeoutCallback")).run();
+            SseEmitter failed = studentExperimentController.subscribeEvaluation("eval123", userDetails);
+            ((Consumer<Throwable>) ReflectionTestUtils.getField(failed, "errorCallback"))
+                    .accept(new IOException("Broken pipe"));
+
+            // then
+            assertThat(unsubscribed.get()).isEqualTo(2);
         }
     }
 }
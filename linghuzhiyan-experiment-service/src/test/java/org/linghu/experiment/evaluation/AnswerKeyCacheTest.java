@@ -0,0 +1,149 @@
+package org.linghu.experiment.evaluation;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.linghu.experiment.config.EvaluationProperties;
+import org.linghu.experiment.domain.ExperimentTask;
+import org.linghu.experiment.domain.Question;
+import org.linghu.experiment.repository.QuestionRepository;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+/**
+ * AnswerKeyCache 与 AnswerKey 单元测试
+ */
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class AnswerKeyCacheTest {
+
+    @Mock
+    private QuestionRepository questionRepository;
+
+    private EvaluationProperties properties;
+    private AnswerKeyCache answerKeyCache;
+    private ExperimentTask task;
+
+    @BeforeEach
+    void setUp() {
+        properties = new EvaluationProperties();
+        properties.getAnswerKey().setMaxTasks(2);
+        answerKeyCache = new AnswerKeyCache(questionRepository, properties, new SimpleMeterRegistry());
+        task = ExperimentTask.builder().id("task1").questionIds("[\"q2\",\"q1\",\"q3\"]").build();
+
+        when(questionRepository.findByIdIn(anyList())).thenReturn(List.of(
+                Question.builder().id("q1").answer("\"Hash Table\"").build(),
+                Question.builder().id("q2").answer("[\"A\",\"C\"]").build(),
+                Question.builder().id("q3").answer("\"中华人民共和国，成立于1949年。\"").build()));
+    }
+
+    @Test
+    void get_ShouldCompileAnswersInTaskOrderAndReuseThem() {
+        // When
+        AnswerKey first = answerKeyCache.get(task);
+        AnswerKey second = answerKeyCache.get(task);
+
+        // Then
+        assertSame(first, second);
+        assertEquals(List.of("q2", "q1", "q3"),
+                first.getQuestions().stream().map(AnswerKey.QuestionKey::questionId).toList());
+        verify(questionRepository, times(1)).findByIdIn(anyList());
+    }
+
+    @Test
+    void matches_ShouldFollowObjectiveGradingRules() {
+        // Given
+        AnswerKey answerKey = answerKeyCache.get(task);
+        Map<String, AnswerKey.QuestionKey> questions = new HashMap<>();
+        answerKey.getQuestions().forEach(question -> questions.put(question.questionId(), question));
+
+        // Then：英文忽略大小写和标点
+        assertTrue(questions.get("q1").matches("  hash table! "));
+        assertFalse(questions.get("q1").matches("hash map"));
+        // 多选题与顺序、大小写无关，数量必须一致
+        assertTrue(questions.get("q2").matches(List.of("c", "a")));
+        assertFalse(questions.get("q2").matches(List.of("a", "a")));
+        assertFalse(questions.get("q2").matches(List.of("a")));
+        // 中文答案忽略标点并统一全角字符
+        assertTrue(questions.get("q3").matches("中华人民共和国成立于１９４９年"));
+        assertFalse(questions.get("q3").matches("中华人民共和国成立于1950年"));
+        // 类型不一致判为错误
+        assertFalse(questions.get("q1").matches(List.of("hash table")));
+    }
+
+    @Test
+    void matches_WithObjectAnswer_ShouldCompareEachField() {
+        // Given
+        AnswerKey answerKey = AnswerKey.compile(Map.of("q1", Map.of("blank1", "栈", "blank2", List.of("A", "B"))));
+        AnswerKey.QuestionKey question = answerKey.getQuestions().iterator().next();
+
+        // Then
+        assertTrue(question.matches(Map.of("blank1", "栈。", "blank2", List.of("b", "a"))));
+        assertFalse(question.matches(Map.of("blank1", "队列", "blank2", List.of("b", "a"))));
+        assertFalse(question.matches(Map.of("blank1", "栈")));
+    }
+
+    @Test
+    void invalidateQuestion_ShouldRebuildTasksUsingQuestion() {
+        // Given
+        ExperimentTask otherTask = ExperimentTask.builder().id("task2").questionIds("[\"q9\"]").build();
+        answerKeyCache.get(task);
+        answerKeyCache.get(otherTask);
+
+        // When
+        answerKeyCache.invalidateQuestion("q1");
+        answerKeyCache.get(task);
+        answerKeyCache.get(otherTask);
+
+        // Then：task1 重建一次，task2 不含该题目仍使用缓存
+        verify(questionRepository, times(3)).findByIdIn(anyList());
+        verify(questionRepository, times(2)).findByIdIn(List.of("q2", "q1", "q3"));
+    }
+
+    @Test
+    void get_WhenTaskQuestionsChangedOrInvalidated_ShouldRebuild() {
+        // Given
+        answerKeyCache.get(task);
+
+        // When
+        task.setQuestionIds("[\"q1\"]");
+        AnswerKey changed = answerKeyCache.get(task);
+        answerKeyCache.invalidateTask("task1");
+        answerKeyCache.get(task);
+
+        // Then
+        assertEquals(1, changed.size());
+        verify(questionRepository, times(3)).findByIdIn(anyList());
+    }
+
+    @Test
+    void get_WhenCacheFull_ShouldEvictLeastRecentlyUsedTask() {
+        // Given
+        ExperimentTask task2 = ExperimentTask.builder().id("task2").questionIds("[\"q1\"]").build();
+        ExperimentTask task3 = ExperimentTask.builder().id("task3").questionIds("[\"q2\"]").build();
+        answerKeyCache.get(task);
+        answerKeyCache.get(task2);
+        answerKeyCache.get(task);
+
+        // When
+        answerKeyCache.get(task3);
+        answerKeyCache.get(task);
+        answerKeyCache.get(task2);
+
+        // Then：task2 最久未使用被淘汰，需要重新构建
+        assertEquals(2, answerKeyCache.size());
+        verify(questionRepository, times(2)).findByIdIn(List.of("q1"));
+        verify(questionRepository, times(1)).findByIdIn(List.of("q2", "q1", "q3"));
+    }
+}
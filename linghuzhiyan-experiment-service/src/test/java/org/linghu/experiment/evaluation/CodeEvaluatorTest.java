@@ -0,0 +1,338 @@
+package org.linghu.experiment.evaluation;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.linghu.experiment.config.EvaluationProperties;
+import org.linghu.experiment.constants.TaskType;
+import org.linghu.experiment.domain.ExperimentEvaluation;
+import org.linghu.experiment.domain.ExperimentSubmission;
+import org.linghu.experiment.domain.ExperimentTask;
+import org.linghu.experiment.dto.SourceCodeFileDTO;
+import org.linghu.experiment.judge.*;
+import org.linghu.experiment.judge.StubGoJudgeServer.StubRequest;
+import org.linghu.experiment.judge.StubGoJudgeServer.StubResponse;
+import org.linghu.experiment.utils.JsonUtils;
+import org.linghu.experiment.utils.MinioUtil;
+import org.linghu.experiment.utils.SubmissionArchive;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.when;
+
+/**
+ * CodeEvaluator 测试，使用本地桩服务模拟 go-judge 的编译和运行
+ */
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class CodeEvaluatorTest {
+
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+    private static final String BASE_PATH = "user1/exp1/task1/20240101/project/";
+    private static final String TASK_RUN_SCRIPT = "./main\n";
+    private static final String FIXTURE = "3 1 2\n";
+
+    @Mock
+    private MinioUtil minioUtil;
+
+    @Mock
+    private JudgeFileCache judgeFileCache;
+
+    @Mock
+    private JudgeNodeRegistry judgeNodeRegistry;
+
+    private StubGoJudgeServer stubServer;
+    private EvaluationProperties properties;
+    private CodeEvaluator codeEvaluator;
+    private final List<StubRequest> runRequests = new CopyOnWriteArrayList<>();
+    private final List<StubRequest> deleteRequests = new CopyOnWriteArrayList<>();
+    private volatile boolean compileSucceeds = true;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        stubServer = new StubGoJudgeServer();
+        properties = new EvaluationProperties();
+        properties.getService().setUrl(stubServer.getUrl());
+        GoJudgeClient goJudgeClient = new GoJudgeClient(properties, new SimpleMeterRegistry());
+        codeEvaluator = new CodeEvaluator(minioUtil, goJudgeClient, judgeFileCache, judgeNodeRegistry, properties);
+
+        when(judgeNodeRegistry.select(any())).thenReturn(goJudgeClient.getDefaultNode());
+
+        // 任务提供 run.sh 和测试数据；学生提交中的 run.sh 与任务中的不同
+        when(judgeFileCache.getScaffold(any(), any())).thenReturn(new JudgeFileCache.TaskScaffold("v1",
+                Map.of(JudgeFileCache.sha256(TASK_RUN_SCRIPT), TASK_RUN_SCRIPT, JudgeFileCache.sha256(FIXTURE), FIXTURE),
+                Map.of("run.sh", TASK_RUN_SCRIPT, "data/input.txt", FIXTURE)));
+        when(minioUtil.getMaxSubmissionBytes()).thenReturn(1024L * 1024);
+        when(minioUtil.downloadFilesAsStrings(anyList(), anyLong()))
+                .thenReturn(List.of("int main(){}\n", "gcc main.c -o main\n", "echo 1\n"));
+
+        // 编译请求返回缓存的产物ID；运行请求将每个用例的标准输入原样作为标准输出返回
+        stubServer.respondWith(this::handle);
+    }
+
+    @AfterEach
+    void tearDown() {
+        stubServer.close();
+    }
+
+    private StubResponse handle(StubRequest request) {
+        if ("DELETE".equals(request.method())) {
+            deleteRequests.add(request);
+            return StubResponse.json(200, "");
+        }
+        try {
+            JsonNode cmds = OBJECT_MAPPER.readTree(request.body()).get("cmd");
+            if (cmds.get(0).get("args").get(2).asText().equals("./compile.sh")) {
+                if (!compileSucceeds) {
+                    return StubResponse.json(200, "[{\"status\":\"Nonzero Exit Status\",\"exitStatus\":1,"
+                            + "\"files\":{\"stdout\":\"\",\"stderr\":\"main.c:1: error\"}}]");
+                }
+                // 只返回请求缓存的编译产物
+                ArrayNode results = OBJECT_MAPPER.createArrayNode();
+                ObjectNode result = results.addObject().put("status", "Accepted").put("exitStatus", 0);
+                result.putObject("files").put("stdout", "").put("stderr", "");
+                ObjectNode fileIds = result.putObject("fileIds");
+                cmds.get(0).path("copyOutCached").forEach(name -> fileIds.put(name.asText(), "ART1"));
+                return StubResponse.json(200, results.toString());
+            }
+            runRequests.add(request);
+            ArrayNode results = OBJECT_MAPPER.createArrayNode();
+            for (JsonNode cmd : cmds) {
+                results.addObject()
+                        .put("status", "Accepted")
+                        .put("exitStatus", 0)
+                        .put("time", 1000000)
+                        .put("memory", 1024)
+                        .putObject("files")
+                        .put("stdout", cmd.get("files").get(0).get("content").asText())
+                        .put("stderr", "");
+            }
+            return StubResponse.json(200, results.toString());
+        } catch (IOException e) {
+            return StubResponse.json(500, e.getMessage());
+        }
+    }
+
+    private ExperimentTask taskWith(JudgeConfig judgeConfig) {
+        return ExperimentTask.builder()
+                .id("task1")
+                .experimentId("exp1")
+                .title("排序")
+                .taskType(TaskType.CODE)
+                .judgeConfig(JsonUtils.toJsonString(judgeConfig))
+                .build();
+    }
+
+    private ExperimentSubmission submission() {
+        return ExperimentSubmission.builder()
+                .id("sub1")
+                .userId("user1")
+                .taskId("task1")
+                .userAnswer(JsonUtils.toJsonString(Map.of("paths", List.of(
+                        BASE_PATH + "main.c", BASE_PATH + "compile.sh", BASE_PATH + "run.sh"))))
+                .build();
+    }
+
+    private JudgeConfig.TestCase testCase(String input, String expectedOutput) {
+        return JudgeConfig.TestCase.builder().input(input).expectedOutput(expectedOutput).build();
+    }
+
+    @Test
+    void evaluate_WithTestCases_ShouldCompileOnceAndScoreEachCase() throws Exception {
+        // Given
+        JudgeConfig judgeConfig = JudgeConfig.builder()
+                .artifacts(List.of("main"))
+                .testCases(List.of(testCase("1\n", "1"), testCase("2\n", "3"),
+                        JudgeConfig.TestCase.builder().input("4").expectedOutput("4  \n\n").timeLimit(500L)
+                                .memoryLimit(64L).build(),
+                        testCase("5", "5")))
+                .build();
+        ExperimentEvaluation evaluation = new ExperimentEvaluation();
+
+        // When
+        codeEvaluator.evaluate(taskWith(judgeConfig), submission(), evaluation);
+
+        // Then
+        assertEquals(1, runRequests.size());
+        JsonNode cmds = OBJECT_MAPPER.readTree(runRequests.get(0).body()).get("cmd");
+        assertEquals(4, cmds.size());
+        assertEquals("ART1", cmds.get(0).get("copyIn").get("main").get("fileId").asText());
+        assertEquals(TASK_RUN_SCRIPT, cmds.get(0).get("copyIn").get("run.sh").get("content").asText());
+        assertEquals(FIXTURE, cmds.get(0).get("copyIn").get("data/input.txt").get("content").asText());
+        assertEquals(500_000_000L, cmds.get(2).get("cpuLimit").asLong());
+        assertEquals(64L * 1024 * 1024, cmds.get(2).get("memoryLimit").asLong());
+        assertEquals(properties.getJudge().getDefaultTimeLimit().toNanos(), cmds.get(0).get("cpuLimit").asLong());
+
+        assertTrue(evaluation.getCompiled());
+        assertEquals(0, new BigDecimal("75").compareTo(evaluation.getScore()));
+        assertEquals(ExperimentEvaluation.EvaluationStatus.FAILED, evaluation.getStatus());
+        TestCaseResult[] caseResults = JsonUtils.parseObject(evaluation.getCaseResults(), TestCaseResult[].class);
+        assertEquals(4, caseResults.length);
+        assertEquals(TestCaseResult.STATUS_WRONG_ANSWER, caseResults[1].getStatus());
+        assertTrue(caseResults[2].getPassed());
+        assertEquals(1, deleteRequests.size());
+        assertEquals("/file/ART1", deleteRequests.get(0).path());
+    }
+
+    @Test
+    void evaluate_WithStopOnFirstFailure_ShouldSkipRemainingCases() throws Exception {
+        // Given
+        properties.getJudge().setEarlyTerminationBatchSize(1);
+        JudgeConfig judgeConfig = JudgeConfig.builder()
+                .artifacts(List.of("main"))
+                .stopOnFirstFailure(true)
+                .testCases(List.of(testCase("1", "1"), testCase("2", "wrong"), testCase("3", "3")))
+                .build();
+        ExperimentEvaluation evaluation = new ExperimentEvaluation();
+
+        // When
+        codeEvaluator.evaluate(taskWith(judgeConfig), submission(), evaluation);
+
+        // Then
+        assertEquals(2, runRequests.size());
+        TestCaseResult[] caseResults = JsonUtils.parseObject(evaluation.getCaseResults(), TestCaseResult[].class);
+        assertEquals(TestCaseResult.STATUS_SKIPPED, caseResults[2].getStatus());
+        assertEquals(0, new BigDecimal("33.33").compareTo(evaluation.getScore()));
+        assertEquals(1, deleteRequests.size());
+    }
+
+    @Test
+    void evaluate_WhenCompileFails_ShouldNotRunCases() throws Exception {
+        // Given
+        compileSucceeds = false;
+        JudgeConfig judgeConfig = JudgeConfig.builder().testCases(List.of(testCase("1", "1"))).build();
+        ExperimentEvaluation evaluation = new ExperimentEvaluation();
+
+        // When
+        codeEvaluator.evaluate(taskWith(judgeConfig), submission(), evaluation);
+
+        // Then
+        assertTrue(runRequests.isEmpty());
+        assertFalse(evaluation.getCompiled());
+        assertEquals("main.c:1: error", evaluation.getCompileMessage());
+        assertEquals(0, BigDecimal.ZERO.compareTo(evaluation.getScore()));
+        assertEquals(ExperimentEvaluation.EvaluationStatus.FAILED, evaluation.getStatus());
+        assertTrue(deleteRequests.isEmpty());
+    }
+
+    @Test
+    void evaluate_WithTestCasesAndNoArtifacts_ShouldRunSubmittedSources() throws Exception {
+        // Given：解释型任务没有编译产物，运行阶段直接使用提交的源文件
+        when(minioUtil.downloadFilesAsStrings(anyList(), anyLong()))
+                .thenReturn(List.of("print(input())\n", "true\n", "python3 main.py\n"));
+        ExperimentSubmission submission = ExperimentSubmission.builder()
+                .id("sub1")
+                .userId("user1")
+                .taskId("task1")
+                .userAnswer(JsonUtils.toJsonString(Map.of("paths", List.of(
+                        BASE_PATH + "main.py", BASE_PATH + "compile.sh", BASE_PATH + "run.sh"))))
+                .build();
+        JudgeConfig judgeConfig = JudgeConfig.builder()
+                .testCases(List.of(testCase("1\n", "1"), testCase("2\n", "2")))
+                .build();
+        ExperimentEvaluation evaluation = new ExperimentEvaluation();
+
+        // When
+        codeEvaluator.evaluate(taskWith(judgeConfig), submission, evaluation);
+
+        // Then：每个用例的沙箱中都有提交的源文件，不需要缓存和删除编译产物
+        assertEquals(1, runRequests.size());
+        JsonNode cmds = OBJECT_MAPPER.readTree(runRequests.get(0).body()).get("cmd");
+        for (JsonNode cmd : cmds) {
+            assertEquals("print(input())\n", cmd.get("copyIn").get("main.py").get("content").asText());
+            assertEquals(TASK_RUN_SCRIPT, cmd.get("copyIn").get("run.sh").get("content").asText());
+        }
+        assertTrue(evaluation.getCompiled());
+        assertEquals(0, new BigDecimal("100").compareTo(evaluation.getScore()));
+        assertEquals(ExperimentEvaluation.EvaluationStatus.COMPLETED, evaluation.getStatus());
+        assertTrue(deleteRequests.isEmpty());
+    }
+
+    @Test
+    void normalizeOutput_ShouldIgnoreTrailingWhitespace() {
+        assertEquals(CodeEvaluator.normalizeOutput("a \r\nb\n\n"), CodeEvaluator.normalizeOutput("a\nb"));
+        assertNotEquals(CodeEvaluator.normalizeOutput(" a"), CodeEvaluator.normalizeOutput("a"));
+    }
+
+    @Test
+    void submittedFiles_ArchiveAndPerFileUploads_ShouldProduceSameSandboxLayout() throws Exception {
+        // Given：同一次提交分别以归档和逐文件方式保存
+        List<SourceCodeFileDTO> files = List.of(
+                SourceCodeFileDTO.builder().fileName("project/src/main.c").content("int main(){}\n").build(),
+                SourceCodeFileDTO.builder().fileName("project/run.sh").content("./main\n").build());
+        SubmissionArchive.Packed packed = SubmissionArchive.pack(files);
+        ExperimentSubmission archived = ExperimentSubmission.builder()
+                .userAnswer(JsonUtils.toJsonString(SubmissionArchive.manifest(
+                        "user1/exp1/task1/20240101/" + SubmissionArchive.OBJECT_NAME, packed.entries())))
+                .build();
+        ExperimentSubmission perFile = ExperimentSubmission.builder()
+                .userAnswer(JsonUtils.toJsonString(Map.of("paths", files.stream()
+                        .map(file -> "user1/exp1/task1/20240101/" + file.getFileName()).toList())))
+                .build();
+        List<String> contents = files.stream().map(SourceCodeFileDTO::getContent).toList();
+        when(minioUtil.downloadSubmissionArchive(any(), anyList(), anyLong())).thenReturn(contents);
+        when(minioUtil.downloadFilesAsStrings(anyList(), anyLong())).thenReturn(contents);
+
+        // When
+        Map<String, String> fromArchive = CodeEvaluator.submittedFiles(minioUtil, archived);
+        Map<String, String> fromPaths = CodeEvaluator.submittedFiles(minioUtil, perFile);
+
+        // Then
+        assertEquals(List.of("src/main.c", "run.sh"), List.copyOf(fromArchive.keySet()));
+        assertEquals(fromPaths, fromArchive);
+    }
+
+    @Test
+    void evaluate_WithoutTestCases_ShouldUseTaskLimitsAndScore() throws Exception {
+        // Given
+        JudgeConfig judgeConfig = JudgeConfig.builder()
+                .totalScore(new BigDecimal("10"))
+                .timeLimit(1000L)
+                .memoryLimit(128L)
+                .build();
+        ExperimentEvaluation evaluation = new ExperimentEvaluation();
+
+        // When
+        codeEvaluator.evaluate(taskWith(judgeConfig), submission(), evaluation);
+
+        // Then
+        assertEquals(1, runRequests.size());
+        JsonNode cmd = OBJECT_MAPPER.readTree(runRequests.get(0).body()).get("cmd").get(0);
+        assertEquals(1_000_000_000L, cmd.get("cpuLimit").asLong());
+        assertEquals(128L * 1024 * 1024, cmd.get("memoryLimit").asLong());
+        assertEquals(TASK_RUN_SCRIPT, cmd.get("copyIn").get("run.sh").get("content").asText());
+        assertEquals(0, new BigDecimal("10").compareTo(evaluation.getScore()));
+        assertEquals(ExperimentEvaluation.EvaluationStatus.COMPLETED, evaluation.getStatus());
+    }
+
+    @Test
+    void evaluate_WhenTaskFilesUnavailable_ShouldFail() throws Exception {
+        // Given
+        when(judgeFileCache.getScaffold(any(), any())).thenThrow(new RuntimeException("minio down"));
+        JudgeConfig judgeConfig = JudgeConfig.builder().testCases(List.of(testCase("1", "1"))).build();
+
+        // When & Then
+        RuntimeException exception = assertThrows(RuntimeException.class,
+                () -> codeEvaluator.evaluate(taskWith(judgeConfig), submission(), new ExperimentEvaluation()));
+        assertTrue(exception.getMessage().contains("加载任务 task1 的评测文件失败"));
+        assertTrue(runRequests.isEmpty());
+    }
+}
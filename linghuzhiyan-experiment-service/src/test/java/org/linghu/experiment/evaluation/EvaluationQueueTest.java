@@ -0,0 +1,296 @@
+package org.linghu.experiment.evaluation;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.linghu.experiment.config.EvaluationProperties;
+import org.linghu.experiment.constants.TaskType;
+import org.linghu.experiment.domain.ExperimentEvaluation;
+import org.linghu.experiment.domain.ExperimentSubmission;
+import org.linghu.experiment.domain.ExperimentTask;
+import org.linghu.experiment.repository.ExperimentEvaluationRepository;
+import org.linghu.experiment.repository.ExperimentSubmissionRepository;
+import org.linghu.experiment.repository.ExperimentTaskRepository;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.springframework.beans.BeanUtils;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+/**
+ * EvaluationQueue 单元测试
+ */
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class EvaluationQueueTest {
+
+    @Mock
+    private ExperimentEvaluationRepository evaluationRepository;
+
+    @Mock
+    private ExperimentTaskRepository taskRepository;
+
+    @Mock
+    private ExperimentSubmissionRepository submissionRepository;
+
+    @Mock
+    private CodeEvaluator codeEvaluator;
+
+    @Mock
+    private StudentProgressTracker progressTracker;
+
+    private final Map<String, ExperimentEvaluation> store = new ConcurrentHashMap<>();
+
+    private SimpleMeterRegistry meterRegistry;
+    private EvaluationQueue evaluationQueue;
+    private ExperimentTask task;
+    private ExperimentSubmission submission;
+
+    @BeforeEach
+    void setUp() {
+        EvaluationProperties properties = new EvaluationProperties();
+        properties.getQueue().setWorkers(1);
+        properties.getQueue().setCapacity(10);
+        properties.getQueue().getExperimentPriorities().put("exp-hot", 5);
+
+        meterRegistry = new SimpleMeterRegistry();
+        evaluationQueue = new EvaluationQueue(evaluationRepository, taskRepository, submissionRepository,
+                codeEvaluator, progressTracker, properties, meterRegistry);
+        evaluationQueue.start();
+
+        task = ExperimentTask.builder().id("task1").experimentId("exp-hot").taskType(TaskType.CODE).build();
+        submission = ExperimentSubmission.builder().id("sub1").taskId("task1").userId("user1").build();
+
+        // 使用内存Map模拟评测记录的持久化，保存和读取都复制一份，避免读到工作线程尚未保存的修改
+        when(evaluationRepository.save(any(ExperimentEvaluation.class))).thenAnswer(invocation -> {
+            ExperimentEvaluation evaluation = invocation.getArgument(0);
+            store.put(evaluation.getId(), copyOf(evaluation));
+            return evaluation;
+        });
+        when(evaluationRepository.saveAll(anyList())).thenAnswer(invocation -> {
+            List<ExperimentEvaluation> evaluations = invocation.getArgument(0);
+            evaluations.forEach(evaluation -> store.put(evaluation.getId(), copyOf(evaluation)));
+            return evaluations;
+        });
+        when(evaluationRepository.findById(any())).thenAnswer(
+                invocation -> Optional.ofNullable(store.get((String) invocation.getArgument(0))).map(this::copyOf));
+        // 按仓库中的条件更新领取任务：PENDING或租约已过期的RUNNING任务才能被领取
+        when(evaluationRepository.claim(any(), any(), any(), any(), any(), any())).thenAnswer(invocation -> {
+            ExperimentEvaluation evaluation = store.get((String) invocation.getArgument(0));
+            LocalDateTime now = invocation.getArgument(4);
+            if (evaluation == null || !(evaluation.getStatus() == ExperimentEvaluation.EvaluationStatus.PENDING
+                    || evaluation.getStatus() == ExperimentEvaluation.EvaluationStatus.RUNNING
+                    && evaluation.getLeaseUntil().isBefore(now))) {
+                return 0;
+            }
+            ExperimentEvaluation claimed = copyOf(evaluation);
+            claimed.setStatus(ExperimentEvaluation.EvaluationStatus.RUNNING);
+            claimed.setLeaseOwner(invocation.getArgument(3));
+            claimed.setStartedTime(now);
+            claimed.setLeaseUntil(invocation.getArgument(5));
+            store.put(claimed.getId(), claimed);
+            return 1;
+        });
+        when(taskRepository.findById("task1")).thenReturn(Optional.of(task));
+        when(submissionRepository.findById("sub1")).thenReturn(Optional.of(submission));
+    }
+
+    @AfterEach
+    void tearDown() {
+        evaluationQueue.shutdown();
+    }
+
+    @Test
+    void enqueue_ShouldPersistPendingJobWithExperimentPriority() {
+        // When
+        ExperimentEvaluation queued = evaluationQueue.enqueue(task, submission);
+
+        // Then
+        assertNotNull(queued.getId());
+        assertNotNull(queued.getQueuedTime());
+        assertEquals(5, queued.getPriority());
+        assertEquals("sub1", queued.getSubmissionId());
+        assertEquals("user1", queued.getUserId());
+        // 工作线程可能已经开始评测并再次记录同一个评测对象
+        verify(progressTracker, atLeastOnce()).recordEvaluation(queued);
+    }
+
+    @Test
+    void subscribe_WhenEvaluationFinishes_ShouldNotifyWithResult() throws Exception {
+        // Given
+        CountDownLatch release = new CountDownLatch(1);
+        doAnswer(invocation -> {
+            release.await(5, TimeUnit.SECONDS);
+            ExperimentEvaluation evaluation = invocation.getArgument(2);
+            evaluation.setScore(new BigDecimal("100"));
+            evaluation.setStatus(ExperimentEvaluation.EvaluationStatus.COMPLETED);
+            return null;
+        }).when(codeEvaluator).evaluate(any(), any(), any());
+
+        ExperimentEvaluation queued = evaluationQueue.enqueue(task, submission);
+        CountDownLatch notified = new CountDownLatch(1);
+        AtomicReference<ExperimentEvaluation> result = new AtomicReference<>();
+
+        // When
+        evaluationQueue.subscribe(queued.getId(), evaluation -> {
+            result.set(evaluation);
+            notified.countDown();
+        });
+        release.countDown();
+
+        // Then
+        assertTrue(notified.await(5, TimeUnit.SECONDS));
+        assertEquals(ExperimentEvaluation.EvaluationStatus.COMPLETED, result.get().getStatus());
+        assertEquals(new BigDecimal("100"), result.get().getScore());
+        assertNotNull(result.get().getFinishedTime());
+        assertEquals(1, meterRegistry.get("evaluation.queue.run").timer().count());
+    }
+
+    @Test
+    void unsubscribe_ShouldNotNotifyRemovedListener() throws Exception {
+        // Given
+        CountDownLatch release = new CountDownLatch(1);
+        doAnswer(invocation -> {
+            release.await(5, TimeUnit.SECONDS);
+            ExperimentEvaluation evaluation = invocation.getArgument(2);
+            evaluation.setStatus(ExperimentEvaluation.EvaluationStatus.COMPLETED);
+            return null;
+        }).when(codeEvaluator).evaluate(any(), any(), any());
+        ExperimentEvaluation queued = evaluationQueue.enqueue(task, submission);
+        AtomicReference<ExperimentEvaluation> removed = new AtomicReference<>();
+        Consumer<ExperimentEvaluation> disconnected = removed::set;
+        CountDownLatch notified = new CountDownLatch(1);
+
+        // When：一个订阅者断开连接，另一个仍在等待
+        evaluationQueue.subscribe(queued.getId(), disconnected);
+        evaluationQueue.subscribe(queued.getId(), evaluation -> notified.countDown());
+        evaluationQueue.unsubscribe(queued.getId(), disconnected);
+        release.countDown();
+
+        // Then
+        assertTrue(notified.await(5, TimeUnit.SECONDS));
+        assertNull(removed.get());
+    }
+
+    @Test
+    void process_WhenEvaluatorThrows_ShouldMarkEvaluationAsError() throws Exception {
+        // Given
+        doThrow(new RuntimeException("judge down")).when(codeEvaluator).evaluate(any(), any(), any());
+        CountDownLatch notified = new CountDownLatch(1);
+        AtomicReference<ExperimentEvaluation> result = new AtomicReference<>();
+
+        // When
+        ExperimentEvaluation queued = evaluationQueue.enqueue(task, submission);
+        evaluationQueue.subscribe(queued.getId(), evaluation -> {
+            result.set(evaluation);
+            notified.countDown();
+        });
+
+        // Then
+        assertTrue(notified.await(5, TimeUnit.SECONDS));
+        assertEquals(ExperimentEvaluation.EvaluationStatus.ERROR, result.get().getStatus());
+        assertEquals(BigDecimal.ZERO, result.get().getScore());
+        assertTrue(result.get().getErrorMessage().contains("judge down"));
+    }
+
+    @Test
+    void enqueueBackground_ShouldUseRegradePriorityAndWriteResultsInBatch() throws Exception {
+        // Given
+        ExperimentSubmission other = ExperimentSubmission.builder().id("sub2").taskId("task1").userId("user2").build();
+        when(submissionRepository.findById("sub2")).thenReturn(Optional.of(other));
+        doAnswer(invocation -> {
+            ExperimentEvaluation evaluation = invocation.getArgument(2);
+            evaluation.setStatus(ExperimentEvaluation.EvaluationStatus.COMPLETED);
+            return null;
+        }).when(codeEvaluator).evaluate(any(), any(), any());
+        CountDownLatch notified = new CountDownLatch(2);
+
+        // When
+        List<ExperimentEvaluation> queued = evaluationQueue.enqueueBackground(task, List.of(submission, other),
+                evaluation -> notified.countDown());
+
+        // Then
+        assertTrue(notified.await(5, TimeUnit.SECONDS));
+        assertEquals(2, queued.size());
+        assertEquals(-100, queued.get(0).getPriority());
+        queued.forEach(evaluation -> assertEquals(ExperimentEvaluation.EvaluationStatus.COMPLETED,
+                store.get(evaluation.getId()).getStatus()));
+        // 后台评测只通过条件更新领取，结果通过saveAll批量写回
+        verify(evaluationRepository, never()).save(any(ExperimentEvaluation.class));
+        verify(evaluationRepository, atLeast(2)).saveAll(anyList());
+    }
+
+    @Test
+    void process_WhenClaimedByAnotherInstance_ShouldNotEvaluate() throws Exception {
+        // Given：另一个实例已领取任务，租约仍有效
+        ExperimentEvaluation running = ExperimentEvaluation.builder()
+                .id("eval-running").submissionId("sub1").userId("user1").taskId("task1")
+                .status(ExperimentEvaluation.EvaluationStatus.RUNNING).priority(0).background(false)
+                .queuedTime(LocalDateTime.now().minusMinutes(1))
+                .leaseOwner("other-instance").leaseUntil(LocalDateTime.now().plusMinutes(5))
+                .build();
+        store.put(running.getId(), running);
+        when(evaluationRepository.findRecoverable(any(), any(), any())).thenReturn(List.of(copyOf(running)));
+
+        // When
+        evaluationQueue.recoverPendingEvaluations();
+
+        // Then
+        verify(evaluationRepository, timeout(5000)).claim(eq("eval-running"), any(), any(), any(), any(), any());
+        Thread.sleep(200);
+        verify(codeEvaluator, never()).evaluate(any(), any(), any());
+        assertEquals("other-instance", store.get("eval-running").getLeaseOwner());
+    }
+
+    @Test
+    void recoverPendingEvaluations_ShouldRestoreBackgroundFlag() throws Exception {
+        // Given：中断的后台评测，恢复后仍按后台评测批量写回结果
+        ExperimentEvaluation pending = ExperimentEvaluation.builder()
+                .id("eval-background").submissionId("sub1").userId("user1").taskId("task1")
+                .status(ExperimentEvaluation.EvaluationStatus.PENDING).priority(-100).background(true)
+                .queuedTime(LocalDateTime.now().minusMinutes(1))
+                .build();
+        store.put(pending.getId(), pending);
+        when(evaluationRepository.findRecoverable(any(), any(), any())).thenReturn(List.of(copyOf(pending)));
+        doAnswer(invocation -> {
+            ExperimentEvaluation evaluation = invocation.getArgument(2);
+            evaluation.setStatus(ExperimentEvaluation.EvaluationStatus.COMPLETED);
+            return null;
+        }).when(codeEvaluator).evaluate(any(), any(), any());
+
+        // When
+        evaluationQueue.recoverPendingEvaluations();
+
+        // Then
+        verify(evaluationRepository, timeout(5000)).saveAll(anyList());
+        assertEquals(ExperimentEvaluation.EvaluationStatus.COMPLETED, store.get("eval-background").getStatus());
+        verify(evaluationRepository, never()).save(any(ExperimentEvaluation.class));
+        verify(evaluationRepository).findRecoverable(eq(ExperimentEvaluation.EvaluationStatus.PENDING),
+                eq(ExperimentEvaluation.EvaluationStatus.RUNNING), any());
+    }
+
+    private ExperimentEvaluation copyOf(ExperimentEvaluation evaluation) {
+        ExperimentEvaluation copy = new ExperimentEvaluation();
+        BeanUtils.copyProperties(evaluation, copy);
+        return copy;
+    }
+}
@@ -0,0 +1,219 @@
+package org.linghu.experiment.evaluation;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.linghu.experiment.config.EvaluationProperties;
+import org.linghu.experiment.domain.ExperimentEvaluation;
+import org.linghu.experiment.domain.ExperimentEvaluation.EvaluationStatus;
+import org.linghu.experiment.domain.ExperimentSubmission;
+import org.linghu.experiment.domain.ExperimentTask;
+import org.linghu.experiment.dto.SourceCodeFileDTO;
+import org.linghu.experiment.judge.JudgeFileCache;
+import org.linghu.experiment.repository.ExperimentEvaluationRepository;
+import org.linghu.experiment.repository.ExperimentTaskRepository;
+import org.linghu.experiment.utils.JsonUtils;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * EvaluationResultCache 单元测试
+ */
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class EvaluationResultCacheTest {
+
+    private static final String BASE_PATH = "user1/exp1/task1/20240101/project/";
+
+    @Mock
+    private JudgeFileCache judgeFileCache;
+
+    @Mock
+    private ExperimentEvaluationRepository evaluationRepository;
+
+    @Mock
+    private ExperimentTaskRepository taskRepository;
+
+    private SimpleMeterRegistry meterRegistry;
+    private EvaluationProperties properties;
+    private EvaluationResultCache resultCache;
+    private ExperimentTask task;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        meterRegistry = new SimpleMeterRegistry();
+        properties = new EvaluationProperties();
+        resultCache = new EvaluationResultCache(judgeFileCache, evaluationRepository, taskRepository,
+                properties, meterRegistry);
+        task = ExperimentTask.builder().id("task1").experimentId("exp1").title("排序").build();
+
+        when(judgeFileCache.getScaffoldVersion("exp1", "task1")).thenReturn("v1");
+        when(evaluationRepository.save(any(ExperimentEvaluation.class))).thenAnswer(invocation -> invocation.getArgument(0));
+    }
+
+    private static SourceCodeFileDTO file(String fileName, String content) {
+        return SourceCodeFileDTO.builder().fileName(fileName).content(content).build();
+    }
+
+    private ExperimentSubmission submissionWithHashes(String id, SourceCodeFileDTO... files) {
+        return ExperimentSubmission.builder()
+                .id(id)
+                .userId("user1")
+                .taskId("task1")
+                .userAnswer(JsonUtils.toJsonString(Map.of(EvaluationResultCache.CONTENT_HASHES_KEY,
+                        EvaluationResultCache.contentHashes(List.of(files)))))
+                .build();
+    }
+
+    private ExperimentSubmission submission(String id, String... fileNames) {
+        List<String> paths = Arrays.stream(fileNames).map(name -> BASE_PATH + name).toList();
+        return ExperimentSubmission.builder()
+                .id(id)
+                .userId("user1")
+                .taskId("task1")
+                .userAnswer(JsonUtils.toJsonString(Map.of("paths", paths)))
+                .build();
+    }
+
+    @Test
+    void fingerprint_ShouldIgnoreFileOrderAndLineEndings() {
+        // Given
+        ExperimentSubmission first = submissionWithHashes("s1", file("project/a.c", "int a;\n"),
+                file("project/b.c", "int b;\n"));
+        ExperimentSubmission second = submissionWithHashes("s2", file("project/b.c", "int b;\r\n"),
+                file("project/a.c", "int a;\r\n"));
+
+        // When & Then
+        assertNotNull(resultCache.fingerprint(task, first));
+        assertEquals(resultCache.fingerprint(task, first), resultCache.fingerprint(task, second));
+    }
+
+    @Test
+    void fingerprint_WithDifferentContent_ShouldDiffer() {
+        // Given
+        ExperimentSubmission first = submissionWithHashes("s1", file("project/a.c", "int a;\n"));
+        ExperimentSubmission second = submissionWithHashes("s2", file("project/a.c", "int b;\n"));
+
+        // When & Then
+        assertNotEquals(resultCache.fingerprint(task, first), resultCache.fingerprint(task, second));
+    }
+
+    @Test
+    void fingerprint_WhenJudgeConfigOrScaffoldChanges_ShouldChange() throws Exception {
+        // Given
+        ExperimentSubmission submission = submissionWithHashes("s1", file("project/a.c", "int a;\n"));
+        String before = resultCache.fingerprint(task, submission);
+
+        // When
+        task.setJudgeConfig("{\"testCases\":[{\"input\":\"1\",\"expectedOutput\":\"1\"}]}");
+        String judgeChanged = resultCache.fingerprint(task, submission);
+        when(judgeFileCache.getScaffoldVersion("exp1", "task1")).thenReturn("v2");
+        String scaffoldChanged = resultCache.fingerprint(task, submission);
+
+        // Then
+        assertNotEquals(before, judgeChanged);
+        assertNotEquals(judgeChanged, scaffoldChanged);
+    }
+
+    @Test
+    void fingerprint_WithoutStoredHashes_ShouldOnlyMatchSameSubmission() {
+        // When & Then：旧提交不下载内容，按提交ID区分
+        assertEquals(resultCache.fingerprint(task, submission("s1", "a.c")),
+                resultCache.fingerprint(task, submission("s1", "a.c")));
+        assertNotEquals(resultCache.fingerprint(task, submission("s1", "a.c")),
+                resultCache.fingerprint(task, submission("s2", "a.c")));
+    }
+
+    @Test
+    void fingerprint_WhenDisabled_ShouldReturnNull() {
+        // Given
+        properties.getResultCache().setEnabled(false);
+
+        // When & Then
+        assertNull(resultCache.fingerprint(task, submission("s1", "a.c")));
+        verifyNoInteractions(judgeFileCache);
+    }
+
+    @Test
+    void reuse_WithSameSubmission_ShouldReturnExistingEvaluation() {
+        // Given
+        ExperimentEvaluation existing = ExperimentEvaluation.builder()
+                .id("eval1").submissionId("s1").status(EvaluationStatus.RUNNING).build();
+        when(evaluationRepository.findFirstBySubmissionIdAndContentHashAndStatusInOrderByQueuedTimeDesc(
+                eq("s1"), eq("hash"), anyCollection())).thenReturn(Optional.of(existing));
+
+        // When
+        Optional<ExperimentEvaluation> result = resultCache.reuse(task, submission("s1", "a.c"), "hash");
+
+        // Then
+        assertTrue(result.isPresent());
+        assertEquals("eval1", result.get().getId());
+        verify(evaluationRepository, never()).save(any());
+        assertEquals(1.0, meterRegistry.get("evaluation.result.cache").tag("result", "hit").counter().count());
+    }
+
+    @Test
+    void reuse_WithSameContentFromOtherSubmission_ShouldCopyResult() {
+        // Given
+        ExperimentEvaluation source = ExperimentEvaluation.builder()
+                .id("eval1").submissionId("s0").userId("user2").taskId("task1")
+                .status(EvaluationStatus.COMPLETED).score(new BigDecimal("80"))
+                .caseResults("[]").contentHash("hash").build();
+        when(evaluationRepository.findFirstBySubmissionIdAndContentHashAndStatusInOrderByQueuedTimeDesc(
+                any(), any(), anyCollection())).thenReturn(Optional.empty());
+        when(evaluationRepository.findFirstByTaskIdAndContentHashAndStatusInOrderByFinishedTimeDesc(
+                eq("task1"), eq("hash"), anyCollection())).thenReturn(Optional.of(source));
+
+        // When
+        Optional<ExperimentEvaluation> result = resultCache.reuse(task, submission("s1", "a.c"), "hash");
+
+        // Then
+        assertTrue(result.isPresent());
+        ExperimentEvaluation copy = result.get();
+        assertNotEquals("eval1", copy.getId());
+        assertEquals("s1", copy.getSubmissionId());
+        assertEquals("user1", copy.getUserId());
+        assertEquals(EvaluationStatus.COMPLETED, copy.getStatus());
+        assertEquals(new BigDecimal("80"), copy.getScore());
+        assertNotNull(copy.getFinishedTime());
+    }
+
+    @Test
+    void reuse_WithoutMatch_ShouldCountMiss() {
+        // Given
+        when(evaluationRepository.findFirstBySubmissionIdAndContentHashAndStatusInOrderByQueuedTimeDesc(
+                any(), any(), anyCollection())).thenReturn(Optional.empty());
+        when(evaluationRepository.findFirstByTaskIdAndContentHashAndStatusInOrderByFinishedTimeDesc(
+                any(), any(), anyCollection())).thenReturn(Optional.empty());
+
+        // When
+        Optional<ExperimentEvaluation> result = resultCache.reuse(task, submission("s1", "a.c"), "hash");
+
+        // Then
+        assertTrue(result.isEmpty());
+        assertEquals(1.0, meterRegistry.get("evaluation.result.cache").tag("result", "miss").counter().count());
+    }
+
+    @Test
+    void invalidateTask_ShouldClearHashesAndScaffold() {
+        // When
+        resultCache.invalidateTask(task);
+
+        // Then
+        verify(judgeFileCache).invalidateTask("exp1", "task1");
+        verify(evaluationRepository).clearContentHashByTaskId("task1");
+    }
+}
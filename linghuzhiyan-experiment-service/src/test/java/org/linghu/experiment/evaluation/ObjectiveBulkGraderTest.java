@@ -0,0 +1,131 @@
+package org.linghu.experiment.evaluation;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.linghu.experiment.config.EvaluationProperties;
+import org.linghu.experiment.domain.ExperimentEvaluation;
+import org.linghu.experiment.domain.ExperimentEvaluation.EvaluationStatus;
+import org.linghu.experiment.domain.ExperimentTask;
+import org.linghu.experiment.dto.BulkGradeResultDTO;
+import org.linghu.experiment.repository.ExperimentSubmissionRepository;
+import org.linghu.experiment.repository.ExperimentSubmissionRepository.SubmissionAnswer;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ParameterizedPreparedStatementSetter;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * ObjectiveBulkGrader 单元测试
+ */
+@ExtendWith(MockitoExtension.class)
+class ObjectiveBulkGraderTest {
+
+    @Mock
+    private ExperimentSubmissionRepository submissionRepository;
+
+    @Mock
+    private AnswerKeyCache answerKeyCache;
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Mock
+    private StudentProgressTracker progressTracker;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private ObjectiveBulkGrader bulkGrader;
+    private ExperimentTask task;
+
+    @BeforeEach
+    void setUp() {
+        EvaluationProperties properties = new EvaluationProperties();
+        properties.getBulkGrade().setBatchSize(2);
+        bulkGrader = new ObjectiveBulkGrader(submissionRepository, answerKeyCache, jdbcTemplate, progressTracker,
+                properties, transactionManager);
+        task = ExperimentTask.builder().id("task1").build();
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void gradeTask_ShouldGradeLatestSubmissionPerUserInBatches() {
+        // Given
+        when(answerKeyCache.get(task)).thenReturn(AnswerKey.compile(Map.of("q1", "A", "q2", "B")));
+        when(submissionRepository.streamLatestAnswersByTaskId("task1")).thenReturn(Stream.of(
+                submissionAnswer("s1", "user1", "{\"q1\":\"A\",\"q2\":\"B\"}"),
+                submissionAnswer("s2", "user2", "{\"q1\":\"A\",\"q2\":\"C\"}"),
+                submissionAnswer("s3", "user2", "{\"q1\":\"A\",\"q2\":\"B\"}"),
+                submissionAnswer("s4", "user3", "{}")));
+
+        // When
+        BulkGradeResultDTO result = bulkGrader.gradeTask(task);
+
+        // Then：user2 的重复最新提交只判第一条，每批2条共插入两次
+        ArgumentCaptor<Collection<ExperimentEvaluation>> captor = ArgumentCaptor.forClass(Collection.class);
+        verify(jdbcTemplate, times(2)).batchUpdate(anyString(), captor.capture(), anyInt(),
+                any(ParameterizedPreparedStatementSetter.class));
+        List<ExperimentEvaluation> evaluations = new ArrayList<>();
+        captor.getAllValues().forEach(evaluations::addAll);
+
+        assertEquals(List.of("s1", "s2", "s4"),
+                evaluations.stream().map(ExperimentEvaluation::getSubmissionId).toList());
+        assertTrue(evaluations.stream().allMatch(evaluation -> evaluation.getStatus() == EvaluationStatus.COMPLETED));
+        assertEquals(0, new BigDecimal("50").compareTo(evaluations.get(1).getScore()));
+        assertEquals(3, result.getGraded());
+        assertEquals(0, result.getErrors());
+        assertEquals(new BigDecimal("50.00"), result.getAverageScore());
+        verify(progressTracker, times(2)).recordEvaluations(anyCollection());
+        // 流式读取的连接不能同时写入，每批在新事务中写入并提交
+        ArgumentCaptor<TransactionDefinition> definitions = ArgumentCaptor.forClass(TransactionDefinition.class);
+        verify(transactionManager, times(2)).getTransaction(definitions.capture());
+        assertTrue(definitions.getAllValues().stream().allMatch(definition ->
+                definition.getPropagationBehavior() == TransactionDefinition.PROPAGATION_REQUIRES_NEW));
+        verify(transactionManager, times(2)).commit(any());
+    }
+
+    @Test
+    void gradeTask_WithoutQuestions_ShouldThrowException() {
+        // Given
+        when(answerKeyCache.get(task)).thenReturn(AnswerKey.compile(Map.of()));
+
+        // When & Then
+        RuntimeException exception = assertThrows(RuntimeException.class, () -> bulkGrader.gradeTask(task));
+        assertEquals("任务没有可判分的题目", exception.getMessage());
+        verifyNoInteractions(submissionRepository, jdbcTemplate);
+    }
+
+    private static SubmissionAnswer submissionAnswer(String id, String userId, String userAnswer) {
+        return new SubmissionAnswer() {
+            @Override
+            public String getId() {
+                return id;
+            }
+
+            @Override
+            public String getUserId() {
+                return userId;
+            }
+
+            @Override
+            public String getUserAnswer() {
+                return userAnswer;
+            }
+        };
+    }
+}
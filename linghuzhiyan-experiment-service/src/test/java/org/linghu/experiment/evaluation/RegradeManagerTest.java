@@ -0,0 +1,192 @@
+package org.linghu.experiment.evaluation;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.linghu.experiment.config.EvaluationProperties;
+import org.linghu.experiment.constants.TaskType;
+import org.linghu.experiment.domain.ExperimentEvaluation;
+import org.linghu.experiment.domain.ExperimentEvaluation.EvaluationStatus;
+import org.linghu.experiment.domain.ExperimentSubmission;
+import org.linghu.experiment.domain.ExperimentTask;
+import org.linghu.experiment.repository.ExperimentSubmissionRepository;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+/**
+ * RegradeManager 单元测试
+ */
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class RegradeManagerTest {
+
+    @Mock
+    private ExperimentSubmissionRepository submissionRepository;
+
+    @Mock
+    private EvaluationQueue evaluationQueue;
+
+    private EvaluationProperties properties;
+    private RegradeManager regradeManager;
+    private ExperimentTask task;
+
+    // 模拟评测队列：记录入队的提交，由测试决定何时回调评测结果
+    private final List<ExperimentSubmission> enqueued = new CopyOnWriteArrayList<>();
+    private final ConcurrentLinkedQueue<Runnable> pendingResults = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger outstanding = new AtomicInteger();
+    private final AtomicInteger maxOutstanding = new AtomicInteger();
+
+    @BeforeEach
+    void setUp() {
+        properties = new EvaluationProperties();
+        properties.getRegrade().setPageSize(2);
+        properties.getRegrade().setMaxInFlight(2);
+        regradeManager = new RegradeManager(submissionRepository, evaluationQueue, properties);
+        task = ExperimentTask.builder().id("task1").experimentId("exp1").taskType(TaskType.CODE).build();
+
+        when(evaluationQueue.enqueueBackground(eq(task), anyList(), any())).thenAnswer(invocation -> {
+            List<ExperimentSubmission> submissions = invocation.getArgument(1);
+            Consumer<ExperimentEvaluation> onFinished = invocation.getArgument(2);
+            maxOutstanding.accumulateAndGet(outstanding.addAndGet(submissions.size()), Math::max);
+            List<ExperimentEvaluation> evaluations = new ArrayList<>();
+            for (ExperimentSubmission submission : submissions) {
+                enqueued.add(submission);
+                ExperimentEvaluation evaluation = ExperimentEvaluation.builder()
+                        .id("eval-" + submission.getId())
+                        .submissionId(submission.getId())
+                        .status(EvaluationStatus.COMPLETED)
+                        .build();
+                evaluations.add(evaluation);
+                pendingResults.add(() -> {
+                    outstanding.decrementAndGet();
+                    onFinished.accept(evaluation);
+                });
+            }
+            return evaluations;
+        });
+    }
+
+    @AfterEach
+    void tearDown() {
+        regradeManager.shutdown();
+    }
+
+    private ExperimentSubmission submission(String id, String userId) {
+        return ExperimentSubmission.builder().id(id).taskId("task1").userId(userId).build();
+    }
+
+    private void givenSubmissions(List<ExperimentSubmission> submissions, long users) {
+        when(submissionRepository.countDistinctUserIdByTaskId("task1")).thenReturn(users);
+        when(submissionRepository.findByTaskId(eq("task1"), any(Pageable.class))).thenAnswer(invocation -> {
+            Pageable pageable = invocation.getArgument(1);
+            int from = (int) Math.min(pageable.getOffset(), submissions.size());
+            int to = Math.min(from + pageable.getPageSize(), submissions.size());
+            return new PageImpl<>(submissions.subList(from, to), pageable, submissions.size());
+        });
+    }
+
+    private void completeResultsUntilFinished(RegradeJob job) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (job.isRunning() && System.currentTimeMillis() < deadline) {
+            Runnable result = pendingResults.poll();
+            if (result != null) {
+                result.run();
+            } else {
+                Thread.sleep(10);
+            }
+        }
+    }
+
+    @Test
+    void start_ShouldRegradeLatestSubmissionPerUserWithinThrottle() throws Exception {
+        // Given：按提交时间倒序，user1 和 user2 各有一次较早的提交
+        givenSubmissions(List.of(
+                submission("s5", "user1"), submission("s4", "user2"), submission("s3", "user1"),
+                submission("s2", "user3"), submission("s1", "user2")), 3);
+
+        // When
+        RegradeJob job = regradeManager.start("exp1", List.of(task), "teacher");
+        completeResultsUntilFinished(job);
+
+        // Then
+        assertEquals(RegradeJob.Status.COMPLETED, job.getStatus());
+        assertEquals(List.of("s5", "s4", "s2"), enqueued.stream().map(ExperimentSubmission::getId).toList());
+        assertEquals(5, job.getScanned());
+        assertEquals(3, job.getCompleted());
+        assertEquals(100.0, job.getProgress());
+        assertTrue(maxOutstanding.get() <= 2);
+        verify(submissionRepository).findByTaskId(eq("task1"),
+                argThat(pageable -> pageable.getPageNumber() == 0 && pageable.getSort().getOrderFor("submitTime") != null
+                        && pageable.getSort().getOrderFor("submitTime").isDescending()));
+    }
+
+    @Test
+    void cancel_ShouldStopFeedingSubmissions() throws Exception {
+        // Given
+        givenSubmissions(List.of(submission("s1", "user1"), submission("s2", "user2"),
+                submission("s3", "user3"), submission("s4", "user4")), 4);
+        RegradeJob job = regradeManager.start("exp1", List.of(task), "teacher");
+        long deadline = System.currentTimeMillis() + 5000;
+        while (enqueued.size() < 2 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+
+        // When
+        regradeManager.cancel(job.getId());
+        pendingResults.forEach(Runnable::run);
+        Thread.sleep(500);
+
+        // Then
+        assertEquals(RegradeJob.Status.CANCELLED, job.getStatus());
+        assertEquals(2, enqueued.size());
+        assertNotNull(job.getFinishedAt());
+        assertNull(job.getEtaSeconds());
+    }
+
+    @Test
+    void start_WhenTaskAlreadyRegrading_ShouldReject() {
+        // Given
+        givenSubmissions(List.of(submission("s1", "user1")), 1);
+        regradeManager.start("exp1", List.of(task), "teacher");
+
+        // When & Then
+        RuntimeException exception = assertThrows(RuntimeException.class,
+                () -> regradeManager.start("exp1", List.of(task), "teacher"));
+        assertEquals("该任务已有正在进行的重评", exception.getMessage());
+    }
+
+    @Test
+    void getEtaSeconds_ShouldEstimateFromCompletionRate() {
+        // Given
+        RegradeJob job = new RegradeJob("job1", "exp1", List.of("task1"), "teacher");
+        job.setTotal(10);
+        job.recordEnqueued(2);
+
+        // When
+        job.recordResult(ExperimentEvaluation.builder().status(EvaluationStatus.COMPLETED).build());
+        job.recordResult(ExperimentEvaluation.builder().status(EvaluationStatus.ERROR).build());
+
+        // Then
+        assertEquals(20.0, job.getProgress());
+        assertEquals(1, job.getErrors());
+        assertNotNull(job.getEtaSeconds());
+        assertTrue(job.getEtaSeconds() >= 0);
+    }
+}
@@ -0,0 +1,145 @@
+package org.linghu.experiment.judge;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.linghu.experiment.config.EvaluationProperties;
+import org.linghu.experiment.judge.StubGoJudgeServer.StubResponse;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * GoJudgeClient 测试，使用本地桩服务模拟 go-judge
+ */
+class GoJudgeClientTest {
+
+    private static final String ACCEPTED_RESULT =
+            "[{\"status\":\"Accepted\",\"exitStatus\":0,\"time\":1200000,\"memory\":2048,"
+                    + "\"files\":{\"stdout\":\"line1\\n  line2  \\nline3\\n\",\"stderr\":\"\"}}]";
+
+    private StubGoJudgeServer stubServer;
+    private SimpleMeterRegistry meterRegistry;
+    private EvaluationProperties properties;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        stubServer = new StubGoJudgeServer();
+        meterRegistry = new SimpleMeterRegistry();
+        properties = new EvaluationProperties();
+        properties.getService().setUrl(stubServer.getUrl() + "/run");
+        properties.getService().setRetryBackoff(Duration.ofMillis(1));
+        properties.getService().setReadTimeout(Duration.ofSeconds(2));
+    }
+
+    @AfterEach
+    void tearDown() {
+        stubServer.close();
+    }
+
+    private GoJudgeRequest sampleRequest() {
+        GoJudgeCmd cmd = GoJudgeCmd.builder()
+                .args(List.of("/bin/sh", "-c", "./run.sh"))
+                .copyIn(Map.of("main.c", GoJudgeFile.content("int main(){}\n")))
+                .copyOut(List.of("stdout", "stderr"))
+                .build();
+        return GoJudgeRequest.builder().cmd(List.of(cmd)).build();
+    }
+
+    @Test
+    void run_ShouldPreserveMultiLineStdout() throws IOException {
+        // Given
+        stubServer.respondWith(request -> StubResponse.json(200, ACCEPTED_RESULT));
+        GoJudgeClient client = new GoJudgeClient(properties, meterRegistry);
+
+        // When
+        List<GoJudgeResult> results = client.run(sampleRequest());
+
+        // Then
+        assertEquals(1, results.size());
+        assertTrue(results.get(0).isAccepted());
+        assertEquals("line1\n  line2  \nline3\n", results.get(0).fileContent("stdout"));
+        assertEquals(1200000L, results.get(0).getTime());
+        assertTrue(stubServer.getRequestBodies().get(0).contains("\"copyIn\""));
+        assertFalse(stubServer.getRequestBodies().get(0).contains("\"fileId\""));
+    }
+
+    @Test
+    void run_WhenServerErrorThenRecovers_ShouldRetry() throws IOException {
+        // Given
+        stubServer.respondWith(request -> request.sequence() == 1
+                ? StubResponse.json(503, "busy")
+                : StubResponse.json(200, ACCEPTED_RESULT));
+        GoJudgeClient client = new GoJudgeClient(properties, meterRegistry);
+
+        // When
+        List<GoJudgeResult> results = client.run(sampleRequest());
+
+        // Then
+        assertEquals(1, results.size());
+        assertEquals(2, stubServer.getRequestBodies().size());
+        assertEquals(1.0, meterRegistry.get("judge.client.retries").counter().count());
+    }
+
+    @Test
+    void run_WhenClientError_ShouldNotRetry() {
+        // Given
+        stubServer.respondWith(request -> StubResponse.json(400, "bad request"));
+        GoJudgeClient client = new GoJudgeClient(properties, meterRegistry);
+
+        // When & Then
+        IOException exception = assertThrows(IOException.class, () -> client.run(sampleRequest()));
+        assertTrue(exception.getMessage().contains("400"));
+        assertEquals(1, stubServer.getRequestBodies().size());
+    }
+
+    @Test
+    void run_WhenRetryBudgetExhausted_ShouldStopRetrying() {
+        // Given
+        properties.getService().setMaxAttempts(5);
+        properties.getService().setRetryBudgetMinTokens(1);
+        properties.getService().setRetryBudgetRatio(0);
+        stubServer.respondWith(request -> StubResponse.json(500, "down"));
+        GoJudgeClient client = new GoJudgeClient(properties, meterRegistry);
+
+        // When & Then
+        assertThrows(IOException.class, () -> client.run(sampleRequest()));
+        assertEquals(2, stubServer.getRequestBodies().size());
+    }
+
+    @Test
+    void run_WhenResponseSlowerThanReadTimeout_ShouldFail() {
+        // Given
+        properties.getService().setReadTimeout(Duration.ofMillis(200));
+        properties.getService().setMaxAttempts(1);
+        stubServer.respondWith(request -> StubResponse.delayed(ACCEPTED_RESULT, 1000));
+        GoJudgeClient client = new GoJudgeClient(properties, meterRegistry);
+
+        // When & Then
+        assertThrows(IOException.class, () -> client.run(sampleRequest()));
+        assertNotNull(meterRegistry.find("judge.client.request").tag("outcome", "error").timer());
+    }
+
+    @Test
+    void uploadFile_ShouldSendMultipartBodyAndReturnFileId() throws IOException {
+        // Given
+        stubServer.respondWith(request -> StubResponse.json(200, "\"FILE1\""));
+        GoJudgeClient client = new GoJudgeClient(properties, meterRegistry);
+
+        // When
+        String fileId = client.uploadFile("run.sh", "#!/bin/sh\n./main\n".getBytes());
+
+        // Then
+        assertEquals("FILE1", fileId);
+        String body = stubServer.getRequestBodies().get(0);
+        assertTrue(body.startsWith("--"));
+        assertTrue(body.contains("filename=\"run.sh\"\r\nContent-Type: application/octet-stream\r\n\r\n"
+                + "#!/bin/sh\n./main\n\r\n--"));
+        assertTrue(body.endsWith("--\r\n"));
+    }
+}
@@ -0,0 +1,150 @@
+package org.linghu.experiment.judge;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.minio.Result;
+import io.minio.messages.Item;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.linghu.experiment.utils.MinioUtil;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+/**
+ * JudgeFileCache 单元测试
+ */
+@ExtendWith(MockitoExtension.class)
+class JudgeFileCacheTest {
+
+    private static final String RUN_SCRIPT = "#!/bin/sh\n./main\n";
+
+    @Mock
+    private MinioUtil minioUtil;
+
+    @Mock
+    private GoJudgeClient goJudgeClient;
+
+    private JudgeFileCache judgeFileCache;
+    private JudgeFileCache.TaskScaffold scaffold;
+    private String runScriptHash;
+    private final JudgeNode node = new JudgeNode("node1", "http://judge-1:5050", 4);
+
+    @BeforeEach
+    void setUp() {
+        judgeFileCache = new JudgeFileCache(minioUtil, goJudgeClient, new SimpleMeterRegistry());
+        runScriptHash = JudgeFileCache.sha256(RUN_SCRIPT);
+        scaffold = new JudgeFileCache.TaskScaffold("v1", Map.of(runScriptHash, RUN_SCRIPT),
+                Map.of("run.sh", RUN_SCRIPT));
+    }
+
+    @Test
+    void resolveFileId_ShouldUploadOnceAndReuseFileId() throws Exception {
+        // Given
+        when(goJudgeClient.uploadFile(eq(node), eq(runScriptHash), any())).thenReturn("FILE1");
+
+        // When
+        String first = judgeFileCache.resolveFileId(node, scaffold, runScriptHash);
+        String second = judgeFileCache.resolveFileId(node, scaffold, runScriptHash);
+
+        // Then
+        assertEquals("FILE1", first);
+        assertEquals("FILE1", second);
+        verify(goJudgeClient, times(1)).uploadFile(eq(node), eq(runScriptHash), any());
+    }
+
+    @Test
+    void resolveFileId_WithContentOutsideScaffold_ShouldReturnNull() throws Exception {
+        // When
+        String fileId = judgeFileCache.resolveFileId(node, scaffold, JudgeFileCache.sha256("student code"));
+
+        // Then
+        assertNull(fileId);
+        verifyNoInteractions(goJudgeClient);
+    }
+
+    @Test
+    void evict_ShouldForceReupload() throws Exception {
+        // Given
+        when(goJudgeClient.uploadFile(eq(node), eq(runScriptHash), any())).thenReturn("FILE1", "FILE2");
+        judgeFileCache.resolveFileId(node, scaffold, runScriptHash);
+
+        // When
+        judgeFileCache.evict(node, List.of(runScriptHash));
+        String fileId = judgeFileCache.resolveFileId(node, scaffold, runScriptHash);
+
+        // Then
+        assertEquals("FILE2", fileId);
+        verify(goJudgeClient, times(2)).uploadFile(eq(node), eq(runScriptHash), any());
+    }
+
+    @Test
+    void resolveFileId_OnAnotherNode_ShouldUploadAgain() throws Exception {
+        // Given
+        JudgeNode otherNode = new JudgeNode("node2", "http://judge-2:5050", 4);
+        when(goJudgeClient.uploadFile(eq(node), eq(runScriptHash), any())).thenReturn("FILE1");
+        when(goJudgeClient.uploadFile(eq(otherNode), eq(runScriptHash), any())).thenReturn("FILE2");
+
+        // When
+        String first = judgeFileCache.resolveFileId(node, scaffold, runScriptHash);
+        String second = judgeFileCache.resolveFileId(otherNode, scaffold, runScriptHash);
+
+        // Then
+        assertEquals("FILE1", first);
+        assertEquals("FILE2", second);
+    }
+
+    @Test
+    void getScaffold_WhenTaskFilesChange_ShouldIndexBySandboxPathAndPruneOldFileIds() throws Exception {
+        // Given：run.sh 在两次读取之间被修改
+        String prefix = "exp1/experiment/task1/";
+        String updatedScript = "#!/bin/sh\n./main --fast\n";
+        Item original = item(prefix + "project/run.sh", "e1");
+        Item modified = item(prefix + "project/run.sh", "e2");
+        when(minioUtil.listObjects(MinioUtil.getResourceBucket(), prefix))
+                .thenReturn(List.of(new Result<>(original)))
+                .thenReturn(List.of(new Result<>(modified)));
+        when(minioUtil.downloadFileAsString(prefix + "project/run.sh")).thenReturn(RUN_SCRIPT, updatedScript);
+        when(goJudgeClient.uploadFile(eq(node), eq(runScriptHash), any())).thenReturn("FILE1");
+
+        // When
+        JudgeFileCache.TaskScaffold first = judgeFileCache.getScaffold("exp1", "task1");
+        judgeFileCache.resolveFileId(node, first, runScriptHash);
+        JudgeFileCache.TaskScaffold second = judgeFileCache.getScaffold("exp1", "task1");
+
+        // Then
+        assertEquals(Map.of("run.sh", RUN_SCRIPT), first.filesByPath());
+        assertEquals(Map.of("run.sh", updatedScript), second.filesByPath());
+        assertEquals(0, judgeFileCache.fileIdCount());
+    }
+
+    @Test
+    void evictNode_ShouldRemoveAllFileIdsOfNode() throws Exception {
+        // Given
+        JudgeNode otherNode = new JudgeNode("node2", "http://judge-2:5050", 4);
+        when(goJudgeClient.uploadFile(any(), eq(runScriptHash), any())).thenReturn("FILE1", "FILE2");
+        judgeFileCache.resolveFileId(node, scaffold, runScriptHash);
+        judgeFileCache.resolveFileId(otherNode, scaffold, runScriptHash);
+
+        // When
+        judgeFileCache.evictNode(node);
+
+        // Then
+        assertEquals(1, judgeFileCache.fileIdCount());
+        assertEquals("FILE2", judgeFileCache.resolveFileId(otherNode, scaffold, runScriptHash));
+    }
+
+    private static Item item(String objectName, String etag) {
+        Item item = mock(Item.class);
+        when(item.objectName()).thenReturn(objectName);
+        when(item.etag()).thenReturn(etag);
+        return item;
+    }
+}
@@ -0,0 +1,190 @@
+package org.linghu.experiment.judge;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.linghu.experiment.config.EvaluationProperties;
+import org.linghu.experiment.judge.StubGoJudgeServer.StubResponse;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.cloud.client.DefaultServiceInstance;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.client.discovery.DiscoveryClient;
+
+import java.io.IOException;
+import java.net.URI;
+import java.time.Duration;
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+/**
+ * JudgeNodeRegistry 测试，使用多个本地桩服务模拟 go-judge 集群
+ */
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class JudgeNodeRegistryTest {
+
+    @Mock
+    private ObjectProvider<DiscoveryClient> discoveryClientProvider;
+
+    @Mock
+    private DiscoveryClient discoveryClient;
+
+    @Mock
+    private JudgeFileCache judgeFileCache;
+
+    private final List<StubGoJudgeServer> stubServers = new ArrayList<>();
+    private SimpleMeterRegistry meterRegistry;
+    private EvaluationProperties properties;
+    private GoJudgeClient goJudgeClient;
+    private JudgeNodeRegistry registry;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        for (int i = 0; i < 3; i++) {
+            StubGoJudgeServer stubServer = new StubGoJudgeServer();
+            stubServer.respondWith(request -> StubResponse.json(200, "\"v1.8.0\""));
+            stubServers.add(stubServer);
+        }
+        meterRegistry = new SimpleMeterRegistry();
+        properties = new EvaluationProperties();
+        properties.getService().setNodes(stubServers.stream().map(StubGoJudgeServer::getUrl).toList());
+        properties.getService().setHealthCheckInterval(Duration.ofMinutes(1));
+        properties.getService().setEjectionFailureThreshold(2);
+        properties.getService().setMaxAttempts(1);
+        properties.getService().setStickyMaxImbalance(2);
+        goJudgeClient = new GoJudgeClient(properties, meterRegistry);
+        registry = new JudgeNodeRegistry(goJudgeClient, judgeFileCache, properties, meterRegistry,
+                discoveryClientProvider);
+        registry.start();
+    }
+
+    @AfterEach
+    void tearDown() {
+        registry.shutdown();
+        stubServers.forEach(StubGoJudgeServer::close);
+    }
+
+    private JudgeNode nodeOf(StubGoJudgeServer stubServer) {
+        return registry.getNodes().stream()
+                .filter(node -> node.getBaseUrl().equals(stubServer.getUrl()))
+                .findFirst()
+                .orElseThrow();
+    }
+
+    @Test
+    void select_WithSameTask_ShouldStickToOneNodeAndSpreadTasks() {
+        // When
+        JudgeNode first = registry.select("task1");
+        Set<String> usedNodes = new HashSet<>();
+        for (int i = 0; i < 30; i++) {
+            usedNodes.add(registry.select("task" + i).getId());
+        }
+
+        // Then
+        assertEquals(3, registry.getNodes().size());
+        for (int i = 0; i < 5; i++) {
+            assertSame(first, registry.select("task1"));
+        }
+        assertEquals(3, usedNodes.size());
+    }
+
+    @Test
+    void select_WhenPreferredNodeBusy_ShouldUseLeastOutstandingNode() {
+        // Given
+        JudgeNode preferred = registry.select("task1");
+        for (int i = 0; i < 3; i++) {
+            preferred.requestStarted();
+        }
+        JudgeNode other = registry.getNodes().stream().filter(node -> node != preferred).findFirst().orElseThrow();
+        other.requestStarted();
+
+        // When
+        JudgeNode selected = registry.select("task1");
+
+        // Then
+        assertNotSame(preferred, selected);
+        assertEquals(0, selected.getOutstanding());
+        assertEquals(3.0, meterRegistry.get("judge.node.outstanding").tag("node", preferred.getId()).gauge().value());
+    }
+
+    @Test
+    void checkNodes_WhenNodeKeepsFailing_ShouldEjectIt() {
+        // Given
+        StubGoJudgeServer failing = stubServers.get(0);
+        failing.respondWith(request -> StubResponse.json(503, "unavailable"));
+        JudgeNode failingNode = nodeOf(failing);
+
+        // When
+        registry.checkNodes();
+        registry.checkNodes();
+
+        // Then
+        assertFalse(failingNode.isAvailable());
+        for (int i = 0; i < 30; i++) {
+            assertNotSame(failingNode, registry.select("task" + i));
+        }
+        assertEquals(0.0, meterRegistry.get("judge.node.available").tag("node", failingNode.getId()).gauge().value());
+        assertEquals(1.0, meterRegistry.get("judge.node.ejections").tag("node", failingNode.getId())
+                .functionCounter().count());
+    }
+
+    @Test
+    void run_WhenNodeReturnsServerErrors_ShouldEjectItAfterThreshold() {
+        // Given
+        StubGoJudgeServer failing = stubServers.get(1);
+        failing.respondWith(request -> StubResponse.json(500, "internal error"));
+        JudgeNode failingNode = nodeOf(failing);
+        GoJudgeRequest request = GoJudgeRequest.builder().cmd(List.of(GoJudgeCmd.builder()
+                .args(List.of("/bin/true")).build())).build();
+
+        // When
+        assertThrows(IOException.class, () -> goJudgeClient.run(failingNode, request));
+        assertTrue(failingNode.isAvailable());
+        assertThrows(IOException.class, () -> goJudgeClient.run(failingNode, request));
+
+        // Then
+        assertFalse(failingNode.isAvailable());
+        assertEquals(0, failingNode.getOutstanding());
+    }
+
+    @Test
+    void select_WhenAllNodesEjected_ShouldStillReturnANode() {
+        // Given
+        stubServers.forEach(stubServer -> stubServer.respondWith(request -> StubResponse.json(503, "")));
+        registry.checkNodes();
+        registry.checkNodes();
+
+        // When & Then
+        assertTrue(registry.getNodes().stream().noneMatch(JudgeNode::isAvailable));
+        assertNotNull(registry.select("task1"));
+    }
+
+    @Test
+    void refreshNodes_WithDiscoveryService_ShouldFollowRegisteredInstances() {
+        // Given
+        properties.getService().setDiscoveryServiceId("go-judge");
+        StubGoJudgeServer registered = stubServers.get(2);
+        URI uri = URI.create(registered.getUrl());
+        ServiceInstance instance = new DefaultServiceInstance("judge-1", "go-judge", uri.getHost(), uri.getPort(), false);
+        when(discoveryClientProvider.getIfAvailable()).thenReturn(discoveryClient);
+        when(discoveryClient.getInstances("go-judge")).thenReturn(List.of(instance));
+
+        // When
+        registry.refreshNodes();
+
+        // Then
+        assertEquals(1, registry.getNodes().size());
+        assertEquals(registered.getUrl(), registry.getNodes().get(0).getBaseUrl());
+        assertNull(meterRegistry.find("judge.node.outstanding").tag("node", stubServers.get(0).getUrl()).gauge());
+        verify(judgeFileCache, times(2)).evictNode(any());
+    }
+}
@@ -0,0 +1,92 @@
+package org.linghu.experiment.judge;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.function.Function;
+
+/**
+ * 本地 go-judge 桩服务，用于测试评测客户端
+ * 通过 {@link #respondWith(Function)} 设置每个请求的响应，并记录收到的请求体
+ */
+public class StubGoJudgeServer implements AutoCloseable {
+
+    private final HttpServer server;
+    private final List<String> requestBodies = new CopyOnWriteArrayList<>();
+    private volatile Function<StubRequest, StubResponse> handler =
+            request -> StubResponse.json(200, "[]");
+
+    public StubGoJudgeServer() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.setExecutor(Executors.newCachedThreadPool());
+        server.createContext("/", this::handle);
+        server.start();
+    }
+
+    public String getUrl() {
+        return "http://127.0.0.1:" + server.getAddress().getPort();
+    }
+
+    public void respondWith(Function<StubRequest, StubResponse> handler) {
+        this.handler = handler;
+    }
+
+    public List<String> getRequestBodies() {
+        return requestBodies;
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        String body = new String(exchange.getRequestBody().readAllBytes(), StandardCharsets.UTF_8);
+        requestBodies.add(body);
+        StubRequest request = new StubRequest(exchange.getRequestMethod(), exchange.getRequestURI().getPath(),
+                body, requestBodies.size());
+        StubResponse response = handler.apply(request);
+
+        if (response.delayMillis > 0) {
+            try {
+                Thread.sleep(response.delayMillis);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        byte[] bytes = response.body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().add("Content-Type", "application/json");
+        exchange.sendResponseHeaders(response.status, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+    }
+
+    /**
+     * 桩服务收到的请求
+     */
+    public record StubRequest(String method, String path, String body, int sequence) {
+    }
+
+    /**
+     * 桩服务返回的响应
+     */
+    public record StubResponse(int status, String body, long delayMillis) {
+
+        public static StubResponse json(int status, String body) {
+            return new StubResponse(status, body, 0);
+        }
+
+        public static StubResponse delayed(String body, long delayMillis) {
+            return new StubResponse(200, body, delayMillis);
+        }
+    }
+}
@@ -7,6 +7,7 @@ import org.linghu.experiment.domain.ExperimentSubmission;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
 import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.context.jdbc.Sql;
 
@@ -30,6 +31,9 @@ class ExperimentEvaluationRepositoryTest {
     @Autowired
     private ExperimentEvaluationRepository evaluationRepository;
 
+    @Autowired
+    private TestEntityManager entityManager;
+
 
     @Test
     void findBySubmissionId_WithExistingSubmissionId_ShouldReturnEvaluations() {
@@ -93,6 +97,35 @@ class ExperimentEvaluationRepositoryTest {
         assertTrue(evaluations.isEmpty());
     }
 
+    @Test
+    void findHistory_ShouldReturnLatestFirstWithSubmitTime() {
+        // When
+        List<ExperimentEvaluationRepository.HistoryEntry> history =
+                evaluationRepository.findHistory("user1", "task1", PageRequest.of(0, 1));
+
+        // Then
+        assertEquals(1, history.size());
+        assertEquals("eval2", history.get(0).getId());
+        assertEquals("sub1", history.get(0).getSubmissionId());
+        assertNotNull(history.get(0).getSubmitTime());
+    }
+
+    @Test
+    void findHistoryAfter_ShouldReturnRecordsOlderThanCursor() {
+        // Given
+        ExperimentEvaluationRepository.HistoryEntry first =
+                evaluationRepository.findHistory("user1", "task1", PageRequest.of(0, 1)).get(0);
+
+        // When
+        List<ExperimentEvaluationRepository.HistoryEntry> history = evaluationRepository.findHistoryAfter(
+                "user1", "task1", first.getCreatedTime(), first.getId(), PageRequest.of(0, 10));
+
+        // Then
+        assertEquals(1, history.size());
+        assertEquals("eval1", history.get(0).getId());
+        assertEquals(ExperimentEvaluation.EvaluationStatus.COMPLETED, history.get(0).getStatus());
+    }
+
     @Test
     void save_WithValidEvaluation_ShouldSaveSuccessfully() {
         // Given
@@ -182,4 +215,68 @@ class ExperimentEvaluationRepositoryTest {
         assertEquals(ExperimentEvaluation.EvaluationStatus.COMPLETED, updated.getStatus());
         assertEquals("Updated evaluation feedback", updated.getFeedback());
     }
+
+    @Test
+    void claim_ShouldOnlySucceedForPendingOrExpiredLease() {
+        // Given
+        LocalDateTime now = LocalDateTime.now();
+        ExperimentEvaluation.EvaluationStatus pending = ExperimentEvaluation.EvaluationStatus.PENDING;
+        ExperimentEvaluation.EvaluationStatus running = ExperimentEvaluation.EvaluationStatus.RUNNING;
+
+        // When
+        int first = evaluationRepository.claim("eval2", pending, running, "instance-a", now, now.plusMinutes(10));
+        int duringLease = evaluationRepository.claim("eval2", pending, running, "instance-b", now.plusMinutes(1),
+                now.plusMinutes(11));
+        int afterLease = evaluationRepository.claim("eval2", pending, running, "instance-b", now.plusMinutes(11),
+                now.plusMinutes(21));
+        int finished = evaluationRepository.claim("eval1", pending, running, "instance-a", now, now.plusMinutes(10));
+        entityManager.clear();
+
+        // Then
+        assertEquals(1, first);
+        assertEquals(0, duringLease);
+        assertEquals(1, afterLease);
+        assertEquals(0, finished);
+        ExperimentEvaluation claimed = evaluationRepository.findById("eval2").orElseThrow();
+        assertEquals(running, claimed.getStatus());
+        assertEquals("instance-b", claimed.getLeaseOwner());
+        assertEquals(ExperimentEvaluation.EvaluationStatus.COMPLETED,
+                evaluationRepository.findById("eval1").orElseThrow().getStatus());
+    }
+
+    @Test
+    void findRecoverable_ShouldSkipRunningEvaluationsWithinLease() {
+        // Given
+        LocalDateTime now = LocalDateTime.now();
+        evaluationRepository.save(queuedEvaluation(ExperimentEvaluation.EvaluationStatus.PENDING, null,
+                now.minusMinutes(3)));
+        ExperimentEvaluation expired = evaluationRepository.save(queuedEvaluation(
+                ExperimentEvaluation.EvaluationStatus.RUNNING, now.minusMinutes(1), now.minusMinutes(2)));
+        evaluationRepository.save(queuedEvaluation(ExperimentEvaluation.EvaluationStatus.RUNNING,
+                now.plusMinutes(5), now.minusMinutes(1)));
+
+        // When
+        List<ExperimentEvaluation> recoverable = evaluationRepository.findRecoverable(
+                ExperimentEvaluation.EvaluationStatus.PENDING, ExperimentEvaluation.EvaluationStatus.RUNNING, now);
+
+        // Then：没有入队时间的旧记录和仍在租约内的任务都不恢复
+        assertEquals(2, recoverable.size());
+        assertEquals(ExperimentEvaluation.EvaluationStatus.PENDING, recoverable.get(0).getStatus());
+        assertEquals(expired.getId(), recoverable.get(1).getId());
+    }
+
+    private static ExperimentEvaluation queuedEvaluation(ExperimentEvaluation.EvaluationStatus status,
+                                                         LocalDateTime leaseUntil, LocalDateTime queuedTime) {
+        return ExperimentEvaluation.builder()
+                .id(UUID.randomUUID().toString())
+                .submissionId("sub1")
+                .userId("user1")
+                .taskId("task1")
+                .status(status)
+                .background(false)
+                .leaseOwner(leaseUntil != null ? "instance-a" : null)
+                .leaseUntil(leaseUntil)
+                .queuedTime(queuedTime)
+                .build();
+    }
 }
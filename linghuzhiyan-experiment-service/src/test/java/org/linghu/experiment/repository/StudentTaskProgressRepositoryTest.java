@@ -0,0 +1,123 @@
+package org.linghu.experiment.repository;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.linghu.experiment.domain.ExperimentEvaluation;
+import org.linghu.experiment.domain.ExperimentEvaluation.EvaluationStatus;
+import org.linghu.experiment.domain.ExperimentSubmission;
+import org.linghu.experiment.domain.StudentTaskProgress;
+import org.linghu.experiment.evaluation.StudentProgressTracker;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.jdbc.Sql;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * StudentTaskProgressRepository 测试类（进度由 StudentProgressTracker 写入）
+ */
+@DataJpaTest
+@ActiveProfiles("test")
+@Sql(scripts = {"/schema.sql", "/data.sql"})
+class StudentTaskProgressRepositoryTest {
+
+    @Autowired
+    private StudentTaskProgressRepository progressRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private StudentProgressTracker progressTracker;
+
+    @BeforeEach
+    void setUp() {
+        progressTracker = new StudentProgressTracker(jdbcTemplate);
+    }
+
+    @Test
+    void findDashboard_WithoutProgress_ShouldReturnAssignedTasksInOrder() {
+        // When
+        List<StudentTaskProgressRepository.DashboardEntry> entries = progressRepository.findDashboard("user1");
+
+        // Then
+        assertEquals(List.of("task1", "task2"),
+                entries.stream().map(StudentTaskProgressRepository.DashboardEntry::getTaskId).toList());
+        assertEquals("Test Experiment 1", entries.get(0).getExperimentName());
+        assertNull(entries.get(0).getLatestSubmitTime());
+        assertNull(entries.get(0).getLatestEvaluationId());
+    }
+
+    @Test
+    void recordSubmission_ShouldKeepLatestSubmissionAndCountAll() {
+        // Given
+        LocalDateTime now = LocalDateTime.now();
+
+        // When：较早的提交后写入，不覆盖最新提交
+        progressTracker.recordSubmission(submission("sub-new", now.minusMinutes(5)));
+        progressTracker.recordSubmission(submission("sub-old", now.minusHours(1)));
+
+        // Then
+        StudentTaskProgress progress = progressRepository.findByUserIdAndTaskId("user1", "task1").orElseThrow();
+        assertEquals("sub-new", progress.getLatestSubmissionId());
+        assertEquals(2, progress.getSubmissionCount());
+    }
+
+    @Test
+    void recordEvaluation_ShouldIgnoreOlderEvaluationsAndUpdateSameEvaluation() {
+        // Given
+        LocalDateTime now = LocalDateTime.now();
+        progressTracker.recordSubmission(submission("sub-new", now.minusMinutes(10)));
+        ExperimentEvaluation queued = evaluation("eval-new", now.minusMinutes(5), EvaluationStatus.PENDING, null);
+
+        // When：入队、较早的评测乱序写回、同一评测完成
+        progressTracker.recordEvaluation(queued);
+        progressTracker.recordEvaluations(List.of(
+                evaluation("eval-old", now.minusHours(1), EvaluationStatus.COMPLETED, new BigDecimal("60.00"))));
+        queued.setStatus(EvaluationStatus.COMPLETED);
+        queued.setScore(new BigDecimal("95.00"));
+        progressTracker.recordEvaluation(queued);
+
+        // Then
+        StudentTaskProgressRepository.DashboardEntry entry = progressRepository.findDashboard("user1").get(0);
+        assertEquals("sub-new", entry.getLatestSubmissionId());
+        assertEquals("eval-new", entry.getLatestEvaluationId());
+        assertEquals(EvaluationStatus.COMPLETED, entry.getLatestStatus());
+        assertEquals(0, new BigDecimal("95.00").compareTo(entry.getLatestScore()));
+        assertEquals(1, entry.getSubmissionCount());
+    }
+
+    @Test
+    void recordSubmission_WhenWriteFails_ShouldThrowException() {
+        // Given
+        ExperimentSubmission invalid = ExperimentSubmission.builder().id("sub-invalid").taskId("task1")
+                .submitTime(LocalDateTime.now()).build();
+
+        // When & Then：写入失败时抛出异常，由调用方的事务回滚
+        assertThrows(DataAccessException.class, () -> progressTracker.recordSubmission(invalid));
+    }
+
+    private static ExperimentSubmission submission(String id, LocalDateTime submitTime) {
+        return ExperimentSubmission.builder().id(id).userId("user1").taskId("task1").submitTime(submitTime).build();
+    }
+
+    private static ExperimentEvaluation evaluation(String id, LocalDateTime createdTime, EvaluationStatus status,
+                                                   BigDecimal score) {
+        return ExperimentEvaluation.builder()
+                .id(id)
+                .submissionId("sub-new")
+                .userId("user1")
+                .taskId("task1")
+                .status(status)
+                .score(score)
+                .queuedTime(createdTime)
+                .createdTime(createdTime)
+                .build();
+    }
+}
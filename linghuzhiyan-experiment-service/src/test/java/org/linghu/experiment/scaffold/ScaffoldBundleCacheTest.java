@@ -0,0 +1,181 @@
+package org.linghu.experiment.scaffold;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.minio.Result;
+import io.minio.messages.Item;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.linghu.experiment.utils.MinioUtil;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ValueOperations;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * ScaffoldBundleCache 单元测试
+ */
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class ScaffoldBundleCacheTest {
+
+    private static final String PREFIX = "exp1/experiment/task1/";
+
+    @Mock
+    private MinioUtil minioUtil;
+
+    @Mock
+    private StringRedisTemplate redisTemplate;
+
+    @Mock
+    private ValueOperations<String, String> valueOperations;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @BeforeEach
+    void setUp() throws Exception {
+        when(redisTemplate.opsForValue()).thenReturn(valueOperations);
+        when(minioUtil.downloadFileAsString(PREFIX + "Main.java")).thenReturn("class Main {}");
+        when(minioUtil.downloadFileAsString(PREFIX + "run.sh")).thenReturn("./main\n");
+    }
+
+    @Test
+    void get_WhenObjectsUnchanged_ShouldNotDownloadAgain() throws Exception {
+        // Given
+        listing(item(PREFIX + "run.sh", "e2", 7), item(PREFIX + "Main.java", "e1", 13),
+                item(PREFIX + "original/Main.java", "e0", 13));
+        ScaffoldBundleCache cache = cache(DataSize.ofMegabytes(1), false);
+
+        // When
+        ScaffoldBundle first = cache.get("exp1", "task1");
+        ScaffoldBundle second = cache.get("exp1", "task1");
+
+        // Then：跳过 original 目录，按对象名排序，第二次只列举不下载
+        assertSame(first, second);
+        assertEquals(List.of("Main.java", "run.sh"),
+                first.files().stream().map(ScaffoldBundle.ScaffoldFile::fileName).toList());
+        assertEquals("class Main {}", first.files().get(0).content());
+        verify(minioUtil, times(1)).downloadFileAsString(PREFIX + "Main.java");
+        verify(minioUtil, times(2)).listObjects(MinioUtil.getResourceBucket(), PREFIX);
+        verifyNoInteractions(valueOperations);
+    }
+
+    @Test
+    void get_WhenEtagChanged_ShouldRebuild() throws Exception {
+        // Given
+        Item original = item(PREFIX + "Main.java", "e1", 13);
+        Item modified = item(PREFIX + "Main.java", "e2", 13);
+        when(minioUtil.listObjects(MinioUtil.getResourceBucket(), PREFIX))
+                .thenReturn(List.of(new Result<>(original)))
+                .thenReturn(List.of(new Result<>(modified)));
+        ScaffoldBundleCache cache = cache(DataSize.ofMegabytes(1), false);
+
+        // When
+        ScaffoldBundle first = cache.get("exp1", "task1");
+        ScaffoldBundle second = cache.get("exp1", "task1");
+
+        // Then
+        assertNotEquals(first.version(), second.version());
+        verify(minioUtil, times(2)).downloadFileAsString(PREFIX + "Main.java");
+    }
+
+    @Test
+    void get_WhenOverSizeCap_ShouldEvictLeastRecentlyUsed() throws Exception {
+        // Given：上限只容纳一个任务的文件包
+        String otherPrefix = "exp1/experiment/task2/";
+        listing(item(PREFIX + "Main.java", "e1", 13));
+        Item other = item(otherPrefix + "Main.java", "e1", 13);
+        when(minioUtil.listObjects(MinioUtil.getResourceBucket(), otherPrefix))
+                .thenReturn(List.of(new Result<>(other)));
+        when(minioUtil.downloadFileAsString(otherPrefix + "Main.java")).thenReturn("class Main {}");
+        ScaffoldBundleCache cache = cache(DataSize.ofBytes(20), false);
+
+        // When
+        cache.get("exp1", "task1");
+        cache.get("exp1", "task2");
+        cache.get("exp1", "task1");
+
+        // Then
+        verify(minioUtil, times(2)).downloadFileAsString(PREFIX + "Main.java");
+    }
+
+    @Test
+    void get_WithRedisEnabled_ShouldReuseBundleStoredByAnotherInstance() throws Exception {
+        // Given：另一个实例已将同一版本的文件包写入Redis
+        listing(item(PREFIX + "Main.java", "e1", 13));
+        ScaffoldBundle stored = cache(DataSize.ofMegabytes(1), false).get("exp1", "task1");
+        clearInvocations(minioUtil);
+        when(valueOperations.get(ScaffoldBundleCache.BUNDLE_KEY_PREFIX + "exp1/task1:" + stored.version()))
+                .thenReturn(objectMapper.writeValueAsString(stored));
+
+        // When
+        ScaffoldBundle bundle = cache(DataSize.ofMegabytes(1), true).get("exp1", "task1");
+
+        // Then
+        assertEquals(stored, bundle);
+        verify(minioUtil, never()).downloadFileAsString(anyString());
+        verify(valueOperations, never()).set(anyString(), anyString(), any(Duration.class));
+    }
+
+    @Test
+    void get_WithRedisEnabled_ShouldWriteRebuiltBundle() throws Exception {
+        // Given
+        listing(item(PREFIX + "Main.java", "e1", 13));
+
+        // When
+        ScaffoldBundle bundle = cache(DataSize.ofMegabytes(1), true).get("exp1", "task1");
+
+        // Then
+        verify(valueOperations).set(eq(ScaffoldBundleCache.BUNDLE_KEY_PREFIX + "exp1/task1:" + bundle.version()),
+                anyString(), eq(Duration.ofHours(1)));
+    }
+
+    @Test
+    void listFilesAndGetFile_ShouldLoadContentOnlyForRequestedFile() throws Exception {
+        // Given
+        listing(item(PREFIX + "Main.java", "e1", 13), item(PREFIX + "run.sh", "e2", 7));
+        ScaffoldBundleCache cache = cache(DataSize.ofMegabytes(1), false);
+
+        // When
+        List<ScaffoldBundle.ScaffoldFile> files = cache.listFiles("exp1", "task1");
+        ScaffoldBundle.ScaffoldFile file = cache.getFile("exp1", "task1", "run.sh");
+        ScaffoldBundle.ScaffoldFile missing = cache.getFile("exp1", "task1", "missing.txt");
+
+        // Then
+        assertTrue(files.stream().allMatch(candidate -> candidate.content() == null));
+        assertEquals(13, files.get(0).size());
+        assertEquals("./main\n", file.content());
+        assertNull(missing);
+        verify(minioUtil, never()).downloadFileAsString(PREFIX + "Main.java");
+    }
+
+    private void listing(Item... items) throws Exception {
+        List<Result<Item>> results = Arrays.stream(items).map(item -> new Result<Item>(item)).toList();
+        when(minioUtil.listObjects(MinioUtil.getResourceBucket(), PREFIX)).thenReturn(results);
+    }
+
+    private ScaffoldBundleCache cache(DataSize localMaxSize, boolean redisEnabled) {
+        return new ScaffoldBundleCache(minioUtil, redisTemplate, objectMapper, new SimpleMeterRegistry(),
+                localMaxSize, redisEnabled, Duration.ofHours(1));
+    }
+
+    private static Item item(String objectName, String etag, long size) {
+        Item item = mock(Item.class);
+        when(item.objectName()).thenReturn(objectName);
+        when(item.etag()).thenReturn(etag);
+        when(item.size()).thenReturn(size);
+        return item;
+    }
+}
@@ -3,12 +3,17 @@ package org.linghu.experiment.service.impl;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.linghu.experiment.catalog.ExperimentCatalogCache;
+import org.linghu.experiment.cleanup.StorageCleanupJob;
+import org.linghu.experiment.cleanup.StorageCleanupManager;
 import org.linghu.experiment.client.UserServiceClient;
 import org.linghu.experiment.domain.Experiment;
 import org.linghu.experiment.dto.ExperimentDTO;
 import org.linghu.experiment.dto.ExperimentRequestDTO;
+import org.linghu.experiment.dto.StorageCleanupJobDTO;
 import org.linghu.experiment.dto.UserDTO;
 import org.linghu.experiment.repository.ExperimentRepository;
+import org.linghu.experiment.repository.ExperimentSubmissionRepository;
 import org.linghu.experiment.repository.ExperimentTaskRepository;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
@@ -41,6 +46,15 @@ class ExperimentServiceImplTest {
     @Mock
     private UserServiceClient userServiceClient;
 
+    @Mock
+    private ExperimentCatalogCache experimentCatalogCache;
+
+    @Mock
+    private ExperimentSubmissionRepository submissionRepository;
+
+    @Mock
+    private StorageCleanupManager storageCleanupManager;
+
     @InjectMocks
     private ExperimentServiceImpl experimentService;
 
@@ -245,13 +259,22 @@ class ExperimentServiceImplTest {
     @Test
     void deleteExperiment_WithExistingId_ShouldDeleteSuccessfully() {
         // Given
+        StorageCleanupJob job = mock(StorageCleanupJob.class);
+        when(job.getId()).thenReturn("job1");
+        when(job.getStatus()).thenReturn(StorageCleanupJob.Status.PENDING);
+        when(job.getTargets()).thenReturn(List.of());
         when(experimentRepository.existsById("experiment1")).thenReturn(true);
+        when(submissionRepository.findDistinctUserIdsByExperimentId("experiment1")).thenReturn(List.of("user1", "user2"));
+        when(storageCleanupManager.cleanupExperiment("experiment1", List.of("user1", "user2"))).thenReturn(job);
 
         // When
-        experimentService.deleteExperiment("experiment1");
+        StorageCleanupJobDTO result = experimentService.deleteExperiment("experiment1");
 
-        // Then
+        // Then：对象存储由后台任务清理
+        assertEquals("job1", result.getId());
+        assertEquals("PENDING", result.getStatus());
         verify(experimentRepository).deleteById("experiment1");
+        verify(experimentCatalogCache).invalidate();
     }
 
     @Test
@@ -265,6 +288,8 @@ class ExperimentServiceImplTest {
         });
         assertEquals("实验不存在", exception.getMessage());
         verify(experimentRepository, never()).deleteById(any());
+        verify(experimentCatalogCache, never()).invalidate();
+        verifyNoInteractions(storageCleanupManager);
     }
 
     @Test
@@ -296,6 +321,7 @@ class ExperimentServiceImplTest {
         assertEquals("experiment1", result.getId());
         assertEquals(Experiment.ExperimentStatus.PUBLISHED, result.getStatus());
         verify(experimentRepository).save(any(Experiment.class));
+        verify(experimentCatalogCache).invalidate();
     }
 
     @Test
@@ -8,8 +8,13 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.linghu.experiment.client.UserServiceClient;
 import org.linghu.experiment.constants.TaskType;
 import org.linghu.experiment.domain.ExperimentTask;
+import org.linghu.experiment.dto.BulkGradeResultDTO;
 import org.linghu.experiment.dto.ExperimentTaskDTO;
 import org.linghu.experiment.dto.ExperimentTaskRequestDTO;
+import org.linghu.experiment.evaluation.AnswerKeyCache;
+import org.linghu.experiment.evaluation.EvaluationResultCache;
+import org.linghu.experiment.evaluation.ObjectiveBulkGrader;
+import org.linghu.experiment.evaluation.RegradeManager;
 import org.linghu.experiment.repository.ExperimentRepository;
 import org.linghu.experiment.repository.ExperimentTaskRepository;
 import org.mockito.InjectMocks;
@@ -43,14 +48,29 @@ class ExperimentTaskServiceImplTest extends ExperimentTaskServiceImpl{
     @Mock
     private UserServiceClient userServiceClient;
 
+    @Mock
+    private EvaluationResultCache evaluationResultCache;
+
+    @Mock
+    private RegradeManager regradeManager;
+
+    @Mock
+    private AnswerKeyCache answerKeyCache;
+
+    @Mock
+    private ObjectiveBulkGrader objectiveBulkGrader;
+
     @InjectMocks
     private ExperimentTaskServiceImpl experimentTaskService;
 
     private ExperimentTask testTask;
     private ExperimentTaskRequestDTO testTaskRequest;
 
-    public ExperimentTaskServiceImplTest(@Mock ExperimentTaskRepository experimentTaskRepository, @Mock ExperimentRepository experimentRepository, @Mock ObjectMapper objectMapper,@Mock UserServiceClient userServiceClient) {
-        super(experimentTaskRepository, experimentRepository,objectMapper,userServiceClient);
+    public ExperimentTaskServiceImplTest(@Mock ExperimentTaskRepository experimentTaskRepository, @Mock ExperimentRepository experimentRepository, @Mock ObjectMapper objectMapper,@Mock UserServiceClient userServiceClient,
+                                         @Mock EvaluationResultCache evaluationResultCache, @Mock RegradeManager regradeManager,
+                                         @Mock AnswerKeyCache answerKeyCache, @Mock ObjectiveBulkGrader objectiveBulkGrader) {
+        super(experimentTaskRepository, experimentRepository,objectMapper,userServiceClient,evaluationResultCache,regradeManager,
+                answerKeyCache, objectiveBulkGrader);
     }
 
     @Override
@@ -86,7 +106,11 @@ class ExperimentTaskServiceImplTest extends ExperimentTaskServiceImpl{
                 experimentTaskRepository,
                 experimentRepository,
                 objectMapper,
-                userServiceClient);
+                userServiceClient,
+                evaluationResultCache,
+                regradeManager,
+                answerKeyCache,
+                objectiveBulkGrader);
     }
 
     @Test
@@ -231,6 +255,7 @@ class ExperimentTaskServiceImplTest extends ExperimentTaskServiceImpl{
         assertEquals(TaskType.OTHER, result.getTaskType());
         assertFalse(result.getRequired());
         verify(experimentTaskRepository).save(any(ExperimentTask.class));
+        verify(answerKeyCache).invalidateTask("task1");
     }
 
     @Test
@@ -270,6 +295,7 @@ class ExperimentTaskServiceImplTest extends ExperimentTaskServiceImpl{
 
         // Then
         verify(experimentTaskRepository).deleteById("task1");
+        verify(answerKeyCache).invalidateTask("task1");
     }
 
     @Test
@@ -398,4 +424,33 @@ class ExperimentTaskServiceImplTest extends ExperimentTaskServiceImpl{
         });
         verify(experimentTaskRepository, never()).save(any(ExperimentTask.class));
     }
+
+    @Test
+    void gradeObjectiveTask_WithObjectiveTask_ShouldGradeLatestSubmissions() {
+        // Given
+        testTask.setTaskType(TaskType.OTHER);
+        BulkGradeResultDTO expected = BulkGradeResultDTO.builder().taskId("task1").graded(3).build();
+        when(experimentTaskRepository.findById("task1")).thenReturn(Optional.of(testTask));
+        when(objectiveBulkGrader.gradeTask(testTask)).thenReturn(expected);
+
+        // When
+        BulkGradeResultDTO result = experimentTaskService.gradeObjectiveTask("experiment1", "task1");
+
+        // Then
+        assertSame(expected, result);
+        verify(objectiveBulkGrader).gradeTask(testTask);
+    }
+
+    @Test
+    void gradeObjectiveTask_WithCodeTask_ShouldThrowException() {
+        // Given
+        when(experimentTaskRepository.findById("task1")).thenReturn(Optional.of(testTask));
+
+        // When & Then
+        RuntimeException exception = assertThrows(RuntimeException.class, () -> {
+            experimentTaskService.gradeObjectiveTask("experiment1", "task1");
+        });
+        assertEquals("编程任务请使用重评", exception.getMessage());
+        verify(objectiveBulkGrader, never()).gradeTask(any());
+    }
 }
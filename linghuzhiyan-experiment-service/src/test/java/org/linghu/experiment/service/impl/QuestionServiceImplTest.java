@@ -8,6 +8,7 @@ import org.linghu.experiment.domain.Question;
 import org.linghu.experiment.dto.QuestionDTO;
 import org.linghu.experiment.dto.QuestionRequestDTO;
 import org.linghu.experiment.dto.UserDTO;
+import org.linghu.experiment.evaluation.AnswerKeyCache;
 import org.linghu.experiment.repository.QuestionRepository;
 import org.linghu.experiment.utils.JsonUtils;
 import org.mockito.InjectMocks;
@@ -38,6 +39,9 @@ class QuestionServiceImplTest {
     @Mock
     private UserServiceClient userServiceClient;
 
+    @Mock
+    private AnswerKeyCache answerKeyCache;
+
     @InjectMocks
     private QuestionServiceImpl questionService;
 
@@ -154,6 +158,7 @@ class QuestionServiceImplTest {
             assertNotNull(result);
             assertEquals("question1", result.getId());
             verify(questionRepository).save(any(Question.class));
+            verify(answerKeyCache).invalidateQuestion("question1");
         }
     }
 
@@ -168,6 +173,7 @@ class QuestionServiceImplTest {
         });
         assertEquals("题目不存在", exception.getMessage());
         verify(questionRepository, never()).save(any(Question.class));
+        verify(answerKeyCache, never()).invalidateQuestion(anyString());
     }
 
     @Test
@@ -180,6 +186,7 @@ class QuestionServiceImplTest {
 
         // Then
         verify(questionRepository).delete(testQuestion);
+        verify(answerKeyCache).invalidateQuestion("question1");
     }
 
     @Test
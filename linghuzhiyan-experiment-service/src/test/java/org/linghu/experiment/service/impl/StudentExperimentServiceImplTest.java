@@ -1,22 +1,40 @@
 package org.linghu.experiment.service.impl;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.linghu.experiment.catalog.ExperimentCatalogCache;
 import org.linghu.experiment.client.UserServiceClient;
 import org.linghu.experiment.constants.TaskType;
 import org.linghu.experiment.domain.*;
 import org.linghu.experiment.dto.*;
+import org.linghu.experiment.evaluation.StudentProgressTracker;
 import org.linghu.experiment.repository.*;
+import org.linghu.experiment.scaffold.ScaffoldBundle;
+import org.linghu.experiment.scaffold.ScaffoldBundleCache;
+import org.linghu.experiment.utils.JsonUtils;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
 
+import java.math.BigDecimal;
+import java.time.Duration;
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 
 import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
 /**
@@ -46,6 +64,18 @@ class StudentExperimentServiceImplTest {
     @Mock
     private UserServiceClient userServiceClient;
 
+    @Mock
+    private StudentTaskProgressRepository progressRepository;
+
+    @Mock
+    private StringRedisTemplate redisTemplate;
+
+    @Mock
+    private ScaffoldBundleCache scaffoldBundleCache;
+
+    @Mock
+    private StudentProgressTracker progressTracker;
+
     @InjectMocks
     private StudentExperimentServiceImpl studentExperimentService;
 
@@ -80,6 +110,11 @@ class StudentExperimentServiceImplTest {
                 .createdAt(now)
                 .updatedAt(now)
                 .build();
+
+        // 使用真实的目录缓存：本地缓存立即过期，Redis不可用，每次都查询数据库
+        ReflectionTestUtils.setField(studentExperimentService, "experimentCatalogCache",
+                new ExperimentCatalogCache(experimentRepository, redisTemplate, new ObjectMapper().findAndRegisterModules(),
+                        new SimpleMeterRegistry(), Duration.ZERO, Duration.ofHours(1)));
     }
 
     @Test
@@ -96,6 +131,32 @@ class StudentExperimentServiceImplTest {
         verify(experimentRepository).findByStatus(Experiment.ExperimentStatus.PUBLISHED);
     }
 
+    @Test
+    void getProgressDashboard_ShouldResolveStatusFromProgressRows() {
+        // Given
+        LocalDateTime now = LocalDateTime.now();
+        UserDTO student = new UserDTO();
+        student.setId("user1");
+        when(userServiceClient.getUserByUsernameInExp("student1")).thenReturn(student);
+        // 先创建各行的mock，不能在 thenReturn 的参数中继续打桩
+        StudentTaskProgressRepository.DashboardEntry notSubmitted = dashboardEntry("task1", null, null, null, null);
+        StudentTaskProgressRepository.DashboardEntry evaluated = dashboardEntry("task2", now.minusHours(2),
+                now.minusHours(1), ExperimentEvaluation.EvaluationStatus.COMPLETED, now.minusHours(1));
+        StudentTaskProgressRepository.DashboardEntry resubmitted = dashboardEntry("task3", now.minusMinutes(5),
+                now.minusHours(1), ExperimentEvaluation.EvaluationStatus.COMPLETED, now.minusHours(1));
+        when(progressRepository.findDashboard("user1")).thenReturn(List.of(notSubmitted, evaluated, resubmitted));
+
+        // When
+        List<TaskProgressDTO> result = studentExperimentService.getProgressDashboard("student1");
+
+        // Then：重新提交后尚未评测的任务显示为 SUBMITTED，得分保留上一次评测结果
+        assertEquals(List.of("NOT_SUBMITTED", "SUCCESS", "SUBMITTED"),
+                result.stream().map(TaskProgressDTO::getStatus).toList());
+        assertEquals(new BigDecimal("90.00"), result.get(2).getLatestScore());
+        verify(progressRepository).findDashboard("user1");
+        verifyNoInteractions(submissionRepository, evaluationRepository);
+    }
+
     @Test
     void getStudentExperiments_WithNoExperiments_ShouldReturnEmptyList() {
         // Given
@@ -223,6 +284,37 @@ class StudentExperimentServiceImplTest {
         verify(experimentRepository).findById("nonexistent");
     }
 
+    @Test
+    void getTaskById_WithoutFileContent_ShouldOnlyListScaffoldFiles() throws Exception {
+        // Given
+        when(experimentTaskRepository.findById("task1")).thenReturn(Optional.of(testTask));
+        when(scaffoldBundleCache.listFiles("experiment1", "task1")).thenReturn(List.of(
+                new ScaffoldBundle.ScaffoldFile("src/Main.java", "experiment1/experiment/task1/src/Main.java",
+                        "etag1", 128, null)));
+
+        // When
+        ExperimentTaskDTO result = studentExperimentService.getTaskById("task1", "student1", false);
+
+        // Then
+        assertEquals(1, result.getFiles().size());
+        assertEquals("src/Main.java", result.getFiles().get(0).getFileName());
+        assertEquals(128L, result.getFiles().get(0).getSize());
+        assertNull(result.getFiles().get(0).getContent());
+        verify(scaffoldBundleCache, never()).get(anyString(), anyString());
+    }
+
+    @Test
+    void getTaskFile_WithUnknownPath_ShouldThrowException() throws Exception {
+        // Given
+        when(experimentTaskRepository.findById("task1")).thenReturn(Optional.of(testTask));
+        when(scaffoldBundleCache.getFile("experiment1", "task1", "missing.txt")).thenReturn(null);
+
+        // When & Then
+        RuntimeException exception = assertThrows(RuntimeException.class,
+                () -> studentExperimentService.getTaskFile("task1", "missing.txt", "student1"));
+        assertEquals("任务中不存在该文件", exception.getMessage());
+    }
+
     @Test
     void findTaskById_WithValidId_ShouldReturnTask() {
         // Given
@@ -328,4 +420,137 @@ class StudentExperimentServiceImplTest {
         assertFalse(result.isPresent());
         verify(experimentRepository).findById("");
     }
+
+    @Test
+    void getTaskEvaluationHistory_ShouldReturnCursorForNextPage() {
+        // Given
+        LocalDateTime now = LocalDateTime.now();
+        UserDTO student = new UserDTO();
+        student.setId("user1");
+        when(userServiceClient.getUserByUsernameInExp("student1")).thenReturn(student);
+        ExperimentEvaluationRepository.HistoryEntry newest = historyEntry("eval3", "sub3", now);
+        ExperimentEvaluationRepository.HistoryEntry middle = historyEntry("eval2", "sub2", now.minusMinutes(1));
+        ExperimentEvaluationRepository.HistoryEntry oldest = historyEntry("eval1", "sub1", now.minusMinutes(2));
+        when(evaluationRepository.findHistory(eq("user1"), eq("task1"), any(Pageable.class)))
+                .thenReturn(List.of(newest, middle, oldest));
+        when(evaluationRepository.findHistoryAfter(eq("user1"), eq("task1"), eq(now.minusMinutes(1)), eq("eval2"),
+                any(Pageable.class))).thenReturn(List.of(oldest));
+
+        // When
+        CursorPageResult<ExperimentEvaluationDTO> first = studentExperimentService.getTaskEvaluationHistory(
+                "task1", "student1", null, 2, false);
+        CursorPageResult<ExperimentEvaluationDTO> second = studentExperimentService.getTaskEvaluationHistory(
+                "task1", "student1", first.getNextCursor(), 2, false);
+
+        // Then：多查的一条只用于判断是否还有下一页，下一页从游标所在记录之后继续
+        assertEquals(List.of("eval3", "eval2"), first.getList().stream().map(ExperimentEvaluationDTO::getId).toList());
+        assertTrue(first.isHasMore());
+        assertEquals(List.of("eval1"), second.getList().stream().map(ExperimentEvaluationDTO::getId).toList());
+        assertFalse(second.isHasMore());
+        assertNull(second.getNextCursor());
+        verify(evaluationRepository).findHistory("user1", "task1", PageRequest.of(0, 3));
+        verifyNoInteractions(submissionRepository);
+    }
+
+    @Test
+    void getTaskEvaluationHistory_WithIncludeAnswer_ShouldLoadAnswersOfCurrentPageOnly() {
+        // Given
+        LocalDateTime now = LocalDateTime.now();
+        UserDTO student = new UserDTO();
+        student.setId("user1");
+        when(userServiceClient.getUserByUsernameInExp("student1")).thenReturn(student);
+        ExperimentEvaluationRepository.HistoryEntry newest = historyEntry("eval2", "sub2", now);
+        ExperimentEvaluationRepository.HistoryEntry oldest = historyEntry("eval1", "sub1", now.minusMinutes(1));
+        when(evaluationRepository.findHistory(eq("user1"), eq("task1"), any(Pageable.class)))
+                .thenReturn(List.of(newest, oldest));
+        ExperimentSubmissionRepository.SubmissionAnswer answer = mock(ExperimentSubmissionRepository.SubmissionAnswer.class);
+        when(answer.getId()).thenReturn("sub2");
+        when(answer.getUserAnswer()).thenReturn("print('hello')");
+        when(submissionRepository.findAnswersByIdIn(Set.of("sub2"))).thenReturn(List.of(answer));
+
+        // When
+        CursorPageResult<ExperimentEvaluationDTO> result = studentExperimentService.getTaskEvaluationHistory(
+                "task1", "student1", null, 1, true);
+
+        // Then
+        assertEquals(1, result.getList().size());
+        assertEquals("print('hello')", result.getList().get(0).getUserAnswer());
+        assertTrue(result.isHasMore());
+    }
+
+    @Test
+    void getTaskEvaluationHistory_WithInvalidCursor_ShouldThrowException() {
+        // Given
+        UserDTO student = new UserDTO();
+        student.setId("user1");
+        when(userServiceClient.getUserByUsernameInExp("student1")).thenReturn(student);
+
+        // When & Then
+        RuntimeException exception = assertThrows(RuntimeException.class,
+                () -> studentExperimentService.getTaskEvaluationHistory("task1", "student1", "not-a-cursor", 20, false));
+        assertEquals("无效的分页游标", exception.getMessage());
+        verifyNoInteractions(evaluationRepository);
+    }
+
+    @Test
+    void submitTask_WithMapAnswerWithoutFiles_ShouldDropServerOwnedFields() {
+        // Given：客户端在答案中伪造了文件路径和内容哈希
+        UserDTO student = new UserDTO();
+        student.setId("user1");
+        when(userServiceClient.getUserByUsernameInExp("student1")).thenReturn(student);
+        when(experimentTaskRepository.findById("task1")).thenReturn(Optional.of(testTask));
+        when(submissionRepository.save(any(ExperimentSubmission.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        SubmissionRequestDTO request = SubmissionRequestDTO.builder()
+                .taskId("task1")
+                .experimentId("experiment1")
+                .userAnswer(Map.of(
+                        "taskId", "task1",
+                        "experimentId", "experiment1",
+                        "note", "见附件",
+                        "paths", List.of("experiment1/other-user/main.c"),
+                        "archive", "experiment1/other-user/submission.tar",
+                        "contentHashes", Map.of("main.c", "0".repeat(64))))
+                .build();
+
+        // When
+        studentExperimentService.submitTask(request, "student1");
+
+        // Then：只保存客户端自己的字段
+        ArgumentCaptor<ExperimentSubmission> captor = ArgumentCaptor.forClass(ExperimentSubmission.class);
+        verify(submissionRepository).save(captor.capture());
+        Map<?, ?> stored = JsonUtils.parseObject(captor.getValue().getUserAnswer(), Map.class);
+        assertEquals("见附件", stored.get("note"));
+        assertFalse(stored.containsKey("paths"));
+        assertFalse(stored.containsKey("archive"));
+        assertFalse(stored.containsKey("contentHashes"));
+        verify(progressTracker).recordSubmission(captor.getValue());
+    }
+
+    private static ExperimentEvaluationRepository.HistoryEntry historyEntry(String id, String submissionId,
+                                                                           LocalDateTime createdTime) {
+        ExperimentEvaluationRepository.HistoryEntry entry = mock(ExperimentEvaluationRepository.HistoryEntry.class);
+        lenient().when(entry.getId()).thenReturn(id);
+        lenient().when(entry.getSubmissionId()).thenReturn(submissionId);
+        lenient().when(entry.getUserId()).thenReturn("user1");
+        lenient().when(entry.getTaskId()).thenReturn("task1");
+        lenient().when(entry.getCreatedTime()).thenReturn(createdTime);
+        return entry;
+    }
+
+    private static StudentTaskProgressRepository.DashboardEntry dashboardEntry(
+            String taskId, LocalDateTime submitTime, LocalDateTime evaluationTime,
+            ExperimentEvaluation.EvaluationStatus status, LocalDateTime queuedTime) {
+        StudentTaskProgressRepository.DashboardEntry entry = mock(StudentTaskProgressRepository.DashboardEntry.class);
+        lenient().when(entry.getTaskId()).thenReturn(taskId);
+        lenient().when(entry.getLatestSubmitTime()).thenReturn(submitTime);
+        lenient().when(entry.getSubmissionCount()).thenReturn(submitTime != null ? 1 : 0);
+        if (status != null) {
+            lenient().when(entry.getLatestEvaluationId()).thenReturn("eval-" + taskId);
+            lenient().when(entry.getLatestEvaluationTime()).thenReturn(evaluationTime);
+            lenient().when(entry.getLatestScore()).thenReturn(new BigDecimal("90.00"));
+            lenient().when(entry.getLatestStatus()).thenReturn(status);
+            lenient().when(entry.getLatestQueuedTime()).thenReturn(queuedTime);
+        }
+        return entry;
+    }
 }
@@ -0,0 +1,169 @@
+package org.linghu.experiment.utils;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.minio.GetObjectArgs;
+import io.minio.GetObjectResponse;
+import io.minio.ListObjectsArgs;
+import io.minio.MinioClient;
+import io.minio.RemoveObjectsArgs;
+import io.minio.Result;
+import io.minio.messages.DeleteError;
+import io.minio.messages.DeleteObject;
+import io.minio.messages.Item;
+import okhttp3.Headers;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.linghu.experiment.config.MinioConfig;
+import org.linghu.experiment.dto.SourceCodeFileDTO;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * MinioUtil 并行读取、归档范围读取与分批删除测试
+ */
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class MinioUtilTest {
+
+    private static final String BASE_PATH = "user1/exp1/task1/20240101/project/";
+
+    @Mock
+    private MinioClient minioClient;
+
+    @Mock
+    private MinioConfig minioConfig;
+
+    private SimpleMeterRegistry meterRegistry;
+    private MinioUtil minioUtil;
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicInteger maxInFlight = new AtomicInteger();
+
+    @BeforeEach
+    void setUp() throws Exception {
+        when(minioConfig.getFetchConcurrency()).thenReturn(2);
+        meterRegistry = new SimpleMeterRegistry();
+        minioUtil = new MinioUtil(minioClient, minioConfig, meterRegistry);
+
+        // 对象内容为对象名本身；文件名越靠前响应越慢，用于验证结果顺序
+        when(minioClient.getObject(any(GetObjectArgs.class))).thenAnswer(invocation -> {
+            GetObjectArgs args = invocation.getArgument(0);
+            int current = inFlight.incrementAndGet();
+            maxInFlight.accumulateAndGet(current, Math::max);
+            try {
+                Thread.sleep(args.object().endsWith("0.c") ? 80 : 10);
+            } finally {
+                inFlight.decrementAndGet();
+            }
+            byte[] content = args.object().getBytes(StandardCharsets.UTF_8);
+            return new GetObjectResponse(Headers.of(), args.bucket(), null, args.object(),
+                    new ByteArrayInputStream(content));
+        });
+    }
+
+    @AfterEach
+    void tearDown() {
+        minioUtil.shutdown();
+    }
+
+    @Test
+    void downloadFilesAsStrings_ShouldKeepOrderAndBoundConcurrency() throws Exception {
+        // Given
+        List<String> paths = List.of(BASE_PATH + "f0.c", BASE_PATH + "f1.c", BASE_PATH + "f2.c",
+                BASE_PATH + "f3.c", BASE_PATH + "f4.c");
+
+        // When
+        List<String> contents = minioUtil.downloadFilesAsStrings(paths, 1024);
+
+        // Then
+        assertEquals(paths, contents);
+        assertTrue(maxInFlight.get() <= 2);
+        assertEquals(5, meterRegistry.get("minio.fetch").timer().count());
+    }
+
+    @Test
+    void downloadFilesAsStrings_WhenBudgetExceeded_ShouldFail() {
+        // Given
+        List<String> paths = List.of(BASE_PATH + "f1.c", BASE_PATH + "f2.c");
+        long budget = (BASE_PATH + "f1.c").length() + 5;
+
+        // When & Then
+        RuntimeException exception = assertThrows(RuntimeException.class,
+                () -> minioUtil.downloadFilesAsStrings(paths, budget));
+        assertTrue(exception.getMessage().contains("提交文件总大小超过限制"));
+    }
+
+    @Test
+    void downloadSubmissionArchiveEntry_ShouldOnlyReadEntryRange() throws Exception {
+        // Given
+        SubmissionArchive.Packed packed = SubmissionArchive.pack(List.of(
+                SourceCodeFileDTO.builder().fileName("a.c").content("int a;\n").build(),
+                SourceCodeFileDTO.builder().fileName("b.c").content("int b;\n").build()));
+        when(minioClient.getObject(any(GetObjectArgs.class))).thenAnswer(invocation -> {
+            GetObjectArgs args = invocation.getArgument(0);
+            return new GetObjectResponse(Headers.of(), args.bucket(), null, args.object(),
+                    new ByteArrayInputStream(packed.data(), args.offset().intValue(), args.length().intValue()));
+        });
+        SubmissionArchive.Entry entry = packed.entries().get(1);
+
+        // When
+        String content = minioUtil.downloadSubmissionArchiveEntry("user1/exp1/task1/20240101/submission.gz",
+                entry, 1024);
+
+        // Then
+        assertEquals("int b;\n", content);
+        verify(minioClient).getObject(argThat((GetObjectArgs args) ->
+                args.offset() == entry.offset() && args.length() == entry.length()));
+    }
+
+    @Test
+    void deleteByPrefixInBucket_ShouldDeleteInBatchesAndReportFailures() throws Exception {
+        // Given：2500 个对象，其中一个删除失败
+        List<Result<Item>> items = new ArrayList<>();
+        for (int i = 0; i < 2500; i++) {
+            Item item = mock(Item.class);
+            when(item.objectName()).thenReturn("exp1/resource/f" + i);
+            items.add(new Result<>(item));
+        }
+        when(minioClient.listObjects(any(ListObjectsArgs.class))).thenReturn(items);
+        DeleteError error = mock(DeleteError.class);
+        when(error.objectName()).thenReturn("exp1/resource/f7");
+        when(error.message()).thenReturn("Access Denied");
+        List<Integer> batchSizes = new ArrayList<>();
+        when(minioClient.removeObjects(any(RemoveObjectsArgs.class))).thenAnswer(invocation -> {
+            RemoveObjectsArgs args = invocation.getArgument(0);
+            List<DeleteObject> objects = new ArrayList<>();
+            args.objects().forEach(objects::add);
+            batchSizes.add(objects.size());
+            return batchSizes.size() == 1 ? List.of(new Result<>(error)) : List.of();
+        });
+        Map<String, String> failures = new ConcurrentHashMap<>();
+
+        // When
+        long deleted = minioUtil.deleteByPrefixInBucket("resource", "exp1/",
+                (count, batchFailures) -> failures.putAll(batchFailures));
+
+        // Then
+        assertEquals(List.of(1000, 1000, 500), batchSizes);
+        assertEquals(2499, deleted);
+        assertEquals(Map.of("exp1/resource/f7", "Access Denied"), failures);
+    }
+}
@@ -0,0 +1,93 @@
+package org.linghu.experiment.utils;
+
+import org.junit.jupiter.api.Test;
+import org.linghu.experiment.dto.SourceCodeFileDTO;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * SubmissionArchive 单元测试
+ */
+class SubmissionArchiveTest {
+
+    private static final List<SourceCodeFileDTO> FILES = List.of(
+            SourceCodeFileDTO.builder().fileName("project/src/main.c").content("int main() { return 0; }\n").build(),
+            SourceCodeFileDTO.builder().fileName("project/README.md").content("排序实验\n".repeat(100)).build(),
+            SourceCodeFileDTO.builder().fileName("project/ignored.c").build());
+
+    @Test
+    void pack_ShouldRoundTripAllFilesInOrder() throws Exception {
+        // When
+        SubmissionArchive.Packed packed = SubmissionArchive.pack(FILES);
+        List<String> contents = SubmissionArchive.unpack(packed.data(), packed.entries(), 1024 * 1024);
+
+        // Then：内容为空的文件被跳过，文件名去掉项目根目录
+        assertEquals(List.of("src/main.c", "README.md"),
+                packed.entries().stream().map(SubmissionArchive.Entry::name).toList());
+        assertEquals(List.of(FILES.get(0).getContent(), FILES.get(1).getContent()), contents);
+        assertEquals(FILES.get(1).getContent().getBytes(StandardCharsets.UTF_8).length,
+                packed.entries().get(1).size());
+    }
+
+    @Test
+    void inflate_WithEntryRange_ShouldReadSingleFile() throws Exception {
+        // Given
+        SubmissionArchive.Packed packed = SubmissionArchive.pack(FILES);
+        SubmissionArchive.Entry entry = packed.entries().get(1);
+
+        // When
+        byte[] content = SubmissionArchive.inflate(new ByteArrayInputStream(packed.data(),
+                (int) entry.offset(), (int) entry.length()), 1024 * 1024);
+
+        // Then
+        assertEquals(FILES.get(1).getContent(), new String(content, StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void pack_ShouldProduceValidMultiMemberGzip() throws Exception {
+        // Given
+        SubmissionArchive.Packed packed = SubmissionArchive.pack(FILES);
+
+        // When
+        byte[] all;
+        try (GZIPInputStream gzip = new GZIPInputStream(new ByteArrayInputStream(packed.data()))) {
+            all = gzip.readAllBytes();
+        }
+
+        // Then
+        assertEquals(FILES.get(0).getContent() + FILES.get(1).getContent(), new String(all, StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void unpack_WhenBudgetExceeded_ShouldFail() throws Exception {
+        // Given
+        SubmissionArchive.Packed packed = SubmissionArchive.pack(FILES);
+
+        // When & Then
+        IOException exception = assertThrows(IOException.class,
+                () -> SubmissionArchive.unpack(packed.data(), packed.entries(), 100));
+        assertTrue(exception.getMessage().contains("提交文件总大小超过限制"));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void entries_ShouldReadManifestSavedAsJson() throws Exception {
+        // Given
+        SubmissionArchive.Packed packed = SubmissionArchive.pack(FILES);
+        String userAnswer = JsonUtils.toJsonString(SubmissionArchive.manifest("u/e/t/ts/submission.gz", packed.entries()));
+
+        // When
+        Map<String, Object> answerData = JsonUtils.parseObject(userAnswer, Map.class);
+
+        // Then
+        assertEquals(packed.entries(), SubmissionArchive.entries(answerData).orElseThrow());
+        assertTrue(SubmissionArchive.entries(Map.of("paths", List.of("a.c"))).isEmpty());
+    }
+}
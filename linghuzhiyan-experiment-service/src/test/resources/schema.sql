@@ -32,6 +32,7 @@ CREATE TABLE IF NOT EXISTS experiment_task (
     title VARCHAR(100) NOT NULL,
     description CLOB,
     question_ids CLOB,
+    judge_config CLOB,
     required BOOLEAN DEFAULT TRUE,
     order_num INT DEFAULT 0,
     task_type VARCHAR(20) DEFAULT 'OTHER',
@@ -81,6 +82,33 @@ CREATE TABLE IF NOT EXISTS experiment_evaluation (
     execution_time BIGINT,
     memory_usage BIGINT,
     user_answer CLOB,
+    case_results CLOB,
+    content_hash VARCHAR(64),
+    priority INT,
+    queued_time TIMESTAMP,
+    started_time TIMESTAMP,
+    finished_time TIMESTAMP,
+    background BOOLEAN,
+    lease_owner VARCHAR(36),
+    lease_until TIMESTAMP,
     created_time TIMESTAMP NOT NULL,
     updated_time TIMESTAMP
     );
+
+-- 创建学生任务进度表
+CREATE TABLE IF NOT EXISTS student_task_progress (
+                                                     id VARCHAR(36) PRIMARY KEY,
+    user_id VARCHAR(36) NOT NULL,
+    task_id VARCHAR(36) NOT NULL,
+    latest_submission_id VARCHAR(36),
+    latest_submit_time TIMESTAMP,
+    submission_count INT NOT NULL DEFAULT 0,
+    latest_evaluation_id VARCHAR(36),
+    latest_evaluation_time TIMESTAMP,
+    latest_score DECIMAL(5,2),
+    latest_status VARCHAR(20),
+    latest_queued_time TIMESTAMP,
+    created_time TIMESTAMP NOT NULL,
+    updated_time TIMESTAMP,
+    UNIQUE (user_id, task_id)
+    );
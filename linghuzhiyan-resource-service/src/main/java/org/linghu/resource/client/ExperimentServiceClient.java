@@ -5,6 +5,7 @@ import org.linghu.resource.dto.Result;
 import org.springframework.cloud.openfeign.FeignClient;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
 
 /**
  * 实验服务Feign客户端
@@ -29,4 +30,14 @@ public interface ExperimentServiceClient {
      */
     @GetMapping("/{experimentId}/exists")
     Result<Boolean> experimentExists(@PathVariable("experimentId") String experimentId);
+
+    /**
+     * 使实验的评测结果缓存失效 - 内部接口
+     * 实验的脚手架文件或测试数据变化后调用
+     *
+     * @param experimentId 实验ID
+     * @return 操作结果
+     */
+    @PostMapping("/{experimentId}/evaluation-cache/invalidate")
+    Result<Void> invalidateEvaluationCache(@PathVariable("experimentId") String experimentId);
 }
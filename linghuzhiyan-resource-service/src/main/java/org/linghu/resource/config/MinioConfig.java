@@ -34,6 +34,11 @@ public class MinioConfig {
      */
     private String bucketName = "linghuzhiyan";
 
+    /**
+     * 压缩包解压配置
+     */
+    private Extract extract = new Extract();
+
 //    /**
 //     * 资源存储桶
 //     */
@@ -57,4 +62,25 @@ public class MinioConfig {
                 .build();
     }
 
+    /**
+     * 压缩包流式解压配置
+     */
+    @Data
+    public static class Extract {
+
+        /**
+         * 解压后的文件总字节数上限
+         */
+        private long maxTotalBytes = 500L * 1024 * 1024;
+
+        /**
+         * 压缩包中的最大文件数（包括目录）
+         */
+        private int maxEntries = 10000;
+
+        /**
+         * 同时进行的小文件上传数
+         */
+        private int uploadConcurrency = 4;
+    }
 }
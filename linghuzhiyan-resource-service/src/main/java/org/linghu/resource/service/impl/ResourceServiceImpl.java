@@ -17,6 +17,7 @@ import org.springframework.transaction.annotation.Transactional;
 import org.springframework.util.StringUtils;
 import org.springframework.web.multipart.MultipartFile;
 
+import java.io.InputStream;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.UUID;
@@ -76,13 +77,15 @@ public class ResourceServiceImpl implements ResourceService {
                         Boolean.TRUE.equals(requestDTO.getAutoExtract()) &&
                         minioUtil.isCompressedFile(originalFilename);
                 if (shouldAutoExtract) {
-                    // 自动解压压缩包
-                    uploadedPaths = minioUtil.extractAndUploadCompressedFile(
-                            requestDTO.getExperimentId(),
-                            requestDTO.getTaskId(),
-                            file.getInputStream(),
-                            originalFilename,
-                            file.getContentType());
+                    // 自动解压压缩包，边读边解压上传，不把整个压缩包读入内存
+                    try (InputStream archive = file.getInputStream()) {
+                        uploadedPaths = minioUtil.extractAndUploadCompressedFile(
+                                requestDTO.getExperimentId(),
+                                requestDTO.getTaskId(),
+                                archive,
+                                originalFilename,
+                                file.getContentType());
+                    }
 
                     // 如果成功解压了文件，使用第一个解压文件的路径作为主要路径
                     if (!uploadedPaths.isEmpty()) {
@@ -127,6 +130,11 @@ public class ResourceServiceImpl implements ResourceService {
 
             Resource savedResource = resourceRepository.save(resource);
 
+            // 脚手架文件变化后，该实验已有的评测结果不再复用
+            if (requestDTO.getExperimentId() != null && "experiment".equals(requestDTO.getUploadType())) {
+                invalidateEvaluationCache(requestDTO.getExperimentId());
+            }
+
             // 如果有多个文件（解压情况），创建额外的记录
             if (uploadedPaths.size() > 1) {
                 for (int i = 1; i < uploadedPaths.size(); i++) {
@@ -186,6 +194,12 @@ public class ResourceServiceImpl implements ResourceService {
 
         // 删除数据库记录
         resourceRepository.delete(resource);
+
+        // 删除的是实验脚手架文件（{experimentId}/experiment/...）时刷新评测缓存
+        if (resource.getExperimentId() != null && resource.getResourcePath() != null
+                && resource.getResourcePath().startsWith(resource.getExperimentId() + "/experiment/")) {
+            invalidateEvaluationCache(resource.getExperimentId());
+        }
     }
 
     @Override
@@ -570,4 +584,18 @@ public class ResourceServiceImpl implements ResourceService {
 
         }
     }
+
+    /**
+     * 通知实验服务使评测结果缓存失效，失败时仅记录日志
+     * 实验服务会同时根据脚手架文件的ETag识别变化，通知失败不影响评测正确性
+     *
+     * @param experimentId 实验ID
+     */
+    private void invalidateEvaluationCache(String experimentId) {
+        try {
+            experimentServiceClient.invalidateEvaluationCache(experimentId);
+        } catch (Exception e) {
+            System.err.println("通知实验服务刷新评测缓存失败: " + e.getMessage());
+        }
+    }
 }
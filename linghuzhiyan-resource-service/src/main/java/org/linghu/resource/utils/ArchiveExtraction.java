@@ -0,0 +1,20 @@
+package org.linghu.resource.utils;
+
+import java.util.List;
+
+/**
+ * 压缩包解压上传结果
+ *
+ * @param files             解压出的文件对象路径，按压缩包中的顺序排列
+ * @param originalPath      原始压缩包的对象路径
+ * @param sha256            原始压缩包的SHA-256（十六进制）
+ * @param archiveBytes      原始压缩包字节数
+ * @param uncompressedBytes 解压后的文件总字节数
+ */
+public record ArchiveExtraction(List<String> files, String originalPath, String sha256,
+                                long archiveBytes, long uncompressedBytes) {
+
+    public ArchiveExtraction {
+        files = List.copyOf(files);
+    }
+}
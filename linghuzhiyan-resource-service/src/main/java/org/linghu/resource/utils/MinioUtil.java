@@ -2,7 +2,10 @@ package org.linghu.resource.utils;
 
 import io.minio.*;
 import io.minio.http.Method;
+import io.minio.messages.DeleteError;
+import io.minio.messages.DeleteObject;
 import io.minio.messages.Item;
+import jakarta.annotation.PreDestroy;
 import org.apache.commons.compress.archivers.tar.TarArchiveEntry;
 import org.apache.commons.compress.archivers.tar.TarArchiveInputStream;
 import org.apache.commons.compress.archivers.zip.ZipArchiveEntry;
@@ -14,13 +17,13 @@ import org.springframework.core.io.InputStreamResource;
 import org.springframework.stereotype.Component;
 import org.springframework.web.multipart.MultipartFile;
 
-import java.io.ByteArrayInputStream;
-import java.io.ByteArrayOutputStream;
-import java.io.InputStream;
+import java.io.*;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.*;
-import java.util.concurrent.TimeUnit;
+import java.util.concurrent.*;
 
 /**
  * MinIO操作工具类 - 提供基于MinIO的文件存储操作
@@ -45,12 +48,29 @@ public class MinioUtil {
     // 时间戳格式
     private static final String TIMESTAMP_FORMAT = "yyyyMMdd-HHmmss";
 
+    // 解压时缓存后并行上传的单个文件大小上限，更大的文件直接分片上传（也是未知大小对象的分片大小）
+    private static final int ENTRY_BUFFER_SIZE = 5 * 1024 * 1024;
+
+    // 一次多对象删除请求最多包含的对象数（S3接口上限）
+    private static final int MAX_DELETE_BATCH = 1000;
+
+    // 边解压边上传原始压缩包时管道的缓冲区大小
+    private static final int PIPE_BUFFER_SIZE = 64 * 1024;
+
+    // 解压时并行上传使用的虚拟线程执行器，并发数由每次解压的上传窗口限制
+    private final ExecutorService uploadExecutor = Executors.newVirtualThreadPerTaskExecutor();
+
     @Autowired
     public MinioUtil(MinioClient minioClient, MinioConfig minioConfig) {
         this.minioClient = minioClient;
         this.minioConfig = minioConfig;
     }
 
+    @PreDestroy
+    public void shutdown() {
+        uploadExecutor.shutdownNow();
+    }
+
     /**
      * 确保MinIO存储桶存在，如不存在则创建
      * 
@@ -424,11 +444,13 @@ public class MinioUtil {
     private String uploadToBucket(String bucketName, String objectName, InputStream inputStream,
             long size, String contentType) throws Exception {
         ensureBucketExists();
+        // 大小未知时按固定分片大小分片上传
+        long partSize = size < 0 ? ENTRY_BUFFER_SIZE : -1;
         minioClient.putObject(
                 PutObjectArgs.builder()
                         .bucket(bucketName)
                         .object(objectName)
-                        .stream(inputStream, size, -1)
+                        .stream(inputStream, size, partSize)
                         .contentType(contentType)
                         .build());
 
@@ -914,7 +936,9 @@ public class MinioUtil {
         return lowerFilename.endsWith(".zip") || lowerFilename.endsWith(".rar") || 
                lowerFilename.endsWith(".7z") || lowerFilename.endsWith(".tar") || 
                lowerFilename.endsWith(".gz") || lowerFilename.endsWith(".tar.gz");
-    }    /**
+    }
+
+    /**
      * 自动解压压缩包并上传所有文件，保持目录结构
      * 
      * @param experimentId 实验ID
@@ -922,161 +946,218 @@ public class MinioUtil {
      * @param compressedFile 压缩文件流
      * @param filename 压缩文件名
      * @param contentType 压缩文件类型
-     * @return 解压出的文件路径列表
+     * @return 解压出的文件路径列表（最后一项为原始压缩包路径）
      * @throws Exception 如果解压或上传失败
      */
     public List<String> extractAndUploadCompressedFile(String experimentId, String taskId, 
             InputStream compressedFile, String filename, String contentType) throws Exception {
-        
-        List<String> uploadedFiles = new ArrayList<>();
-        
-        // 首先读取原始压缩文件内容
-        byte[] compressedData = readAllBytes(compressedFile);
-        
-        // 生成基础路径
+        ArchiveExtraction extraction = extractAndUploadArchive(experimentId, taskId, compressedFile,
+                filename, contentType);
+        List<String> uploadedFiles = new ArrayList<>(extraction.files());
+        uploadedFiles.add(extraction.originalPath());
+        return uploadedFiles;
+    }
+
+    /**
+     * 流式解压压缩包并上传所有文件，同时上传原始压缩包并计算其SHA-256
+     * <p>
+     * 压缩包只顺序读取一遍，不在内存中保存整个压缩包或大文件：读取的字节同时送入原始压缩包的上传和哈希计算；
+     * 不超过 {@link #ENTRY_BUFFER_SIZE} 的小文件缓存后并行上传，同时进行的上传数由 minio.extract.upload-concurrency 限制，
+     * 更大的文件直接以分片上传的方式从压缩包流中写入MinIO。
+     * 解压后的总字节数和文件数分别受 minio.extract.max-total-bytes 和 minio.extract.max-entries 限制，防止压缩炸弹。
+     * 任何一步失败时删除本次已上传的文件，不完整的原始压缩包不会写入。
+     *
+     * @param experimentId 实验ID
+     * @param taskId 任务ID（可选）
+     * @param compressedFile 压缩文件流（不会被关闭）
+     * @param filename 压缩文件名
+     * @param contentType 压缩文件类型
+     * @return 解压上传结果
+     * @throws Exception 如果解压或上传失败
+     */
+    public ArchiveExtraction extractAndUploadArchive(String experimentId, String taskId,
+            InputStream compressedFile, String filename, String contentType) throws Exception {
         String basePath = generateExperimentResourceBasePath(experimentId, taskId);
-        
-        // 根据文件扩展名确定解压方式
+        String originalPath = basePath + "original/" + generateUniqueFileName(filename);
         String lowerFilename = filename.toLowerCase();
-        
+
+        ExtractionContext context = new ExtractionContext(basePath);
+        MessageDigest digest = MessageDigest.getInstance("SHA-256");
+        AbortablePipedInputStream originalIn = new AbortablePipedInputStream(PIPE_BUFFER_SIZE);
+        PipedOutputStream originalOut = new PipedOutputStream(originalIn);
+        Future<String> originalUpload = uploadExecutor.submit(() -> {
+            try (originalIn) {
+                return uploadToResourceBucket(originalPath, originalIn, -1, contentType);
+            }
+        });
+
         try {
+            TeeInputStream archive = new TeeInputStream(new DigestInputStream(compressedFile, digest), originalOut);
             if (lowerFilename.endsWith(".zip")) {
-                uploadedFiles.addAll(extractZipFile(new ByteArrayInputStream(compressedData), basePath));
+                extractZipFile(archive, context);
             } else if (lowerFilename.endsWith(".tar") || lowerFilename.endsWith(".tar.gz")) {
-                uploadedFiles.addAll(extractTarFile(new ByteArrayInputStream(compressedData), basePath, lowerFilename.endsWith(".gz")));
-            } else if (lowerFilename.endsWith(".gz") && !lowerFilename.endsWith(".tar.gz")) {
-                uploadedFiles.addAll(extractGzFile(new ByteArrayInputStream(compressedData), basePath, filename));
+                extractTarFile(archive, context, lowerFilename.endsWith(".gz"));
+            } else if (lowerFilename.endsWith(".gz")) {
+                extractGzFile(archive, context, filename);
             } else {
                 throw new UnsupportedOperationException("不支持的压缩格式: " + filename);
             }
-            
-            // 同时保存原始压缩包
-            String compressedFilePath = uploadOriginalCompressedFile(experimentId, taskId, 
-                    new ByteArrayInputStream(compressedData), filename, contentType, compressedData.length);
-            uploadedFiles.add(compressedFilePath);
-            
+            // 解压结束后读完压缩包的剩余字节（如ZIP的中央目录），保证哈希和原始压缩包完整
+            archive.transferTo(OutputStream.nullOutputStream());
+            originalOut.close();
+
+            context.awaitUploads();
+            originalUpload.get();
+            String sha256 = HexFormat.of().formatHex(digest.digest());
+            return new ArchiveExtraction(context.files, originalPath, sha256, archive.bytesRead,
+                    context.uncompressedBytes);
         } catch (Exception e) {
-            throw new Exception("解压文件失败: " + e.getMessage(), e);
+            Exception failure = abortExtraction(context, originalIn, originalOut, originalUpload, e);
+            throw new Exception("解压文件失败: " + failure.getMessage(), failure);
         }
-        
-        return uploadedFiles;
     }
 
     /**
-     * 解压ZIP文件
+     * 解压失败后中止原始压缩包的上传，等待进行中的文件上传结束并删除已上传的对象
+     * <p>
+     * 原始压缩包的上传失败时，解压线程只会在写入管道时看到 "Pipe closed"，此时以上传失败的原因作为真正的原因。
+     *
+     * @return 应当报告的失败原因，清理失败的异常附加在其中
      */
-    private List<String> extractZipFile(InputStream zipStream, String basePath) throws Exception {
-        List<String> uploadedFiles = new ArrayList<>();
-          try (ZipArchiveInputStream zis = new ZipArchiveInputStream(zipStream)) {
-            ZipArchiveEntry entry;
-            while ((entry = (ZipArchiveEntry) zis.getNextEntry()) != null) {
-                if (!entry.isDirectory()) {
-                    String entryPath = basePath + entry.getName();
-                    
-                    // 读取文件内容
-                    ByteArrayOutputStream baos = new ByteArrayOutputStream();
-                    byte[] buffer = new byte[1024];
-                    int len;
-                    while ((len = zis.read(buffer)) > 0) {
-                        baos.write(buffer, 0, len);
-                    }
-                    
-                    // 上传文件到MinIO
-                    InputStream fileStream = new ByteArrayInputStream(baos.toByteArray());
-                    String mimeType = detectMimeTypeFromFilename(entry.getName());
-                    String uploadedPath = uploadToResourceBucket(entryPath, fileStream, 
-                            baos.size(), mimeType);
-                    
-                    // 添加元数据记录目录结构
-                    addDirectoryMetadata(uploadedPath, entry.getName(), "extracted_from_zip");
-                    
-                    uploadedFiles.add(uploadedPath);
+    private Exception abortExtraction(ExtractionContext context, AbortablePipedInputStream originalIn,
+            PipedOutputStream originalOut, Future<String> originalUpload, Exception error) {
+        Exception failure = error instanceof ExecutionException && error.getCause() instanceof Exception cause
+                ? cause : error;
+
+        // 先标记中止再关闭管道，上传线程读到结尾时失败，不会把不完整的压缩包作为完整对象上传
+        originalIn.abort();
+        try {
+            originalOut.close();
+        } catch (IOException ignored) {
+            // 管道已关闭
+        }
+        List<String> written = new ArrayList<>();
+        try {
+            written.add(originalUpload.get());
+        } catch (ExecutionException e) {
+            if (!isAborted(e.getCause()) && e.getCause() instanceof Exception cause) {
+                if (cause != failure) {
+                    cause.addSuppressed(failure);
                 }
+                failure = cause;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            failure.addSuppressed(e);
+        }
+
+        // 进行中的文件上传不超过上传窗口大小，等待结束后一起删除
+        written.addAll(context.awaitUploadedObjects());
+        try {
+            deleteObjects(RESOURCE_BUCKET, written);
+        } catch (Exception e) {
+            failure.addSuppressed(e);
+        }
+        return failure;
+    }
+
+    private static boolean isAborted(Throwable error) {
+        for (Throwable current = error; current != null; current = current.getCause()) {
+            if (current instanceof ArchiveAbortedException) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 批量删除指定的对象
+     *
+     * @throws Exception 如果发送删除请求失败或有对象删除失败
+     */
+    private void deleteObjects(String bucketName, List<String> objectNames) throws Exception {
+        Map<String, String> failures = new LinkedHashMap<>();
+        for (int from = 0; from < objectNames.size(); from += MAX_DELETE_BATCH) {
+            List<DeleteObject> batch = objectNames.subList(from, Math.min(from + MAX_DELETE_BATCH, objectNames.size()))
+                    .stream()
+                    .map(DeleteObject::new)
+                    .toList();
+            // removeObjects 是惰性的，遍历结果时才真正发送请求；结果中只包含删除失败的对象
+            for (Result<DeleteError> result : minioClient.removeObjects(RemoveObjectsArgs.builder()
+                    .bucket(bucketName)
+                    .objects(batch)
+                    .build())) {
+                DeleteError deleteError = result.get();
+                failures.put(deleteError.objectName(), deleteError.message());
+            }
+        }
+        if (!failures.isEmpty()) {
+            throw new IOException("清理已上传的文件失败: " + failures);
+        }
+    }
+
+    /**
+     * 解压ZIP文件
+     */
+    private void extractZipFile(InputStream zipStream, ExtractionContext context) throws Exception {
+        ZipArchiveInputStream zis = new ZipArchiveInputStream(zipStream);
+        ZipArchiveEntry entry;
+        while ((entry = (ZipArchiveEntry) zis.getNextEntry()) != null) {
+            context.countEntry();
+            if (!entry.isDirectory()) {
+                uploadEntry(context, entry.getName(), zis, "extracted_from_zip");
             }
         }
-        
-        return uploadedFiles;
     }
 
     /**
      * 解压TAR文件
      */
-    private List<String> extractTarFile(InputStream tarStream, String basePath, boolean isGzipped) throws Exception {
-        List<String> uploadedFiles = new ArrayList<>();
-        
+    private void extractTarFile(InputStream tarStream, ExtractionContext context, boolean isGzipped) throws Exception {
         InputStream inputStream = isGzipped ? new GzipCompressorInputStream(tarStream) : tarStream;
-          try (TarArchiveInputStream tis = new TarArchiveInputStream(inputStream)) {
-            TarArchiveEntry entry;
-            while ((entry = (TarArchiveEntry) tis.getNextEntry()) != null) {
-                if (!entry.isDirectory()) {
-                    String entryPath = basePath + entry.getName();
-                    
-                    // 读取文件内容
-                    ByteArrayOutputStream baos = new ByteArrayOutputStream();
-                    byte[] buffer = new byte[1024];
-                    int len;
-                    while ((len = tis.read(buffer)) > 0) {
-                        baos.write(buffer, 0, len);
-                    }
-                    
-                    // 上传文件到MinIO
-                    InputStream fileStream = new ByteArrayInputStream(baos.toByteArray());
-                    String mimeType = detectMimeTypeFromFilename(entry.getName());
-                    String uploadedPath = uploadToResourceBucket(entryPath, fileStream, 
-                            baos.size(), mimeType);
-                    
-                    // 添加元数据记录目录结构
-                    addDirectoryMetadata(uploadedPath, entry.getName(), "extracted_from_tar");
-                    
-                    uploadedFiles.add(uploadedPath);
-                }
+        TarArchiveInputStream tis = new TarArchiveInputStream(inputStream);
+        TarArchiveEntry entry;
+        while ((entry = (TarArchiveEntry) tis.getNextEntry()) != null) {
+            context.countEntry();
+            if (entry.isFile()) {
+                uploadEntry(context, entry.getName(), tis, "extracted_from_tar");
             }
         }
-        
-        return uploadedFiles;
     }
 
     /**
      * 解压GZ文件（单文件压缩）
      */
-    private List<String> extractGzFile(InputStream gzStream, String basePath, String originalFilename) throws Exception {
-        List<String> uploadedFiles = new ArrayList<>();
-        
+    private void extractGzFile(InputStream gzStream, ExtractionContext context, String originalFilename)
+            throws Exception {
         // 移除.gz扩展名得到原始文件名
-        String extractedFilename = originalFilename.substring(0, originalFilename.lastIndexOf(".gz"));
-        String entryPath = basePath + extractedFilename;
-        
-        try (GzipCompressorInputStream gis = new GzipCompressorInputStream(gzStream)) {
-            // 读取解压后的内容
-            ByteArrayOutputStream baos = new ByteArrayOutputStream();
-            byte[] buffer = new byte[1024];
-            int len;
-            while ((len = gis.read(buffer)) > 0) {
-                baos.write(buffer, 0, len);
-            }
-            
-            // 上传文件到MinIO
-            InputStream fileStream = new ByteArrayInputStream(baos.toByteArray());
-            String mimeType = detectMimeTypeFromFilename(extractedFilename);
-            String uploadedPath = uploadToResourceBucket(entryPath, fileStream, 
-                    baos.size(), mimeType);
-            
-            // 添加元数据记录目录结构
-            addDirectoryMetadata(uploadedPath, extractedFilename, "extracted_from_gz");
-            
-            uploadedFiles.add(uploadedPath);
-        }
-        
-        return uploadedFiles;
-    }    /**
-     * 上传原始压缩文件
+        String extractedFilename = originalFilename.substring(0, originalFilename.toLowerCase().lastIndexOf(".gz"));
+        context.countEntry();
+        uploadEntry(context, extractedFilename, new GzipCompressorInputStream(gzStream), "extracted_from_gz");
+    }
+
+    /**
+     * 上传压缩包中的单个文件：小文件缓存后交给上传窗口并行上传，大文件直接从压缩包流分片上传
      */
-    private String uploadOriginalCompressedFile(String experimentId, String taskId, 
-            InputStream compressedFile, String filename, String contentType, long fileSize) throws Exception {
-        String basePath = generateExperimentResourceBasePath(experimentId, taskId);
-        String compressedFilePath = basePath + "original/" + generateUniqueFileName(filename);
-        
-        return uploadToResourceBucket(compressedFilePath, compressedFile, fileSize, contentType);
+    private void uploadEntry(ExtractionContext context, String entryName, InputStream entryStream,
+            String extractionType) throws Exception {
+        String objectName = context.objectName(entryName);
+        String mimeType = detectMimeTypeFromFilename(entryName);
+        InputStream bounded = context.bound(entryStream);
+
+        // 多读1个字节，用于判断文件是否超过缓存大小
+        byte[] head = bounded.readNBytes(ENTRY_BUFFER_SIZE + 1);
+        if (head.length <= ENTRY_BUFFER_SIZE) {
+            context.submit(() -> uploadToResourceBucket(objectName, new ByteArrayInputStream(head),
+                    head.length, mimeType));
+        } else {
+            context.uploaded.add(uploadToResourceBucket(objectName,
+                    new SequenceInputStream(new ByteArrayInputStream(head), bounded), -1, mimeType));
+        }
+
+        // 添加元数据记录目录结构
+        addDirectoryMetadata(objectName, entryName, extractionType);
+        context.files.add(objectName);
     }
 
     /**
@@ -1132,15 +1213,218 @@ public class MinioUtil {
     }
 
     /**
-     * 读取输入流的所有字节
+     * 单次解压的状态：文件数和解压字节数限制、上传窗口及已提交的上传任务
      */
-    private byte[] readAllBytes(InputStream inputStream) throws Exception {
-        ByteArrayOutputStream buffer = new ByteArrayOutputStream();
-        byte[] data = new byte[1024];
-        int len;
-        while ((len = inputStream.read(data)) != -1) {
-            buffer.write(data, 0, len);
+    private final class ExtractionContext {
+        private final String basePath;
+        private final long maxTotalBytes = minioConfig.getExtract().getMaxTotalBytes();
+        private final int maxEntries = minioConfig.getExtract().getMaxEntries();
+        private final Semaphore uploadPermits = new Semaphore(Math.max(1, minioConfig.getExtract().getUploadConcurrency()));
+        private final List<Future<String>> uploads = new ArrayList<>();
+        private final List<String> files = new ArrayList<>();
+        // 已经上传成功的对象，失败时需要删除
+        private final Queue<String> uploaded = new ConcurrentLinkedQueue<>();
+        private int entryCount;
+        private long uncompressedBytes;
+
+        private ExtractionContext(String basePath) {
+            this.basePath = basePath;
+        }
+
+        void countEntry() {
+            if (++entryCount > maxEntries) {
+                throw new RuntimeException("压缩包中的文件数超过限制（" + maxEntries + " 个）");
+            }
+        }
+
+        /**
+         * 生成文件的对象路径，拒绝试图跳出任务目录的文件名
+         */
+        String objectName(String entryName) {
+            String normalized = entryName.replace('\\', '/');
+            if (normalized.startsWith("/") || Arrays.asList(normalized.split("/")).contains("..")) {
+                throw new RuntimeException("压缩包中的文件路径不合法: " + entryName);
+            }
+            return basePath + normalized;
+        }
+
+        /**
+         * 包装文件流：累计解压字节数，超过限制时立即失败；关闭时不关闭压缩包流
+         */
+        InputStream bound(InputStream entryStream) {
+            return new FilterInputStream(entryStream) {
+                @Override
+                public int read() throws IOException {
+                    int b = super.read();
+                    if (b >= 0) {
+                        consume(1);
+                    }
+                    return b;
+                }
+
+                @Override
+                public int read(byte[] buffer, int offset, int length) throws IOException {
+                    int n = super.read(buffer, offset, length);
+                    if (n > 0) {
+                        consume(n);
+                    }
+                    return n;
+                }
+
+                @Override
+                public void close() {
+                }
+            };
+        }
+
+        private void consume(long bytes) {
+            uncompressedBytes += bytes;
+            if (uncompressedBytes > maxTotalBytes) {
+                throw new RuntimeException("解压后的文件总大小超过限制（" + maxTotalBytes + " 字节）");
+            }
+        }
+
+        /**
+         * 提交一个上传任务，上传窗口已满时等待
+         */
+        void submit(Callable<String> upload) throws InterruptedException {
+            uploadPermits.acquire();
+            try {
+                uploads.add(uploadExecutor.submit(() -> {
+                    try {
+                        String objectName = upload.call();
+                        uploaded.add(objectName);
+                        return objectName;
+                    } finally {
+                        uploadPermits.release();
+                    }
+                }));
+            } catch (RejectedExecutionException e) {
+                uploadPermits.release();
+                throw e;
+            }
+        }
+
+        void awaitUploads() throws Exception {
+            for (Future<String> upload : uploads) {
+                upload.get();
+            }
+        }
+
+        /**
+         * 等待所有已提交的上传结束（忽略失败），返回上传成功的对象
+         */
+        List<String> awaitUploadedObjects() {
+            for (Future<String> upload : uploads) {
+                try {
+                    upload.get();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    break;
+                } catch (ExecutionException ignored) {
+                    // 失败的上传没有写入对象
+                }
+            }
+            return new ArrayList<>(uploaded);
+        }
+    }
+
+    /**
+     * 可中止的管道输入流：中止后读到结尾时抛出异常，而不是当作正常结束
+     */
+    private static final class AbortablePipedInputStream extends PipedInputStream {
+        private volatile boolean aborted;
+
+        private AbortablePipedInputStream(int pipeSize) {
+            super(pipeSize);
+        }
+
+        void abort() {
+            aborted = true;
+        }
+
+        @Override
+        public synchronized int read() throws IOException {
+            return checkAborted(super.read());
+        }
+
+        @Override
+        public synchronized int read(byte[] buffer, int offset, int length) throws IOException {
+            return checkAborted(super.read(buffer, offset, length));
+        }
+
+        private int checkAborted(int result) throws ArchiveAbortedException {
+            if (result < 0 && aborted) {
+                throw new ArchiveAbortedException();
+            }
+            return result;
+        }
+    }
+
+    /**
+     * 解压失败后中止原始压缩包上传时抛出
+     */
+    private static final class ArchiveAbortedException extends IOException {
+        private ArchiveAbortedException() {
+            super("解压失败，已中止原始压缩包的上传");
+        }
+    }
+
+    /**
+     * 读取时将字节同时写入另一个输出流（用于边解压边上传原始压缩包）
+     */
+    private static final class TeeInputStream extends FilterInputStream {
+        private final OutputStream branch;
+        private long bytesRead;
+
+        private TeeInputStream(InputStream in, OutputStream branch) {
+            super(in);
+            this.branch = branch;
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = super.read();
+            if (b >= 0) {
+                branch.write(b);
+                bytesRead++;
+            }
+            return b;
+        }
+
+        @Override
+        public int read(byte[] buffer, int offset, int length) throws IOException {
+            int n = super.read(buffer, offset, length);
+            if (n > 0) {
+                branch.write(buffer, offset, n);
+                bytesRead += n;
+            }
+            return n;
+        }
+
+        @Override
+        public long skip(long n) throws IOException {
+            // 跳过的字节也要写入分支，逐块读取代替跳过
+            byte[] buffer = new byte[(int) Math.min(Math.max(n, 0), 8192)];
+            long skipped = 0;
+            while (skipped < n) {
+                int read = read(buffer, 0, (int) Math.min(buffer.length, n - skipped));
+                if (read < 0) {
+                    break;
+                }
+                skipped += read;
+            }
+            return skipped;
+        }
+
+        @Override
+        public boolean markSupported() {
+            return false;
+        }
+
+        @Override
+        public void close() {
+            // 压缩包流由调用方关闭
         }
-        return buffer.toByteArray();
     }
 }
@@ -176,6 +176,35 @@ class ResourceServiceImplTest {
         verify(resourceRepository, never()).save(any(Resource.class));
     }
 
+    @Test
+    void uploadResource_ShouldStreamArchiveToExtractor_WhenAutoExtract() throws Exception {
+        // Given
+        ResourceRequestDTO extractRequest = ResourceRequestDTO.builder()
+                .experimentId("exp-001")
+                .taskId("task-1")
+                .uploadType("experiment")
+                .autoExtract(Boolean.TRUE)
+                .build();
+        MultipartFile archive = new MockMultipartFile("file", "project.zip", "application/zip",
+                "zip content".getBytes());
+        when(experimentServiceClient.experimentExists("exp-001")).thenReturn(Result.success(Boolean.TRUE));
+        when(minioUtil.isCompressedFile("project.zip")).thenReturn(true);
+        when(minioUtil.extractAndUploadCompressedFile(eq("exp-001"), eq("task-1"), any(), eq("project.zip"),
+                eq("application/zip")))
+                .thenReturn(List.of("exp-001/experiment/task-1/run.sh",
+                        "exp-001/experiment/task-1/original/project.zip"));
+        when(resourceRepository.save(any(Resource.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        // When
+        ResourceDTO result = resourceService.uploadResource(archive, extractRequest);
+
+        // Then：压缩包交给流式解压，不再整体上传，每个解压出的对象各有一条记录
+        assertThat(result.getResourcePath()).isEqualTo("exp-001/experiment/task-1/run.sh");
+        verify(minioUtil, never()).uploadExperimentResource(any(), any(), any(), anyLong(), any(), any());
+        verify(resourceRepository, times(2)).save(any(Resource.class));
+        verify(experimentServiceClient).invalidateEvaluationCache("exp-001");
+    }
+
     // ==================== getResourcesByExperimentId 测试 ====================
 
     @Test
@@ -0,0 +1,220 @@
+package org.linghu.resource.utils;
+
+import io.minio.MinioClient;
+import io.minio.PutObjectArgs;
+import io.minio.RemoveObjectsArgs;
+import org.apache.commons.compress.archivers.tar.TarArchiveEntry;
+import org.apache.commons.compress.archivers.tar.TarArchiveOutputStream;
+import org.apache.commons.compress.compressors.gzip.GzipCompressorOutputStream;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.linghu.resource.config.MinioConfig;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.when;
+
+/**
+ * MinioUtil 流式解压测试
+ */
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class MinioUtilTest {
+
+    @Mock
+    private MinioClient minioClient;
+
+    @Mock
+    private MinioConfig minioConfig;
+
+    private final MinioConfig.Extract extract = new MinioConfig.Extract();
+    private final Map<String, byte[]> uploaded = new ConcurrentHashMap<>();
+    private MinioUtil minioUtil;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        extract.setUploadConcurrency(2);
+        when(minioConfig.getBucketName()).thenReturn("linghuzhiyan");
+        when(minioConfig.getExtract()).thenReturn(extract);
+        // 记录每个上传对象的内容
+        when(minioClient.putObject(any(PutObjectArgs.class))).thenAnswer(invocation -> {
+            PutObjectArgs args = invocation.getArgument(0);
+            uploaded.put(args.object(), args.stream().readAllBytes());
+            return null;
+        });
+        minioUtil = new MinioUtil(minioClient, minioConfig);
+    }
+
+    @AfterEach
+    void tearDown() {
+        minioUtil.shutdown();
+    }
+
+    @Test
+    void extractAndUploadCompressedFile_ShouldStreamEntriesAndAppendOriginalArchive() throws Exception {
+        // Given
+        byte[] zip = zip(Map.of("src/Main.java", "class Main {}", "run.sh", "./main\n"), true);
+
+        // When
+        List<String> paths = minioUtil.extractAndUploadCompressedFile("exp1", "task1",
+                new ByteArrayInputStream(zip), "project.zip", "application/zip");
+
+        // Then：目录条目不上传，原始压缩包放在最后且内容完整
+        assertEquals(3, paths.size());
+        assertEquals(List.of("exp1/experiment/task1/run.sh", "exp1/experiment/task1/src/Main.java"),
+                paths.subList(0, 2));
+        assertTrue(paths.get(2).startsWith("exp1/experiment/task1/original/"));
+        assertEquals("class Main {}",
+                new String(uploaded.get("exp1/experiment/task1/src/Main.java"), StandardCharsets.UTF_8));
+        assertArrayEquals(zip, uploaded.get(paths.get(2)));
+    }
+
+    @Test
+    void extractAndUploadArchive_WithTarGz_ShouldHashWholeArchive() throws Exception {
+        // Given
+        byte[] tarGz = tarGz(Map.of("data/input.txt", "1 2\n", "run.sh", "python3 main.py\n"));
+
+        // When
+        ArchiveExtraction extraction = minioUtil.extractAndUploadArchive("exp1", null,
+                new ByteArrayInputStream(tarGz), "project.tar.gz", "application/gzip");
+
+        // Then
+        assertEquals(List.of("exp1/experiment/data/input.txt", "exp1/experiment/run.sh"), extraction.files());
+        assertEquals("1 2\n", new String(uploaded.get("exp1/experiment/data/input.txt"), StandardCharsets.UTF_8));
+        assertArrayEquals(tarGz, uploaded.get(extraction.originalPath()));
+        assertEquals(HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(tarGz)),
+                extraction.sha256());
+        assertEquals(tarGz.length, extraction.archiveBytes());
+        assertEquals(20, extraction.uncompressedBytes());
+    }
+
+    @Test
+    void extractAndUploadArchive_WhenUncompressedSizeExceedsLimit_ShouldFail() throws Exception {
+        // Given：高压缩比的文件
+        extract.setMaxTotalBytes(1024);
+        byte[] zip = zip(Map.of("bomb.txt", "0".repeat(1024 * 1024)), false);
+
+        // When & Then
+        Exception exception = assertThrows(Exception.class, () -> minioUtil.extractAndUploadArchive("exp1", "task1",
+                new ByteArrayInputStream(zip), "bomb.zip", "application/zip"));
+        assertTrue(exception.getMessage().contains("解压后的文件总大小超过限制"));
+    }
+
+    @Test
+    void extractAndUploadArchive_WithPathOutsideTask_ShouldFail() throws Exception {
+        // Given
+        byte[] zip = zip(Map.of("../task2/run.sh", "rm -rf /"), false);
+
+        // When & Then
+        Exception exception = assertThrows(Exception.class, () -> minioUtil.extractAndUploadArchive("exp1", "task1",
+                new ByteArrayInputStream(zip), "project.zip", "application/zip"));
+        assertTrue(exception.getMessage().contains("压缩包中的文件路径不合法"));
+    }
+
+    @Test
+    void extractAndUploadArchive_WhenOriginalUploadFails_ShouldReportUploadCauseAndDeleteExtractedFiles()
+            throws Exception {
+        // Given
+        List<String> deleted = captureDeletes();
+        when(minioClient.putObject(any(PutObjectArgs.class))).thenAnswer(invocation -> {
+            PutObjectArgs args = invocation.getArgument(0);
+            if (args.object().contains("/original/")) {
+                throw new IOException("bucket quota exceeded");
+            }
+            uploaded.put(args.object(), args.stream().readAllBytes());
+            return null;
+        });
+        byte[] zip = zip(Map.of("a.c", "int a;", "b.c", "int b;"), false);
+
+        // When
+        Exception exception = assertThrows(Exception.class, () -> minioUtil.extractAndUploadArchive("exp1", "task1",
+                new ByteArrayInputStream(zip), "project.zip", "application/zip"));
+
+        // Then：报告上传失败的原因而不是管道关闭，已解压上传的文件被删除
+        assertTrue(exception.getMessage().contains("bucket quota exceeded"));
+        assertEquals(uploaded.keySet(), Set.copyOf(deleted));
+    }
+
+    @Test
+    void extractAndUploadArchive_WhenTooManyEntries_ShouldAbortOriginalAndDeleteExtractedFiles() throws Exception {
+        // Given
+        List<String> deleted = captureDeletes();
+        extract.setMaxEntries(2);
+        byte[] zip = zip(Map.of("a.c", "int a;", "b.c", "int b;", "c.c", "int c;"), false);
+
+        // When
+        Exception exception = assertThrows(Exception.class, () -> minioUtil.extractAndUploadArchive("exp1", "task1",
+                new ByteArrayInputStream(zip), "project.zip", "application/zip"));
+
+        // Then：不完整的原始压缩包不会作为对象写入
+        assertTrue(exception.getMessage().contains("压缩包中的文件数超过限制"));
+        assertEquals(Set.of("exp1/experiment/task1/a.c", "exp1/experiment/task1/b.c"), uploaded.keySet());
+        assertEquals(uploaded.keySet(), Set.copyOf(deleted));
+    }
+
+    /**
+     * 记录被删除的对象
+     */
+    private List<String> captureDeletes() {
+        List<String> deleted = new CopyOnWriteArrayList<>();
+        when(minioClient.removeObjects(any(RemoveObjectsArgs.class))).thenAnswer(invocation -> {
+            RemoveObjectsArgs args = invocation.getArgument(0);
+            // DeleteObject 没有公开对象名，通过字段读取
+            args.objects().forEach(object -> deleted.add((String) ReflectionTestUtils.getField(object, "name")));
+            return List.of();
+        });
+        return deleted;
+    }
+
+    private static byte[] zip(Map<String, String> files, boolean withDirectory) throws Exception {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ZipOutputStream zos = new ZipOutputStream(bytes)) {
+            if (withDirectory) {
+                zos.putNextEntry(new ZipEntry("src/"));
+                zos.closeEntry();
+            }
+            for (String name : files.keySet().stream().sorted().toList()) {
+                zos.putNextEntry(new ZipEntry(name));
+                zos.write(files.get(name).getBytes(StandardCharsets.UTF_8));
+                zos.closeEntry();
+            }
+        }
+        return bytes.toByteArray();
+    }
+
+    private static byte[] tarGz(Map<String, String> files) throws Exception {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (TarArchiveOutputStream tos = new TarArchiveOutputStream(new GzipCompressorOutputStream(bytes))) {
+            for (String name : files.keySet().stream().sorted().toList()) {
+                byte[] content = files.get(name).getBytes(StandardCharsets.UTF_8);
+                TarArchiveEntry entry = new TarArchiveEntry(name);
+                entry.setSize(content.length);
+                tos.putArchiveEntry(entry);
+                tos.write(content);
+                tos.closeArchiveEntry();
+            }
+        }
+        return bytes.toByteArray();
+    }
+}